@@ -0,0 +1,47 @@
+/*
+ * Copyright (c) 2008-2016, GigaSpaces Technologies, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.gigaspaces.async;
+
+/**
+ * Folds the {@link com.gigaspaces.async.AsyncResult}s of a distributed execution into a result as
+ * they arrive, instead of holding all of them until they can be reduced.
+ *
+ * <p>An accumulator is created per execution (see {@link IncrementalAsyncResultsReducer}) and
+ * {@link #accumulate(AsyncResult)} is never called concurrently for the same accumulator.
+ *
+ * @since 14.2
+ */
+public interface AsyncResultsAccumulator<T, R> {
+
+    /**
+     * Folds the given result into the accumulated result.
+     *
+     * @return <code>true</code> to keep processing the remaining results, <code>false</code> to
+     * complete the execution with the current accumulated result without waiting for the remaining
+     * results.
+     * @throws Exception An exception that completes the execution and will be propagated to the
+     *                   client
+     */
+    boolean accumulate(AsyncResult<T> result) throws Exception;
+
+    /**
+     * Returns the accumulated result. Called once the execution is completed, either since all the
+     * results arrived or since {@link #accumulate(AsyncResult)} returned <code>false</code>.
+     */
+    R getResult() throws Exception;
+}
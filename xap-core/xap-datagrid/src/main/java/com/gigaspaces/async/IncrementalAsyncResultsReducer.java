@@ -0,0 +1,41 @@
+/*
+ * Copyright (c) 2008-2016, GigaSpaces Technologies, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.gigaspaces.async;
+
+/**
+ * A {@link com.gigaspaces.async.AsyncResultsReducer} that can reduce the results incrementally.
+ * When a distributed task (or the reducer of compound futures) implements this interface, each
+ * result is folded into an {@link AsyncResultsAccumulator} as soon as it arrives, so the results are
+ * not held until the execution completes and the execution can complete before all of the results
+ * arrive (for example once enough results were received). {@link #reduce(java.util.List)} is not
+ * called in that case.
+ *
+ * <p>Note that an {@link com.gigaspaces.async.AsyncResultFilter} implemented by the same task is
+ * not consulted when the results are accumulated, early completion is controlled by the
+ * accumulator.
+ *
+ * @since 14.2
+ */
+public interface IncrementalAsyncResultsReducer<T, R> extends AsyncResultsReducer<T, R> {
+
+    /**
+     * Creates a new accumulator for a single execution, or <code>null</code> in which case the
+     * results are reduced using {@link #reduce(java.util.List)}.
+     */
+    AsyncResultsAccumulator<T, R> createAccumulator();
+}
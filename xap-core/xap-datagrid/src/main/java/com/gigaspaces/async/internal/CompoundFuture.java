@@ -21,7 +21,9 @@ import com.gigaspaces.async.AsyncFutureListener;
 import com.gigaspaces.async.AsyncResult;
 import com.gigaspaces.async.AsyncResultFilter;
 import com.gigaspaces.async.AsyncResultFilterEvent;
+import com.gigaspaces.async.AsyncResultsAccumulator;
 import com.gigaspaces.async.AsyncResultsReducer;
+import com.gigaspaces.async.IncrementalAsyncResultsReducer;
 import com.gigaspaces.lrmi.nio.async.FutureContext;
 
 import java.util.ArrayList;
@@ -54,6 +56,13 @@ public class CompoundFuture<T, R> implements AsyncFuture<R>, AsyncFutureListener
 
     private final AsyncResultFilter<T> moderator;
 
+    // when set results are folded as they arrive and replies remain empty
+    private final AsyncResultsAccumulator<T, R> accumulator;
+
+    private R accumulatedResult;
+
+    private Exception accumulationError;
+
     final private Lock _lock = new ReentrantLock();
     final private Condition _resultCondition = _lock.newCondition();
 
@@ -70,7 +79,8 @@ public class CompoundFuture<T, R> implements AsyncFuture<R>, AsyncFutureListener
     public CompoundFuture(AsyncFuture<T>[] futures, AsyncResultsReducer<T, R> reducer, AsyncResultFilter<T> moderator) {
         this.reducer = reducer;
         this.moderator = moderator;
-        this.replies = new ArrayList<AsyncResult<T>>(futures.length);
+        this.accumulator = reducer instanceof IncrementalAsyncResultsReducer ? ((IncrementalAsyncResultsReducer<T, R>) reducer).createAccumulator() : null;
+        this.replies = new ArrayList<AsyncResult<T>>(accumulator != null ? 0 : futures.length);
         maxResults = futures.length;
 
         this.listener = FutureContext.getFutureListener();
@@ -186,23 +196,31 @@ public class CompoundFuture<T, R> implements AsyncFuture<R>, AsyncFutureListener
 
             boolean lastResult = receivedResults == maxResults;
 
-            AsyncResultFilter.Decision decision = invokeAsyncResultFilter(result);
-            switch (decision) {
-                case CONTINUE:
-                    replies.add(result);
-                    break;
-                case SKIP:
-                    break;
-                case BREAK:
-                    replies.add(result);
-                    lastResult = true;
-                    break;
-                case SKIP_AND_BREAK:
+            if (accumulator != null) {
+                if (!accumulate(result))
                     lastResult = true;
-                    break;
+                if (!lastResult)
+                    return;
+                completeAccumulation();
+            } else {
+                AsyncResultFilter.Decision decision = invokeAsyncResultFilter(result);
+                switch (decision) {
+                    case CONTINUE:
+                        replies.add(result);
+                        break;
+                    case SKIP:
+                        break;
+                    case BREAK:
+                        replies.add(result);
+                        lastResult = true;
+                        break;
+                    case SKIP_AND_BREAK:
+                        lastResult = true;
+                        break;
+                }
+                if (!lastResult)
+                    return;
             }
-            if (!lastResult)
-                return;
 
             done = true;
         }
@@ -227,7 +245,31 @@ public class CompoundFuture<T, R> implements AsyncFuture<R>, AsyncFutureListener
         }
     }
 
+    private boolean accumulate(AsyncResult<T> result) {
+        try {
+            return accumulator.accumulate(result);
+        } catch (Exception e) {
+            accumulationError = e;
+            return false;
+        }
+    }
+
+    private void completeAccumulation() {
+        if (accumulationError != null)
+            return;
+        try {
+            accumulatedResult = accumulator.getResult();
+        } catch (Exception e) {
+            accumulationError = e;
+        }
+    }
+
     private R getResult() throws ExecutionException {
+        if (accumulator != null) {
+            if (accumulationError != null)
+                throw new ExecutionException(accumulationError);
+            return accumulatedResult;
+        }
         List<AsyncResult<T>> res;
         synchronized (replies) {
             res = new ArrayList<AsyncResult<T>>(replies.size());
@@ -527,6 +527,30 @@ public abstract class AbstractSpaceProxy implements ISpaceProxy {
         return _actionManager.aggregate(template, aggregationSet, txn, readModifiers);
     }
 
+    @Override
+    public AsyncFuture<?> asyncWrite(Object entry, Transaction txn, long lease, long timeout, int modifiers, AsyncFutureListener listener)
+            throws RemoteException {
+        return _actionManager.asyncWrite(entry, txn, lease, timeout, modifiers, listener);
+    }
+
+    @Override
+    public AsyncFuture<?> asyncReadMultiple(Object template, Transaction txn, int maxEntries, int modifiers, AsyncFutureListener listener)
+            throws RemoteException {
+        return _actionManager.asyncReadMultiple(template, txn, maxEntries, modifiers, listener);
+    }
+
+    @Override
+    public AsyncFuture<?> asyncCount(Object template, Transaction txn, int modifiers, AsyncFutureListener listener)
+            throws RemoteException {
+        return _actionManager.asyncCount(template, txn, modifiers, listener);
+    }
+
+    @Override
+    public AsyncFuture<?> asyncAggregate(Object template, AggregationSet aggregationSet, Transaction txn, int readModifiers, AsyncFutureListener listener)
+            throws RemoteException {
+        return _actionManager.asyncAggregate(template, aggregationSet, txn, readModifiers, listener);
+    }
+
     //Flush to main memory
     public synchronized void setAppDomainId(int appDomainId) {
         _associatedAppDomainId = appDomainId;
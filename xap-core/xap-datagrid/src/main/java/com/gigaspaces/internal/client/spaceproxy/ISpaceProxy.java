@@ -266,4 +266,37 @@ public interface ISpaceProxy extends IJSpace, ActionMaker, SecuredService, IDotn
     <T> Future<ChangeResult<T>> asyncChange(Object template, ChangeSet changeSet, Transaction txn, long timeout, ChangeModifiers modifiers, AsyncFutureListener<ChangeResult<T>> listener) throws RemoteException;
 
     AggregationResult aggregate(Object template, AggregationSet aggregationSet, Transaction txn, int readModifiers) throws RemoteException, TransactionException, InterruptedException;
+
+    /**
+     * Internal methods only. Writes the given entry to the space without blocking the calling
+     * thread. The returned future is completed with the {@link com.j_spaces.core.LeaseContext} of
+     * the written entry.
+     *
+     * @since 14.2
+     */
+    AsyncFuture asyncWrite(Object entry, Transaction txn, long lease, long timeout, int modifiers, AsyncFutureListener listener) throws RemoteException;
+
+    /**
+     * Internal methods only. Reads all the entries matching the template, up to maxEntries, without
+     * blocking the calling thread. The returned future is completed with the matching objects.
+     *
+     * @since 14.2
+     */
+    AsyncFuture asyncReadMultiple(Object template, Transaction txn, int maxEntries, int modifiers, AsyncFutureListener listener) throws RemoteException;
+
+    /**
+     * Internal methods only. Counts the entries matching the template without blocking the calling
+     * thread. The returned future is completed with the count.
+     *
+     * @since 14.2
+     */
+    AsyncFuture asyncCount(Object template, Transaction txn, int modifiers, AsyncFutureListener listener) throws RemoteException;
+
+    /**
+     * Internal methods only. Aggregates the entries matching the template without blocking the
+     * calling thread. The returned future is completed with the {@link AggregationResult}.
+     *
+     * @since 14.2
+     */
+    AsyncFuture asyncAggregate(Object template, AggregationSet aggregationSet, Transaction txn, int readModifiers, AsyncFutureListener listener) throws RemoteException;
 }
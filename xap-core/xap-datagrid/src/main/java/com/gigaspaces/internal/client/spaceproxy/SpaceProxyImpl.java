@@ -18,6 +18,12 @@ package com.gigaspaces.internal.client.spaceproxy;
 
 import com.gigaspaces.admin.quiesce.QuiesceToken;
 import com.gigaspaces.client.DirectSpaceProxyFactory;
+import com.gigaspaces.events.AbstractDataEventSession;
+import com.gigaspaces.events.DataEventSessionFactory;
+import com.gigaspaces.events.EventSessionConfig;
+import com.gigaspaces.events.NotifyActionType;
+import com.gigaspaces.events.NotifyInfo;
+import com.gigaspaces.events.batching.BatchRemoteEventListener;
 import com.gigaspaces.internal.client.spaceproxy.actioninfo.CommonProxyActionInfo;
 import com.gigaspaces.internal.client.spaceproxy.actioninfo.SnapshotProxyActionInfo;
 import com.gigaspaces.internal.client.spaceproxy.actions.AbstractSpaceProxyActionManager;
@@ -29,6 +35,7 @@ import com.gigaspaces.internal.client.spaceproxy.metadata.SpaceProxyTypeManager;
 import com.gigaspaces.internal.client.spaceproxy.operations.GetEntryTypeDescriptorSpaceOperationRequest;
 import com.gigaspaces.internal.client.spaceproxy.operations.RegisterEntryTypeDescriptorSpaceOperationRequest;
 import com.gigaspaces.internal.client.spaceproxy.operations.SpaceOperationRequest;
+import com.gigaspaces.internal.client.spaceproxy.operations.WriteEntriesSpaceOperationRequest;
 import com.gigaspaces.internal.client.spaceproxy.router.SpaceProxyRouter;
 import com.gigaspaces.internal.client.spaceproxy.transaction.SpaceProxyTransactionManager;
 import com.gigaspaces.internal.cluster.SpaceClusterInfo;
@@ -36,6 +43,7 @@ import com.gigaspaces.internal.metadata.ITypeDesc;
 import com.gigaspaces.internal.server.space.IRemoteSpace;
 import com.gigaspaces.internal.server.space.SpaceImpl;
 import com.gigaspaces.admin.demote.DemoteFailedException;
+import com.gigaspaces.internal.transport.IEntryPacket;
 import com.gigaspaces.internal.transport.ITemplatePacket;
 import com.gigaspaces.internal.version.PlatformLogicalVersion;
 import com.gigaspaces.logger.Constants;
@@ -47,6 +55,7 @@ import com.gigaspaces.security.directory.CredentialsProvider;
 import com.j_spaces.core.IJSpace;
 import com.j_spaces.core.IJSpaceContainer;
 import com.j_spaces.core.IStubHandler;
+import com.j_spaces.core.LeaseContext;
 import com.j_spaces.core.OperationID;
 import com.j_spaces.core.SpaceContext;
 import com.j_spaces.core.admin.ContainerConfig;
@@ -61,6 +70,7 @@ import com.j_spaces.core.client.LookupFinder;
 import com.j_spaces.core.client.Modifiers;
 import com.j_spaces.core.client.NullProxySecurityManager;
 import com.j_spaces.core.client.ProxySettings;
+import com.j_spaces.core.client.SQLQuery;
 import com.j_spaces.core.client.SpaceProxySecurityManager;
 import com.j_spaces.core.client.SpaceURL;
 import com.j_spaces.core.client.UpdateModifiers;
@@ -73,10 +83,13 @@ import com.sun.jini.proxy.MarshalPivot;
 import com.sun.jini.proxy.MarshalPivotProvider;
 
 import net.jini.admin.Administrable;
+import net.jini.core.lease.Lease;
 import net.jini.core.transaction.Transaction;
 import net.jini.core.transaction.TransactionException;
 import net.jini.core.transaction.server.ServerTransaction;
 import net.jini.id.Uuid;
+import net.jini.lease.LeaseListener;
+import net.jini.lease.LeaseRenewalEvent;
 import net.jini.lookup.SameProxyVersionProvider;
 
 import java.io.IOException;
@@ -111,6 +124,8 @@ public class SpaceProxyImpl extends AbstractDirectSpaceProxy implements SameProx
     private final ISpaceProxyTypeManager _typeManager;
     private final IQueryManager _queryManager;
     private final SpaceProxyDataEventsManager _dataEventsManager;
+    private final SpaceProxyWriteCoalescer _writeCoalescer;
+    private final SpaceProxyReadByIdCache _readByIdCache;
 
     private boolean _initializedNewRouter;
     private SpaceProxyRouter _proxyRouter;
@@ -129,6 +144,8 @@ public class SpaceProxyImpl extends AbstractDirectSpaceProxy implements SameProx
         this._queryManager = new QueryManager(this);
         this._typeManager = new SpaceProxyTypeManager(this);
         this._dataEventsManager = new SpaceProxyDataEventsManager(this, _proxySettings.getExportedTransportConfig());
+        this._writeCoalescer = createWriteCoalescer();
+        this._readByIdCache = createReadByIdCache();
 
         // set properties attached to space url
         getURL().setPropertiesForSpaceProxy(this);
@@ -142,6 +159,108 @@ public class SpaceProxyImpl extends AbstractDirectSpaceProxy implements SameProx
         }
     }
 
+    private SpaceProxyWriteCoalescer createWriteCoalescer() {
+        if (!Boolean.parseBoolean(System.getProperty(SystemProperties.SPACE_PROXY_WRITE_COALESCING_ENABLED,
+                SystemProperties.SPACE_PROXY_WRITE_COALESCING_ENABLED_DEFAULT)))
+            return null;
+        long lingerMicros = Long.getLong(SystemProperties.SPACE_PROXY_WRITE_COALESCING_LINGER_MICROS,
+                SystemProperties.SPACE_PROXY_WRITE_COALESCING_LINGER_MICROS_DEFAULT);
+        int maxBatchSize = Integer.getInteger(SystemProperties.SPACE_PROXY_WRITE_COALESCING_MAX_BATCH_SIZE,
+                SystemProperties.SPACE_PROXY_WRITE_COALESCING_MAX_BATCH_SIZE_DEFAULT);
+        return new SpaceProxyWriteCoalescer(lingerMicros, maxBatchSize, _clientLogger) {
+            @Override
+            protected LeaseContext<?>[] writeMultiple(Object[] entries, IEntryPacket[] entryPackets,
+                                                      long[] leases, long timeout, int modifiers)
+                    throws RemoteException, TransactionException, InterruptedException {
+                WriteEntriesSpaceOperationRequest request = new WriteEntriesSpaceOperationRequest(getTypeManager(),
+                        entries, entryPackets, null, Long.MIN_VALUE, leases, timeout, modifiers);
+                getProxyRouter().execute(request);
+                return request.getFinalResult();
+            }
+        };
+    }
+
+    /**
+     * Returns the coalescer of concurrent single entry writes, or null if write coalescing is
+     * disabled.
+     */
+    public SpaceProxyWriteCoalescer getWriteCoalescer() {
+        return _writeCoalescer;
+    }
+
+    private SpaceProxyReadByIdCache createReadByIdCache() {
+        if (!Boolean.parseBoolean(System.getProperty(SystemProperties.SPACE_PROXY_READ_BY_ID_CACHE_ENABLED,
+                SystemProperties.SPACE_PROXY_READ_BY_ID_CACHE_ENABLED_DEFAULT)))
+            return null;
+        int size = Integer.getInteger(SystemProperties.SPACE_PROXY_READ_BY_ID_CACHE_SIZE,
+                SystemProperties.SPACE_PROXY_READ_BY_ID_CACHE_SIZE_DEFAULT);
+        final int batchSize = Integer.getInteger(SystemProperties.SPACE_PROXY_READ_BY_ID_CACHE_INVALIDATION_BATCH_SIZE,
+                SystemProperties.SPACE_PROXY_READ_BY_ID_CACHE_INVALIDATION_BATCH_SIZE_DEFAULT);
+        final long batchTime = Long.getLong(SystemProperties.SPACE_PROXY_READ_BY_ID_CACHE_INVALIDATION_BATCH_TIME,
+                SystemProperties.SPACE_PROXY_READ_BY_ID_CACHE_INVALIDATION_BATCH_TIME_DEFAULT);
+        return new SpaceProxyReadByIdCache(size, _clientLogger) {
+            // Modified under the cache registration lock
+            private volatile AbstractDataEventSession _session;
+
+            @Override
+            protected void registerInvalidationListener(String typeName, BatchRemoteEventListener listener)
+                    throws RemoteException {
+                if (_session == null)
+                    _session = createSession();
+                NotifyInfo notifyInfo = _session.createNotifyInfo(listener,
+                        NotifyActionType.NOTIFY_UPDATE.or(NotifyActionType.NOTIFY_TAKE).or(NotifyActionType.NOTIFY_LEASE_EXPIRATION))
+                        .setReturnOnlyUids(true);
+                // An empty query matches all the entries of the type, an empty packet cannot be indexed by the space
+                _session.addListener(new SQLQuery<Object>(typeName, ""), Lease.FOREVER, notifyInfo);
+            }
+
+            private AbstractDataEventSession createSession() {
+                EventSessionConfig config = new EventSessionConfig();
+                // Durable notifications survive failover, and a disconnection which loses events is reported
+                // to the lease listener like a lease renewal failure
+                SpaceClusterInfo clusterInfo = getSpaceClusterInfo();
+                if (clusterInfo.isReplicated() && !clusterInfo.isActiveActive())
+                    config.setDurableNotifications(true);
+                config.setBatch(batchSize, batchTime);
+                final AbstractDataEventSession[] session = new AbstractDataEventSession[1];
+                config.setAutoRenew(true, new LeaseListener() {
+                    @Override
+                    public void notify(LeaseRenewalEvent e) {
+                        onSessionLost(session[0], e.getException());
+                    }
+                });
+                session[0] = (AbstractDataEventSession) DataEventSessionFactory.create(SpaceProxyImpl.this, config);
+                return session[0];
+            }
+
+            private void onSessionLost(AbstractDataEventSession session, Throwable reason) {
+                // Ignore late notifications of a session which was already replaced
+                if (session != null && session == _session)
+                    onInvalidationListenersLost(reason);
+            }
+
+            @Override
+            protected void closeInvalidationListeners() {
+                if (_session == null)
+                    return;
+                try {
+                    _session.close();
+                } catch (Exception e) {
+                    if (_clientLogger.isLoggable(Level.FINE))
+                        _clientLogger.log(Level.FINE, "Failed to close read by id cache invalidation session", e);
+                }
+                _session = null;
+            }
+        };
+    }
+
+    /**
+     * Returns the near cache of read by id results, or null if it is disabled.
+     */
+    public SpaceProxyReadByIdCache getReadByIdCache() {
+        return _readByIdCache;
+    }
+
     private SpaceProxyImpl getOrCreateProxy(boolean isClustered) {
         if (isClustered() == isClustered)
             return this;
@@ -494,6 +613,9 @@ public class SpaceProxyImpl extends AbstractDirectSpaceProxy implements SameProx
 
         closed = true;
 
+        if (_readByIdCache != null)
+            _readByIdCache.close();
+
         if (_dataEventsManager != null)
             _dataEventsManager.close();
 
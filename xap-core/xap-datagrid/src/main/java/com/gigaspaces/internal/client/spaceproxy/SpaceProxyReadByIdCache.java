@@ -0,0 +1,418 @@
+/*
+ * Copyright (c) 2008-2016, GigaSpaces Technologies, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.gigaspaces.internal.client.spaceproxy;
+
+import com.gigaspaces.events.batching.BatchRemoteEvent;
+import com.gigaspaces.events.batching.BatchRemoteEventListener;
+import com.gigaspaces.internal.server.space.eviction.FrequencySketch;
+import com.gigaspaces.internal.transport.IEntryPacket;
+import com.j_spaces.core.client.EntryArrivedRemoteEvent;
+import com.j_spaces.core.client.ReadModifiers;
+
+import net.jini.core.event.RemoteEvent;
+import net.jini.core.transaction.Transaction;
+
+import java.rmi.RemoteException;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * A size bounded near cache of read by id results of a space proxy.
+ *
+ * The cache is split into segments, each guarded by its own lock, so concurrent reads of different
+ * entries do not contend. Entries are admitted per segment using a TinyLFU policy: once a segment
+ * is full a new entry replaces its least recently used one only if it was accessed more frequently
+ * recently. Cached entries are invalidated by update, take and lease expiration notifications of
+ * their type, which are registered once per type before the first entry of that type is cached and
+ * delivered in batches. If the notification registration is lost the cache is cleared and the
+ * listeners are registered again on demand.
+ *
+ * A read result is cached only if no invalidation of its entry arrived since the read was started,
+ * and never replaces a cached entry of a newer version. Reads are therefore eventually consistent
+ * with the space within the notification delay. The proxy also invalidates the entries it modifies
+ * itself once the modification completes, either by uid or by type and id, so its own
+ * modifications are visible to its following reads.
+ *
+ * @since 14.2
+ */
+@com.gigaspaces.api.InternalApi
+public abstract class SpaceProxyReadByIdCache {
+
+    private static final int MAX_SEGMENTS = 64;
+    private static final int MIN_SEGMENT_CAPACITY = 16;
+
+    private final Logger _logger;
+    private final ConcurrentMap<String, Boolean> _registeredTypes = new ConcurrentHashMap<String, Boolean>();
+    private final Object _registrationLock = new Object();
+    private final Segment[] _segments;
+    private final InvalidationStripe[] _invalidationStripes;
+    private final int _segmentMask;
+    private final ConcurrentMap<String, CacheKey> _uidIndex = new ConcurrentHashMap<String, CacheKey>();
+    private final AtomicLong _invalidationSequence = new AtomicLong();
+    // Reads which started before this sequence must not be cached
+    private volatile long _clearedSequence;
+    // Guarded by _registrationLock
+    private boolean _closed;
+
+    public SpaceProxyReadByIdCache(int capacity, Logger logger) {
+        this(capacity, Runtime.getRuntime().availableProcessors(), logger);
+    }
+
+    public SpaceProxyReadByIdCache(int capacity, int concurrencyLevel, Logger logger) {
+        if (capacity < 1)
+            throw new IllegalArgumentException("capacity must be positive [" + capacity + "]");
+        _logger = logger;
+        int numOfSegments = numOfSegmentsFor(capacity, concurrencyLevel);
+        int segmentCapacity = (capacity + numOfSegments - 1) / numOfSegments;
+        _segmentMask = numOfSegments - 1;
+        _segments = new Segment[numOfSegments];
+        _invalidationStripes = new InvalidationStripe[numOfSegments];
+        for (int i = 0; i < numOfSegments; i++) {
+            _segments[i] = new Segment(segmentCapacity);
+            _invalidationStripes[i] = new InvalidationStripe(Math.max(segmentCapacity, MIN_SEGMENT_CAPACITY));
+        }
+    }
+
+    private static int numOfSegmentsFor(int capacity, int concurrencyLevel) {
+        int numOfSegments = 1;
+        while (numOfSegments < concurrencyLevel && numOfSegments < MAX_SEGMENTS
+                && (numOfSegments << 1) * MIN_SEGMENT_CAPACITY <= capacity)
+            numOfSegments <<= 1;
+        return numOfSegments;
+    }
+
+    /**
+     * Registers the given listener for update, take and lease expiration notifications of all the
+     * entries of the given type.
+     */
+    protected abstract void registerInvalidationListener(String typeName, BatchRemoteEventListener listener)
+            throws RemoteException;
+
+    /**
+     * Unregisters all the listeners registered by {@link #registerInvalidationListener}. Called
+     * when the cache is closed or when the registrations are lost.
+     */
+    protected abstract void closeInvalidationListeners();
+
+    /**
+     * Returns true if a read by id with the given arguments may be served from the cache.
+     */
+    public static boolean isCacheable(Transaction txn, int modifiers, String[] projections) {
+        return txn == null
+                && (projections == null || projections.length == 0)
+                && !ReadModifiers.isExclusiveReadLock(modifiers)
+                && !ReadModifiers.isDirtyRead(modifiers)
+                && !ReadModifiers.isFifoGroupingPoll(modifiers);
+    }
+
+    /**
+     * Makes sure invalidations of the given type are delivered to the cache.
+     *
+     * @return false if the invalidation listener could not be registered and entries of this type
+     * should not be cached
+     */
+    public boolean ensureRegistered(String typeName) {
+        Boolean registered = _registeredTypes.get(typeName);
+        if (registered != null)
+            return registered;
+        synchronized (_registrationLock) {
+            if (_closed)
+                return false;
+            registered = _registeredTypes.get(typeName);
+            if (registered != null)
+                return registered;
+            try {
+                registerInvalidationListener(typeName, new InvalidationListener());
+                registered = Boolean.TRUE;
+            } catch (Exception e) {
+                if (_logger.isLoggable(Level.WARNING))
+                    _logger.log(Level.WARNING, "Failed to register read by id cache invalidation listener for type " + typeName
+                            + ", entries of this type will not be cached", e);
+                registered = Boolean.FALSE;
+            }
+            _registeredTypes.put(typeName, registered);
+            return registered;
+        }
+    }
+
+    /**
+     * Called when invalidations may no longer be delivered to the cache, e.g. when the
+     * notification lease could not be renewed or the space the listeners were registered on was
+     * lost. The cache is cleared and the listeners are registered again on demand.
+     */
+    public void onInvalidationListenersLost(Throwable reason) {
+        synchronized (_registrationLock) {
+            if (_closed)
+                return;
+            if (_logger.isLoggable(Level.WARNING))
+                _logger.log(Level.WARNING, "Read by id cache invalidation listeners were lost, clearing the cache", reason);
+            closeInvalidationListeners();
+            _registeredTypes.clear();
+        }
+        clear();
+    }
+
+    /**
+     * Unregisters the invalidation listeners and clears the cache, nothing is cached afterwards.
+     */
+    public void close() {
+        synchronized (_registrationLock) {
+            if (_closed)
+                return;
+            _closed = true;
+            closeInvalidationListeners();
+            _registeredTypes.clear();
+        }
+        clear();
+    }
+
+    /**
+     * Returns the cached entry with the given id, or null if it is not cached.
+     */
+    public IEntryPacket get(String typeName, Object id) {
+        CacheKey key = new CacheKey(typeName, id);
+        return segmentFor(key).get(key);
+    }
+
+    /**
+     * Returns the sequence of the last invalidation, to be passed to {@link #put} by a read which
+     * starts now.
+     */
+    public long getInvalidationSequence() {
+        return _invalidationSequence.get();
+    }
+
+    /**
+     * Caches the result of a read by id which started at the given invalidation sequence.
+     *
+     * @return true if the entry was cached
+     */
+    public boolean put(String typeName, Object id, IEntryPacket packet, long readSequence) {
+        String uid = packet.getUID();
+        if (uid == null || readSequence < _clearedSequence)
+            return false;
+        CacheKey key = new CacheKey(typeName, id);
+        InvalidationStripe stripe = stripeFor(uid);
+        synchronized (stripe) {
+            if (stripe.isInvalidatedAfter(uid, readSequence))
+                return false;
+            return segmentFor(key).put(key, uid, packet, readSequence);
+        }
+    }
+
+    /**
+     * Removes the entry with the given uid from the cache and prevents reads which are in flight
+     * from caching a stale copy of it.
+     */
+    public void invalidate(String uid) {
+        InvalidationStripe stripe = stripeFor(uid);
+        synchronized (stripe) {
+            stripe.invalidated(uid, _invalidationSequence.incrementAndGet());
+            CacheKey key = _uidIndex.remove(uid);
+            if (key != null)
+                segmentFor(key).remove(key, uid);
+        }
+    }
+
+    /**
+     * Removes the entry cached under the given type and id and prevents reads of it which are in
+     * flight from caching a stale copy of it.
+     */
+    public void invalidate(String typeName, Object id) {
+        CacheKey key = new CacheKey(typeName, id);
+        segmentFor(key).invalidate(key, _invalidationSequence.incrementAndGet());
+    }
+
+    public int size() {
+        int size = 0;
+        for (Segment segment : _segments)
+            size += segment.size();
+        return size;
+    }
+
+    public void clear() {
+        // Reads in flight must not cache what they read before the cache was cleared
+        _clearedSequence = _invalidationSequence.incrementAndGet();
+        for (Segment segment : _segments)
+            segment.clear();
+    }
+
+    private Segment segmentFor(CacheKey key) {
+        return _segments[(key._hash >>> 24) & _segmentMask];
+    }
+
+    private InvalidationStripe stripeFor(String uid) {
+        return _invalidationStripes[(FrequencySketch.spread(uid.hashCode()) >>> 24) & _segmentMask];
+    }
+
+    private class Segment {
+        private final int _capacity;
+        private final FrequencySketch _sketch;
+        // Guarded by this
+        private final LinkedHashMap<CacheKey, IEntryPacket> _entries;
+        // Guarded by this
+        private final InvalidationStripe _keyInvalidations;
+
+        private Segment(int capacity) {
+            _capacity = capacity;
+            _sketch = new FrequencySketch(capacity);
+            _entries = new LinkedHashMap<CacheKey, IEntryPacket>(16, 0.75f, true);
+            _keyInvalidations = new InvalidationStripe(Math.max(capacity, MIN_SEGMENT_CAPACITY));
+        }
+
+        private synchronized IEntryPacket get(CacheKey key) {
+            _sketch.increment(key._hash);
+            return _entries.get(key);
+        }
+
+        // Called while holding the invalidation stripe of the uid
+        private synchronized boolean put(CacheKey key, String uid, IEntryPacket packet, long readSequence) {
+            if (readSequence < _clearedSequence || _keyInvalidations.isInvalidatedAfter(key, readSequence))
+                return false;
+            CacheKey mappedKey = _uidIndex.get(uid);
+            if (mappedKey != null && !mappedKey.equals(key))
+                return false;
+            IEntryPacket existing = _entries.get(key);
+            if (existing != null) {
+                if (existing.getVersion() > packet.getVersion())
+                    return false;
+                if (!uid.equals(existing.getUID()))
+                    _uidIndex.remove(existing.getUID(), key);
+            } else if (_entries.size() >= _capacity && !evictFor(key)) {
+                return false;
+            }
+            _entries.put(key, packet);
+            _uidIndex.put(uid, key);
+            return true;
+        }
+
+        private boolean evictFor(CacheKey candidate) {
+            Iterator<Map.Entry<CacheKey, IEntryPacket>> iterator = _entries.entrySet().iterator();
+            Map.Entry<CacheKey, IEntryPacket> victim = iterator.next();
+            if (_sketch.frequency(candidate._hash) <= _sketch.frequency(victim.getKey()._hash))
+                return false;
+            iterator.remove();
+            _uidIndex.remove(victim.getValue().getUID(), victim.getKey());
+            return true;
+        }
+
+        private synchronized void remove(CacheKey key, String uid) {
+            IEntryPacket packet = _entries.get(key);
+            if (packet != null && uid.equals(packet.getUID()))
+                _entries.remove(key);
+        }
+
+        private synchronized void invalidate(CacheKey key, long sequence) {
+            _keyInvalidations.invalidated(key, sequence);
+            IEntryPacket packet = _entries.remove(key);
+            if (packet != null)
+                _uidIndex.remove(packet.getUID(), key);
+        }
+
+        private synchronized int size() {
+            return _entries.size();
+        }
+
+        private synchronized void clear() {
+            for (Map.Entry<CacheKey, IEntryPacket> entry : _entries.entrySet())
+                _uidIndex.remove(entry.getValue().getUID(), entry.getKey());
+            _entries.clear();
+        }
+    }
+
+    /**
+     * Recent invalidations of the uids (or keys) mapped to a stripe, bounded so that reads which
+     * started before the eldest forgotten invalidation are conservatively not cached.
+     */
+    private static class InvalidationStripe {
+        private final int _capacity;
+        // Guarded by this, or by the segment owning it
+        private final LinkedHashMap<Object, Long> _recentInvalidations = new LinkedHashMap<Object, Long>();
+        private long _forgottenInvalidationSequence;
+
+        private InvalidationStripe(int capacity) {
+            _capacity = capacity;
+        }
+
+        private boolean isInvalidatedAfter(Object uid, long readSequence) {
+            if (readSequence < _forgottenInvalidationSequence)
+                return true;
+            Long invalidatedAt = _recentInvalidations.get(uid);
+            return invalidatedAt != null && invalidatedAt > readSequence;
+        }
+
+        private void invalidated(Object uid, long sequence) {
+            // Re-inserted so the map stays ordered by sequence
+            _recentInvalidations.remove(uid);
+            _recentInvalidations.put(uid, sequence);
+            if (_recentInvalidations.size() > _capacity) {
+                Iterator<Map.Entry<Object, Long>> iterator = _recentInvalidations.entrySet().iterator();
+                _forgottenInvalidationSequence = iterator.next().getValue();
+                iterator.remove();
+            }
+        }
+    }
+
+    private class InvalidationListener implements BatchRemoteEventListener {
+        @Override
+        public void notify(RemoteEvent event) {
+            invalidate(((EntryArrivedRemoteEvent) event).getEntryPacket().getUID());
+        }
+
+        @Override
+        public void notifyBatch(BatchRemoteEvent batchEvent) {
+            RemoteEvent[] events = batchEvent.getEvents();
+            for (RemoteEvent event : events)
+                invalidate(((EntryArrivedRemoteEvent) event).getEntryPacket().getUID());
+            if (_logger.isLoggable(Level.FINEST))
+                _logger.finest("invalidated " + events.length + " read by id cache entries");
+        }
+    }
+
+    private static class CacheKey {
+        private final String _typeName;
+        private final Object _id;
+        private final int _hash;
+
+        private CacheKey(String typeName, Object id) {
+            _typeName = typeName;
+            _id = id;
+            _hash = FrequencySketch.spread(31 * typeName.hashCode() + id.hashCode());
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o)
+                return true;
+            if (!(o instanceof CacheKey))
+                return false;
+            CacheKey other = (CacheKey) o;
+            return _typeName.equals(other._typeName) && _id.equals(other._id);
+        }
+
+        @Override
+        public int hashCode() {
+            return _hash;
+        }
+    }
+}
@@ -0,0 +1,258 @@
+/*
+ * Copyright (c) 2008-2016, GigaSpaces Technologies, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.gigaspaces.internal.client.spaceproxy;
+
+import com.gigaspaces.client.WriteMultipleException;
+import com.gigaspaces.internal.transport.IEntryPacket;
+import com.j_spaces.core.LeaseContext;
+import com.j_spaces.core.exception.internal.ProxyInternalSpaceException;
+
+import net.jini.core.transaction.TransactionException;
+
+import java.rmi.RemoteException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Coalesces concurrent single entry writes to the same partition into a single write multiple
+ * round trip.
+ *
+ * Writes are grouped in lanes by target partition, timeout and modifiers, while each entry keeps its
+ * own lease, so writes with distinct leases share a lane. The first writer to arrive at a lane
+ * becomes the leader. Writers arriving while the leader's batch is in flight queue
+ * up and the next leader writes all of them together, handing each writer back its own lease or
+ * error. An optional linger window lets the leader wait for more writers before it writes.
+ *
+ * @since 14.2
+ */
+@com.gigaspaces.api.InternalApi
+public abstract class SpaceProxyWriteCoalescer {
+
+    private final long _lingerNanos;
+    private final int _maxBatchSize;
+    private final Logger _logger;
+    private final ConcurrentMap<LaneKey, Lane> _lanes = new ConcurrentHashMap<LaneKey, Lane>();
+
+    public SpaceProxyWriteCoalescer(long lingerMicros, int maxBatchSize, Logger logger) {
+        if (maxBatchSize < 1)
+            throw new IllegalArgumentException("maxBatchSize must be positive [" + maxBatchSize + "]");
+        _lingerNanos = TimeUnit.MICROSECONDS.toNanos(Math.max(0, lingerMicros));
+        _maxBatchSize = maxBatchSize;
+        _logger = logger;
+    }
+
+    /**
+     * Writes the given entries in a single operation, each with its own lease.
+     *
+     * @throws WriteMultipleException if some of the entries failed to be written
+     */
+    protected abstract LeaseContext<?>[] writeMultiple(Object[] entries, IEntryPacket[] entryPackets,
+                                                       long[] leases, long timeout, int modifiers)
+            throws RemoteException, TransactionException, InterruptedException;
+
+    /**
+     * Writes the given entry, possibly together with the entries of concurrent writers to the same
+     * partition, and returns once it was written.
+     */
+    public LeaseContext<?> write(Object entry, IEntryPacket entryPacket, int partitionId,
+                                 long lease, long timeout, int modifiers)
+            throws RemoteException, TransactionException, InterruptedException {
+        LaneKey key = new LaneKey(partitionId, timeout, modifiers);
+        Lane lane = _lanes.get(key);
+        if (lane == null) {
+            Lane newLane = new Lane(key);
+            lane = _lanes.putIfAbsent(key, newLane);
+            if (lane == null)
+                lane = newLane;
+        }
+        return lane.write(new PendingWrite(entry, entryPacket, lease));
+    }
+
+    private class Lane {
+        private final LaneKey _key;
+        private final ReentrantLock _lock = new ReentrantLock();
+        private final Condition _batchWritten = _lock.newCondition();
+        private final Condition _batchFull = _lock.newCondition();
+        private List<PendingWrite> _pending = new ArrayList<PendingWrite>();
+        private boolean _writing;
+
+        private Lane(LaneKey key) {
+            _key = key;
+        }
+
+        private LeaseContext<?> write(PendingWrite write)
+                throws RemoteException, TransactionException, InterruptedException {
+            final List<PendingWrite> batch;
+            _lock.lock();
+            try {
+                _pending.add(write);
+                if (_pending.size() >= _maxBatchSize)
+                    _batchFull.signal();
+                while (_writing && !write._done)
+                    _batchWritten.awaitUninterruptibly();
+                if (write._done)
+                    return write.getResult();
+
+                _writing = true;
+                awaitLinger();
+                if (_pending.size() <= _maxBatchSize) {
+                    batch = _pending;
+                    _pending = new ArrayList<PendingWrite>();
+                } else {
+                    // the leader's own write must be part of its batch, it may be queued beyond
+                    // the head when more than a batch of writers are pending
+                    _pending.remove(write);
+                    List<PendingWrite> head = _pending.subList(0, _maxBatchSize - 1);
+                    batch = new ArrayList<PendingWrite>(head);
+                    batch.add(write);
+                    head.clear();
+                }
+            } finally {
+                _lock.unlock();
+            }
+
+            Object[] entries = new Object[batch.size()];
+            IEntryPacket[] entryPackets = new IEntryPacket[batch.size()];
+            long[] entryLeases = new long[batch.size()];
+            for (int i = 0; i < entries.length; i++) {
+                entries[i] = batch.get(i)._entry;
+                entryPackets[i] = batch.get(i)._entryPacket;
+                entryLeases[i] = batch.get(i)._lease;
+            }
+            if (_logger.isLoggable(Level.FINEST))
+                _logger.finest("writing coalesced batch of " + entries.length + " entries to partition " + _key._partitionId);
+
+            LeaseContext<?>[] leases = null;
+            WriteMultipleException.IWriteResult[] results = null;
+            Throwable error = null;
+            try {
+                leases = writeMultiple(entries, entryPackets, entryLeases, _key._timeout, _key._modifiers);
+            } catch (WriteMultipleException e) {
+                results = e.getResults();
+            } catch (Exception e) {
+                error = e;
+            } catch (Error e) {
+                error = e;
+            }
+
+            _lock.lock();
+            try {
+                for (int i = 0; i < batch.size(); i++) {
+                    if (error != null)
+                        batch.get(i).complete(null, error);
+                    else if (results != null)
+                        batch.get(i).complete(results[i].getLeaseContext(), results[i].getError());
+                    else
+                        batch.get(i).complete(leases != null ? leases[i] : null, null);
+                }
+                _writing = false;
+                _batchWritten.signalAll();
+            } finally {
+                _lock.unlock();
+            }
+            return write.getResult();
+        }
+
+        private void awaitLinger() {
+            long remaining = _lingerNanos;
+            while (remaining > 0 && _pending.size() < _maxBatchSize) {
+                try {
+                    remaining = _batchFull.awaitNanos(remaining);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+            }
+        }
+    }
+
+    private static class PendingWrite {
+        private final Object _entry;
+        private final IEntryPacket _entryPacket;
+        private final long _lease;
+        // Guarded by the lane lock
+        private boolean _done;
+        private LeaseContext<?> _result;
+        private Throwable _error;
+
+        private PendingWrite(Object entry, IEntryPacket entryPacket, long lease) {
+            _entry = entry;
+            _entryPacket = entryPacket;
+            _lease = lease;
+        }
+
+        private void complete(LeaseContext<?> result, Throwable error) {
+            _result = result;
+            _error = error;
+            _done = true;
+        }
+
+        private LeaseContext<?> getResult() throws RemoteException, TransactionException, InterruptedException {
+            if (_error == null)
+                return _result;
+            if (_error instanceof TransactionException)
+                throw (TransactionException) _error;
+            if (_error instanceof RemoteException)
+                throw (RemoteException) _error;
+            if (_error instanceof InterruptedException)
+                throw (InterruptedException) _error;
+            if (_error instanceof RuntimeException)
+                throw (RuntimeException) _error;
+            if (_error instanceof Error)
+                throw (Error) _error;
+            throw new ProxyInternalSpaceException("Unexpected exception: " + _error.getMessage(), _error);
+        }
+    }
+
+    private static class LaneKey {
+        private final int _partitionId;
+        private final long _timeout;
+        private final int _modifiers;
+
+        private LaneKey(int partitionId, long timeout, int modifiers) {
+            _partitionId = partitionId;
+            _timeout = timeout;
+            _modifiers = modifiers;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o)
+                return true;
+            if (!(o instanceof LaneKey))
+                return false;
+            LaneKey other = (LaneKey) o;
+            return _partitionId == other._partitionId && _timeout == other._timeout
+                    && _modifiers == other._modifiers;
+        }
+
+        @Override
+        public int hashCode() {
+            int result = _partitionId;
+            result = 31 * result + (int) (_timeout ^ (_timeout >>> 32));
+            result = 31 * result + _modifiers;
+            return result;
+        }
+    }
+}
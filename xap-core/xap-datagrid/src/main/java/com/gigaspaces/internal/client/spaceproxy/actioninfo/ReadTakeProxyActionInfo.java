@@ -132,6 +132,10 @@ public class ReadTakeProxyActionInfo extends QueryProxyActionInfo {
         return _returnPacket || _query == queryPacket;
     }
 
+    public void setReturnPacket(boolean returnPacket) {
+        this._returnPacket = returnPacket;
+    }
+
     private void verifyFifoGroupsCallParams(boolean isTake) {
         if (txn == null)
             throw new IllegalArgumentException("fifo grouping operation must be under transaction");
@@ -60,6 +60,7 @@ import com.j_spaces.kernel.JSpaceUtilities;
 import net.jini.core.entry.UnusableEntryException;
 import net.jini.core.transaction.Transaction;
 import net.jini.core.transaction.TransactionException;
+import net.jini.space.JavaSpace;
 
 import java.rmi.RemoteException;
 import java.util.concurrent.Future;
@@ -145,6 +146,13 @@ public abstract class AbstractSpaceProxyActionManager<TSpaceProxy extends ISpace
         return _countClearAction.execute(_spaceProxy, actionInfo);
     }
 
+    public AsyncFuture<?> asyncCount(Object template, Transaction txn, int modifiers, AsyncFutureListener<?> listener)
+            throws RemoteException {
+        CountClearProxyActionInfo actionInfo = new CountClearProxyActionInfo(
+                _spaceProxy, template, txn, modifiers, false);
+        return _countClearAction.asyncCount(_spaceProxy, actionInfo, listener);
+    }
+
     public AsyncFuture executeTask(SpaceTask task, Object routing, Transaction tx, AsyncFutureListener listener)
             throws RemoteException, TransactionException {
         return _adminAction.execute(_spaceProxy, task, routing, tx, listener);
@@ -213,6 +221,16 @@ public abstract class AbstractSpaceProxyActionManager<TSpaceProxy extends ISpace
         }
     }
 
+    public AsyncFuture<?> asyncReadMultiple(Object template, Transaction txn, int maxEntries, int modifiers, AsyncFutureListener<?> listener)
+            throws RemoteException {
+        if (txn == null && Modifiers.contains(modifiers, Modifiers.EXCLUSIVE_READ_LOCK))
+            throw new IllegalArgumentException("Using EXCLUSIVE_READ_LOCK modifier without a transaction is illegal.");
+
+        ReadTakeMultipleProxyActionInfo actionInfo = new ReadTakeMultipleProxyActionInfo(
+                _spaceProxy, template, txn, JavaSpace.NO_WAIT, maxEntries, maxEntries /*minEntriesToWaitFor*/, modifiers, false, false, false);
+        return _readTakeMultipleAction.asyncReadMultiple(_spaceProxy, actionInfo, listener);
+    }
+
     public Object[] readMultiple(Object template, Transaction txn, long timeout, int maxEntries, int minEntriesToWaitFor, int modifiers, boolean returnOnlyUids, boolean ifExist)
             throws TransactionException, UnusableEntryException, RemoteException {
         if (txn == null && Modifiers.contains(modifiers, Modifiers.EXCLUSIVE_READ_LOCK))
@@ -381,6 +399,13 @@ public abstract class AbstractSpaceProxyActionManager<TSpaceProxy extends ISpace
         }
     }
 
+    public AsyncFuture<?> asyncWrite(Object entry, Transaction txn, long lease, long timeout, int modifiers, AsyncFutureListener<?> listener)
+            throws RemoteException {
+        WriteProxyActionInfo actionInfo = new WriteProxyActionInfo(
+                _spaceProxy, entry, txn, lease, timeout, modifiers);
+        return _writeAction.asyncWrite(_spaceProxy, actionInfo, listener);
+    }
+
     public LeaseContext<?>[] writeMultiple(Object[] objects, Transaction txn, long lease, long[] leases, long timeout, int modifiers)
             throws TransactionException, RemoteException {
         WriteMultipleProxyActionInfo actionInfo = new WriteMultipleProxyActionInfo(
@@ -422,6 +447,13 @@ public abstract class AbstractSpaceProxyActionManager<TSpaceProxy extends ISpace
         return _aggregationAction.aggregate(_spaceProxy, actionInfo);
     }
 
+    public AsyncFuture<?> asyncAggregate(Object query, AggregationSet aggregationSet, Transaction txn, int modifiers, AsyncFutureListener<?> listener)
+            throws RemoteException {
+        AggregateProxyActionInfo actionInfo = new AggregateProxyActionInfo(_spaceProxy,
+                query, aggregationSet, txn, modifiers);
+        return _aggregationAction.asyncAggregate(_spaceProxy, actionInfo, listener);
+    }
+
     protected abstract TypeDescriptorActionsProxyExecutor<TSpaceProxy> createTypeDescriptorActionsExecutor();
 
     protected abstract AdminProxyAction<TSpaceProxy> createAdminProxyAction();
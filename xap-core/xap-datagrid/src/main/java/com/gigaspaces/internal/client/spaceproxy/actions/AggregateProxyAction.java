@@ -16,6 +16,8 @@
 
 package com.gigaspaces.internal.client.spaceproxy.actions;
 
+import com.gigaspaces.async.AsyncFuture;
+import com.gigaspaces.async.AsyncFutureListener;
 import com.gigaspaces.internal.client.spaceproxy.ISpaceProxy;
 import com.gigaspaces.internal.client.spaceproxy.actioninfo.AggregateProxyActionInfo;
 import com.gigaspaces.query.aggregators.AggregationResult;
@@ -30,4 +32,6 @@ import java.rmi.RemoteException;
  */
 public abstract class AggregateProxyAction<TSpaceProxy extends ISpaceProxy> {
     public abstract AggregationResult aggregate(TSpaceProxy spaceProxy, AggregateProxyActionInfo actionInfo) throws RemoteException, TransactionException, InterruptedException;
+
+    public abstract AsyncFuture<?> asyncAggregate(TSpaceProxy spaceProxy, AggregateProxyActionInfo actionInfo, AsyncFutureListener<?> listener);
 }
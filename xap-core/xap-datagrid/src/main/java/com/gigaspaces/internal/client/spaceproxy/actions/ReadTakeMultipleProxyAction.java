@@ -16,6 +16,8 @@
 
 package com.gigaspaces.internal.client.spaceproxy.actions;
 
+import com.gigaspaces.async.AsyncFuture;
+import com.gigaspaces.async.AsyncFutureListener;
 import com.gigaspaces.internal.client.spaceproxy.ISpaceProxy;
 import com.gigaspaces.internal.client.spaceproxy.actioninfo.ReadTakeMultipleProxyActionInfo;
 
@@ -34,6 +36,8 @@ public abstract class ReadTakeMultipleProxyAction<TSpaceProxy extends ISpaceProx
     public abstract Object[] takeMultiple(TSpaceProxy spaceProxy, ReadTakeMultipleProxyActionInfo actionInfo)
             throws RemoteException, TransactionException, UnusableEntryException;
 
+    public abstract AsyncFuture<?> asyncReadMultiple(TSpaceProxy spaceProxy, ReadTakeMultipleProxyActionInfo actionInfo, AsyncFutureListener<?> listener);
+
     /**
      * Rethrow Exception as typed exception.
      */
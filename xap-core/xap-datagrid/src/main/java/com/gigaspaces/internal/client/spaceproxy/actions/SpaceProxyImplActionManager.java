@@ -16,14 +16,291 @@
 
 package com.gigaspaces.internal.client.spaceproxy.actions;
 
+import com.gigaspaces.async.AsyncFuture;
+import com.gigaspaces.async.AsyncFutureListener;
+import com.gigaspaces.async.AsyncResult;
+import com.gigaspaces.client.ChangeModifiers;
+import com.gigaspaces.client.ChangeResult;
+import com.gigaspaces.client.ChangeSet;
+import com.gigaspaces.client.ClearException;
+import com.gigaspaces.cluster.replication.TakeConsistencyLevelCompromisedException;
+import com.gigaspaces.internal.client.QueryResultTypeInternal;
 import com.gigaspaces.internal.client.spaceproxy.SpaceProxyImpl;
+import com.gigaspaces.internal.client.spaceproxy.SpaceProxyReadByIdCache;
+import com.gigaspaces.internal.client.spaceproxy.actioninfo.ReadTakeByIdsProxyActionInfo;
+import com.gigaspaces.internal.client.spaceproxy.actioninfo.ReadTakeProxyActionInfo;
 import com.gigaspaces.internal.client.spaceproxy.executors.SpaceProxyImplTypeDescriptorActionsExecutor;
 import com.gigaspaces.internal.client.spaceproxy.executors.TypeDescriptorActionsProxyExecutor;
+import com.gigaspaces.internal.transport.IEntryPacket;
+import com.gigaspaces.query.IdQuery;
+import com.j_spaces.core.LeaseContext;
 
+import net.jini.core.entry.UnusableEntryException;
+import net.jini.core.transaction.Transaction;
+import net.jini.core.transaction.TransactionException;
+
+import java.rmi.RemoteException;
+import java.util.concurrent.Future;
+
+/**
+ * When the read by id cache is enabled, the operations of this proxy which modify entries
+ * invalidate what they modified once they complete, so a read by id of this proxy following its
+ * own modification never returns the cached entry it modified. Modifications of entries whose uid
+ * or id is not known to the proxy clear the cache.
+ */
 @com.gigaspaces.api.InternalApi
 public class SpaceProxyImplActionManager extends AbstractSpaceProxyActionManager<SpaceProxyImpl> {
+    private final SpaceProxyImpl _spaceProxy;
+
     public SpaceProxyImplActionManager(SpaceProxyImpl spaceProxy) {
         super(spaceProxy);
+        _spaceProxy = spaceProxy;
+    }
+
+    @Override
+    public Object readById(String className, Object id, Object routing, Transaction txn, long timeout, int modifiers, boolean ifExists, QueryResultTypeInternal resultType, String[] projections)
+            throws RemoteException, UnusableEntryException, TransactionException, InterruptedException {
+        final SpaceProxyReadByIdCache cache = _spaceProxy.getReadByIdCache();
+        if (cache == null || !SpaceProxyReadByIdCache.isCacheable(txn, modifiers, projections)
+                || _spaceProxy.getContextTransaction() != null)
+            return super.readById(className, id, routing, txn, timeout, modifiers, ifExists, resultType, projections);
+
+        ReadTakeProxyActionInfo actionInfo = new ReadTakeProxyActionInfo(
+                _spaceProxy, className, id, routing, 0, txn, timeout, modifiers, resultType, ifExists, false, projections, null);
+        IEntryPacket packet = cache.get(className, id);
+        if (packet == null) {
+            // Taken before the registration is checked, so a read racing with a lost registration is not cached
+            long readSequence = cache.getInvalidationSequence();
+            if (!cache.ensureRegistered(className))
+                return read(actionInfo);
+            actionInfo.setReturnPacket(true);
+            packet = (IEntryPacket) read(actionInfo);
+            if (packet == null)
+                return null;
+            cache.put(className, id, packet, readSequence);
+        }
+        // The cached packet is shared, each caller gets its own copy to convert
+        return _spaceProxy.getTypeManager().convertQueryResult(packet.clone(), actionInfo.queryPacket, false);
+    }
+
+    @Override
+    public LeaseContext<?> write(Object entry, Transaction txn, long lease, long timeout, int modifiers)
+            throws TransactionException, RemoteException {
+        final SpaceProxyReadByIdCache cache = _spaceProxy.getReadByIdCache();
+        if (cache == null)
+            return super.write(entry, txn, lease, timeout, modifiers);
+        LeaseContext<?> result = null;
+        try {
+            result = super.write(entry, txn, lease, timeout, modifiers);
+            return result;
+        } finally {
+            invalidate(cache, result);
+        }
+    }
+
+    @Override
+    public LeaseContext<?>[] writeMultiple(Object[] objects, Transaction txn, long lease, long[] leases, long timeout, int modifiers)
+            throws TransactionException, RemoteException {
+        final SpaceProxyReadByIdCache cache = _spaceProxy.getReadByIdCache();
+        if (cache == null)
+            return super.writeMultiple(objects, txn, lease, leases, timeout, modifiers);
+        LeaseContext<?>[] result = null;
+        try {
+            result = super.writeMultiple(objects, txn, lease, leases, timeout, modifiers);
+            return result;
+        } finally {
+            if (result == null)
+                cache.clear();
+            else
+                for (LeaseContext<?> leaseContext : result)
+                    invalidate(cache, leaseContext);
+        }
+    }
+
+    @Override
+    public AsyncFuture<?> asyncWrite(Object entry, Transaction txn, long lease, long timeout, int modifiers, AsyncFutureListener<?> listener)
+            throws RemoteException {
+        final SpaceProxyReadByIdCache cache = _spaceProxy.getReadByIdCache();
+        if (cache == null)
+            return super.asyncWrite(entry, txn, lease, timeout, modifiers, listener);
+        return super.asyncWrite(entry, txn, lease, timeout, modifiers, new InvalidatingListener(cache, listener));
+    }
+
+    @Override
+    public Object take(ReadTakeProxyActionInfo actionInfo)
+            throws UnusableEntryException, TransactionException, InterruptedException, RemoteException {
+        final SpaceProxyReadByIdCache cache = _spaceProxy.getReadByIdCache();
+        if (cache == null)
+            return super.take(actionInfo);
+        // The packet is needed for the uid of the taken entry, it is converted here if the caller did not ask for it
+        final boolean convert = !actionInfo.isReturnPacket();
+        actionInfo.setReturnPacket(true);
+        boolean invalidated = false;
+        try {
+            IEntryPacket packet = (IEntryPacket) super.take(actionInfo);
+            if (packet != null)
+                cache.invalidate(packet.getUID());
+            invalidated = true;
+            if (convert) {
+                actionInfo.setReturnPacket(false);
+                return actionInfo.convertQueryResult(_spaceProxy, packet, null);
+            }
+            return packet;
+        } catch (TakeConsistencyLevelCompromisedException e) {
+            // The entry was taken although the required consistency level was not met
+            IEntryPacket packet = (IEntryPacket) e.getValue();
+            if (packet != null)
+                cache.invalidate(packet.getUID());
+            invalidated = true;
+            if (!convert)
+                throw e;
+            actionInfo.setReturnPacket(false);
+            throw new TakeConsistencyLevelCompromisedException(e.getLevel(), actionInfo.convertQueryResult(_spaceProxy, packet, null));
+        } finally {
+            if (!invalidated)
+                cache.clear();
+        }
+    }
+
+    @Override
+    public AsyncFuture<?> asyncTake(Object template, Transaction txn, long timeout, int modifiers, AsyncFutureListener<?> listener)
+            throws RemoteException {
+        final SpaceProxyReadByIdCache cache = _spaceProxy.getReadByIdCache();
+        if (cache == null)
+            return super.asyncTake(template, txn, timeout, modifiers, listener);
+        return super.asyncTake(template, txn, timeout, modifiers, new InvalidatingListener(cache, listener));
+    }
+
+    @Override
+    public Object[] takeMultiple(Object template, Transaction txn, long timeout, int maxEntries, int minEntriesToWaitFor, int modifiers, boolean returnOnlyUids, boolean ifExist)
+            throws TransactionException, UnusableEntryException, RemoteException {
+        try {
+            return super.takeMultiple(template, txn, timeout, maxEntries, minEntriesToWaitFor, modifiers, returnOnlyUids, ifExist);
+        } finally {
+            clearReadByIdCache();
+        }
+    }
+
+    @Override
+    public Object[] takeByIds(String className, Object[] ids, Object routing, Transaction txn, int modifiers,
+                              QueryResultTypeInternal resultType, boolean returnPackets, String[] projections)
+            throws RemoteException, UnusableEntryException, TransactionException, InterruptedException {
+        try {
+            return super.takeByIds(className, ids, routing, txn, modifiers, resultType, returnPackets, projections);
+        } finally {
+            invalidate(className, ids);
+        }
+    }
+
+    @Override
+    public Object[] takeByIds(String className, Object[] ids, Object[] routings, Transaction txn, int modifiers,
+                              QueryResultTypeInternal resultType, boolean returnPackets, String[] projections)
+            throws RemoteException, UnusableEntryException, TransactionException, InterruptedException {
+        try {
+            return super.takeByIds(className, ids, routings, txn, modifiers, resultType, returnPackets, projections);
+        } finally {
+            invalidate(className, ids);
+        }
+    }
+
+    @Override
+    public Object[] takeByIds(ReadTakeByIdsProxyActionInfo actionInfo, boolean returnPackets)
+            throws RemoteException, TransactionException, InterruptedException, UnusableEntryException {
+        try {
+            return super.takeByIds(actionInfo, returnPackets);
+        } finally {
+            clearReadByIdCache();
+        }
+    }
+
+    @Override
+    public <T> ChangeResult<T> change(Object template, ChangeSet changeSet, Transaction txn, long timeout, ChangeModifiers modifiers)
+            throws RemoteException, TransactionException {
+        try {
+            return super.change(template, changeSet, txn, timeout, modifiers);
+        } finally {
+            invalidate(template);
+        }
+    }
+
+    @Override
+    public <T> Future<ChangeResult<T>> asyncChange(Object template, ChangeSet changeSet, Transaction txn, long timeout,
+                                                   ChangeModifiers modifiers, AsyncFutureListener<ChangeResult<T>> listener)
+            throws RemoteException {
+        final SpaceProxyReadByIdCache cache = _spaceProxy.getReadByIdCache();
+        if (cache == null)
+            return super.asyncChange(template, changeSet, txn, timeout, modifiers, listener);
+        return super.asyncChange(template, changeSet, txn, timeout, modifiers, new InvalidatingListener<ChangeResult<T>>(cache, listener));
+    }
+
+    @Override
+    public int clear(Object template, Transaction txn, int modifiers) throws ClearException {
+        try {
+            return super.clear(template, txn, modifiers);
+        } finally {
+            clearReadByIdCache();
+        }
+    }
+
+    private static void invalidate(SpaceProxyReadByIdCache cache, LeaseContext<?> leaseContext) {
+        if (leaseContext != null && leaseContext.getUID() != null)
+            cache.invalidate(leaseContext.getUID());
+        else
+            cache.clear();
+    }
+
+    private void invalidate(String className, Object[] ids) {
+        final SpaceProxyReadByIdCache cache = _spaceProxy.getReadByIdCache();
+        if (cache == null)
+            return;
+        if (className == null || ids == null) {
+            cache.clear();
+            return;
+        }
+        for (Object id : ids)
+            if (id != null)
+                cache.invalidate(className, id);
+    }
+
+    private void invalidate(Object template) {
+        if (template instanceof IdQuery) {
+            IdQuery<?> idQuery = (IdQuery<?>) template;
+            invalidate(idQuery.getTypeName(), new Object[]{idQuery.getId()});
+        } else {
+            clearReadByIdCache();
+        }
+    }
+
+    private void clearReadByIdCache() {
+        final SpaceProxyReadByIdCache cache = _spaceProxy.getReadByIdCache();
+        if (cache != null)
+            cache.clear();
+    }
+
+    /**
+     * Invalidates the cached entry modified by an async operation once it completes, before the
+     * listener of the caller is notified.
+     */
+    private static class InvalidatingListener<T> implements AsyncFutureListener<T> {
+        private final SpaceProxyReadByIdCache _cache;
+        private final AsyncFutureListener<T> _listener;
+
+        private InvalidatingListener(SpaceProxyReadByIdCache cache, AsyncFutureListener<T> listener) {
+            _cache = cache;
+            _listener = listener;
+        }
+
+        @Override
+        public void onResult(AsyncResult<T> result) {
+            if (result.getException() == null && result.getResult() instanceof LeaseContext)
+                invalidate(_cache, (LeaseContext<?>) result.getResult());
+            else if (result.getException() == null && result.getResult() instanceof IEntryPacket)
+                _cache.invalidate(((IEntryPacket) result.getResult()).getUID());
+            else
+                _cache.clear();
+            if (_listener != null)
+                _listener.onResult(result);
+        }
     }
 
     @Override
@@ -16,10 +16,13 @@
 
 package com.gigaspaces.internal.client.spaceproxy.actions;
 
+import com.gigaspaces.async.AsyncFuture;
+import com.gigaspaces.async.AsyncFutureListener;
 import com.gigaspaces.internal.client.spaceproxy.SpaceProxyImpl;
 import com.gigaspaces.internal.client.spaceproxy.actioninfo.CountClearProxyActionInfo;
 import com.gigaspaces.internal.client.spaceproxy.operations.CountClearEntriesSpaceOperationRequest;
 import com.j_spaces.core.client.SQLQuery;
+import com.j_spaces.jdbc.builder.SQLQueryTemplatePacket;
 
 import net.jini.core.entry.UnusableEntryException;
 import net.jini.core.transaction.TransactionException;
@@ -48,4 +51,17 @@ public class SpaceProxyImplCountClearAction extends CountClearProxyAction<SpaceP
             throw new RuntimeException(ex.toString());
         }
     }
+
+    @SuppressWarnings("unchecked")
+    @Override
+    public AsyncFuture<?> asyncCount(SpaceProxyImpl spaceProxy, CountClearProxyActionInfo actionInfo, @SuppressWarnings("rawtypes") AsyncFutureListener listener) {
+        spaceProxy.beforeSpaceAction(actionInfo);
+
+        if (actionInfo.isSqlQuery)
+            actionInfo.queryPacket = spaceProxy.getQueryManager().getSQLTemplate((SQLQueryTemplatePacket) actionInfo.queryPacket, actionInfo.txn);
+
+        final CountClearEntriesSpaceOperationRequest request = new CountClearEntriesSpaceOperationRequest(
+                actionInfo.queryPacket, actionInfo.txn, actionInfo.isTake, actionInfo.modifiers);
+        return spaceProxy.getProxyRouter().executeAsync(request, listener);
+    }
 }
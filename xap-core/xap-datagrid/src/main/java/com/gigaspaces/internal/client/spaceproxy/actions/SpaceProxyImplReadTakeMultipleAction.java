@@ -16,6 +16,8 @@
 
 package com.gigaspaces.internal.client.spaceproxy.actions;
 
+import com.gigaspaces.async.AsyncFuture;
+import com.gigaspaces.async.AsyncFutureListener;
 import com.gigaspaces.client.ReadMultipleException;
 import com.gigaspaces.client.TakeMultipleException;
 import com.gigaspaces.internal.client.spaceproxy.SpaceProxyImpl;
@@ -24,6 +26,7 @@ import com.gigaspaces.internal.client.spaceproxy.operations.ReadTakeEntriesSpace
 import com.gigaspaces.internal.transport.IEntryPacket;
 import com.j_spaces.core.client.ReadModifiers;
 import com.j_spaces.core.client.SQLQuery;
+import com.j_spaces.jdbc.builder.SQLQueryTemplatePacket;
 
 import net.jini.core.entry.UnusableEntryException;
 import net.jini.core.transaction.TransactionException;
@@ -100,4 +103,29 @@ public class SpaceProxyImplReadTakeMultipleAction extends ReadTakeMultipleProxyA
         }
         return request.getFinalResult();
     }
+
+    @SuppressWarnings("unchecked")
+    @Override
+    public AsyncFuture<?> asyncReadMultiple(SpaceProxyImpl spaceProxy, ReadTakeMultipleProxyActionInfo actionInfo, @SuppressWarnings("rawtypes") AsyncFutureListener listener) {
+        if (actionInfo.returnOnlyUids)
+            throw new IllegalArgumentException("returnOnlyUids=true is not supported in asynchronous readMultiple operation");
+
+        spaceProxy.beforeSpaceAction(actionInfo);
+
+        if (actionInfo.isSqlQuery)
+            actionInfo.queryPacket = spaceProxy.getQueryManager().getSQLTemplate((SQLQueryTemplatePacket) actionInfo.queryPacket, actionInfo.txn);
+
+        final ReadTakeEntriesSpaceOperationRequest request = new ReadTakeEntriesSpaceOperationRequest(
+                spaceProxy.getTypeManager(),
+                actionInfo.queryPacket,
+                actionInfo.txn,
+                actionInfo.isTake,
+                actionInfo.modifiers,
+                actionInfo.maxResults,
+                actionInfo.minEntriesToWaitFor,
+                actionInfo.timeout,
+                actionInfo.ifExist,
+                actionInfo.getQuery());
+        return spaceProxy.getProxyRouter().executeAsync(request, listener);
+    }
 }
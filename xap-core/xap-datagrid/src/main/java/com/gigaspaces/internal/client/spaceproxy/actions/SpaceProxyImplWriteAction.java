@@ -16,12 +16,16 @@
 
 package com.gigaspaces.internal.client.spaceproxy.actions;
 
+import com.gigaspaces.async.AsyncFuture;
+import com.gigaspaces.async.AsyncFutureListener;
 import com.gigaspaces.internal.client.spaceproxy.SpaceProxyImpl;
+import com.gigaspaces.internal.client.spaceproxy.SpaceProxyWriteCoalescer;
 import com.gigaspaces.internal.client.spaceproxy.actioninfo.WriteMultipleProxyActionInfo;
 import com.gigaspaces.internal.client.spaceproxy.actioninfo.WriteProxyActionInfo;
 import com.gigaspaces.internal.client.spaceproxy.operations.WriteEntriesSpaceOperationRequest;
 import com.gigaspaces.internal.client.spaceproxy.operations.WriteEntrySpaceOperationRequest;
 import com.gigaspaces.internal.client.spaceproxy.operations.WriteEntrySpaceOperationResult;
+import com.gigaspaces.internal.remoting.routing.partitioned.PartitionedClusterUtils;
 import com.gigaspaces.internal.server.space.operations.WriteEntryResult;
 import com.j_spaces.core.LeaseContext;
 import com.j_spaces.core.client.Modifiers;
@@ -40,6 +44,15 @@ public class SpaceProxyImplWriteAction extends WriteProxyAction<SpaceProxyImpl>
             throws RemoteException, TransactionException, InterruptedException {
         spaceProxy.beforeSpaceAction(actionInfo);
 
+        final SpaceProxyWriteCoalescer writeCoalescer = spaceProxy.getWriteCoalescer();
+        if (writeCoalescer != null && isCoalescable(actionInfo)) {
+            int numOfPartitions = spaceProxy.getSpaceClusterInfo().getNumberOfPartitions();
+            int partitionId = PartitionedClusterUtils.getPartitionId(actionInfo.entryPacket.getRoutingFieldValue(),
+                    Math.max(1, numOfPartitions));
+            return writeCoalescer.write(actionInfo.entry, actionInfo.entryPacket, partitionId,
+                    actionInfo.lease, actionInfo.timeout, actionInfo.modifiers);
+        }
+
         WriteEntrySpaceOperationRequest request = new WriteEntrySpaceOperationRequest(actionInfo.entryPacket,
                 actionInfo.txn, actionInfo.lease, actionInfo.timeout, actionInfo.modifiers, actionInfo.isUpdate());
         if (Modifiers.contains(actionInfo.modifiers, Modifiers.ONE_WAY)) {
@@ -53,6 +66,14 @@ public class SpaceProxyImplWriteAction extends WriteProxyAction<SpaceProxyImpl>
         return spaceProxy.getTypeManager().processWriteResult(writeResult, actionInfo.entry, actionInfo.entryPacket);
     }
 
+    private static boolean isCoalescable(WriteProxyActionInfo actionInfo) {
+        // write multiple has no update only semantics and cannot route entries without a routing value
+        return actionInfo.txn == null
+                && !Modifiers.contains(actionInfo.modifiers, Modifiers.ONE_WAY)
+                && !actionInfo.isUpdate()
+                && actionInfo.entryPacket.getRoutingFieldValue() != null;
+    }
+
     @Override
     public LeaseContext<?>[] writeMultiple(SpaceProxyImpl spaceProxy, WriteMultipleProxyActionInfo actionInfo)
             throws RemoteException, TransactionException, InterruptedException {
@@ -68,4 +89,18 @@ public class SpaceProxyImplWriteAction extends WriteProxyAction<SpaceProxyImpl>
         spaceProxy.getProxyRouter().execute(request);
         return request.getFinalResult();
     }
+
+    @SuppressWarnings("unchecked")
+    @Override
+    public AsyncFuture<?> asyncWrite(SpaceProxyImpl spaceProxy, WriteProxyActionInfo actionInfo, @SuppressWarnings("rawtypes") AsyncFutureListener listener) {
+        spaceProxy.beforeSpaceAction(actionInfo);
+
+        if (Modifiers.contains(actionInfo.modifiers, Modifiers.ONE_WAY))
+            throw new UnsupportedOperationException("Oneway operation contradicts asynchronous invocation");
+
+        WriteEntrySpaceOperationRequest request = new WriteEntrySpaceOperationRequest(spaceProxy.getTypeManager(),
+                actionInfo.entry, actionInfo.entryPacket, actionInfo.txn, actionInfo.lease, actionInfo.timeout,
+                actionInfo.modifiers, actionInfo.isUpdate());
+        return spaceProxy.getProxyRouter().executeAsync(request, listener);
+    }
 }
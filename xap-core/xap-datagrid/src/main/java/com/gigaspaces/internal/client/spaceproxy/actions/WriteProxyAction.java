@@ -16,6 +16,8 @@
 
 package com.gigaspaces.internal.client.spaceproxy.actions;
 
+import com.gigaspaces.async.AsyncFuture;
+import com.gigaspaces.async.AsyncFutureListener;
 import com.gigaspaces.internal.client.spaceproxy.ISpaceProxy;
 import com.gigaspaces.internal.client.spaceproxy.actioninfo.WriteMultipleProxyActionInfo;
 import com.gigaspaces.internal.client.spaceproxy.actioninfo.WriteProxyActionInfo;
@@ -35,4 +37,6 @@ public abstract class WriteProxyAction<TSpaceProxy extends ISpaceProxy> {
 
     public abstract LeaseContext<?>[] writeMultiple(TSpaceProxy spaceProxy, WriteMultipleProxyActionInfo actionInfo)
             throws RemoteException, TransactionException, InterruptedException;
+
+    public abstract AsyncFuture<?> asyncWrite(TSpaceProxy spaceProxy, WriteProxyActionInfo actionInfo, AsyncFutureListener<?> listener);
 }
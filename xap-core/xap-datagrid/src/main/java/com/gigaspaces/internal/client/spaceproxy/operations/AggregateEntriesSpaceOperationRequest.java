@@ -56,6 +56,8 @@ public class AggregateEntriesSpaceOperationRequest extends SpaceOperationRequest
     private int readModifiers;
 
     private transient Exception _exception;
+    private transient IJSpace _spaceProxy;
+    private transient boolean _returnEntryPacket;
 
     /**
      * Required for Externalizable
@@ -71,6 +73,13 @@ public class AggregateEntriesSpaceOperationRequest extends SpaceOperationRequest
         //this.txn = txn;
     }
 
+    public AggregateEntriesSpaceOperationRequest(IJSpace spaceProxy, boolean returnEntryPacket, ITemplatePacket queryPacket,
+                                                 Transaction txn, int modifiers, List<SpaceEntriesAggregator> aggregators) {
+        this(queryPacket, txn, modifiers, aggregators);
+        this._spaceProxy = spaceProxy;
+        this._returnEntryPacket = returnEntryPacket;
+    }
+
     @Override
     public int getOperationCode() {
         return SpaceOperationsCodes.AGGREGATE_ENTRIES;
@@ -124,6 +133,11 @@ public class AggregateEntriesSpaceOperationRequest extends SpaceOperationRequest
         }
     }
 
+    @Override
+    public Object getAsyncFinalResult() throws Exception {
+        return getFinalResult(_spaceProxy, queryPacket, _returnEntryPacket);
+    }
+
     public AggregationResult getFinalResult(IJSpace spaceProxy, ITemplatePacket queryPacket, boolean returnEntryPacket)
             throws TransactionException, InterruptedException, RemoteException {
         AggregateEntriesSpaceOperationResult remoteOperationResult = getRemoteOperationResult();
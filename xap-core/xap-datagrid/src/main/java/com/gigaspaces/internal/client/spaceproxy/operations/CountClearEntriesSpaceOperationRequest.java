@@ -162,6 +162,11 @@ public class CountClearEntriesSpaceOperationRequest extends SpaceOperationReques
         return result.getCount();
     }
 
+    @Override
+    public Object getAsyncFinalResult() throws Exception {
+        return getFinalResult();
+    }
+
     private static final short FLAG_TRANSACTION = 1 << 0;
     private static final short FLAG_MODIFIERS = 1 << 1;
     private static final short FLAG_IS_CLEAR = 1 << 2;
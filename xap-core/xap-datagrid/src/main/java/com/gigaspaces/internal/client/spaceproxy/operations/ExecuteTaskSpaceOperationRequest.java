@@ -20,7 +20,9 @@ import com.gigaspaces.async.AsyncResult;
 import com.gigaspaces.async.AsyncResultFilter;
 import com.gigaspaces.async.AsyncResultFilter.Decision;
 import com.gigaspaces.async.AsyncResultFilterEvent;
+import com.gigaspaces.async.AsyncResultsAccumulator;
 import com.gigaspaces.async.AsyncResultsReducer;
+import com.gigaspaces.async.IncrementalAsyncResultsReducer;
 import com.gigaspaces.async.internal.DefaultAsyncResult;
 import com.gigaspaces.executor.SpaceTask;
 import com.gigaspaces.executor.SpaceTaskWrapper;
@@ -59,6 +61,9 @@ public class ExecuteTaskSpaceOperationRequest extends SpaceOperationRequest<Exec
     private transient AsyncResultFilter<Object> _filter;
 
     private transient List<AsyncResult<Object>> _prevResults;
+    // when set results are folded as they arrive instead of being kept in _prevResults
+    private transient AsyncResultsAccumulator<Object, Object> _accumulator;
+    private transient Exception _accumulationError;
     private Transaction _originalTranscation;
 
     /**
@@ -74,6 +79,7 @@ public class ExecuteTaskSpaceOperationRequest extends SpaceOperationRequest<Exec
         this._routingValue = routingValue;
         this._reducer = task instanceof AsyncResultsReducer ? (AsyncResultsReducer<Object, Object>) task : null;
         this._filter = task instanceof AsyncResultFilter ? (AsyncResultFilter<Object>) task : null;
+        this._accumulator = task instanceof IncrementalAsyncResultsReducer ? ((IncrementalAsyncResultsReducer<Object, Object>) task).createAccumulator() : null;
     }
 
     @Override
@@ -122,6 +128,8 @@ public class ExecuteTaskSpaceOperationRequest extends SpaceOperationRequest<Exec
     public boolean processPartitionResult(ExecuteTaskSpaceOperationResult remoteOperationResult, List<ExecuteTaskSpaceOperationResult> previousResults,
                                           int numOfPartitions) {
         AsyncResult<Object> currResult = new DefaultAsyncResult<Object>(remoteOperationResult.getResult(), remoteOperationResult.getExecutionException());
+        if (_accumulator != null)
+            return accumulate(currResult);
         if (_filter != null)
             return filterResult(currResult, numOfPartitions);
 
@@ -129,6 +137,12 @@ public class ExecuteTaskSpaceOperationRequest extends SpaceOperationRequest<Exec
         return true;
     }
 
+    @Override
+    public boolean requiresPreviousPartitionResults() {
+        // accumulated results are not kept
+        return _accumulator == null;
+    }
+
     @Override
     public Object getAsyncFinalResult() throws Exception {
         ExecuteTaskSpaceOperationResult remoteResult = getRemoteOperationResult();
@@ -138,9 +152,18 @@ public class ExecuteTaskSpaceOperationRequest extends SpaceOperationRequest<Exec
                     throw remoteResult.getExecutionException();
                 return remoteResult.getResult();
             }
-            _prevResults = append(_prevResults, new DefaultAsyncResult<Object>(remoteResult.getResult(), remoteResult.getExecutionException()));
+            AsyncResult<Object> result = new DefaultAsyncResult<Object>(remoteResult.getResult(), remoteResult.getExecutionException());
+            if (_accumulator != null)
+                accumulate(result);
+            else
+                _prevResults = append(_prevResults, result);
         }
 
+        if (_accumulator != null) {
+            if (_accumulationError != null)
+                throw _accumulationError;
+            return _accumulator.getResult();
+        }
         return _reducer.reduce(_prevResults);
     }
 
@@ -199,6 +222,17 @@ public class ExecuteTaskSpaceOperationRequest extends SpaceOperationRequest<Exec
         }
     }
 
+    private boolean accumulate(AsyncResult<Object> result) {
+        if (_accumulationError != null)
+            return false;
+        try {
+            return _accumulator.accumulate(result);
+        } catch (Exception e) {
+            _accumulationError = e;
+            return false;
+        }
+    }
+
     private static List<AsyncResult<Object>> append(List<AsyncResult<Object>> prevResults, AsyncResult<Object> result) {
         if (prevResults == null)
             prevResults = new ArrayList<AsyncResult<Object>>();
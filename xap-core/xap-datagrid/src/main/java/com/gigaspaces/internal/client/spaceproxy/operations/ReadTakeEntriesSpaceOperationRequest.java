@@ -18,6 +18,7 @@ package com.gigaspaces.internal.client.spaceproxy.operations;
 
 import com.gigaspaces.client.ReadMultipleException;
 import com.gigaspaces.client.TakeMultipleException;
+import com.gigaspaces.internal.client.spaceproxy.metadata.ISpaceProxyTypeManager;
 import com.gigaspaces.internal.exceptions.BatchQueryException;
 import com.gigaspaces.internal.io.IOUtils;
 import com.gigaspaces.internal.query.QueryUtils;
@@ -76,6 +77,7 @@ public class ReadTakeEntriesSpaceOperationRequest extends SpaceOperationRequest<
     private transient Map<IEntryPacket[], Integer> replicationLevels;
     private transient List<ReplicationLevel> levels = null;
     private transient ExplainPlanImpl explainPlan;
+    private transient ISpaceProxyTypeManager _typeManager;
 
     /**
      * Required for Externalizable.
@@ -99,6 +101,13 @@ public class ReadTakeEntriesSpaceOperationRequest extends SpaceOperationRequest<
         this.explainPlan = ExplainPlanImpl.fromQueryPacket(query);
     }
 
+    public ReadTakeEntriesSpaceOperationRequest(ISpaceProxyTypeManager typeManager,
+            ITemplatePacket templatePacket, Transaction transaction,
+            boolean isTake, int modifiers, int maxResults, int minResultsToWaitFor, long timeout, boolean ifExist, Object query) {
+        this(templatePacket, transaction, isTake, modifiers, maxResults, minResultsToWaitFor, timeout, ifExist, query);
+        this._typeManager = typeManager;
+    }
+
     @Override
     public void toText(Textualizer textualizer) {
         super.toText(textualizer);
@@ -180,6 +189,14 @@ public class ReadTakeEntriesSpaceOperationRequest extends SpaceOperationRequest<
         return _maxResults > 0;
     }
 
+    @Override
+    public Object getAsyncFinalResult() throws Exception {
+        IEntryPacket[] results = getFinalResult();
+        if (_typeManager == null)
+            return results;
+        return _typeManager.convertQueryResults(results, _templatePacket, _query == _templatePacket, null);
+    }
+
     @SuppressWarnings("deprecation")
     public IEntryPacket[] getFinalResult()
             throws RemoteException, TransactionException, UnusableEntryException {
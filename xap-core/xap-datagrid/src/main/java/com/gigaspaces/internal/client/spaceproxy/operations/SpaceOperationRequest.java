@@ -71,6 +71,11 @@ public abstract class SpaceOperationRequest<TResult extends SpaceOperationResult
         throw new UnsupportedOperationException("This method must be overridden if execution type is broadcast");
     }
 
+    @Override
+    public boolean requiresPreviousPartitionResults() {
+        return true;
+    }
+
     @Override
     public Object getAsyncFinalResult() throws Exception {
         return getRemoteOperationResult();
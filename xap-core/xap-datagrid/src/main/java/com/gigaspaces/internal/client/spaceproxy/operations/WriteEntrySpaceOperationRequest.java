@@ -16,6 +16,7 @@
 
 package com.gigaspaces.internal.client.spaceproxy.operations;
 
+import com.gigaspaces.internal.client.spaceproxy.metadata.ISpaceProxyTypeManager;
 import com.gigaspaces.internal.io.IOUtils;
 import com.gigaspaces.internal.remoting.routing.partitioned.PartitionedClusterExecutionType;
 import com.gigaspaces.internal.remoting.routing.partitioned.PartitionedClusterRemoteOperationRouter;
@@ -47,6 +48,9 @@ public class WriteEntrySpaceOperationRequest extends SpaceOperationRequest<Write
     private int _modifiers;
     private boolean _isUpdate;
 
+    private transient ISpaceProxyTypeManager _typeManager;
+    private transient Object _entry;
+
     /**
      * Required for Externalizable
      */
@@ -62,6 +66,13 @@ public class WriteEntrySpaceOperationRequest extends SpaceOperationRequest<Write
         _isUpdate = isUpdate;
     }
 
+    public WriteEntrySpaceOperationRequest(ISpaceProxyTypeManager typeManager, Object entry, IEntryPacket entryPacket,
+                                           Transaction txn, long lease, long timeout, int modifiers, boolean isUpdate) {
+        this(entryPacket, txn, lease, timeout, modifiers, isUpdate);
+        _typeManager = typeManager;
+        _entry = entry;
+    }
+
     @Override
     public void toText(Textualizer textualizer) {
         super.toText(textualizer);
@@ -124,6 +135,15 @@ public class WriteEntrySpaceOperationRequest extends SpaceOperationRequest<Write
         return _txn;
     }
 
+    @Override
+    public Object getAsyncFinalResult() throws Exception {
+        WriteEntrySpaceOperationResult result = getRemoteOperationResult();
+        result.processExecutionException();
+        if (_typeManager == null)
+            return result.getResult();
+        return _typeManager.processWriteResult(result.getResult(), _entry, _entryPacket);
+    }
+
     @Override
     public boolean isBlockingOperation() {
         return _timeout != 0;
@@ -48,4 +48,16 @@ public interface IReplicationOutContext {
     boolean isBlobstorePendingReplicationBulk();
 
     void blobstorePendingReplicationBulk();
+
+    /**
+     * @return true if this context holds a transaction prepare/commit which may be replicated as
+     * part of a group commit
+     * @since 14.2
+     */
+    boolean isTransactionGroupCommit();
+
+    /**
+     * @since 14.2
+     */
+    void setTransactionGroupCommit(boolean transactionGroupCommit);
 }
@@ -59,6 +59,7 @@ public class ReplicationOutContext extends AbstractResource
     // blobstore related fields
     private int _blobstoreReplicationBulkId;
     private boolean _blobstorePendingReplicationBulk; // indicates a blobstore bulk is flushed and waiting for replication
+    private boolean _transactionGroupCommit;
 
     public IReplicationGroupOutContext getGroupContext(String groupName) {
         if (isSingleGroupParticipant()) {
@@ -89,6 +90,7 @@ public class ReplicationOutContext extends AbstractResource
         _directPersistencyHandler = null;
         _blobstoreReplicationBulkId = 0;
         _blobstorePendingReplicationBulk = false;
+        _transactionGroupCommit = false;
     }
 
     public void setGroupContext(IReplicationGroupOutContext groupContext) {
@@ -298,6 +300,16 @@ public class ReplicationOutContext extends AbstractResource
         _blobstorePendingReplicationBulk = true;
     }
 
+    @Override
+    public boolean isTransactionGroupCommit() {
+        return _transactionGroupCommit;
+    }
+
+    @Override
+    public void setTransactionGroupCommit(boolean transactionGroupCommit) {
+        _transactionGroupCommit = transactionGroupCommit;
+    }
+
     @Override
     public String toString() {
         if (isEmpty())
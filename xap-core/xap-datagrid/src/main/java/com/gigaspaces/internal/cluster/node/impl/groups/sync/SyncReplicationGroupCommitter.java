@@ -0,0 +1,205 @@
+/*
+ * Copyright (c) 2008-2016, GigaSpaces Technologies, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.gigaspaces.internal.cluster.node.impl.groups.sync;
+
+import com.gigaspaces.internal.cluster.node.impl.packets.IReplicationOrderedPacket;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Groups the transaction prepare/commit replication of concurrent committers into a single sync
+ * replication round trip.
+ *
+ * The first committer to arrive becomes the leader. Committers arriving while the leader's batch is
+ * being replicated queue up and the next leader replicates all of them together as one ordered
+ * batch, releasing every waiter of that batch once it was replicated. An optional window lets the
+ * leader wait for more committers before it replicates. If a batch fails, each of its commits is
+ * replicated again on its own, so a failure only fails the commits it belongs to.
+ *
+ * @since 14.2
+ */
+@com.gigaspaces.api.InternalApi
+public abstract class SyncReplicationGroupCommitter {
+
+    private static final Comparator<IReplicationOrderedPacket> KEY_ORDER = new Comparator<IReplicationOrderedPacket>() {
+        @Override
+        public int compare(IReplicationOrderedPacket p1, IReplicationOrderedPacket p2) {
+            return p1.getKey() < p2.getKey() ? -1 : (p1.getKey() == p2.getKey() ? 0 : 1);
+        }
+    };
+
+    private final String _groupName;
+    private final long _windowNanos;
+    private final int _maxBatchSize;
+    private final Logger _logger;
+
+    private final ReentrantLock _lock = new ReentrantLock();
+    private final Condition _batchReplicated = _lock.newCondition();
+    private final Condition _batchFull = _lock.newCondition();
+    private List<PendingCommit> _pending = new ArrayList<PendingCommit>();
+    private boolean _replicating;
+
+    public SyncReplicationGroupCommitter(String groupName, long windowMicros, int maxBatchSize, Logger logger) {
+        if (maxBatchSize < 1)
+            throw new IllegalArgumentException("maxBatchSize must be positive [" + maxBatchSize + "]");
+        _groupName = groupName;
+        _windowNanos = TimeUnit.MICROSECONDS.toNanos(Math.max(0, windowMicros));
+        _maxBatchSize = maxBatchSize;
+        _logger = logger;
+    }
+
+    /**
+     * Replicates the given context to all the channels of the group.
+     *
+     * @return number of channels which replicated the context synchronously
+     */
+    protected abstract int replicate(ISyncReplicationGroupOutContext groupContext);
+
+    /**
+     * Replicates the given context, possibly together with the contexts of concurrent committers,
+     * and returns once it was replicated.
+     */
+    public int execute(ISyncReplicationGroupOutContext groupContext) {
+        final PendingCommit commit = new PendingCommit(groupContext);
+        final List<PendingCommit> batch;
+        _lock.lock();
+        try {
+            _pending.add(commit);
+            if (_pending.size() >= _maxBatchSize)
+                _batchFull.signal();
+            while (_replicating && !commit._done)
+                _batchReplicated.awaitUninterruptibly();
+            if (commit._done)
+                return commit.getResult();
+
+            _replicating = true;
+            awaitWindow();
+            batch = _pending;
+            _pending = new ArrayList<PendingCommit>();
+        } finally {
+            _lock.unlock();
+        }
+
+        if (batch.size() == 1) {
+            replicate(batch, groupContext);
+        } else if (!replicate(batch, merge(batch))) {
+            if (_logger.isLoggable(Level.FINE))
+                _logger.fine("group commit of " + batch.size() + " transactions failed, replicating each transaction separately");
+            for (PendingCommit pendingCommit : batch)
+                replicate(Collections.singletonList(pendingCommit), pendingCommit._groupContext);
+        }
+
+        _lock.lock();
+        try {
+            for (PendingCommit pendingCommit : batch)
+                pendingCommit._done = true;
+            _replicating = false;
+            _batchReplicated.signalAll();
+        } finally {
+            _lock.unlock();
+        }
+        return commit.getResult();
+    }
+
+    /**
+     * Replicates the given context on behalf of the given commits.
+     *
+     * @return true if the context was replicated successfully
+     */
+    private boolean replicate(List<PendingCommit> commits, ISyncReplicationGroupOutContext context) {
+        int result = 0;
+        Throwable error = null;
+        try {
+            result = replicate(context);
+        } catch (RuntimeException e) {
+            error = e;
+        } catch (Error e) {
+            error = e;
+        }
+        for (PendingCommit pendingCommit : commits)
+            pendingCommit.setOutcome(result, error);
+        return error == null;
+    }
+
+    private void awaitWindow() {
+        long remaining = _windowNanos;
+        while (remaining > 0 && _pending.size() < _maxBatchSize) {
+            try {
+                remaining = _batchFull.awaitNanos(remaining);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+    }
+
+    private ISyncReplicationGroupOutContext merge(List<PendingCommit> batch) {
+        List<IReplicationOrderedPacket> packets = new ArrayList<IReplicationOrderedPacket>();
+        for (PendingCommit pendingCommit : batch) {
+            ISyncReplicationGroupOutContext context = pendingCommit._groupContext;
+            if (context.isSinglePacket())
+                packets.add(context.getSinglePacket());
+            else
+                packets.addAll(context.getOrderedPackets());
+        }
+        // packets of different committers were added to the backlog concurrently
+        Collections.sort(packets, KEY_ORDER);
+
+        SyncReplicationGroupOutContext merged = new SyncReplicationGroupOutContext(_groupName);
+        for (IReplicationOrderedPacket packet : packets)
+            merged.addOrderedPacket(packet);
+        // Only plain transaction commits are grouped, so any of their contexts describes the batch
+        merged.setEntireContext(batch.get(0)._groupContext.getEntireContext());
+
+        if (_logger.isLoggable(Level.FINEST))
+            _logger.finest("replicating group commit of " + batch.size() + " transactions, " + packets.size() + " packets");
+        return merged;
+    }
+
+    private static class PendingCommit {
+        private final ISyncReplicationGroupOutContext _groupContext;
+        // Guarded by the committer lock, the outcome is published by setting it
+        private boolean _done;
+        private int _result;
+        private Throwable _error;
+
+        private PendingCommit(ISyncReplicationGroupOutContext groupContext) {
+            _groupContext = groupContext;
+        }
+
+        private void setOutcome(int result, Throwable error) {
+            _result = result;
+            _error = error;
+        }
+
+        private int getResult() {
+            if (_error instanceof RuntimeException)
+                throw (RuntimeException) _error;
+            if (_error instanceof Error)
+                throw (Error) _error;
+            return _result;
+        }
+    }
+}
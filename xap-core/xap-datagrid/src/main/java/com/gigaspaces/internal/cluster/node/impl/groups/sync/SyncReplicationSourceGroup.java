@@ -35,6 +35,7 @@ import com.gigaspaces.internal.cluster.node.impl.router.IReplicationRouter;
 import com.gigaspaces.internal.server.storage.IEntryHolder;
 import com.gigaspaces.internal.utils.concurrent.IAsyncHandlerProvider;
 import com.j_spaces.core.filters.ReplicationStatistics.ReplicationMode;
+import com.j_spaces.kernel.SystemProperties;
 
 import net.jini.core.transaction.server.ServerTransaction;
 
@@ -62,6 +63,7 @@ public class SyncReplicationSourceGroup
     final private boolean _singleTarget;
     final private SyncReplicationSourceChannel _singleTargetChannel;
     final private ReplicationMode _channelType;
+    final private SyncReplicationGroupCommitter _groupCommitter;
 
     public SyncReplicationSourceGroup(
             DynamicSourceGroupConfigHolder groupConfig,
@@ -96,6 +98,23 @@ public class SyncReplicationSourceGroup
             // In multi target scenario.
             _singleTargetChannel = null;
         }
+        _groupCommitter = createGroupCommitter();
+    }
+
+    private SyncReplicationGroupCommitter createGroupCommitter() {
+        if (!Boolean.parseBoolean(System.getProperty(SystemProperties.REPLICATION_SYNC_GROUP_COMMIT_ENABLED,
+                SystemProperties.REPLICATION_SYNC_GROUP_COMMIT_ENABLED_DEFAULT)))
+            return null;
+        long windowMicros = Long.getLong(SystemProperties.REPLICATION_SYNC_GROUP_COMMIT_WINDOW_MICROS,
+                SystemProperties.REPLICATION_SYNC_GROUP_COMMIT_WINDOW_MICROS_DEFAULT);
+        int maxBatchSize = Integer.getInteger(SystemProperties.REPLICATION_SYNC_GROUP_COMMIT_MAX_BATCH_SIZE,
+                SystemProperties.REPLICATION_SYNC_GROUP_COMMIT_MAX_BATCH_SIZE_DEFAULT);
+        return new SyncReplicationGroupCommitter(getGroupName(), windowMicros, maxBatchSize, _specificLogger) {
+            @Override
+            protected int replicate(ISyncReplicationGroupOutContext groupContext) {
+                return executeOnChannels(groupContext);
+            }
+        };
     }
 
     private SyncReplicationSourceChannel[] prepareChannelsArray() {
@@ -137,6 +156,20 @@ public class SyncReplicationSourceGroup
         if (groupContext.isEmpty())
             return 0;
         ISyncReplicationGroupOutContext syncGroupContext = (ISyncReplicationGroupOutContext) groupContext;
+        if (_groupCommitter != null && isGroupCommitCandidate(syncGroupContext))
+            return _groupCommitter.execute(syncGroupContext);
+        return executeOnChannels(syncGroupContext);
+    }
+
+    private static boolean isGroupCommitCandidate(ISyncReplicationGroupOutContext groupContext) {
+        ReplicationOutContext entireContext = groupContext.getEntireContext();
+        // Direct persistency and blobstore bulks track the replicated keys per context
+        return entireContext != null && entireContext.isTransactionGroupCommit()
+                && entireContext.getDirectPesistencySyncHandler() == null
+                && !entireContext.isBlobstorePendingReplicationBulk();
+    }
+
+    private int executeOnChannels(ISyncReplicationGroupOutContext syncGroupContext) {
         int res = 0;
         if (isSingleTarget())
             return _singleTargetChannel.execute(syncGroupContext);
@@ -55,6 +55,12 @@ public interface RemoteOperationRequest<TResult extends RemoteOperationResult> e
 
     boolean processPartitionResult(TResult remoteOperationResult, List<TResult> previousResults, int numOfPartitions);
 
+    /**
+     * Returns false if processed partition results are no longer needed, in which case the
+     * previous results passed to {@link #processPartitionResult} hold a null per processed result.
+     */
+    boolean requiresPreviousPartitionResults();
+
     boolean isDedicatedPoolRequired();
 
 }
@@ -56,7 +56,7 @@ public class BroadcastOperationFutureListener<T extends RemoteOperationResult> e
         if (_mainRequest == partitionRequest)
             _mainRequest.setRemoteOperationResult(null);
 
-        _previousResults.add(partitionResult);
+        _previousResults.add(_mainRequest.requiresPreviousPartitionResults() ? partitionResult : null);
         if (_mainRequest.getPartitionedClusterExecutionType() == PartitionedClusterExecutionType.BROADCAST_SEQUENTIAL) {
             // Get next partition to execute:
             final int partitionId = (getStartPartitionId() + _previousResults.size()) % _router.getNumOfPartitions();
@@ -231,7 +231,7 @@ public class PartitionedClusterRemoteOperationRouter extends AbstractRemoteOpera
             boolean continueProcessing = request.processPartitionResult(partitionResult, previousResults, _partitions.length);
             if (!continueProcessing)
                 break;
-            previousResults.add(partitionResult);
+            previousResults.add(request.requiresPreviousPartitionResults() ? partitionResult : null);
         }
     }
 
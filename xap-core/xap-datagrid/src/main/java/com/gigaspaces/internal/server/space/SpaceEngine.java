@@ -70,6 +70,7 @@ import com.gigaspaces.internal.server.metadata.AddTypeDescResult;
 import com.gigaspaces.internal.server.metadata.AddTypeDescResultType;
 import com.gigaspaces.internal.server.metadata.IServerTypeDesc;
 import com.gigaspaces.internal.server.space.events.SpaceDataEventManager;
+import com.gigaspaces.internal.server.space.executors.SpaceTaskExecutionEngine;
 import com.gigaspaces.internal.server.space.metadata.ServerTypeDesc;
 import com.gigaspaces.internal.server.space.metadata.SpaceTypeManager;
 import com.gigaspaces.internal.server.space.operations.WriteEntriesResult;
@@ -209,6 +210,8 @@ public class SpaceEngine implements ISpaceModeListener {
     // if this boolean is true, use dirty read (i.e. entries will be
     // read if if they are under write-lock)
     private final boolean _useDirtyRead;
+    // limits the concurrency of user tasks, null if task lanes are disabled
+    private final SpaceTaskExecutionEngine _taskExecutionEngine;
     // client retries
     private final int _TTL;
 
@@ -355,6 +358,7 @@ public class SpaceEngine implements ISpaceModeListener {
         _duplicateOperationIDFilter = createDuplicateOperationIDFilter();
         _resultsSizeLimit = _configReader.getIntSpaceProperty(ENGINE_QUERY_RESULT_SIZE_LIMIT, ENGINE_QUERY_RESULT_SIZE_LIMIT_DEFAULT);
         _resultsSizeLimitMemoryCheckBatchSize = _configReader.getIntSpaceProperty(ENGINE_QUERY_RESULT_SIZE_LIMIT_MEMORY_CHECK_BATCH_SIZE, ENGINE_QUERY_RESULT_SIZE_LIMIT_MEMORY_CHECK_BATCH_SIZE_DEFAULT);
+        _taskExecutionEngine = createTaskExecutionEngine();
         if (!_isLocalCache)
             registerSpaceMetrics(_metricRegistrator);
 
@@ -422,6 +426,31 @@ public class SpaceEngine implements ISpaceModeListener {
         return _metricManager.createRegistrator(MetricConstants.SPACE_METRIC_NAME, tags, dynamicTags);
     }
 
+    private SpaceTaskExecutionEngine createTaskExecutionEngine() {
+        if (!_configReader.getBooleanSpaceProperty(ENGINE_TASKS_LANES_ENABLED_PROP, ENGINE_TASKS_LANES_ENABLED_DEFAULT))
+            return null;
+        // Queued tasks wait on LRMI custom pool threads, which must be left for the regular space operations
+        final int customPoolSize = LRMIRuntime.getRuntime().getCustomThreadPool().getMaximumPoolSize();
+        return new SpaceTaskExecutionEngine(
+                _configReader.getIntSpaceProperty(ENGINE_TASKS_LATENCY_CONCURRENCY_PROP, ENGINE_TASKS_LATENCY_CONCURRENCY_DEFAULT),
+                getTaskQueueSize(ENGINE_TASKS_LATENCY_QUEUE_SIZE_PROP, ENGINE_TASKS_LATENCY_QUEUE_SIZE_DEFAULT, customPoolSize / 4),
+                _configReader.getIntSpaceProperty(ENGINE_TASKS_BULK_CONCURRENCY_PROP, ENGINE_TASKS_BULK_CONCURRENCY_DEFAULT),
+                getTaskQueueSize(ENGINE_TASKS_BULK_QUEUE_SIZE_PROP, ENGINE_TASKS_BULK_QUEUE_SIZE_DEFAULT, customPoolSize / 8),
+                _configReader.getLongSpaceProperty(ENGINE_TASKS_QUEUE_TIMEOUT_PROP, ENGINE_TASKS_QUEUE_TIMEOUT_DEFAULT),
+                _configReader.getIntSpaceProperty(ENGINE_TASKS_MAX_PER_CLASS_PROP, ENGINE_TASKS_MAX_PER_CLASS_DEFAULT),
+                _configReader.getSetSpaceProperty(ENGINE_TASKS_LATENCY_CRITICAL_CLASSES_PROP, ENGINE_TASKS_LATENCY_CRITICAL_CLASSES_DEFAULT, ","));
+    }
+
+    private int getTaskQueueSize(String property, String defaultValue, int max) {
+        final int queueSize = _configReader.getIntSpaceProperty(property, defaultValue);
+        if (queueSize <= max)
+            return queueSize;
+        if (_logger.isLoggable(Level.WARNING))
+            _logger.warning(property + " [" + queueSize + "] is reduced to " + max
+                    + " - queued tasks may not take over the LRMI custom thread pool");
+        return max;
+    }
+
     private void registerSpaceMetrics(MetricRegistrator registrator) {
         registrator.register(registrator.toPath(MetricConstants.CONNECTIONS_METRIC_NAME, "incoming", "active"), new Gauge<Integer>() {
             @Override
@@ -436,6 +465,9 @@ public class SpaceEngine implements ISpaceModeListener {
                 return countTransactions(TransactionInfo.Types.ALL, TransactionConstants.ACTIVE);
             }
         });
+
+        if (_taskExecutionEngine != null)
+            _taskExecutionEngine.register(registrator);
     }
 
     private IDuplicateOperationFilter createDuplicateOperationIDFilter() {
@@ -6635,6 +6667,9 @@ public class SpaceEngine implements ISpaceModeListener {
      */
     private void replicateAndfreeCacheContextTxn(Context context, ServerTransaction transaction) {
         try {
+            // transaction end packets of concurrent committers can be replicated together
+            if (context != null && context.getReplicationContext() != null)
+                context.getReplicationContext().setTransactionGroupCommit(true);
             replicateAndfreeCache(context);
         } catch (RuntimeException ex) {
             if (_logger.isLoggable(Level.SEVERE)) {
@@ -7082,6 +7117,10 @@ public class SpaceEngine implements ISpaceModeListener {
         return _metricRegistrator;
     }
 
+    public SpaceTaskExecutionEngine getTaskExecutionEngine() {
+        return _taskExecutionEngine;
+    }
+
     public void registerLocalView(ITemplatePacket[] queryPackets, Collection<SpaceQueryDetails> queryDescriptions,
                                   RouterStubHolder viewStub, int batchSize, long batchTimeout, SpaceContext spaceContext)
             throws UnusableEntryException, UnknownTypeException {
@@ -81,6 +81,7 @@ import com.gigaspaces.internal.remoting.RemoteOperationResult;
 import com.gigaspaces.admin.demote.DemoteFailedException;
 import com.gigaspaces.internal.server.space.demote.DemoteHandler;
 import com.gigaspaces.internal.server.space.executors.SpaceActionExecutor;
+import com.gigaspaces.internal.server.space.executors.SpaceTaskExecutionEngine;
 import com.gigaspaces.internal.server.space.operations.SpaceOperationsExecutor;
 import com.gigaspaces.internal.server.space.operations.WriteEntriesResult;
 import com.gigaspaces.internal.server.space.operations.WriteEntryResult;
@@ -2637,7 +2638,10 @@ public class SpaceImpl extends AbstractService implements IRemoteSpace, IInterna
 
         IDirectSpaceProxy spaceProxy = getTaskProxy().getDirectProxy();
         SpaceContext prevContext = null;
+        SpaceTaskExecutionEngine.Admission admission = null;
         try {
+            if (!isSystemTask && _engine.getTaskExecutionEngine() != null)
+                admission = _engine.getTaskExecutionEngine().admit(typeName);
             if (tx != null && newRouter) {
                 // Register transaction in space - in case the task does not effect any objects in space
                 XtnEntry xtnEntry = _engine.getTransactionHandler().attachToXtnGranular((ServerTransaction) tx, false);
@@ -2656,6 +2660,8 @@ public class SpaceImpl extends AbstractService implements IRemoteSpace, IInterna
         } catch (Exception e) {
             throw new ExecutionException(e);
         } finally {
+            if (admission != null)
+                admission.release();
             if (isSecuredSpace())
                 spaceProxy.getSecurityManager().setThreadSpaceContext(prevContext);
 
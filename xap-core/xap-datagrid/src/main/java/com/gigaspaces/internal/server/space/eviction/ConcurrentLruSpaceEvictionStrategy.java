@@ -17,7 +17,9 @@
 package com.gigaspaces.internal.server.space.eviction;
 
 import com.gigaspaces.server.eviction.EvictableServerEntry;
+import com.gigaspaces.server.eviction.SpaceEvictionManager;
 import com.gigaspaces.server.eviction.SpaceEvictionStrategy;
+import com.gigaspaces.server.eviction.SpaceEvictionStrategyConfig;
 
 import java.util.Iterator;
 import java.util.concurrent.atomic.AtomicInteger;
@@ -33,7 +35,7 @@ import java.util.logging.Logger;
  * @since 7.0
  */
 @com.gigaspaces.api.InternalApi
-public class ConcurrentLruSpaceEvictionStrategy extends SpaceEvictionStrategy {
+public class ConcurrentLruSpaceEvictionStrategy extends SpaceEvictionStrategy implements EvictionStatisticsProvider {
     private static final Logger _logger = Logger.getLogger(com.gigaspaces.logger.Constants.LOGGER_CACHE);
     private static final int TOUCH_UNSAFE_MARGIN = 500;
     private static final int MIN_TOUCH_THRESHOLD = 0;
@@ -42,6 +44,7 @@ public class ConcurrentLruSpaceEvictionStrategy extends SpaceEvictionStrategy {
     private final int _touchThreshold;
     private final IEvictionChain _chain;
     private final AtomicInteger _estimatedNumCachedEntries; //including pinned
+    private final EvictionStatistics _statistics = new EvictionStatistics();
     private int _estimatedNumCachedEntriesUnsafe; //non volatile- touch estimation
     private int _touchLimit;  //don't need a volatile here
 
@@ -63,6 +66,13 @@ public class ConcurrentLruSpaceEvictionStrategy extends SpaceEvictionStrategy {
                     "]");
     }
 
+    @Override
+    public void initialize(SpaceEvictionManager evictionManager, SpaceEvictionStrategyConfig config) {
+        super.initialize(evictionManager, config);
+        if (config.getMetricRegistrator() != null)
+            _statistics.register(config.getMetricRegistrator());
+    }
+
     /**
      * Determines whether this eviction strategy implementation requires concurrency protection from
      * the space.
@@ -85,6 +95,7 @@ public class ConcurrentLruSpaceEvictionStrategy extends SpaceEvictionStrategy {
 
     @Override
     public void onRead(EvictableServerEntry entry) {
+        _statistics.hit();
         touch(entry);
     }
 
@@ -116,6 +127,14 @@ public class ConcurrentLruSpaceEvictionStrategy extends SpaceEvictionStrategy {
         return numToEvict > 0 ? evictEntriesFromCache(numToEvict) : 0;
     }
 
+    /**
+     * Returns the hit/miss statistics of this strategy.
+     */
+    @Override
+    public EvictionStatistics getStatistics() {
+        return _statistics;
+    }
+
     private void introduce(EvictableServerEntry entry) {
         // Note: the estimated is intentionally incremented before the entry is added to avoid actual# > limit.
         _estimatedNumCachedEntriesUnsafe = _estimatedNumCachedEntries.incrementAndGet();
@@ -153,8 +172,10 @@ public class ConcurrentLruSpaceEvictionStrategy extends SpaceEvictionStrategy {
                 continue; //deleted or pinned
 
             //try this one
-            if (getEvictionManager().tryEvict(entry))
+            if (getEvictionManager().tryEvict(entry)) {
                 evicted++;
+                _statistics.evicted();
+            }
 
             if (evicted == numToEvict)
                 break;
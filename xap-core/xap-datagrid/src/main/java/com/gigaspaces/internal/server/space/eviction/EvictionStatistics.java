@@ -0,0 +1,84 @@
+/*
+ * Copyright (c) 2008-2016, GigaSpaces Technologies, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.gigaspaces.internal.server.space.eviction;
+
+import com.gigaspaces.metrics.Gauge;
+import com.gigaspaces.metrics.LongCounter;
+import com.gigaspaces.metrics.MetricRegistrator;
+
+/**
+ * Hit/miss counters of an eviction strategy. a hit is a read of an entry which resides in the
+ * cache, a miss is an entry which had to be loaded from the data source on demand (initial load is
+ * not a miss). Registered through the {@link com.gigaspaces.server.eviction.SpaceEvictionStrategyConfig}
+ * so different strategies can be compared on the same workload, and by client side caches which
+ * evict entries as well.
+ *
+ * @since 14.2
+ */
+@com.gigaspaces.api.InternalApi
+public class EvictionStatistics {
+    private final LongCounter _hits = new LongCounter();
+    private final LongCounter _misses = new LongCounter();
+    private final LongCounter _evictions = new LongCounter();
+
+    public void register(MetricRegistrator registrator) {
+        registrator.register("hits", _hits);
+        registrator.register("misses", _misses);
+        registrator.register("evictions", _evictions);
+        registrator.register("hit-ratio", new Gauge<Double>() {
+            @Override
+            public Double getValue() throws Exception {
+                long hits = _hits.getCount();
+                return validate(calculatePercent(hits, hits + _misses.getCount()));
+            }
+        });
+    }
+
+    public void hit() {
+        _hits.inc();
+    }
+
+    public void miss() {
+        _misses.inc();
+    }
+
+    public void evicted() {
+        _evictions.inc();
+    }
+
+    public long getHits() {
+        return _hits.getCount();
+    }
+
+    public long getMisses() {
+        return _misses.getCount();
+    }
+
+    public long getEvictions() {
+        return _evictions.getCount();
+    }
+
+    /**
+     * @return the percentage of reads served from the cache, or -1 if no reads were recorded yet
+     */
+    public double getHitRatio() {
+        long hits = getHits();
+        long total = hits + getMisses();
+        return total == 0 ? -1.0 : ((double) hits) / total * 100;
+    }
+}
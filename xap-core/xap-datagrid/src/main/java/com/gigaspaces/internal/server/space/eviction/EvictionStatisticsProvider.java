@@ -0,0 +1,29 @@
+/*
+ * Copyright (c) 2008-2016, GigaSpaces Technologies, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.gigaspaces.internal.server.space.eviction;
+
+/**
+ * An eviction strategy which keeps {@link EvictionStatistics}. Hits are recorded by the strategy,
+ * misses are recorded by the cache manager when an entry is loaded from the data source on demand,
+ * since the strategy cannot tell a demand load from an initial load.
+ *
+ * @since 14.2
+ */
+public interface EvictionStatisticsProvider {
+    EvictionStatistics getStatistics();
+}
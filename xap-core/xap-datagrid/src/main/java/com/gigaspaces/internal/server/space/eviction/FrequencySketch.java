@@ -0,0 +1,124 @@
+/*
+ * Copyright (c) 2008-2016, GigaSpaces Technologies, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.gigaspaces.internal.server.space.eviction;
+
+/**
+ * Compact count-min sketch used to estimate the access frequency of entries. Each counter is 4 bits
+ * wide and 16 counters are packed in a long, an item is mapped to 4 counters (one per hash
+ * function) in the same long. Once the number of recorded accesses reaches the sample size all
+ * counters are halved, so the estimation reflects recent history rather than all time popularity.
+ * <p>
+ * NOTE - this class is not thread safe, callers are expected to guard it.
+ *
+ * @since 14.2
+ */
+@com.gigaspaces.api.InternalApi
+public class FrequencySketch {
+    private static final long[] SEEDS = {0xc3a5c85c97cb3127L, 0xb492b66fbe98f273L, 0x9ae16a3b2f90404fL, 0xcbf29ce484222325L};
+    private static final long RESET_MASK = 0x7777777777777777L;
+    private static final long ONE_MASK = 0x1111111111111111L;
+    private static final int MAX_COUNTER_VALUE = 15;
+    private static final int MIN_TABLE_SIZE = 16;
+    private static final int MAX_TABLE_SIZE = 1 << 22;
+
+    private final long[] _table;
+    private final int _tableMask;
+    private final int _sampleSize;
+    private int _size;
+
+    public FrequencySketch(int expectedNumOfEntries) {
+        int tableSize = tableSizeFor(expectedNumOfEntries);
+        this._table = new long[tableSize];
+        this._tableMask = tableSize - 1;
+        this._sampleSize = (int) Math.min(10L * tableSize, Integer.MAX_VALUE);
+    }
+
+    private static int tableSizeFor(int expectedNumOfEntries) {
+        if (expectedNumOfEntries <= MIN_TABLE_SIZE)
+            return MIN_TABLE_SIZE;
+        if (expectedNumOfEntries >= MAX_TABLE_SIZE)
+            return MAX_TABLE_SIZE;
+        return Integer.highestOneBit(expectedNumOfEntries - 1) << 1;
+    }
+
+    /**
+     * spreads the bits of the given hash code, used by callers to calculate the item hash once
+     */
+    public static int spread(int hashCode) {
+        int h = hashCode * 0x9e3779b9;
+        return h ^ (h >>> 16);
+    }
+
+    /**
+     * @return the estimated number of occurrences of the item (between 0 and 15)
+     */
+    public int frequency(int hash) {
+        int start = (hash & 3) << 2;
+        int frequency = MAX_COUNTER_VALUE;
+        for (int i = 0; i < 4; i++) {
+            int index = indexOf(hash, i);
+            int count = (int) ((_table[index] >>> ((start + i) << 2)) & 0xfL);
+            frequency = Math.min(frequency, count);
+        }
+        return frequency;
+    }
+
+    /**
+     * increments the popularity of the item if it does not exceed the maximum (15). the
+     * popularity of all items is periodically halved (aging).
+     */
+    public void increment(int hash) {
+        int start = (hash & 3) << 2;
+        boolean added = false;
+        for (int i = 0; i < 4; i++)
+            added |= incrementAt(indexOf(hash, i), start + i);
+
+        if (added && ++_size == _sampleSize)
+            reset();
+    }
+
+    public int getSampleSize() {
+        return _sampleSize;
+    }
+
+    private boolean incrementAt(int index, int counter) {
+        int offset = counter << 2;
+        long mask = 0xfL << offset;
+        if ((_table[index] & mask) != mask) {
+            _table[index] += 1L << offset;
+            return true;
+        }
+        return false;
+    }
+
+    //halve all counters and adjust the sample size accordingly
+    private void reset() {
+        int oddCounters = 0;
+        for (int i = 0; i < _table.length; i++) {
+            oddCounters += Long.bitCount(_table[i] & ONE_MASK);
+            _table[i] = (_table[i] >>> 1) & RESET_MASK;
+        }
+        _size = (_size >>> 1) - (oddCounters >>> 2);
+    }
+
+    private int indexOf(int hash, int depth) {
+        long h = (hash + SEEDS[depth]) * SEEDS[depth];
+        h += (h >>> 32);
+        return ((int) h) & _tableMask;
+    }
+}
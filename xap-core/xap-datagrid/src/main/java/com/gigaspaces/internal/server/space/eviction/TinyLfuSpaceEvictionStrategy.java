@@ -0,0 +1,432 @@
+/*
+ * Copyright (c) 2008-2016, GigaSpaces Technologies, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.gigaspaces.internal.server.space.eviction;
+
+import com.gigaspaces.internal.server.space.SpaceConfigReader;
+import com.gigaspaces.metrics.LongCounter;
+import com.gigaspaces.metrics.MetricRegistrator;
+import com.gigaspaces.server.eviction.EvictableServerEntry;
+import com.gigaspaces.server.eviction.SpaceEvictionManager;
+import com.gigaspaces.server.eviction.SpaceEvictionStrategy;
+import com.gigaspaces.server.eviction.SpaceEvictionStrategyConfig;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import static com.j_spaces.core.Constants.CacheManager.CACHE_MANAGER_TINYLFU_WINDOW_PERCENTAGE_DEFAULT;
+import static com.j_spaces.core.Constants.CacheManager.CACHE_MANAGER_TINYLFU_WINDOW_PERCENTAGE_PROP;
+
+/**
+ * W-TinyLFU eviction strategy. new entries are inserted into a small LRU admission window, entries
+ * leaving the window compete with the LRU victim of the main region and only the one which is
+ * estimated (by a {@link FrequencySketch}) to be accessed more frequently is kept. The main region
+ * is a segmented LRU - entries touched while in probation are promoted to the protected segment.
+ * Unlike a plain LRU, a single scan over the data cannot flush the frequently used entries.
+ * <p>
+ * touches are lock free - they are recorded in striped ring buffers which are drained under the
+ * eviction lock by the thread that finds its buffer full, or by the next insertion/eviction. when
+ * a buffer is full the touch is dropped, which only affects the accuracy of the policy.
+ *
+ * @since 14.2
+ */
+@com.gigaspaces.api.InternalApi
+public class TinyLfuSpaceEvictionStrategy extends SpaceEvictionStrategy implements EvictionStatisticsProvider {
+    private static final Logger _logger = Logger.getLogger(com.gigaspaces.logger.Constants.LOGGER_CACHE);
+    private static final int MIN_WINDOW_PERCENTAGE = 1;
+    private static final int MAX_WINDOW_PERCENTAGE = 99;
+    private static final int PROTECTED_PERCENTAGE = 80;
+
+    private static final byte WINDOW = 0;
+    private static final byte PROBATION = 1;
+    private static final byte PROTECTED = 2;
+    private static final byte REMOVED = 3;
+
+    private final int _windowPercentage;
+    private final ReentrantLock _evictionLock = new ReentrantLock();
+    private final AccessOrderDeque _window = new AccessOrderDeque();
+    private final AccessOrderDeque _probation = new AccessOrderDeque();
+    private final AccessOrderDeque _protected = new AccessOrderDeque();
+    private final ReadBuffer _readBuffer = new ReadBuffer();
+    private final EvictionStatistics _statistics = new EvictionStatistics();
+    private final LongCounter _rejectedCandidates = new LongCounter();
+
+    //guarded by _evictionLock
+    private FrequencySketch _sketch;
+    private int _maxWindowSize;
+    private int _maxProtectedSize;
+
+    public TinyLfuSpaceEvictionStrategy() {
+        this(Integer.parseInt(CACHE_MANAGER_TINYLFU_WINDOW_PERCENTAGE_DEFAULT));
+    }
+
+    public TinyLfuSpaceEvictionStrategy(SpaceConfigReader configReader) {
+        this(configReader.getIntSpaceProperty(CACHE_MANAGER_TINYLFU_WINDOW_PERCENTAGE_PROP, CACHE_MANAGER_TINYLFU_WINDOW_PERCENTAGE_DEFAULT));
+    }
+
+    public TinyLfuSpaceEvictionStrategy(int windowPercentage) {
+        if (windowPercentage > MAX_WINDOW_PERCENTAGE || windowPercentage < MIN_WINDOW_PERCENTAGE)
+            throw new IllegalArgumentException("Illegal TinyLFU window percentage " + windowPercentage + " - must be between " +
+                    MIN_WINDOW_PERCENTAGE + " and " + MAX_WINDOW_PERCENTAGE + " (inclusive).");
+        this._windowPercentage = windowPercentage;
+    }
+
+    @Override
+    public void initialize(SpaceEvictionManager evictionManager, SpaceEvictionStrategyConfig config) {
+        super.initialize(evictionManager, config);
+        int maxCacheSize = config.getMaxCacheSize();
+        _evictionLock.lock();
+        try {
+            _sketch = new FrequencySketch(maxCacheSize);
+            _maxWindowSize = (int) Math.max(1, ((long) maxCacheSize * _windowPercentage) / 100);
+            _maxProtectedSize = (int) (((long) maxCacheSize - _maxWindowSize) * PROTECTED_PERCENTAGE / 100);
+        } finally {
+            _evictionLock.unlock();
+        }
+
+        MetricRegistrator registrator = config.getMetricRegistrator();
+        if (registrator != null) {
+            _statistics.register(registrator);
+            registrator.register("rejected-candidates", _rejectedCandidates);
+        }
+
+        if (_logger.isLoggable(Level.FINE))
+            _logger.log(Level.FINE, this.getClass().getSimpleName() + " started: [" +
+                    "max-cache-size= " + maxCacheSize +
+                    ", window-size= " + _maxWindowSize +
+                    ", protected-size= " + _maxProtectedSize +
+                    ", sketch-sample-size= " + _sketch.getSampleSize() +
+                    "]");
+    }
+
+    /**
+     * Determines whether this eviction strategy implementation requires concurrency protection from
+     * the space.
+     */
+    @Override
+    public boolean requiresConcurrencyProtection() {
+        return false;
+    }
+
+    @Override
+    public void onInsert(EvictableServerEntry entry) {
+        introduce(entry);
+    }
+
+    @Override
+    public void onLoad(EvictableServerEntry entry) {
+        introduce(entry);
+    }
+
+    @Override
+    public void onRead(EvictableServerEntry entry) {
+        _statistics.hit();
+        touch(entry);
+    }
+
+    @Override
+    public void onUpdate(EvictableServerEntry entry) {
+        touch(entry);
+    }
+
+    @Override
+    public void onRemove(EvictableServerEntry entry) {
+        Node node = (Node) entry.getEvictionPayLoad();
+        _evictionLock.lock();
+        try {
+            if (node == null || node._region == REMOVED)
+                throw new IllegalStateException("The removed entry is not registered in the eviction strategy - [type=" + entry.getSpaceTypeDescriptor().getTypeName() + ", uid=" + entry.getUID() + "]");
+            dequeOf(node).remove(node);
+            node._region = REMOVED;
+        } finally {
+            _evictionLock.unlock();
+        }
+    }
+
+    @Override
+    public int evict(int numOfEntries) {
+        int evicted = 0;
+        int attempts = 0;
+        while (evicted < numOfEntries) {
+            if (isClosed())
+                return evicted;
+
+            Node victim;
+            _evictionLock.lock();
+            try {
+                drainReadBuffer();
+                //every node gets one chance per call, pinned/locked entries are skipped
+                victim = attempts++ < size() ? selectVictim() : null;
+            } finally {
+                _evictionLock.unlock();
+            }
+            if (victim == null)
+                break;
+
+            //NOTE- the manager calls onRemove() of an evicted entry, so the lock is not held here
+            if (getEvictionManager().tryEvict(victim._entry)) {
+                evicted++;
+                _statistics.evicted();
+            } else {
+                _evictionLock.lock();
+                try {
+                    if (victim._region != REMOVED)
+                        dequeOf(victim).moveToBack(victim);
+                } finally {
+                    _evictionLock.unlock();
+                }
+            }
+        }
+        return evicted;
+    }
+
+    /**
+     * Returns the hit/miss statistics of this strategy.
+     */
+    @Override
+    public EvictionStatistics getStatistics() {
+        return _statistics;
+    }
+
+    private void introduce(EvictableServerEntry entry) {
+        Node node = new Node(entry);
+        entry.setEvictionPayLoad(node);
+        _evictionLock.lock();
+        try {
+            drainReadBuffer();
+            _sketch.increment(node._hash);
+            _window.addLast(node);
+            //while the cache is not full entries leaving the window are admitted without competing
+            while (_window.size() > _maxWindowSize)
+                moveTo(_window.peekFirst(), _window, _probation, PROBATION);
+        } finally {
+            _evictionLock.unlock();
+        }
+    }
+
+    private void touch(EvictableServerEntry entry) {
+        Node node = (Node) entry.getEvictionPayLoad();
+        if (node == null)
+            return;
+        if (_readBuffer.offer(node) && _evictionLock.tryLock()) {
+            try {
+                drainReadBuffer();
+            } finally {
+                _evictionLock.unlock();
+            }
+        }
+    }
+
+    //called under lock
+    private void drainReadBuffer() {
+        _readBuffer.drain(this);
+    }
+
+    //called under lock
+    private void onAccess(Node node) {
+        if (node._region == REMOVED)
+            return;
+        _sketch.increment(node._hash);
+        switch (node._region) {
+            case WINDOW:
+                _window.moveToBack(node);
+                break;
+            case PROBATION:
+                moveTo(node, _probation, _protected, PROTECTED);
+                while (_protected.size() > _maxProtectedSize)
+                    moveTo(_protected.peekFirst(), _protected, _probation, PROBATION);
+                break;
+            case PROTECTED:
+                _protected.moveToBack(node);
+                break;
+        }
+    }
+
+    /**
+     * selects the next entry to evict. the entry the coming insertion will push out of the window
+     * (the candidate) competes with the LRU entry of the main region (the victim), the one with
+     * the lower estimated frequency is evicted. called under lock.
+     */
+    private Node selectVictim() {
+        Node candidate = _window.size() >= _maxWindowSize ? _window.peekFirst() : null;
+        Node victim = _probation.peekFirst();
+        if (victim == null)
+            victim = _protected.peekFirst();
+
+        if (candidate == null)
+            return victim != null ? victim : _window.peekFirst();
+        if (victim == null)
+            return candidate;
+
+        if (_sketch.frequency(candidate._hash) > _sketch.frequency(victim._hash)) {
+            moveTo(candidate, _window, _probation, PROBATION);
+            return victim;
+        }
+        _rejectedCandidates.inc();
+        return candidate;
+    }
+
+    private int size() {
+        return _window.size() + _probation.size() + _protected.size();
+    }
+
+    private AccessOrderDeque dequeOf(Node node) {
+        switch (node._region) {
+            case WINDOW:
+                return _window;
+            case PROBATION:
+                return _probation;
+            case PROTECTED:
+                return _protected;
+            default:
+                throw new IllegalStateException("Illegal region " + node._region + " for entry uid=" + node._entry.getUID());
+        }
+    }
+
+    private static void moveTo(Node node, AccessOrderDeque from, AccessOrderDeque to, byte region) {
+        from.remove(node);
+        node._region = region;
+        to.addLast(node);
+    }
+
+    private static final class Node {
+        private final EvictableServerEntry _entry;
+        private final int _hash;
+        //guarded by the eviction lock
+        private byte _region = WINDOW;
+        private Node _prev;
+        private Node _next;
+
+        private Node(EvictableServerEntry entry) {
+            this._entry = entry;
+            this._hash = FrequencySketch.spread(entry.getUID().hashCode());
+        }
+    }
+
+    /**
+     * intrusive doubly linked list, least recently used at the head. not thread safe.
+     */
+    private static final class AccessOrderDeque {
+        private Node _head;
+        private Node _tail;
+        private int _size;
+
+        int size() {
+            return _size;
+        }
+
+        Node peekFirst() {
+            return _head;
+        }
+
+        void addLast(Node node) {
+            node._prev = _tail;
+            node._next = null;
+            if (_tail == null)
+                _head = node;
+            else
+                _tail._next = node;
+            _tail = node;
+            _size++;
+        }
+
+        void remove(Node node) {
+            if (node._prev == null)
+                _head = node._next;
+            else
+                node._prev._next = node._next;
+            if (node._next == null)
+                _tail = node._prev;
+            else
+                node._next._prev = node._prev;
+            node._prev = null;
+            node._next = null;
+            _size--;
+        }
+
+        void moveToBack(Node node) {
+            if (node == _tail)
+                return;
+            remove(node);
+            addLast(node);
+        }
+    }
+
+    /**
+     * lossy striped ring buffers recording touches. offering is lock free, draining is performed
+     * under the eviction lock. threads are spread over the stripes by their id.
+     */
+    private static final class ReadBuffer {
+        private static final int BUFFER_SIZE = 16;
+        private static final int BUFFER_MASK = BUFFER_SIZE - 1;
+
+        private final int _stripesMask;
+        private final AtomicReferenceArray<Node>[] _buffers;
+        private final AtomicLong[] _writeCounters;
+        private final AtomicLongArray _readCounters; //written under the eviction lock
+
+        @SuppressWarnings("unchecked")
+        ReadBuffer() {
+            int stripes = Integer.highestOneBit(Math.max(1, Runtime.getRuntime().availableProcessors() - 1)) << 1;
+            _stripesMask = stripes - 1;
+            _buffers = new AtomicReferenceArray[stripes];
+            _writeCounters = new AtomicLong[stripes];
+            _readCounters = new AtomicLongArray(stripes);
+            for (int i = 0; i < stripes; i++) {
+                _buffers[i] = new AtomicReferenceArray<Node>(BUFFER_SIZE);
+                _writeCounters[i] = new AtomicLong();
+            }
+        }
+
+        /**
+         * @return true if the buffer should be drained
+         */
+        boolean offer(Node node) {
+            int stripe = (int) Thread.currentThread().getId() & _stripesMask;
+            AtomicLong writeCounter = _writeCounters[stripe];
+            long tail = writeCounter.get();
+            long head = _readCounters.get(stripe);
+            if (tail - head >= BUFFER_SIZE)
+                return true; //full- touch is dropped
+            if (!writeCounter.compareAndSet(tail, tail + 1))
+                return false; //contended- touch is dropped
+            _buffers[stripe].lazySet((int) tail & BUFFER_MASK, node);
+            return tail + 1 - head >= BUFFER_SIZE;
+        }
+
+        void drain(TinyLfuSpaceEvictionStrategy strategy) {
+            for (int stripe = 0; stripe < _buffers.length; stripe++) {
+                AtomicReferenceArray<Node> buffer = _buffers[stripe];
+                long head = _readCounters.get(stripe);
+                long tail = _writeCounters[stripe].get();
+                for (; head < tail; head++) {
+                    int index = (int) head & BUFFER_MASK;
+                    Node node = buffer.get(index);
+                    if (node == null)
+                        break; //writer did not publish yet
+                    buffer.lazySet(index, null);
+                    strategy.onAccess(node);
+                }
+                _readCounters.lazySet(stripe, head);
+            }
+        }
+    }
+}
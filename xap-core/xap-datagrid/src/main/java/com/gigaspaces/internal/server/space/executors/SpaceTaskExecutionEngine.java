@@ -0,0 +1,263 @@
+/*
+ * Copyright (c) 2008-2016, GigaSpaces Technologies, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.gigaspaces.internal.server.space.executors;
+
+import com.gigaspaces.metrics.Gauge;
+import com.gigaspaces.metrics.LongCounter;
+import com.gigaspaces.metrics.MetricRegistrator;
+
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Admission control for user tasks executed in the space.
+ *
+ * Tasks are assigned to one of two lanes, a latency critical lane (for the task classes configured
+ * as such) and a bulk lane for all other tasks. Each lane limits the number of tasks executing
+ * concurrently, so a flood of heavy tasks cannot take over the cpu and the locks used by the regular
+ * space operations. Tasks beyond the limit wait in a bounded queue and are rejected once the queue
+ * is full or the queue timeout elapses. A queued task holds the LRMI thread which received it, so the
+ * queues are kept well below the size of the LRMI custom thread pool. In addition the number of
+ * executing and queued tasks of a single task class can be limited.
+ *
+ * A task executed by a thread which already executes an admitted task (e.g. a task executing
+ * another task on the same space) is admitted without waiting, since waiting may deadlock.
+ *
+ * @since 14.2
+ */
+@com.gigaspaces.api.InternalApi
+public class SpaceTaskExecutionEngine {
+
+    public enum Lane {
+        LATENCY, BULK
+    }
+
+    private static final ThreadLocal<Admission> _currentAdmission = new ThreadLocal<Admission>();
+
+    private final LaneController[] _lanes;
+    private final Set<String> _latencyCriticalClasses;
+    private final int _maxPerClass;
+    private final long _queueTimeoutNanos;
+    private final ConcurrentMap<String, AtomicInteger> _perClass = new ConcurrentHashMap<String, AtomicInteger>();
+    private final LongCounter _classRejections = new LongCounter();
+
+    public SpaceTaskExecutionEngine(int latencyConcurrency, int latencyQueueSize, int bulkConcurrency, int bulkQueueSize,
+                                    long queueTimeout, int maxPerClass, Set<String> latencyCriticalClasses) {
+        _lanes = new LaneController[]{
+                new LaneController(Lane.LATENCY, latencyConcurrency, latencyQueueSize),
+                new LaneController(Lane.BULK, bulkConcurrency, bulkQueueSize)};
+        _queueTimeoutNanos = TimeUnit.MILLISECONDS.toNanos(queueTimeout);
+        _maxPerClass = maxPerClass;
+        _latencyCriticalClasses = latencyCriticalClasses != null
+                ? new HashSet<String>(latencyCriticalClasses) : Collections.<String>emptySet();
+    }
+
+    public Lane getLane(String taskClassName) {
+        return _latencyCriticalClasses.contains(taskClassName) ? Lane.LATENCY : Lane.BULK;
+    }
+
+    /**
+     * Waits until a task of the given class may execute.
+     *
+     * @return the admission which must be released once the task completes
+     * @throws RejectedExecutionException if the task was not admitted
+     */
+    public Admission admit(String taskClassName) throws InterruptedException {
+        if (_currentAdmission.get() != null)
+            return Admission.NESTED;
+
+        AtomicInteger classCount = null;
+        if (_maxPerClass > 0) {
+            classCount = getClassCount(taskClassName);
+            if (classCount.incrementAndGet() > _maxPerClass) {
+                classCount.decrementAndGet();
+                _classRejections.inc();
+                throw new RejectedExecutionException("Task [" + taskClassName + "] rejected - " + _maxPerClass
+                        + " tasks of this class are already executing or queued");
+            }
+        }
+
+        LaneController lane = _lanes[getLane(taskClassName).ordinal()];
+        try {
+            lane.acquire(taskClassName, _queueTimeoutNanos);
+        } catch (InterruptedException e) {
+            releaseClassCount(classCount);
+            throw e;
+        } catch (RejectedExecutionException e) {
+            releaseClassCount(classCount);
+            throw e;
+        }
+        Admission admission = new Admission(this, lane, classCount);
+        _currentAdmission.set(admission);
+        return admission;
+    }
+
+    public void register(MetricRegistrator registrator) {
+        for (LaneController lane : _lanes)
+            lane.register(registrator);
+        registrator.register(registrator.toPath("tasks", "class-rejected"), _classRejections);
+    }
+
+    public int getActive(Lane lane) {
+        return _lanes[lane.ordinal()].getActive();
+    }
+
+    public int getQueued(Lane lane) {
+        return _lanes[lane.ordinal()].getQueued();
+    }
+
+    public long getCompleted(Lane lane) {
+        return _lanes[lane.ordinal()]._completed.getCount();
+    }
+
+    public long getRejected(Lane lane) {
+        return _lanes[lane.ordinal()]._rejected.getCount();
+    }
+
+    private AtomicInteger getClassCount(String taskClassName) {
+        AtomicInteger count = _perClass.get(taskClassName);
+        if (count == null) {
+            AtomicInteger newCount = new AtomicInteger();
+            count = _perClass.putIfAbsent(taskClassName, newCount);
+            if (count == null)
+                count = newCount;
+        }
+        return count;
+    }
+
+    private static void releaseClassCount(AtomicInteger classCount) {
+        if (classCount != null)
+            classCount.decrementAndGet();
+    }
+
+    /**
+     * Represents a task admitted for execution.
+     */
+    public static class Admission {
+        private static final Admission NESTED = new Admission(null, null, null);
+
+        private final SpaceTaskExecutionEngine _engine;
+        private final LaneController _lane;
+        private final AtomicInteger _classCount;
+        private final long _startTime = System.nanoTime();
+
+        private Admission(SpaceTaskExecutionEngine engine, LaneController lane, AtomicInteger classCount) {
+            _engine = engine;
+            _lane = lane;
+            _classCount = classCount;
+        }
+
+        public void release() {
+            if (_engine == null)
+                return;
+            _currentAdmission.remove();
+            releaseClassCount(_classCount);
+            _lane.release(System.nanoTime() - _startTime);
+        }
+    }
+
+    private static class LaneController {
+        private final String _name;
+        private final int _maxConcurrency;
+        private final int _maxQueueSize;
+        // Guarded by this
+        private int _active;
+        private int _queued;
+
+        private final LongCounter _completed = new LongCounter();
+        private final LongCounter _rejected = new LongCounter();
+        private final LongCounter _executionTime = new LongCounter();
+
+        private LaneController(Lane lane, int maxConcurrency, int maxQueueSize) {
+            if (maxConcurrency < 1)
+                throw new IllegalArgumentException("Task lane " + lane + " concurrency must be positive [" + maxConcurrency + "]");
+            _name = lane.name().toLowerCase();
+            _maxConcurrency = maxConcurrency;
+            _maxQueueSize = Math.max(0, maxQueueSize);
+        }
+
+        private synchronized void acquire(String taskClassName, long timeoutNanos) throws InterruptedException {
+            if (_active < _maxConcurrency && _queued == 0) {
+                _active++;
+                return;
+            }
+            if (_queued >= _maxQueueSize) {
+                _rejected.inc();
+                throw new RejectedExecutionException("Task [" + taskClassName + "] rejected - " + _name
+                        + " task lane queue is full [" + _maxQueueSize + "]");
+            }
+            _queued++;
+            try {
+                long remaining = timeoutNanos;
+                while (_active >= _maxConcurrency) {
+                    if (remaining <= 0) {
+                        _rejected.inc();
+                        throw new RejectedExecutionException("Task [" + taskClassName + "] rejected - timed out waiting in the "
+                                + _name + " task lane queue after " + TimeUnit.NANOSECONDS.toMillis(timeoutNanos) + "ms");
+                    }
+                    long start = System.nanoTime();
+                    TimeUnit.NANOSECONDS.timedWait(this, remaining);
+                    remaining -= System.nanoTime() - start;
+                }
+                _active++;
+            } finally {
+                _queued--;
+            }
+        }
+
+        private synchronized void release(long executionTimeNanos) {
+            _active--;
+            _completed.inc();
+            _executionTime.inc(TimeUnit.NANOSECONDS.toMicros(executionTimeNanos));
+            // an interrupted waiter may consume a single notification
+            notifyAll();
+        }
+
+        private synchronized int getActive() {
+            return _active;
+        }
+
+        private synchronized int getQueued() {
+            return _queued;
+        }
+
+        private void register(MetricRegistrator registrator) {
+            registrator.register(registrator.toPath("tasks", _name, "active"), new Gauge<Integer>() {
+                @Override
+                public Integer getValue() throws Exception {
+                    return getActive();
+                }
+            });
+            registrator.register(registrator.toPath("tasks", _name, "queued"), new Gauge<Integer>() {
+                @Override
+                public Integer getValue() throws Exception {
+                    return getQueued();
+                }
+            });
+            registrator.register(registrator.toPath("tasks", _name, "completed"), _completed);
+            registrator.register(registrator.toPath("tasks", _name, "rejected"), _rejected);
+            registrator.register(registrator.toPath("tasks", _name, "execution-time-micros"), _executionTime);
+        }
+    }
+}
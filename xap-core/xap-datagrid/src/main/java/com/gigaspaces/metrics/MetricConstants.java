@@ -29,4 +29,7 @@ public interface MetricConstants {
     String CONNECTIONS_METRIC_NAME = "connections";
     String ACTIVE_CONNECTIONS_METRIC_NAME = "active-connections";
     String CACHE_SIZE = "cache-size";
+    String EVICTION_METRIC_NAME = "eviction";
+    String MAP_CACHE_METRIC_NAME = "map-cache";
+    String QUERY_EXTENSION_METRIC_NAME = "query-extension";
 }
\ No newline at end of file
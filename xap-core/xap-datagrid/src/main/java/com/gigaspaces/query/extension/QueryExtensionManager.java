@@ -17,6 +17,7 @@
 package com.gigaspaces.query.extension;
 
 import com.gigaspaces.metadata.SpaceTypeDescriptor;
+import com.gigaspaces.metrics.MetricRegistrator;
 import com.gigaspaces.server.SpaceServerEntry;
 
 import java.io.Closeable;
@@ -40,6 +41,14 @@ public abstract class QueryExtensionManager implements Closeable {
     public void registerType(SpaceTypeDescriptor typeDescriptor) {
     }
 
+    /**
+     * Registers the metrics of this manager, published with the metrics of the space.
+     *
+     * @since 14.2
+     */
+    public void registerMetrics(MetricRegistrator registrator) {
+    }
+
     public abstract boolean accept(String typeName, String path, String operation, Object leftOperand, Object rightOperand);
 
     public abstract boolean insertEntry(SpaceServerEntry entry, boolean hasPrevious);
@@ -17,6 +17,8 @@
 
 package com.gigaspaces.server.eviction;
 
+import com.gigaspaces.metrics.MetricRegistrator;
+
 /**
  * Encapsulates configuration settings for space eviction strategy.
  *
@@ -27,12 +29,31 @@ package com.gigaspaces.server.eviction;
 
 public class SpaceEvictionStrategyConfig {
     private final int _maxCacheSize;
+    private final MetricRegistrator _metricRegistrator;
 
     public SpaceEvictionStrategyConfig(int maxCacheSize) {
+        this(maxCacheSize, null);
+    }
+
+    /**
+     * @since 14.2
+     */
+    public SpaceEvictionStrategyConfig(int maxCacheSize, MetricRegistrator metricRegistrator) {
         this._maxCacheSize = maxCacheSize == 0 ? Integer.MAX_VALUE : maxCacheSize;
+        this._metricRegistrator = metricRegistrator;
     }
 
     public int getMaxCacheSize() {
         return _maxCacheSize;
     }
+
+    /**
+     * Returns the registrator with which an eviction strategy can report its statistics (e.g. hit
+     * ratio) as part of the space metrics, under the "eviction" prefix, or null if not available.
+     *
+     * @since 14.2
+     */
+    public MetricRegistrator getMetricRegistrator() {
+        return _metricRegistrator;
+    }
 }
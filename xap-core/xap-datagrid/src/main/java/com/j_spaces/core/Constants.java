@@ -425,6 +425,51 @@ public interface Constants {
         String ENGINE_DEMOTE_COMPLETION_EVENT_TIMEOUT = "engine.demote.completion-event-timeout";
         String ENGINE_DEMOTE_COMPLETION_EVENT_TIMEOUT_DEFAULT = "5s";
 
+        /**
+         * When true, user tasks executed in the space are admitted through task lanes which limit
+         * their concurrency, see the engine.tasks.* properties.
+         *
+         * @since 14.2
+         */
+        String ENGINE_TASKS_LANES_ENABLED_PROP = "engine.tasks.lanes_enabled";
+        String ENGINE_TASKS_LANES_ENABLED_DEFAULT = "false";
+
+        String ENGINE_TASKS_LATENCY_CONCURRENCY_PROP = "engine.tasks.latency.max_concurrency";
+        String ENGINE_TASKS_LATENCY_CONCURRENCY_DEFAULT = "8";
+
+        /**
+         * Maximum number of tasks waiting in the latency critical lane. Waiting tasks hold LRMI
+         * custom pool threads, so it is bounded to a quarter of that pool.
+         */
+        String ENGINE_TASKS_LATENCY_QUEUE_SIZE_PROP = "engine.tasks.latency.queue_size";
+        String ENGINE_TASKS_LATENCY_QUEUE_SIZE_DEFAULT = "32";
+
+        String ENGINE_TASKS_BULK_CONCURRENCY_PROP = "engine.tasks.bulk.max_concurrency";
+        String ENGINE_TASKS_BULK_CONCURRENCY_DEFAULT = "4";
+
+        /**
+         * Maximum number of tasks waiting in the bulk lane, beyond which bulk tasks are rejected.
+         * Waiting tasks hold LRMI custom pool threads, so it is bounded to an eighth of that pool.
+         */
+        String ENGINE_TASKS_BULK_QUEUE_SIZE_PROP = "engine.tasks.bulk.queue_size";
+        String ENGINE_TASKS_BULK_QUEUE_SIZE_DEFAULT = "16";
+
+        String ENGINE_TASKS_QUEUE_TIMEOUT_PROP = "engine.tasks.queue_timeout";
+        String ENGINE_TASKS_QUEUE_TIMEOUT_DEFAULT = "30000";
+
+        /**
+         * Comma separated class names of tasks executed in the latency critical lane, all other
+         * tasks are executed in the bulk lane.
+         */
+        String ENGINE_TASKS_LATENCY_CRITICAL_CLASSES_PROP = "engine.tasks.latency_critical_classes";
+        String ENGINE_TASKS_LATENCY_CRITICAL_CLASSES_DEFAULT = "";
+
+        /**
+         * Maximum number of executing and queued tasks of a single task class, 0 for unlimited.
+         */
+        String ENGINE_TASKS_MAX_PER_CLASS_PROP = "engine.tasks.max_per_class";
+        String ENGINE_TASKS_MAX_PER_CLASS_DEFAULT = "0";
+
 
 
     }
@@ -727,6 +772,14 @@ public interface Constants {
          * touching is performed. 0 means always touch, 100 means no touch at all
          */
         String CACHE_MANAGER_LRU_TOUCH_THRESHOLD_DEFAULT = "50";
+
+        /**
+         * the percentage of the cache size used as the admission window of the TinyLfuSpaceEvictionStrategy,
+         * the rest is the frequency filtered main region.
+         */
+        String CACHE_MANAGER_TINYLFU_WINDOW_PERCENTAGE_PROP = "engine.tinylfu_window_percentage";
+        String CACHE_MANAGER_TINYLFU_WINDOW_PERCENTAGE_DEFAULT = "1";
+
         /**
          * size of evictable locks table
          */
@@ -426,6 +426,9 @@ public class CacheManager extends AbstractCacheManager
         // Load predefined query extension managers if not configured:
         addPredefinedIfAbsent(queryExtensions, info, "spatial", "org.openspaces.spatial.spi.LuceneSpatialQueryExtensionProvider");
         addPredefinedIfAbsent(queryExtensions, info, "text", "org.openspaces.textsearch.LuceneTextSearchQueryExtensionProvider");
+        final MetricRegistrator registrator = _engine.getMetricRegistrator().extend(MetricConstants.QUERY_EXTENSION_METRIC_NAME);
+        for (Map.Entry<String, QueryExtensionIndexManagerWrapper> entry : queryExtensions.entrySet())
+            entry.getValue().registerMetrics(registrator.extend(entry.getKey()));
         return queryExtensions;
     }
 
@@ -524,7 +527,8 @@ public class CacheManager extends AbstractCacheManager
             }
         }
 
-        SpaceEvictionStrategyConfig config = new SpaceEvictionStrategyConfig(getMaxCacheSize());
+        SpaceEvictionStrategyConfig config = new SpaceEvictionStrategyConfig(getMaxCacheSize(),
+                _engine.getMetricRegistrator().extend(MetricConstants.EVICTION_METRIC_NAME));
         _evictionStrategy.initialize(this, config);
 
         if (isBlobStoreCachePolicy()) {
@@ -809,6 +813,8 @@ public class CacheManager extends AbstractCacheManager
             throw new RuntimeException("invalid eviction strategy value specified " + evictor);
         if (evictor.equalsIgnoreCase(DefaultTimeBasedSpaceEvictionStrategy.class.getName()))
             return new DefaultTimeBasedSpaceEvictionStrategy(configReader);
+        if (evictor.equalsIgnoreCase(TinyLfuSpaceEvictionStrategy.class.getName()))
+            return new TinyLfuSpaceEvictionStrategy(configReader);
 
         try {
             Class<?> evClass = ClassLoaderHelper.loadClass(evictor);
@@ -3250,7 +3256,7 @@ public class CacheManager extends AbstractCacheManager
             }//if (newEntry && m_Engine.m_FifoSupported && !fifoTimeStampAlreadySet)
             //FIFO--------------------------------------------
 
-            return internalInsertEntryToCache(context, entryHolder, newEntry, typeData, pEntry, pin);
+            return internalInsertEntryToCache(context, entryHolder, newEntry, typeData, pEntry, pin, fromInitialLoad);
         } finally {
             if (newEntry)
                 entryHolder.setunStable(false);
@@ -3344,7 +3350,7 @@ public class CacheManager extends AbstractCacheManager
     /**
      * Inserts the specified entry to cache.
      */
-    IEntryCacheInfo internalInsertEntryToCache(Context context, IEntryHolder entryHolder, boolean newEntry, TypeData typeData, IEntryCacheInfo pEntry, boolean pin) {
+    IEntryCacheInfo internalInsertEntryToCache(Context context, IEntryHolder entryHolder, boolean newEntry, TypeData typeData, IEntryCacheInfo pEntry, boolean pin, InitialLoadOrigin fromInitialLoad) {
         IEntryCacheInfo res = null;
         boolean recheckedTypeData = false;
         boolean alreadyIn = false;
@@ -3423,7 +3429,7 @@ public class CacheManager extends AbstractCacheManager
             context.setWriteResult(new WriteEntryResult(pEntry.getUID(), version, expiration));
 
             if (isEvictableCachePolicy())
-                addToEvictionStrategy(pEntry, newEntry);
+                addToEvictionStrategy(pEntry, newEntry, fromInitialLoad);
             insertedToEvictionStrategy = true;
 
             // add entry to Xtn if written under Xtn
@@ -5510,7 +5516,7 @@ public class CacheManager extends AbstractCacheManager
         _fifoGroupCacheImpl.handleFifoGroupsCacheOnXtnEnd(context, xtnEntry);
     }
 
-    public void addToEvictionStrategy(EvictableServerEntry entry, boolean isNew) {
+    public void addToEvictionStrategy(EvictableServerEntry entry, boolean isNew, InitialLoadOrigin fromInitialLoad) {
         int maxCacheSize = getMaxCacheSize();
         boolean actualInsert = (isMemorySpace() || !((EvictableEntryCacheInfo) entry).isTransient());
         if (maxCacheSize != Integer.MAX_VALUE && maxCacheSize != 0) {
@@ -5524,6 +5530,9 @@ public class CacheManager extends AbstractCacheManager
                 _evictionStrategy.onInsert(entry);
             else
                 _evictionStrategy.onLoad(entry);
+            //an entry loaded from the data source by an operation is a cache miss
+            if (!isNew && fromInitialLoad == InitialLoadOrigin.NON && _evictionStrategy instanceof EvictionStatisticsProvider)
+                ((EvictionStatisticsProvider) _evictionStrategy).getStatistics().miss();
         }
         ((EvictableEntryCacheInfo) entry).setInEvictionStrategy();
     }
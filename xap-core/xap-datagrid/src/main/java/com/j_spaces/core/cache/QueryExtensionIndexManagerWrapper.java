@@ -17,6 +17,7 @@
 package com.j_spaces.core.cache;
 
 import com.gigaspaces.metadata.SpaceTypeDescriptor;
+import com.gigaspaces.metrics.MetricRegistrator;
 import com.gigaspaces.query.extension.QueryExtensionEntryIterator;
 import com.gigaspaces.query.extension.QueryExtensionManager;
 import com.gigaspaces.query.extension.QueryExtensionProvider;
@@ -44,6 +45,10 @@ public class QueryExtensionIndexManagerWrapper {
         manager.registerType(typeDescriptor);
     }
 
+    public void registerMetrics(MetricRegistrator registrator) {
+        manager.registerMetrics(registrator);
+    }
+
     public void insertEntry(SpaceServerEntryImpl entry, boolean fromTransactionalUpdate) {
         boolean inserted = manager.insertEntry(entry, false);
         if (inserted) {
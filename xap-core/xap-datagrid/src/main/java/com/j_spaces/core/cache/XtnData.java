@@ -27,7 +27,6 @@ import com.j_spaces.kernel.StoredListFactory;
 import net.jini.core.transaction.server.ServerTransaction;
 
 import java.util.*;
-import java.util.concurrent.ConcurrentHashMap;
 
 @com.gigaspaces.api.InternalApi
 public class XtnData {
@@ -39,19 +38,15 @@ public class XtnData {
     private volatile IStoredList<IEntryCacheInfo> _needNotifyEntries;
     //entries taken under this xtn
     private volatile IStoredList<IEntryCacheInfo> _takenEntries;
-    //_reWrittenEntries contains uids of entries taken & rewritten
-    //under the xtn, operation is replaced by update
-    private Map<String, String> _reWrittenEntries;
     private volatile IStoredList<TemplateCacheInfo> _RTTemplates;
     private volatile IStoredList<TemplateCacheInfo> _NTemplates;
     //if the xtn contains fifo entries, contain the serial xtn number
     private long _fifoXtnNumber = TerminatingFifoXtnsInfo.UNKNOWN_FIFO_XTN;
 
-    private volatile Map<String, OperationID> _entriesOperationIDs;
-    private volatile Map<OperationID, OperationID> _OperationIDs;
-    //contains uids of updated entries unter this xtn + array of indicators in case of a relevant partial update Or
-    // list of mutators in case of in-place updates
-    private volatile HashMap<String, Object> _updatedEntries;
+    //per entry state- operation id, updated entries unter this xtn + array of indicators in case of a relevant
+    //partial update Or list of mutators in case of in-place updates, and uids of entries taken & rewritten
+    //under the xtn (operation is replaced by update)
+    private volatile XtnWorkingSet _workingSet;
     //entries that should be scaned only for f-g. 
     private volatile Map<String, Object> _fifoGroupsEntries;
     private List<IEntryHolder> _entriesForFifoGroupScan;
@@ -76,11 +71,7 @@ public class XtnData {
      * @param uid - uid of entry to signal
      */
     public void signalRewrittenEntry(String uid) {
-        if (_reWrittenEntries == null)
-            _reWrittenEntries = new ConcurrentHashMap<String, String>();
-
-        _reWrittenEntries.put(uid, uid);
-
+        getWorkingSet(true).setRewritten(uid, true);
     }
 
     /**
@@ -90,8 +81,8 @@ public class XtnData {
      * @return true is entry with this uid is rewritten under xtn
      */
     public boolean isReWrittenEntry(String uid) {
-        return _reWrittenEntries != null && _reWrittenEntries.containsKey(uid);
-
+        XtnWorkingSet workingSet = _workingSet;
+        return workingSet != null && workingSet.isRewritten(uid);
     }
 
     /**
@@ -100,8 +91,9 @@ public class XtnData {
      * @param uid -uid of entry
      */
     public void removeRewrittenEntryIndication(String uid) {
-        if (_reWrittenEntries != null)
-            _reWrittenEntries.remove(uid);
+        XtnWorkingSet workingSet = _workingSet;
+        if (workingSet != null)
+            workingSet.setRewritten(uid, false);
     }
 
     /**
@@ -157,17 +149,8 @@ public class XtnData {
         if (fifo)
             getLockedFifoEntries(true).add(pEntry);
 
-        if (operationID != null) {
-            Map<String, OperationID> entriesOperationIDs = _entriesOperationIDs;
-            if (entriesOperationIDs == null) {
-                _entriesOperationIDs = entriesOperationIDs = new Hashtable<String, OperationID>();// ConcurrentHashMap<String, OperationID>();
-                _OperationIDs = new Hashtable<OperationID,OperationID>();
-            }
-
-            entriesOperationIDs.put(pEntry.getUID(), operationID);
-            _OperationIDs.put(operationID,operationID);
-
-        }
+        if (operationID != null)
+            getWorkingSet(true).setOperationID(pEntry.getUID(), operationID);
     }
 
     /**
@@ -198,37 +181,27 @@ public class XtnData {
 
         }
 
-        if (operationID != null) {
-            Map<String, OperationID> entriesOperationIDs = _entriesOperationIDs;
-            if (entriesOperationIDs == null) {
-                _entriesOperationIDs = entriesOperationIDs = new Hashtable<String, OperationID>();// ConcurrentHashMap<String, OperationID>();
-                _OperationIDs =  new Hashtable<OperationID, OperationID>();
-            }
-            entriesOperationIDs.put(pEntry.getUID(), operationID);
-            _OperationIDs.put(operationID,operationID);
-        }
+        if (operationID != null)
+            getWorkingSet(true).setOperationID(pEntry.getUID(), operationID);
 
     }
 
     public OperationID getOperationID(String uid) {
-        Map<String, OperationID> entriesOperationIDs = _entriesOperationIDs;
-        return entriesOperationIDs != null ? entriesOperationIDs.get(uid) : null;
+        XtnWorkingSet workingSet = _workingSet;
+        return workingSet != null ? workingSet.getOperationID(uid) : null;
     }
 
-    public boolean isOperationID(OperationID oi)
-    {
-        Map<OperationID, OperationID> eois = _OperationIDs;
-        return eois != null && eois.containsKey(oi);
+    public boolean isOperationID(OperationID oi) {
+        XtnWorkingSet workingSet = _workingSet;
+        return workingSet != null && workingSet.containsOperationID(oi);
     }
 
     public void setUpdatedEntry(IEntryHolder eh, boolean[] partialUpdateIndicators) {
-        HashMap<String, Object> updatedEntries = _updatedEntries;
-        if (updatedEntries == null)
-            _updatedEntries = updatedEntries = new HashMap<String, Object>();
+        XtnWorkingSet.EntryInfo entryInfo = getWorkingSet(true).getOrCreate(eh.getUID());
 
         boolean[] partialUpdateIndicatorsToUse = EMPTY_INDICATORS;
         if (partialUpdateIndicators != null) {
-            Object curPartialUpdateInfo = updatedEntries.get(eh.getUID());
+            Object curPartialUpdateInfo = entryInfo.getUpdateInfo();
             //a real indicators array, put it only if its the only update under this xtn
             boolean[] curPartialUpdateIndicators = EMPTY_INDICATORS;
             if (curPartialUpdateInfo != null && (curPartialUpdateInfo instanceof boolean[]))
@@ -251,42 +224,52 @@ public class XtnData {
                     partialUpdateIndicatorsToUse = EMPTY_INDICATORS;
             }
         }
-        updatedEntries.put(eh.getUID(), partialUpdateIndicatorsToUse);
+        _workingSet.setUpdateInfo(eh.getUID(), partialUpdateIndicatorsToUse);
     }
 
 
     public void setInPlaceUpdatedEntry(IEntryHolder eh, Collection<SpaceEntryMutator> mutators) {
-        HashMap<String, Object> updatedEntries = _updatedEntries;
-        if (updatedEntries == null)
-            _updatedEntries = updatedEntries = new HashMap<String, Object>();
+        XtnWorkingSet workingSet = getWorkingSet(true);
+        XtnWorkingSet.EntryInfo entryInfo = workingSet.getOrCreate(eh.getUID());
 
         Object updateInfoToUse = mutators;
-        Object curInfo = updatedEntries.get(eh.getUID());
-        if (curInfo != null && !(curInfo instanceof List)) {
-            updateInfoToUse = EMPTY_INDICATORS;
-
-        } else {
-            if (curInfo != null) {
-                Collection<SpaceEntryMutator> curMutators = (Collection<SpaceEntryMutator>) curInfo;
-                //integrate the mutators
-                for (SpaceEntryMutator sm : mutators) {
-                    curMutators.add(sm);
-                }
+        if (entryInfo.isUpdated()) {
+            //integrate the mutators, if the prev update was not in-place consider the whole op as regular update
+            if (entryInfo.addMutators(mutators))
                 return;
-            }
+            updateInfoToUse = EMPTY_INDICATORS;
         }
-        updatedEntries.put(eh.getUID(), updateInfoToUse);
+        workingSet.setUpdateInfo(eh.getUID(), updateInfoToUse);
     }
 
 
     public boolean isUpdatedEntry(IEntryHolder eh) {
-        HashMap<String, Object> updatedEntries = _updatedEntries;
-        return (updatedEntries != null && updatedEntries.containsKey(eh.getUID()));
+        XtnWorkingSet workingSet = _workingSet;
+        return workingSet != null && workingSet.getUpdateInfo(eh.getUID()) != null;
+    }
 
+    /**
+     * @return uid to update info of the entries updated under the xtn, or null if there are none
+     */
+    public Map<String, Object> getUpdatedEntries() {
+        XtnWorkingSet workingSet = _workingSet;
+        return workingSet != null && workingSet.anyUpdatedEntries() ? workingSet.getUpdatedEntries() : null;
     }
 
-    public HashMap<String, Object> getUpdatedEntries() {
-        return _updatedEntries;
+    public XtnWorkingSet getWorkingSet() {
+        return _workingSet;
+    }
+
+    private XtnWorkingSet getWorkingSet(boolean createIfNull) {
+        XtnWorkingSet res = _workingSet;
+        if (createIfNull && res == null) {
+            synchronized (this) {
+                res = _workingSet;
+                if (res == null)
+                    _workingSet = res = new XtnWorkingSet();
+            }
+        }
+        return res;
     }
 
     public void addToEntriesForFifoGroupScan(IEntryHolder entry) { //we need to perform shallow clone
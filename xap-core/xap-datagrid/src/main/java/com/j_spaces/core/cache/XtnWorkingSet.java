@@ -0,0 +1,260 @@
+/*
+ * Copyright (c) 2008-2016, GigaSpaces Technologies, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.j_spaces.core.cache;
+
+import com.gigaspaces.client.mutators.SpaceEntryMutator;
+import com.j_spaces.core.OperationID;
+import com.j_spaces.kernel.SystemProperties;
+
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * The per-entry state of a transaction - one concurrent map keyed by entry uid which holds the
+ * operation id, the update info (partial update indicators or in-place update mutators) and the
+ * rewritten indication of every entry touched under the transaction. Operations of the same
+ * transaction running concurrently on different entries do not block each other, and
+ * prepare/commit/abort retrieve all the state of an entry with a single lookup. The operation ids
+ * index is only allocated once an operation id is set.
+ *
+ * @since 14.2
+ */
+@com.gigaspaces.api.InternalApi
+public class XtnWorkingSet {
+    private static final int INITIAL_CAPACITY = Integer.getInteger(SystemProperties.ENGINE_XTN_WORKING_SET_INITIAL_CAPACITY,
+            SystemProperties.ENGINE_XTN_WORKING_SET_INITIAL_CAPACITY_DEFAULT);
+
+    private final int _initialCapacity;
+    private final ConcurrentHashMap<String, EntryInfo> _entries;
+    private volatile ConcurrentHashMap<OperationID, OperationID> _operationIDs;
+    private final AtomicInteger _numOfUpdatedEntries = new AtomicInteger();
+    private final UpdatedEntriesView _updatedEntries = new UpdatedEntriesView();
+
+    public XtnWorkingSet() {
+        this(INITIAL_CAPACITY);
+    }
+
+    public XtnWorkingSet(int initialCapacity) {
+        _initialCapacity = initialCapacity;
+        _entries = new ConcurrentHashMap<String, EntryInfo>(initialCapacity);
+    }
+
+    /**
+     * @return the state of the entry, or null if the entry was not touched under the transaction
+     */
+    public EntryInfo get(String uid) {
+        return _entries.get(uid);
+    }
+
+    public EntryInfo getOrCreate(String uid) {
+        EntryInfo info = _entries.get(uid);
+        if (info == null) {
+            EntryInfo newInfo = new EntryInfo();
+            info = _entries.putIfAbsent(uid, newInfo);
+            if (info == null)
+                info = newInfo;
+        }
+        return info;
+    }
+
+    public void setOperationID(String uid, OperationID operationID) {
+        getOrCreate(uid)._operationID = operationID;
+        getOperationIDs().put(operationID, operationID);
+    }
+
+    private ConcurrentHashMap<OperationID, OperationID> getOperationIDs() {
+        ConcurrentHashMap<OperationID, OperationID> res = _operationIDs;
+        if (res == null) {
+            synchronized (this) {
+                res = _operationIDs;
+                if (res == null)
+                    _operationIDs = res = new ConcurrentHashMap<OperationID, OperationID>(_initialCapacity);
+            }
+        }
+        return res;
+    }
+
+    public OperationID getOperationID(String uid) {
+        EntryInfo info = _entries.get(uid);
+        return info != null ? info._operationID : null;
+    }
+
+    public boolean containsOperationID(OperationID operationID) {
+        ConcurrentHashMap<OperationID, OperationID> operationIDs = _operationIDs;
+        return operationIDs != null && operationIDs.containsKey(operationID);
+    }
+
+    public void setRewritten(String uid, boolean rewritten) {
+        EntryInfo info = rewritten ? getOrCreate(uid) : _entries.get(uid);
+        if (info != null)
+            info._rewritten = rewritten;
+    }
+
+    public boolean isRewritten(String uid) {
+        EntryInfo info = _entries.get(uid);
+        return info != null && info._rewritten;
+    }
+
+    public Object getUpdateInfo(String uid) {
+        EntryInfo info = _entries.get(uid);
+        return info != null ? info._updateInfo : null;
+    }
+
+    /**
+     * NOTE- updates of a specific entry are serialized by the entry lock
+     */
+    public void setUpdateInfo(String uid, Object updateInfo) {
+        EntryInfo info = updateInfo != null ? getOrCreate(uid) : _entries.get(uid);
+        if (info == null)
+            return;
+        if (info._updateInfo == null && updateInfo != null)
+            _numOfUpdatedEntries.incrementAndGet();
+        else if (info._updateInfo != null && updateInfo == null)
+            _numOfUpdatedEntries.decrementAndGet();
+        info._updateInfo = updateInfo;
+    }
+
+    public boolean anyUpdatedEntries() {
+        return _numOfUpdatedEntries.get() > 0;
+    }
+
+    /**
+     * @return a read only map view of uid to update info of the entries updated under the
+     * transaction, as expected by the storage adapter and the replication
+     */
+    public Map<String, Object> getUpdatedEntries() {
+        return _updatedEntries;
+    }
+
+    /**
+     * the state of a single entry under the transaction
+     */
+    public static final class EntryInfo {
+        private volatile OperationID _operationID;
+        //partial update indicators (boolean[]) or in-place update mutators (List<SpaceEntryMutator>)
+        private volatile Object _updateInfo;
+        private volatile boolean _rewritten;
+
+        public OperationID getOperationID() {
+            return _operationID;
+        }
+
+        public Object getUpdateInfo() {
+            return _updateInfo;
+        }
+
+        public boolean isUpdated() {
+            return _updateInfo != null;
+        }
+
+        public boolean isRewritten() {
+            return _rewritten;
+        }
+
+        @SuppressWarnings("unchecked")
+        boolean addMutators(Collection<SpaceEntryMutator> mutators) {
+            Object updateInfo = _updateInfo;
+            if (!(updateInfo instanceof List))
+                return false;
+            ((Collection<SpaceEntryMutator>) updateInfo).addAll(mutators);
+            return true;
+        }
+    }
+
+    private final class UpdatedEntriesView extends AbstractMap<String, Object> {
+        @Override
+        public Object get(Object key) {
+            EntryInfo info = _entries.get(key);
+            return info != null ? info._updateInfo : null;
+        }
+
+        @Override
+        public boolean containsKey(Object key) {
+            return get(key) != null;
+        }
+
+        @Override
+        public int size() {
+            return _numOfUpdatedEntries.get();
+        }
+
+        @Override
+        public Set<Entry<String, Object>> entrySet() {
+            return new AbstractSet<Entry<String, Object>>() {
+                @Override
+                public Iterator<Entry<String, Object>> iterator() {
+                    return new UpdatedEntriesIterator(_entries.entrySet().iterator());
+                }
+
+                @Override
+                public int size() {
+                    return _numOfUpdatedEntries.get();
+                }
+            };
+        }
+    }
+
+    private static final class UpdatedEntriesIterator implements Iterator<Map.Entry<String, Object>> {
+        private final Iterator<Map.Entry<String, EntryInfo>> _iterator;
+        private Map.Entry<String, Object> _next;
+
+        private UpdatedEntriesIterator(Iterator<Map.Entry<String, EntryInfo>> iterator) {
+            _iterator = iterator;
+            advance();
+        }
+
+        private void advance() {
+            _next = null;
+            while (_iterator.hasNext()) {
+                Map.Entry<String, EntryInfo> entry = _iterator.next();
+                Object updateInfo = entry.getValue()._updateInfo;
+                if (updateInfo != null) {
+                    _next = new AbstractMap.SimpleImmutableEntry<String, Object>(entry.getKey(), updateInfo);
+                    return;
+                }
+            }
+        }
+
+        @Override
+        public boolean hasNext() {
+            return _next != null;
+        }
+
+        @Override
+        public Map.Entry<String, Object> next() {
+            if (_next == null)
+                throw new NoSuchElementException();
+            Map.Entry<String, Object> result = _next;
+            advance();
+            return result;
+        }
+
+        @Override
+        public void remove() {
+            throw new UnsupportedOperationException();
+        }
+    }
+}
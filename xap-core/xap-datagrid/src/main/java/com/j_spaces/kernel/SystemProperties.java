@@ -618,6 +618,19 @@ public class SystemProperties extends CommonSystemProperties {
      */
     public final static int ENGINE_LRU_SEGMENTS_DEFAULT = 5 * Runtime.getRuntime().availableProcessors() + 1;
 
+    /**
+     * Initial capacity of the per-transaction working set which holds the state (operation id,
+     * update info, rewritten indication) of the entries touched under a transaction. The working
+     * set is allocated on the first entry touched. Setting a higher value avoids resizing for
+     * transactions which touch a large number of entries, at the cost of memory for small ones.
+     */
+    public final static String ENGINE_XTN_WORKING_SET_INITIAL_CAPACITY = "com.gs.engine.xtnWorkingSetInitialCapacity";
+
+    /**
+     * Default initial capacity of the per-transaction working set.
+     */
+    public final static int ENGINE_XTN_WORKING_SET_INITIAL_CAPACITY_DEFAULT = 16;
+
     /**
      * are the before/after remove filters general and not only for lease cancel/expiration
      */
@@ -722,6 +735,76 @@ public class SystemProperties extends CommonSystemProperties {
     public static final String REQUIRED_CONSISTENCY_LEVEL = "com.gs.replication.required_consistency_level";
     public static final int REQUIRED_CONSISTENCY_LEVEL_DEFAULT = 1;
 
+    /**
+     * Whether transaction prepare/commit replication packets arriving concurrently at a sync
+     * replication group are grouped and replicated together in a single round trip. Disabled by
+     * default.
+     */
+    public static final String REPLICATION_SYNC_GROUP_COMMIT_ENABLED = "com.gs.replication.sync.group_commit.enabled";
+    public static final String REPLICATION_SYNC_GROUP_COMMIT_ENABLED_DEFAULT = "false";
+
+    /**
+     * Time (in microseconds) a group commit leader waits for more commits to join its batch before
+     * replicating it. When 0, only commits which arrived while the previous batch was in flight are
+     * grouped, which adds no latency to an uncontended commit.
+     */
+    public static final String REPLICATION_SYNC_GROUP_COMMIT_WINDOW_MICROS = "com.gs.replication.sync.group_commit.window_micros";
+    public static final long REPLICATION_SYNC_GROUP_COMMIT_WINDOW_MICROS_DEFAULT = 0;
+
+    /**
+     * Number of pending commits which ends the group commit window early.
+     */
+    public static final String REPLICATION_SYNC_GROUP_COMMIT_MAX_BATCH_SIZE = "com.gs.replication.sync.group_commit.max_batch_size";
+    public static final int REPLICATION_SYNC_GROUP_COMMIT_MAX_BATCH_SIZE_DEFAULT = 256;
+
+    /**
+     * Whether concurrent single entry writes of a space proxy to the same partition are coalesced
+     * into a single write multiple round trip. Only writes without a transaction, one way or update
+     * semantics are coalesced.
+     */
+    public static final String SPACE_PROXY_WRITE_COALESCING_ENABLED = "com.gs.proxy.write_coalescing.enabled";
+    public static final String SPACE_PROXY_WRITE_COALESCING_ENABLED_DEFAULT = "false";
+
+    /**
+     * Time (in microseconds) a coalescing writer waits for more writes to join its batch before
+     * writing it. When 0, only writes which arrived while the previous batch was in flight are
+     * coalesced.
+     */
+    public static final String SPACE_PROXY_WRITE_COALESCING_LINGER_MICROS = "com.gs.proxy.write_coalescing.linger_micros";
+    public static final long SPACE_PROXY_WRITE_COALESCING_LINGER_MICROS_DEFAULT = 0;
+
+    /**
+     * Maximum number of writes coalesced into a single write multiple.
+     */
+    public static final String SPACE_PROXY_WRITE_COALESCING_MAX_BATCH_SIZE = "com.gs.proxy.write_coalescing.max_batch_size";
+    public static final int SPACE_PROXY_WRITE_COALESCING_MAX_BATCH_SIZE_DEFAULT = 128;
+
+    /**
+     * Whether read by id results of a space proxy are kept in a size bounded near cache which is
+     * invalidated by space notifications.
+     */
+    public static final String SPACE_PROXY_READ_BY_ID_CACHE_ENABLED = "com.gs.proxy.read_by_id_cache.enabled";
+    public static final String SPACE_PROXY_READ_BY_ID_CACHE_ENABLED_DEFAULT = "false";
+
+    /**
+     * Maximum number of entries kept in the read by id near cache.
+     */
+    public static final String SPACE_PROXY_READ_BY_ID_CACHE_SIZE = "com.gs.proxy.read_by_id_cache.size";
+    public static final int SPACE_PROXY_READ_BY_ID_CACHE_SIZE_DEFAULT = 10000;
+
+    /**
+     * Maximum number of invalidations delivered to the read by id near cache in a single batch.
+     */
+    public static final String SPACE_PROXY_READ_BY_ID_CACHE_INVALIDATION_BATCH_SIZE = "com.gs.proxy.read_by_id_cache.invalidation_batch_size";
+    public static final int SPACE_PROXY_READ_BY_ID_CACHE_INVALIDATION_BATCH_SIZE_DEFAULT = 100;
+
+    /**
+     * Maximum time (in milliseconds) an invalidation of the read by id near cache is held back to
+     * be batched with others.
+     */
+    public static final String SPACE_PROXY_READ_BY_ID_CACHE_INVALIDATION_BATCH_TIME = "com.gs.proxy.read_by_id_cache.invalidation_batch_time";
+    public static final long SPACE_PROXY_READ_BY_ID_CACHE_INVALIDATION_BATCH_TIME_DEFAULT = 10;
+
     public static final String REPLICATION_BLOBSTORE_SYNC_LIST_BATCH_SIZE = "com.gs.replication.blobstore.sync_list_batch_size";
     public static final int REPLICATION_BLOBSTORE_SYNC_LIST_BATCH_SIZE_DEFAULT = 15000;
 
@@ -0,0 +1,104 @@
+/*
+ * Copyright (c) 2008-2016, GigaSpaces Technologies, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.sun.jini.mahalo;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+
+/**
+ * Groups items by their expiration time into buckets of a fixed interval, so expired items can be
+ * found without scanning the items which did not expire yet. An item is added to the bucket which
+ * ends at or after its expiration, and is polled once that bucket ended.
+ *
+ * The caller keeps the bucket returned by {@link #add(Object, long)} to remove the item, and must
+ * not add, remove or poll the same item concurrently.
+ *
+ * @since 14.2
+ */
+@com.gigaspaces.api.InternalApi
+public class ExpirationWheel<T> {
+    private final long _interval;
+    private final ConcurrentSkipListMap<Long, Set<T>> _buckets = new ConcurrentSkipListMap<Long, Set<T>>();
+
+    public ExpirationWheel(long interval) {
+        if (interval <= 0)
+            throw new IllegalArgumentException("interval must be positive [" + interval + "]");
+        this._interval = interval;
+    }
+
+    /**
+     * Adds an item which expires at the given time.
+     *
+     * @return the bucket of the item
+     */
+    public long add(T item, long expiration) {
+        final Long bucket = expiration / _interval + (expiration % _interval == 0 ? 0 : 1);
+        while (true) {
+            Set<T> items = _buckets.get(bucket);
+            if (items == null) {
+                items = Collections.newSetFromMap(new ConcurrentHashMap<T, Boolean>());
+                Set<T> existing = _buckets.putIfAbsent(bucket, items);
+                if (existing != null)
+                    items = existing;
+            }
+            items.add(item);
+            // The bucket may have been polled meanwhile, in which case the item is added again
+            if (_buckets.get(bucket) == items)
+                return bucket;
+        }
+    }
+
+    /**
+     * Removes an item from the given bucket, if it was not polled yet.
+     */
+    public void remove(T item, long bucket) {
+        Set<T> items = _buckets.get(bucket);
+        if (items != null)
+            items.remove(item);
+    }
+
+    /**
+     * Removes and returns the items whose bucket ended at the given time.
+     */
+    public List<T> pollExpired(long now) {
+        final long lastExpiredBucket = now / _interval;
+        List<T> expired = null;
+        Map.Entry<Long, Set<T>> first;
+        while ((first = _buckets.firstEntry()) != null && first.getKey() <= lastExpiredBucket) {
+            if (!_buckets.remove(first.getKey(), first.getValue()))
+                continue;
+            if (expired == null)
+                expired = new ArrayList<T>();
+            expired.addAll(first.getValue());
+        }
+        return expired != null ? expired : Collections.<T>emptyList();
+    }
+
+    /**
+     * Returns the number of items which were not polled yet.
+     */
+    public int size() {
+        int size = 0;
+        for (Set<T> items : _buckets.values())
+            size += items.size();
+        return size;
+    }
+}
@@ -92,6 +92,26 @@ public class LeaseExpirationMgr implements LeaseManager, WeakTable.KeyGCHandler
         schedule(resource);
     }
 
+    /**
+     * Periodically run the given task in the expiration thread, used to expire resources which were
+     * not registered with this manager.
+     */
+    void schedulePeriodic(final long interval, final Runnable task) {
+        expirationQueue.schedule(SystemTime.timeMillis() + interval, new Runnable() {
+            public void run() {
+                try {
+                    task.run();
+                } finally {
+                    try {
+                        expirationQueue.schedule(SystemTime.timeMillis() + interval, this);
+                    } catch (IllegalStateException e) {
+                        // Terminated
+                    }
+                }
+            }
+        });
+    }
+
     /**
      * Schedule a leased resource to be reaped in the future. Called when a resource gets a lease,
      * or a lease is renewed.
@@ -323,6 +323,19 @@ public class TxnManagerImpl /*extends RemoteServer*/
     private final boolean finer_tr_logger;
     private final boolean finest_tr_logger;
 
+    /**
+     * When set, the leases of non persistent transactions are registered with the lease expiration
+     * manager only once a second participant joins. Single participant transactions which expire
+     * are aborted by a periodic sweep instead.
+     */
+    private static final boolean LIGHT_SINGLE_PARTICIPANT_LEASES = Boolean.parseBoolean(
+            System.getProperty("com.gigaspaces.transaction.light-single-participant-leases", "true"));
+    private static final long LEASE_SWEEP_INTERVAL = Long.getLong("com.gigaspaces.transaction.lease-sweep-interval", 1000);
+
+    private boolean lightSingleParticipantLeases;
+    //expirations of the transactions whose lease is not tracked by the lease expiration manager
+    private final ExpirationWheel<TxnManagerTransaction> untrackedExpirations = new ExpirationWheel<TxnManagerTransaction>(LEASE_SWEEP_INTERVAL);
+
     //try to optimize single threaded multi join
     private TxnManagerTransaction _lastTxn;
     //maps the internal tid used for Uuid of lease etc to the xid if applicable
@@ -678,6 +691,14 @@ public class TxnManagerImpl /*extends RemoteServer*/
 
         // Create LeaseExpirationMgr
         expMgr = new LeaseExpirationMgr(this);
+        lightSingleParticipantLeases = LIGHT_SINGLE_PARTICIPANT_LEASES && !persistent;
+        if (lightSingleParticipantLeases) {
+            expMgr.schedulePeriodic(LEASE_SWEEP_INTERVAL, new Runnable() {
+                public void run() {
+                    abortExpiredUntrackedTransactions();
+                }
+            });
+        }
 
         if (initLogger.isLoggable(Level.FINEST)) {
             initLogger.log(Level.FINEST, "Setting up log manager");
@@ -829,7 +850,12 @@ public class TxnManagerImpl /*extends RemoteServer*/
                         leaseFactory.newTransactionLease(
                                 uuid,
                                 r.expiration);
-                expMgr.register(txntr);
+                if (!lightSingleParticipantLeases || externalXid != null) {
+                    txntr.setExpirationTracked();
+                    expMgr.register(txntr);
+                } else {
+                    txntr.setExpirationBucket(untrackedExpirations.add(txntr, r.expiration));
+                }
             } else {
                 txnmgrlease =
                         leaseFactory.newTransactionLease(
@@ -955,6 +981,7 @@ public class TxnManagerImpl /*extends RemoteServer*/
             TxnManagerTransaction lastTxn = _lastTxn;
             if (lastTxn != null && lastTxn.getTransaction().id == tid && !fromXid) {
                 lastTxn.join(preparedTarget, crashCount, userXtnObject, partitionId, clusterName, clusterProxy);
+                trackExpirationIfDistributed(lastTxn);
                 return;
             }
         }
@@ -986,6 +1013,7 @@ public class TxnManagerImpl /*extends RemoteServer*/
 
         // txntr.join does expiration check
         txntr.join(preparedTarget, crashCount, userXtnObject, partitionId, clusterName, clusterProxy);
+        trackExpirationIfDistributed(txntr);
         if (crashCount == ServerTransaction.EMBEDDED_CRASH_COUNT && !fromXid)
             _lastTxn = txntr;
 
@@ -997,6 +1025,64 @@ public class TxnManagerImpl /*extends RemoteServer*/
     }
 
 
+    private void trackExpirationIfDistributed(TxnManagerTransaction txntr) {
+        synchronized (txntr) {
+            if (!txntr.trackExpirationIfDistributed())
+                return;
+            untrackedExpirations.remove(txntr, txntr.getExpirationBucket());
+        }
+        expMgr.register(txntr);
+    }
+
+    /**
+     * Stops following the expiration of a completed transaction whose lease is not tracked by the
+     * lease expiration manager.
+     */
+    private void untrackedTransactionCompleted(TxnManagerTransaction txntr) {
+        if (!lightSingleParticipantLeases)
+            return;
+        synchronized (txntr) {
+            if (!txntr.isExpirationTracked())
+                untrackedExpirations.remove(txntr, txntr.getExpirationBucket());
+        }
+    }
+
+    /**
+     * Number of transactions whose expiration is followed by the periodic sweep rather than the
+     * lease expiration manager.
+     */
+    int getUntrackedTransactionsCount() {
+        return untrackedExpirations.size();
+    }
+
+    /**
+     * Aborts the expired transactions whose lease is not tracked by the lease expiration manager.
+     */
+    void abortExpiredUntrackedTransactions() {
+        final long now = SystemTime.timeMillis();
+        for (TxnManagerTransaction txntr : untrackedExpirations.pollExpired(now)) {
+            synchronized (txntr) {
+                if (txntr.isExpirationTracked() || txntr.getState() != ACTIVE)
+                    continue;
+                // Renewed after it was polled
+                if (txntr.getExpiration() > now) {
+                    txntr.setExpirationBucket(untrackedExpirations.add(txntr, txntr.getExpiration()));
+                    continue;
+                }
+            }
+            try {
+                cancel(txntr.getCookie());
+            } catch (UnknownLeaseException e) {
+                // Don't care, probably already gone
+            } catch (RuntimeException e) {
+                if (transactionsLogger.isLoggable(Level.WARNING)) {
+                    transactionsLogger.log(Level.WARNING,
+                            "Failed to abort expired transaction [ID=" + txntr.getTransaction().id + "]", e);
+                }
+            }
+        }
+    }
+
     public boolean
     disJoin(long id, TransactionParticipant part)
             throws UnknownTransactionException, RemoteException {
@@ -1153,6 +1239,7 @@ public class TxnManagerImpl /*extends RemoteServer*/
         // txntr.commit does expiration check
         txntr.commit(waitFor);
         _txns.remove(id);
+        untrackedTransactionCompleted(txntr);
         if (txntr.isExternalXid())
             _tidToExternalXid.remove(txntr.getTransaction().id);
 
@@ -1258,6 +1345,7 @@ public class TxnManagerImpl /*extends RemoteServer*/
 
         txntr.abort(waitFor);
         _txns.remove(id);
+        untrackedTransactionCompleted(txntr);
         if (txntr.isExternalXid())
             _tidToExternalXid.remove(txntr.getTransaction().id);
 
@@ -1498,7 +1586,12 @@ public class TxnManagerImpl /*extends RemoteServer*/
             long oldExpiration = txntr.getExpiration();
             r = txnLeasePeriodPolicy.renew(txntr, extension);
             txntr.setExpiration(r.expiration);
-            expMgr.renewed(txntr);
+            if (txntr.isExpirationTracked()) {
+                expMgr.renewed(txntr);
+            } else if (lightSingleParticipantLeases) {
+                untrackedExpirations.remove(txntr, txntr.getExpirationBucket());
+                txntr.setExpirationBucket(untrackedExpirations.add(txntr, r.expiration));
+            }
             if (operationsLogger.isLoggable(Level.FINER)) {
                 operationsLogger.exiting(
                         TxnManagerImpl.class.getName(), "renew",
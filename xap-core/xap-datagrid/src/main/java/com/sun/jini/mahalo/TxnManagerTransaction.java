@@ -143,6 +143,11 @@ class TxnManagerTransaction
     //if xtn has 1 participant- its stored in singleHandle for optimizations 
     private ParticipantHandle _singleHandle;
 
+    //single participant xtns are tracked by the lease expiration manager only once a second participant joins
+    private boolean _expirationTracked;
+    //bucket of the untracked xtn in the expiration wheel of the manager
+    private long _expirationBucket;
+
 
     /**
      * @serial
@@ -1554,6 +1559,34 @@ class TxnManagerTransaction
 
     }
 
+    synchronized void setExpirationTracked() {
+        _expirationTracked = true;
+    }
+
+    synchronized boolean isExpirationTracked() {
+        return _expirationTracked;
+    }
+
+    synchronized long getExpirationBucket() {
+        return _expirationBucket;
+    }
+
+    synchronized void setExpirationBucket(long expirationBucket) {
+        _expirationBucket = expirationBucket;
+    }
+
+    /**
+     * Marks the lease of this transaction as tracked once more than one participant has joined it.
+     *
+     * @return true if the lease should be registered with the lease expiration manager
+     */
+    synchronized boolean trackExpirationIfDistributed() {
+        if (_expirationTracked || _parts == null || _leaseForEver)
+            return false;
+        _expirationTracked = true;
+        return true;
+    }
+
     synchronized boolean ensureCurrent() {
         if (finer_op_logger) {
             operationsLogger.entering(TxnManagerTransaction.class.getName(),
@@ -0,0 +1,125 @@
+/*
+ * Copyright (c) 2008-2016, GigaSpaces Technologies, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.gigaspaces.async.internal;
+
+import com.gigaspaces.async.AsyncFuture;
+import com.gigaspaces.async.AsyncResult;
+import com.gigaspaces.async.AsyncResultsAccumulator;
+import com.gigaspaces.async.IncrementalAsyncResultsReducer;
+import com.gigaspaces.async.SettableFuture;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+
+public class CompoundFutureTest {
+
+    @Test
+    public void testResultsAreAccumulatedAsTheyArrive() throws Exception {
+        SettableFuture<Integer>[] futures = createFutures(4);
+        SumReducer reducer = new SumReducer(Integer.MAX_VALUE);
+        AsyncFuture<Integer> compound = new CompoundFuture<Integer, Integer>(futures, reducer);
+
+        futures[2].setResult(3);
+        futures[0].setResult(1);
+        Assert.assertEquals(2, reducer.accumulated);
+        Assert.assertFalse(compound.isDone());
+
+        futures[1].setResult(2);
+        futures[3].setResult(4);
+        Assert.assertTrue(compound.isDone());
+        Assert.assertEquals(Integer.valueOf(10), compound.get());
+        Assert.assertEquals(4, reducer.accumulated);
+    }
+
+    @Test
+    public void testAccumulatorCompletesEarly() throws Exception {
+        SettableFuture<Integer>[] futures = createFutures(4);
+        SumReducer reducer = new SumReducer(2);
+        AsyncFuture<Integer> compound = new CompoundFuture<Integer, Integer>(futures, reducer);
+
+        futures[3].setResult(5);
+        futures[1].setResult(7);
+        Assert.assertTrue(compound.isDone());
+        Assert.assertEquals(Integer.valueOf(12), compound.get());
+
+        // results arriving after completion are ignored
+        futures[0].setResult(100);
+        Assert.assertEquals(2, reducer.accumulated);
+        Assert.assertEquals(Integer.valueOf(12), compound.get());
+    }
+
+    @Test
+    public void testAccumulatorErrorIsPropagated() throws Exception {
+        SettableFuture<Integer>[] futures = createFutures(3);
+        AsyncFuture<Integer> compound = new CompoundFuture<Integer, Integer>(futures, new SumReducer(Integer.MAX_VALUE));
+
+        futures[0].setResult(new IllegalArgumentException("failed"));
+        Assert.assertTrue(compound.isDone());
+        try {
+            compound.get();
+            Assert.fail("expected execution exception");
+        } catch (ExecutionException e) {
+            Assert.assertEquals("failed", e.getCause().getMessage());
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private static SettableFuture<Integer>[] createFutures(int count) {
+        SettableFuture<Integer>[] futures = new SettableFuture[count];
+        for (int i = 0; i < count; i++)
+            futures[i] = new SettableFuture<Integer>();
+        return futures;
+    }
+
+    private static class SumReducer implements IncrementalAsyncResultsReducer<Integer, Integer> {
+        private final int limit;
+        private int accumulated;
+
+        private SumReducer(int limit) {
+            this.limit = limit;
+        }
+
+        @Override
+        public Integer reduce(List<AsyncResult<Integer>> results) {
+            throw new UnsupportedOperationException("results should be accumulated");
+        }
+
+        @Override
+        public AsyncResultsAccumulator<Integer, Integer> createAccumulator() {
+            return new AsyncResultsAccumulator<Integer, Integer>() {
+                private int sum;
+
+                @Override
+                public boolean accumulate(AsyncResult<Integer> result) throws Exception {
+                    if (result.getException() != null)
+                        throw result.getException();
+                    sum += result.getResult();
+                    return ++accumulated < limit;
+                }
+
+                @Override
+                public Integer getResult() {
+                    return sum;
+                }
+            };
+        }
+    }
+}
@@ -0,0 +1,245 @@
+/*
+ * Copyright (c) 2008-2016, GigaSpaces Technologies, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.gigaspaces.internal.client.spaceproxy;
+
+import com.gigaspaces.events.batching.BatchRemoteEventListener;
+import com.gigaspaces.internal.transport.EntryPacket;
+import com.gigaspaces.internal.transport.IEntryPacket;
+import com.j_spaces.core.client.Modifiers;
+import com.j_spaces.core.client.ReadModifiers;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.rmi.RemoteException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.logging.Logger;
+
+public class SpaceProxyReadByIdCacheTest {
+
+    private static final Logger LOGGER = Logger.getLogger(SpaceProxyReadByIdCacheTest.class.getName());
+    private static final String TYPE = "com.example.Person";
+
+    @Test
+    public void testCachedEntryIsReturnedUntilInvalidated() {
+        TestCache cache = new TestCache(16);
+        Assert.assertNull(cache.get(TYPE, 1));
+        Assert.assertTrue(cache.ensureRegistered(TYPE));
+        Assert.assertTrue(cache.put(TYPE, 1, packet("uid1", 1), cache.getInvalidationSequence()));
+        Assert.assertEquals("uid1", cache.get(TYPE, 1).getUID());
+
+        cache.invalidate("uid1");
+        Assert.assertNull(cache.get(TYPE, 1));
+        Assert.assertEquals(0, cache.size());
+    }
+
+    @Test
+    public void testInvalidationDuringReadPreventsCaching() {
+        TestCache cache = new TestCache(16);
+        long readSequence = cache.getInvalidationSequence();
+        // The entry is updated while the read is in flight
+        cache.invalidate("uid1");
+        Assert.assertFalse(cache.put(TYPE, 1, packet("uid1", 1), readSequence));
+        Assert.assertNull(cache.get(TYPE, 1));
+
+        // A read which started after the invalidation may cache its result
+        Assert.assertTrue(cache.put(TYPE, 1, packet("uid1", 2), cache.getInvalidationSequence()));
+    }
+
+    @Test
+    public void testInvalidationByIdDuringReadPreventsCaching() {
+        TestCache cache = new TestCache(16);
+        Assert.assertTrue(cache.put(TYPE, 1, packet("uid1", 1), cache.getInvalidationSequence()));
+        long readSequence = cache.getInvalidationSequence();
+        // The proxy modified the entry while another read of it is in flight
+        cache.invalidate(TYPE, 1);
+        Assert.assertNull(cache.get(TYPE, 1));
+        Assert.assertFalse(cache.put(TYPE, 1, packet("uid1", 1), readSequence));
+
+        Assert.assertTrue(cache.put(TYPE, 1, packet("uid1", 2), cache.getInvalidationSequence()));
+        // The uid index was updated, so an invalidation by uid still removes it
+        cache.invalidate("uid1");
+        Assert.assertEquals(0, cache.size());
+    }
+
+    @Test
+    public void testOlderVersionDoesNotReplaceNewer() {
+        TestCache cache = new TestCache(16);
+        Assert.assertTrue(cache.put(TYPE, 1, packet("uid1", 3), cache.getInvalidationSequence()));
+        Assert.assertFalse(cache.put(TYPE, 1, packet("uid1", 2), cache.getInvalidationSequence()));
+        Assert.assertEquals(3, cache.get(TYPE, 1).getVersion());
+    }
+
+    @Test
+    public void testFrequentEntriesAreNotEvictedByOneHitWonders() {
+        TestCache cache = new TestCache(2);
+        for (int i = 0; i < 5; i++) {
+            cache.get(TYPE, 1);
+            cache.get(TYPE, 2);
+        }
+        Assert.assertTrue(cache.put(TYPE, 1, packet("uid1", 1), cache.getInvalidationSequence()));
+        Assert.assertTrue(cache.put(TYPE, 2, packet("uid2", 1), cache.getInvalidationSequence()));
+
+        cache.get(TYPE, 3);
+        Assert.assertFalse(cache.put(TYPE, 3, packet("uid3", 1), cache.getInvalidationSequence()));
+        Assert.assertEquals(2, cache.size());
+
+        // Once it becomes more popular than the least recently used entry it is admitted
+        for (int i = 0; i < 10; i++)
+            cache.get(TYPE, 3);
+        Assert.assertTrue(cache.put(TYPE, 3, packet("uid3", 1), cache.getInvalidationSequence()));
+        Assert.assertEquals(2, cache.size());
+        Assert.assertNull(cache.get(TYPE, 1));
+        cache.invalidate("uid1");
+        Assert.assertNotNull(cache.get(TYPE, 3));
+    }
+
+    @Test
+    public void testInvalidationListenerIsRegisteredOncePerType() {
+        TestCache cache = new TestCache(16);
+        Assert.assertTrue(cache.ensureRegistered(TYPE));
+        Assert.assertTrue(cache.ensureRegistered(TYPE));
+        Assert.assertTrue(cache.ensureRegistered("com.example.Order"));
+        Assert.assertEquals(2, cache.registrations.size());
+    }
+
+    @Test
+    public void testLockingReadsAreNotCacheable() {
+        Assert.assertTrue(SpaceProxyReadByIdCache.isCacheable(null, ReadModifiers.READ_COMMITTED, null));
+        Assert.assertFalse(SpaceProxyReadByIdCache.isCacheable(null, ReadModifiers.EXCLUSIVE_READ_LOCK, null));
+        Assert.assertFalse(SpaceProxyReadByIdCache.isCacheable(null, ReadModifiers.DIRTY_READ, null));
+        Assert.assertFalse(SpaceProxyReadByIdCache.isCacheable(null, Modifiers.NONE, new String[]{"name"}));
+    }
+
+    @Test
+    public void testLostRegistrationClearsCacheAndRegistersAgain() {
+        TestCache cache = new TestCache(16);
+        Assert.assertTrue(cache.ensureRegistered(TYPE));
+        long readSequence = cache.getInvalidationSequence();
+        Assert.assertTrue(cache.put(TYPE, 1, packet("uid1", 1), cache.getInvalidationSequence()));
+
+        cache.onInvalidationListenersLost(new RemoteException("disconnected"));
+        Assert.assertEquals(1, cache.closed);
+        Assert.assertEquals(0, cache.size());
+        // A read which was in flight while the registration was lost is not cached
+        Assert.assertFalse(cache.put(TYPE, 2, packet("uid2", 1), readSequence));
+
+        Assert.assertTrue(cache.ensureRegistered(TYPE));
+        Assert.assertEquals(2, cache.registrations.size());
+        Assert.assertTrue(cache.put(TYPE, 1, packet("uid1", 1), cache.getInvalidationSequence()));
+    }
+
+    @Test
+    public void testCloseUnregistersListenersAndStopsCaching() {
+        TestCache cache = new TestCache(16);
+        Assert.assertTrue(cache.ensureRegistered(TYPE));
+        Assert.assertTrue(cache.put(TYPE, 1, packet("uid1", 1), cache.getInvalidationSequence()));
+
+        cache.close();
+        cache.close();
+        Assert.assertEquals(1, cache.closed);
+        Assert.assertEquals(0, cache.size());
+        Assert.assertFalse(cache.ensureRegistered("com.example.Order"));
+        Assert.assertEquals(1, cache.registrations.size());
+
+        // Late notifications of the closed session are ignored
+        cache.onInvalidationListenersLost(new RemoteException("disconnected"));
+        Assert.assertEquals(1, cache.closed);
+    }
+
+    @Test
+    public void testSegmentedCacheIsBounded() {
+        TestCache cache = new TestCache(64, 4);
+        for (int i = 0; i < 1000; i++) {
+            cache.get(TYPE, i);
+            cache.put(TYPE, i, packet("uid" + i, 1), cache.getInvalidationSequence());
+        }
+        Assert.assertTrue(cache.size() > 0);
+        Assert.assertTrue(cache.size() <= 64);
+    }
+
+    @Test
+    public void testConcurrentReadsAndInvalidations() throws Exception {
+        final TestCache cache = new TestCache(1024, 8);
+        final int numOfEntries = 256;
+        final AtomicReference<Throwable> error = new AtomicReference<Throwable>();
+        Thread[] threads = new Thread[8];
+        for (int t = 0; t < threads.length; t++) {
+            final int seed = t;
+            threads[t] = new Thread() {
+                @Override
+                public void run() {
+                    try {
+                        Random random = new Random(seed);
+                        for (int i = 0; i < 20000; i++) {
+                            int id = random.nextInt(numOfEntries);
+                            if (random.nextInt(4) == 0) {
+                                cache.invalidate("uid" + id);
+                            } else if (cache.get(TYPE, id) == null) {
+                                cache.put(TYPE, id, packet("uid" + id, 1), cache.getInvalidationSequence());
+                            }
+                        }
+                    } catch (Throwable e) {
+                        error.set(e);
+                    }
+                }
+            };
+            threads[t].start();
+        }
+        for (Thread thread : threads)
+            thread.join();
+        Assert.assertNull(error.get());
+
+        // Every cached entry is still reachable by its invalidation
+        for (int id = 0; id < numOfEntries; id++)
+            cache.invalidate("uid" + id);
+        Assert.assertEquals(0, cache.size());
+    }
+
+    private static IEntryPacket packet(String uid, int version) {
+        EntryPacket packet = new EntryPacket();
+        packet.setUID(uid);
+        packet.setVersion(version);
+        return packet;
+    }
+
+    private static class TestCache extends SpaceProxyReadByIdCache {
+        private final List<String> registrations = new ArrayList<String>();
+        private int closed;
+
+        private TestCache(int capacity) {
+            super(capacity, LOGGER);
+        }
+
+        private TestCache(int capacity, int concurrencyLevel) {
+            super(capacity, concurrencyLevel, LOGGER);
+        }
+
+        @Override
+        protected void registerInvalidationListener(String typeName, BatchRemoteEventListener listener) {
+            registrations.add(typeName);
+        }
+
+        @Override
+        protected void closeInvalidationListeners() {
+            closed++;
+        }
+    }
+}
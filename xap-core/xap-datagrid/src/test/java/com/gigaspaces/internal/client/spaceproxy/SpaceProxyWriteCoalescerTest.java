@@ -0,0 +1,330 @@
+/*
+ * Copyright (c) 2008-2016, GigaSpaces Technologies, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.gigaspaces.internal.client.spaceproxy;
+
+import com.gigaspaces.client.WriteMultipleException;
+import com.gigaspaces.internal.exceptions.WriteResultImpl;
+import com.gigaspaces.internal.transport.IEntryPacket;
+import com.j_spaces.core.LeaseContext;
+import com.j_spaces.core.LeaseInitializer;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.logging.Logger;
+
+public class SpaceProxyWriteCoalescerTest {
+
+    private static final Logger LOGGER = Logger.getLogger(SpaceProxyWriteCoalescerTest.class.getName());
+
+    @Test
+    public void testSingleWriteReturnsOwnLease() throws Exception {
+        final List<List<Object>> batches = new ArrayList<List<Object>>();
+        SpaceProxyWriteCoalescer coalescer = new SpaceProxyWriteCoalescer(0, 16, LOGGER) {
+            @Override
+            protected LeaseContext<?>[] writeMultiple(Object[] entries, IEntryPacket[] entryPackets,
+                                                      long[] leases, long timeout, int modifiers) {
+                batches.add(Arrays.asList(entries));
+                return leasesOf(entries);
+            }
+        };
+        LeaseContext<?> lease = coalescer.write("a", null, 0, 1000, 0, 0);
+        Assert.assertEquals("a", lease.getUID());
+        Assert.assertEquals(1, batches.size());
+    }
+
+    @Test
+    public void testConcurrentWritesAreCoalescedAndDemultiplexed() throws Exception {
+        final int writers = 8;
+        final CountDownLatch firstWriteStarted = new CountDownLatch(1);
+        final CountDownLatch releaseFirstWrite = new CountDownLatch(1);
+        final List<List<Object>> batches = Collections.synchronizedList(new ArrayList<List<Object>>());
+        final SpaceProxyWriteCoalescer coalescer = new SpaceProxyWriteCoalescer(0, 16, LOGGER) {
+            @Override
+            protected LeaseContext<?>[] writeMultiple(Object[] entries, IEntryPacket[] entryPackets,
+                                                      long[] leases, long timeout, int modifiers) {
+                batches.add(Arrays.asList(entries));
+                if (firstWriteStarted.getCount() > 0) {
+                    firstWriteStarted.countDown();
+                    await(releaseFirstWrite);
+                }
+                return leasesOf(entries);
+            }
+        };
+
+        final ConcurrentHashMap<String, String> results = new ConcurrentHashMap<String, String>();
+        Thread leader = startWriter(coalescer, "leader", 0, results, null);
+        firstWriteStarted.await();
+
+        // These arrive while the leader writes and should form a single batch
+        List<Thread> followers = new ArrayList<Thread>();
+        for (int i = 0; i < writers; i++)
+            followers.add(startWriter(coalescer, "follower" + i, 0, results, null));
+        while (!allWaiting(followers))
+            Thread.sleep(10);
+        releaseFirstWrite.countDown();
+
+        leader.join();
+        for (Thread follower : followers)
+            follower.join();
+
+        Assert.assertEquals(2, batches.size());
+        Assert.assertEquals(writers, batches.get(1).size());
+        Assert.assertEquals(writers + 1, results.size());
+        for (String entry : results.keySet())
+            Assert.assertEquals(entry, results.get(entry));
+    }
+
+    @Test
+    public void testEveryWriterGetsItsLeaseWhenMoreThanBatchSizeArePending() throws Exception {
+        final int writers = 9;
+        final int maxBatchSize = 2;
+        final CountDownLatch firstWriteStarted = new CountDownLatch(1);
+        final CountDownLatch releaseFirstWrite = new CountDownLatch(1);
+        final List<List<Object>> batches = Collections.synchronizedList(new ArrayList<List<Object>>());
+        final SpaceProxyWriteCoalescer coalescer = new SpaceProxyWriteCoalescer(0, maxBatchSize, LOGGER) {
+            @Override
+            protected LeaseContext<?>[] writeMultiple(Object[] entries, IEntryPacket[] entryPackets,
+                                                      long[] leases, long timeout, int modifiers) {
+                batches.add(Arrays.asList(entries));
+                if (firstWriteStarted.getCount() > 0) {
+                    firstWriteStarted.countDown();
+                    await(releaseFirstWrite);
+                }
+                return leasesOf(entries);
+            }
+        };
+
+        final ConcurrentHashMap<String, String> results = new ConcurrentHashMap<String, String>();
+        // The leader writes again right away, most likely before the queued writers wake up, so
+        // it leads a batch while its own write is queued last
+        Thread leader = new Thread() {
+            @Override
+            public void run() {
+                try {
+                    for (String entry : new String[]{"leader", "leader-again"})
+                        results.put(entry, coalescer.write(entry, null, 0, 1000, 0, 0).getUID());
+                } catch (Exception e) {
+                    throw new IllegalStateException(e);
+                }
+            }
+        };
+        leader.start();
+        firstWriteStarted.await();
+
+        List<Thread> followers = new ArrayList<Thread>();
+        for (int i = 0; i < writers; i++)
+            followers.add(startWriter(coalescer, "follower" + i, 0, results, null));
+        while (!allWaiting(followers))
+            Thread.sleep(10);
+        releaseFirstWrite.countDown();
+
+        leader.join();
+        for (Thread follower : followers)
+            follower.join();
+
+        Assert.assertEquals(writers + 2, results.size());
+        for (String entry : results.keySet())
+            Assert.assertEquals(entry, results.get(entry));
+        int written = 0;
+        for (List<Object> batch : batches) {
+            Assert.assertTrue("batch exceeds max size " + batch, batch.size() <= maxBatchSize);
+            written += batch.size();
+        }
+        Assert.assertEquals(writers + 2, written);
+    }
+
+    @Test
+    public void testWritesWithDistinctLeasesShareABatch() throws Exception {
+        final int writers = 4;
+        final CountDownLatch firstWriteStarted = new CountDownLatch(1);
+        final CountDownLatch releaseFirstWrite = new CountDownLatch(1);
+        final Map<Object, Long> writtenLeases = new ConcurrentHashMap<Object, Long>();
+        final List<List<Object>> batches = Collections.synchronizedList(new ArrayList<List<Object>>());
+        final SpaceProxyWriteCoalescer coalescer = new SpaceProxyWriteCoalescer(0, 16, LOGGER) {
+            @Override
+            protected LeaseContext<?>[] writeMultiple(Object[] entries, IEntryPacket[] entryPackets,
+                                                      long[] leases, long timeout, int modifiers) {
+                batches.add(Arrays.asList(entries));
+                for (int i = 0; i < entries.length; i++)
+                    writtenLeases.put(entries[i], leases[i]);
+                if (firstWriteStarted.getCount() > 0) {
+                    firstWriteStarted.countDown();
+                    await(releaseFirstWrite);
+                }
+                return leasesOf(entries);
+            }
+        };
+        final ConcurrentHashMap<String, String> results = new ConcurrentHashMap<String, String>();
+        Thread leader = startWriter(coalescer, "leader", 0, results, null);
+        firstWriteStarted.await();
+
+        List<Thread> followers = new ArrayList<Thread>();
+        for (int i = 0; i < writers; i++) {
+            final String entry = "follower" + i;
+            final long lease = 1000 + i;
+            Thread follower = new Thread() {
+                @Override
+                public void run() {
+                    try {
+                        results.put(entry, coalescer.write(entry, null, 0, lease, 0, 0).getUID());
+                    } catch (Exception e) {
+                        throw new IllegalStateException(e);
+                    }
+                }
+            };
+            follower.start();
+            followers.add(follower);
+        }
+        while (!allWaiting(followers))
+            Thread.sleep(10);
+        releaseFirstWrite.countDown();
+
+        leader.join();
+        for (Thread follower : followers)
+            follower.join();
+
+        Assert.assertEquals(2, batches.size());
+        Assert.assertEquals(writers, batches.get(1).size());
+        for (int i = 0; i < writers; i++) {
+            Assert.assertEquals("follower" + i, results.get("follower" + i));
+            Assert.assertEquals(Long.valueOf(1000 + i), writtenLeases.get("follower" + i));
+        }
+    }
+
+    @Test
+    public void testWritesToDifferentPartitionsAreNotCoalesced() throws Exception {
+        final CountDownLatch firstWriteStarted = new CountDownLatch(1);
+        final CountDownLatch releaseFirstWrite = new CountDownLatch(1);
+        final List<List<Object>> batches = Collections.synchronizedList(new ArrayList<List<Object>>());
+        final SpaceProxyWriteCoalescer coalescer = new SpaceProxyWriteCoalescer(0, 16, LOGGER) {
+            @Override
+            protected LeaseContext<?>[] writeMultiple(Object[] entries, IEntryPacket[] entryPackets,
+                                                      long[] leases, long timeout, int modifiers) {
+                batches.add(Arrays.asList(entries));
+                if (firstWriteStarted.getCount() > 0) {
+                    firstWriteStarted.countDown();
+                    await(releaseFirstWrite);
+                }
+                return leasesOf(entries);
+            }
+        };
+        final ConcurrentHashMap<String, String> results = new ConcurrentHashMap<String, String>();
+        Thread leader = startWriter(coalescer, "p0", 0, results, null);
+        firstWriteStarted.await();
+
+        // A write to another partition must not wait for the in flight batch of partition 0
+        Assert.assertEquals("p1", coalescer.write("p1", null, 1, 1000, 0, 0).getUID());
+        releaseFirstWrite.countDown();
+        leader.join();
+        Assert.assertEquals(2, batches.size());
+        Assert.assertEquals("p0", results.get("p0"));
+    }
+
+    @Test
+    public void testPartialFailureIsPropagatedToFailedWriterOnly() throws Exception {
+        final CountDownLatch firstWriteStarted = new CountDownLatch(1);
+        final CountDownLatch releaseFirstWrite = new CountDownLatch(1);
+        final SpaceProxyWriteCoalescer coalescer = new SpaceProxyWriteCoalescer(0, 16, LOGGER) {
+            @Override
+            protected LeaseContext<?>[] writeMultiple(Object[] entries, IEntryPacket[] entryPackets,
+                                                      long[] leases, long timeout, int modifiers) {
+                if (firstWriteStarted.getCount() > 0) {
+                    firstWriteStarted.countDown();
+                    await(releaseFirstWrite);
+                    return leasesOf(entries);
+                }
+                WriteMultipleException.IWriteResult[] results = new WriteMultipleException.IWriteResult[entries.length];
+                for (int i = 0; i < entries.length; i++) {
+                    if ("bad".equals(entries[i]))
+                        results[i] = WriteResultImpl.createErrorResult(new IllegalStateException("write failed"));
+                    else
+                        results[i] = WriteResultImpl.createLeaseResult(LeaseInitializer.createDummyLease((String) entries[i], 1));
+                }
+                throw new WriteMultipleException(results);
+            }
+        };
+        final ConcurrentHashMap<String, String> results = new ConcurrentHashMap<String, String>();
+        final AtomicInteger failures = new AtomicInteger();
+        Thread leader = startWriter(coalescer, "leader", 0, results, failures);
+        firstWriteStarted.await();
+
+        List<Thread> followers = new ArrayList<Thread>();
+        followers.add(startWriter(coalescer, "good1", 0, results, failures));
+        followers.add(startWriter(coalescer, "bad", 0, results, failures));
+        followers.add(startWriter(coalescer, "good2", 0, results, failures));
+        while (!allWaiting(followers))
+            Thread.sleep(10);
+        releaseFirstWrite.countDown();
+
+        leader.join();
+        for (Thread follower : followers)
+            follower.join();
+        Assert.assertEquals(1, failures.get());
+        Assert.assertEquals(3, results.size());
+        Assert.assertFalse(results.containsKey("bad"));
+    }
+
+    private static boolean allWaiting(List<Thread> threads) {
+        for (Thread thread : threads) {
+            if (thread.getState() != Thread.State.WAITING)
+                return false;
+        }
+        return true;
+    }
+
+    private static Thread startWriter(final SpaceProxyWriteCoalescer coalescer, final String entry, final int partitionId,
+                                      final ConcurrentHashMap<String, String> results, final AtomicInteger failures) {
+        Thread thread = new Thread() {
+            @Override
+            public void run() {
+                try {
+                    results.put(entry, coalescer.write(entry, null, partitionId, 1000, 0, 0).getUID());
+                } catch (IllegalStateException e) {
+                    failures.incrementAndGet();
+                } catch (Exception e) {
+                    throw new IllegalStateException(e);
+                }
+            }
+        };
+        thread.start();
+        return thread;
+    }
+
+    private static LeaseContext<?>[] leasesOf(Object[] entries) {
+        LeaseContext<?>[] leases = new LeaseContext<?>[entries.length];
+        for (int i = 0; i < entries.length; i++)
+            leases[i] = LeaseInitializer.createDummyLease((String) entries[i], 1);
+        return leases;
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
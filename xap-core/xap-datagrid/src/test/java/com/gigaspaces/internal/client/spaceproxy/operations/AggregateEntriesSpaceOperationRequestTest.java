@@ -0,0 +1,110 @@
+/*
+ * Copyright (c) 2008-2016, GigaSpaces Technologies, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.gigaspaces.internal.client.spaceproxy.operations;
+
+import com.gigaspaces.query.aggregators.AggregationResult;
+import com.gigaspaces.query.aggregators.CountAggregator;
+import com.gigaspaces.query.aggregators.SpaceEntriesAggregator;
+import com.j_spaces.core.IJSpace;
+
+import net.jini.core.transaction.TransactionException;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+public class AggregateEntriesSpaceOperationRequestTest {
+
+    private final IJSpace spaceProxy = (IJSpace) Proxy.newProxyInstance(getClass().getClassLoader(), new Class[]{IJSpace.class}, new InvocationHandler() {
+        public Object invoke(Object proxy, Method method, Object[] args) {
+            // the direct proxy is only used to convert raw entries, which a count does not return
+            return null;
+        }
+    });
+
+    @Test
+    public void testAsyncFinalResultAggregatesPartitionResults() throws Exception {
+        AggregateEntriesSpaceOperationRequest request = createRequest();
+        List<AggregateEntriesSpaceOperationResult> previous = new ArrayList<AggregateEntriesSpaceOperationResult>();
+        for (long count : new long[]{3, 4, 5}) {
+            AggregateEntriesSpaceOperationResult result = new AggregateEntriesSpaceOperationResult();
+            result.setIntermediateResults(new Object[]{count});
+            Assert.assertTrue(request.processPartitionResult(result, previous, 3));
+            previous.add(result);
+        }
+        AggregationResult result = (AggregationResult) request.getAsyncFinalResult();
+        Assert.assertEquals(12L, result.get("count(*)"));
+    }
+
+    @Test
+    public void testAsyncFinalResultOfSinglePartition() throws Exception {
+        AggregateEntriesSpaceOperationRequest request = createRequest();
+        AggregateEntriesSpaceOperationResult result = new AggregateEntriesSpaceOperationResult();
+        result.setIntermediateResults(new Object[]{7L});
+        request.setRemoteOperationResult(deserialize(result));
+        Assert.assertEquals(7L, ((AggregationResult) request.getAsyncFinalResult()).get(0));
+    }
+
+    @Test
+    public void testAsyncFinalResultOfEmbeddedPartition() throws Exception {
+        // an embedded space aggregates into the request aggregators, its result is not aggregated again
+        AggregateEntriesSpaceOperationRequest request = createRequest();
+        ((CountAggregator) request.getAggregators().get(0)).aggregateIntermediateResult(7L);
+        AggregateEntriesSpaceOperationResult result = new AggregateEntriesSpaceOperationResult();
+        result.setIntermediateResults(new Object[]{7L});
+        request.setRemoteOperationResult(result);
+        Assert.assertEquals(7L, ((AggregationResult) request.getAsyncFinalResult()).get(0));
+    }
+
+    @Test
+    public void testAsyncFinalResultRethrowsPartitionFailure() throws Exception {
+        AggregateEntriesSpaceOperationRequest request = createRequest();
+        List<AggregateEntriesSpaceOperationResult> previous = new ArrayList<AggregateEntriesSpaceOperationResult>();
+        AggregateEntriesSpaceOperationResult failure = new AggregateEntriesSpaceOperationResult();
+        failure.setExecutionException(new TransactionException("aborted"));
+        Assert.assertFalse(request.processPartitionResult(failure, previous, 2));
+        try {
+            request.getAsyncFinalResult();
+            Assert.fail("partition failure should be rethrown");
+        } catch (TransactionException e) {
+            Assert.assertEquals("aborted", e.getMessage());
+        }
+    }
+
+    private static AggregateEntriesSpaceOperationResult deserialize(AggregateEntriesSpaceOperationResult result) throws Exception {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        ObjectOutputStream out = new ObjectOutputStream(bytes);
+        out.writeObject(result);
+        out.close();
+        return (AggregateEntriesSpaceOperationResult) new ObjectInputStream(new ByteArrayInputStream(bytes.toByteArray())).readObject();
+    }
+
+    private AggregateEntriesSpaceOperationRequest createRequest() {
+        List<SpaceEntriesAggregator> aggregators = Collections.<SpaceEntriesAggregator>singletonList(new CountAggregator());
+        return new AggregateEntriesSpaceOperationRequest(spaceProxy, false, null, null, 0, aggregators);
+    }
+}
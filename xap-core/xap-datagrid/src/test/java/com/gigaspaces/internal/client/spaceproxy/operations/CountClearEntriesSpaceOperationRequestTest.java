@@ -0,0 +1,61 @@
+/*
+ * Copyright (c) 2008-2016, GigaSpaces Technologies, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.gigaspaces.internal.client.spaceproxy.operations;
+
+import net.jini.core.transaction.TransactionException;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+public class CountClearEntriesSpaceOperationRequestTest {
+
+    @Test
+    public void testAsyncFinalResultSumsPartitionCounts() throws Exception {
+        CountClearEntriesSpaceOperationRequest request = new CountClearEntriesSpaceOperationRequest(null, null, false, 0);
+        List<CountClearEntriesSpaceOperationResult> previous = new ArrayList<CountClearEntriesSpaceOperationResult>();
+        for (int count : new int[]{3, 4, 5}) {
+            CountClearEntriesSpaceOperationResult result = new CountClearEntriesSpaceOperationResult(count, null);
+            Assert.assertTrue(request.processPartitionResult(result, previous, 3));
+            previous.add(result);
+        }
+        Assert.assertEquals(12, request.getAsyncFinalResult());
+    }
+
+    @Test
+    public void testAsyncFinalResultOfSinglePartition() throws Exception {
+        CountClearEntriesSpaceOperationRequest request = new CountClearEntriesSpaceOperationRequest(null, null, false, 0);
+        request.setRemoteOperationResult(new CountClearEntriesSpaceOperationResult(7, null));
+        Assert.assertEquals(7, request.getAsyncFinalResult());
+    }
+
+    @Test
+    public void testAsyncFinalResultRethrowsPartitionFailure() throws Exception {
+        CountClearEntriesSpaceOperationRequest request = new CountClearEntriesSpaceOperationRequest(null, null, false, 0);
+        List<CountClearEntriesSpaceOperationResult> previous = new ArrayList<CountClearEntriesSpaceOperationResult>();
+        request.processPartitionResult(new CountClearEntriesSpaceOperationResult(2, null), previous, 2);
+        Assert.assertFalse(request.processPartitionResult(new CountClearEntriesSpaceOperationResult(0, new TransactionException("aborted")), previous, 2));
+        try {
+            request.getAsyncFinalResult();
+            Assert.fail("partition failure should be rethrown");
+        } catch (TransactionException e) {
+            Assert.assertEquals("aborted", e.getMessage());
+        }
+    }
+}
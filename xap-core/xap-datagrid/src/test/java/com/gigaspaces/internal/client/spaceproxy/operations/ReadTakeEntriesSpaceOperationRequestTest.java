@@ -0,0 +1,87 @@
+/*
+ * Copyright (c) 2008-2016, GigaSpaces Technologies, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.gigaspaces.internal.client.spaceproxy.operations;
+
+import com.gigaspaces.internal.client.spaceproxy.metadata.ISpaceProxyTypeManager;
+import com.gigaspaces.internal.transport.IEntryPacket;
+import com.gigaspaces.internal.transport.ITemplatePacket;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.List;
+
+public class ReadTakeEntriesSpaceOperationRequestTest {
+
+    private static final int MAX_RESULTS = 10;
+
+    @Test
+    public void testAsyncFinalResultConvertsPartitionResults() throws Exception {
+        final ITemplatePacket templatePacket = proxy(ITemplatePacket.class, null);
+        final IEntryPacket[] first = {proxy(IEntryPacket.class, null), proxy(IEntryPacket.class, null)};
+        final IEntryPacket[] second = {proxy(IEntryPacket.class, null)};
+        final Object[] converted = {"a", "b", "c"};
+        ISpaceProxyTypeManager typeManager = proxy(ISpaceProxyTypeManager.class, new InvocationHandler() {
+            public Object invoke(Object proxy, Method method, Object[] args) {
+                Assert.assertEquals("convertQueryResults", method.getName());
+                Assert.assertArrayEquals(new Object[]{first[0], first[1], second[0]}, (Object[]) args[0]);
+                Assert.assertSame(templatePacket, args[1]);
+                // the query is the template packet itself, entry packets are returned
+                Assert.assertEquals(Boolean.TRUE, args[2]);
+                return converted;
+            }
+        });
+        ReadTakeEntriesSpaceOperationRequest request = new ReadTakeEntriesSpaceOperationRequest(typeManager, templatePacket,
+                null, false, 0, MAX_RESULTS, MAX_RESULTS, 0, false, templatePacket);
+        List<ReadTakeEntriesSpaceOperationResult> previous = new ArrayList<ReadTakeEntriesSpaceOperationResult>();
+        for (IEntryPacket[] entries : new IEntryPacket[][]{first, second}) {
+            ReadTakeEntriesSpaceOperationResult result = new ReadTakeEntriesSpaceOperationResult(entries);
+            Assert.assertTrue(request.processPartitionResult(result, previous, 2));
+            previous.add(result);
+        }
+        Assert.assertSame(converted, request.getAsyncFinalResult());
+    }
+
+    @Test
+    public void testAsyncFinalResultWithoutTypeManager() throws Exception {
+        IEntryPacket[] entries = {proxy(IEntryPacket.class, null)};
+        ReadTakeEntriesSpaceOperationRequest request = new ReadTakeEntriesSpaceOperationRequest(null, null, false, 0,
+                MAX_RESULTS, MAX_RESULTS, 0, false, null);
+        request.setRemoteOperationResult(new ReadTakeEntriesSpaceOperationResult(entries));
+        Assert.assertArrayEquals(entries, (Object[]) request.getAsyncFinalResult());
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> T proxy(Class<T> type, InvocationHandler handler) {
+        if (handler == null) {
+            handler = new InvocationHandler() {
+                public Object invoke(Object proxy, Method method, Object[] args) {
+                    if (method.getName().equals("hashCode"))
+                        return System.identityHashCode(proxy);
+                    if (method.getName().equals("equals"))
+                        return proxy == args[0];
+                    throw new UnsupportedOperationException(method.getName());
+                }
+            };
+        }
+        return (T) Proxy.newProxyInstance(ReadTakeEntriesSpaceOperationRequestTest.class.getClassLoader(), new Class[]{type}, handler);
+    }
+}
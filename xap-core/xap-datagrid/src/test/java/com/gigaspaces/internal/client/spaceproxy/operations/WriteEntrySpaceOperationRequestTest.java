@@ -0,0 +1,75 @@
+/*
+ * Copyright (c) 2008-2016, GigaSpaces Technologies, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.gigaspaces.internal.client.spaceproxy.operations;
+
+import com.gigaspaces.internal.client.spaceproxy.metadata.ISpaceProxyTypeManager;
+import com.gigaspaces.internal.server.space.operations.WriteEntryResult;
+import com.j_spaces.core.LeaseContext;
+
+import net.jini.core.transaction.TransactionException;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+
+public class WriteEntrySpaceOperationRequestTest {
+
+    @Test
+    public void testAsyncFinalResultIsProcessedByTypeManager() throws Exception {
+        final Object entry = new Object();
+        final WriteEntryResult writeResult = new WriteEntryResult("uid", 1, Long.MAX_VALUE);
+        final LeaseContext<?> lease = (LeaseContext<?>) Proxy.newProxyInstance(getClass().getClassLoader(), new Class[]{LeaseContext.class}, new InvocationHandler() {
+            public Object invoke(Object proxy, Method method, Object[] args) {
+                throw new UnsupportedOperationException(method.getName());
+            }
+        });
+        ISpaceProxyTypeManager typeManager = (ISpaceProxyTypeManager) Proxy.newProxyInstance(getClass().getClassLoader(), new Class[]{ISpaceProxyTypeManager.class}, new InvocationHandler() {
+            public Object invoke(Object proxy, Method method, Object[] args) {
+                Assert.assertEquals("processWriteResult", method.getName());
+                Assert.assertSame(writeResult, args[0]);
+                Assert.assertSame(entry, args[1]);
+                return lease;
+            }
+        });
+        WriteEntrySpaceOperationRequest request = new WriteEntrySpaceOperationRequest(typeManager, entry, null, null, Long.MAX_VALUE, 0, 0, false);
+        request.setRemoteOperationResult(new WriteEntrySpaceOperationResult(writeResult, null));
+        Assert.assertSame(lease, request.getAsyncFinalResult());
+    }
+
+    @Test
+    public void testAsyncFinalResultWithoutTypeManager() throws Exception {
+        WriteEntryResult writeResult = new WriteEntryResult("uid", 1, Long.MAX_VALUE);
+        WriteEntrySpaceOperationRequest request = new WriteEntrySpaceOperationRequest(null, null, Long.MAX_VALUE, 0, 0, false);
+        request.setRemoteOperationResult(new WriteEntrySpaceOperationResult(writeResult, null));
+        Assert.assertSame(writeResult, request.getAsyncFinalResult());
+    }
+
+    @Test
+    public void testAsyncFinalResultRethrowsFailure() throws Exception {
+        WriteEntrySpaceOperationRequest request = new WriteEntrySpaceOperationRequest(null, new Object(), null, null, Long.MAX_VALUE, 0, 0, false);
+        request.setRemoteOperationResult(new WriteEntrySpaceOperationResult(null, new TransactionException("aborted")));
+        try {
+            request.getAsyncFinalResult();
+            Assert.fail("write failure should be rethrown");
+        } catch (TransactionException e) {
+            Assert.assertEquals("aborted", e.getMessage());
+        }
+    }
+}
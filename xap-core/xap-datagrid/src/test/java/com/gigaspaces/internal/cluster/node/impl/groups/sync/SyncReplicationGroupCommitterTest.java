@@ -0,0 +1,315 @@
+/*
+ * Copyright (c) 2008-2016, GigaSpaces Technologies, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.gigaspaces.internal.cluster.node.impl.groups.sync;
+
+import com.gigaspaces.internal.cluster.node.impl.ReplicationOutContext;
+import com.gigaspaces.internal.cluster.node.impl.packets.IReplicationOrderedPacket;
+import com.gigaspaces.internal.cluster.node.impl.packets.data.IReplicationPacketData;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.io.ObjectInput;
+import java.io.ObjectOutput;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.logging.Logger;
+
+public class SyncReplicationGroupCommitterTest {
+
+    private static final Logger LOGGER = Logger.getLogger(SyncReplicationGroupCommitterTest.class.getName());
+
+    @Test
+    public void testSingleCommitReplicatesOwnContext() {
+        final List<ISyncReplicationGroupOutContext> replicated = new ArrayList<ISyncReplicationGroupOutContext>();
+        SyncReplicationGroupCommitter committer = new SyncReplicationGroupCommitter("group", 0, 16, LOGGER) {
+            @Override
+            protected int replicate(ISyncReplicationGroupOutContext groupContext) {
+                replicated.add(groupContext);
+                return 1;
+            }
+        };
+        ISyncReplicationGroupOutContext context = createContext(1);
+        Assert.assertEquals(1, committer.execute(context));
+        Assert.assertEquals(1, replicated.size());
+        Assert.assertSame(context, replicated.get(0));
+    }
+
+    @Test
+    public void testConcurrentCommitsAreReplicatedTogetherInKeyOrder() throws Exception {
+        final int committers = 8;
+        final CountDownLatch firstReplicationStarted = new CountDownLatch(1);
+        final CountDownLatch releaseFirstReplication = new CountDownLatch(1);
+        final List<List<Long>> batches = Collections.synchronizedList(new ArrayList<List<Long>>());
+        final SyncReplicationGroupCommitter committer = new SyncReplicationGroupCommitter("group", 0, 16, LOGGER) {
+            @Override
+            protected int replicate(ISyncReplicationGroupOutContext groupContext) {
+                batches.add(keysOf(groupContext));
+                if (firstReplicationStarted.getCount() > 0) {
+                    firstReplicationStarted.countDown();
+                    await(releaseFirstReplication);
+                }
+                return 1;
+            }
+        };
+
+        final AtomicInteger results = new AtomicInteger();
+        Thread leader = startCommitter(committer, createContext(0), results);
+        firstReplicationStarted.await();
+
+        // These arrive while the leader replicates and should form a single batch
+        List<Thread> followers = new ArrayList<Thread>();
+        for (int i = committers; i > 0; i--)
+            followers.add(startCommitter(committer, createContext(i * 2, i * 2 + 1), results));
+        while (!allWaiting(followers))
+            Thread.sleep(10);
+        releaseFirstReplication.countDown();
+
+        leader.join();
+        for (Thread follower : followers)
+            follower.join();
+
+        Assert.assertEquals(committers + 1, results.get());
+        Assert.assertEquals(2, batches.size());
+        List<Long> grouped = batches.get(1);
+        Assert.assertEquals(committers * 2, grouped.size());
+        for (int i = 1; i < grouped.size(); i++)
+            Assert.assertTrue("packets should be ordered by key " + grouped, grouped.get(i - 1) < grouped.get(i));
+    }
+
+    @Test
+    public void testReplicationErrorIsPropagatedToAllWaiters() throws Exception {
+        final CountDownLatch replicationStarted = new CountDownLatch(1);
+        final CountDownLatch releaseReplication = new CountDownLatch(1);
+        final SyncReplicationGroupCommitter committer = new SyncReplicationGroupCommitter("group", 0, 16, LOGGER) {
+            @Override
+            protected int replicate(ISyncReplicationGroupOutContext groupContext) {
+                if (replicationStarted.getCount() > 0) {
+                    replicationStarted.countDown();
+                    await(releaseReplication);
+                    return 1;
+                }
+                throw new IllegalStateException("replication failed");
+            }
+        };
+        final AtomicInteger results = new AtomicInteger();
+        Thread leader = startCommitter(committer, createContext(0), results);
+        replicationStarted.await();
+
+        final AtomicInteger failures = new AtomicInteger();
+        List<Thread> followers = new ArrayList<Thread>();
+        for (int i = 1; i <= 3; i++) {
+            final ISyncReplicationGroupOutContext context = createContext(i);
+            Thread follower = new Thread() {
+                @Override
+                public void run() {
+                    try {
+                        committer.execute(context);
+                    } catch (IllegalStateException e) {
+                        failures.incrementAndGet();
+                    }
+                }
+            };
+            follower.start();
+            followers.add(follower);
+        }
+        while (!allWaiting(followers))
+            Thread.sleep(10);
+        releaseReplication.countDown();
+
+        leader.join();
+        for (Thread follower : followers)
+            follower.join();
+        Assert.assertEquals(1, results.get());
+        Assert.assertEquals(3, failures.get());
+    }
+
+    @Test
+    public void testFailedBatchOnlyFailsTheFailingCommit() throws Exception {
+        final CountDownLatch replicationStarted = new CountDownLatch(1);
+        final CountDownLatch releaseReplication = new CountDownLatch(1);
+        final List<ISyncReplicationGroupOutContext> merged = Collections.synchronizedList(new ArrayList<ISyncReplicationGroupOutContext>());
+        final SyncReplicationGroupCommitter committer = new SyncReplicationGroupCommitter("group", 0, 16, LOGGER) {
+            @Override
+            protected int replicate(ISyncReplicationGroupOutContext groupContext) {
+                if (replicationStarted.getCount() > 0) {
+                    replicationStarted.countDown();
+                    await(releaseReplication);
+                    return 1;
+                }
+                List<Long> keys = keysOf(groupContext);
+                if (keys.size() > 1)
+                    merged.add(groupContext);
+                if (keys.contains(2L))
+                    throw new IllegalStateException("replication failed");
+                return 1;
+            }
+        };
+        final AtomicInteger results = new AtomicInteger();
+        Thread leader = startCommitter(committer, createContext(0), results);
+        replicationStarted.await();
+
+        final AtomicInteger failures = new AtomicInteger();
+        final ReplicationOutContext entireContext = new ReplicationOutContext();
+        List<Thread> followers = new ArrayList<Thread>();
+        for (int i = 1; i <= 3; i++) {
+            final ISyncReplicationGroupOutContext context = createContext(i);
+            context.setEntireContext(entireContext);
+            Thread follower = new Thread() {
+                @Override
+                public void run() {
+                    try {
+                        results.addAndGet(committer.execute(context));
+                    } catch (IllegalStateException e) {
+                        failures.incrementAndGet();
+                    }
+                }
+            };
+            follower.start();
+            followers.add(follower);
+        }
+        while (!allWaiting(followers))
+            Thread.sleep(10);
+        releaseReplication.countDown();
+
+        leader.join();
+        for (Thread follower : followers)
+            follower.join();
+        Assert.assertEquals(3, results.get());
+        Assert.assertEquals(1, failures.get());
+        Assert.assertEquals(1, merged.size());
+        Assert.assertSame(entireContext, merged.get(0).getEntireContext());
+    }
+
+    private static boolean allWaiting(List<Thread> threads) {
+        for (Thread thread : threads) {
+            if (thread.getState() != Thread.State.WAITING)
+                return false;
+        }
+        return true;
+    }
+
+    private static Thread startCommitter(final SyncReplicationGroupCommitter committer,
+                                         final ISyncReplicationGroupOutContext context, final AtomicInteger results) {
+        Thread thread = new Thread() {
+            @Override
+            public void run() {
+                results.addAndGet(committer.execute(context));
+            }
+        };
+        thread.start();
+        return thread;
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static List<Long> keysOf(ISyncReplicationGroupOutContext context) {
+        List<Long> keys = new ArrayList<Long>();
+        if (context.isSinglePacket()) {
+            keys.add(context.getSinglePacket().getKey());
+        } else {
+            for (IReplicationOrderedPacket packet : context.getOrderedPackets())
+                keys.add(packet.getKey());
+        }
+        return keys;
+    }
+
+    private static ISyncReplicationGroupOutContext createContext(long... keys) {
+        SyncReplicationGroupOutContext context = new SyncReplicationGroupOutContext("group");
+        for (long key : keys)
+            context.addOrderedPacket(new TestPacket(key));
+        return context;
+    }
+
+    private static class TestPacket implements IReplicationOrderedPacket {
+        private final long _key;
+
+        private TestPacket(long key) {
+            _key = key;
+        }
+
+        @Override
+        public IReplicationPacketData<?> getData() {
+            return null;
+        }
+
+        @Override
+        public long getKey() {
+            return _key;
+        }
+
+        @Override
+        public long getEndKey() {
+            return _key;
+        }
+
+        @Override
+        public boolean isDataPacket() {
+            return true;
+        }
+
+        @Override
+        public boolean isDiscardedPacket() {
+            return false;
+        }
+
+        @Override
+        public IReplicationOrderedPacket clone() {
+            return this;
+        }
+
+        @Override
+        public IReplicationOrderedPacket cloneWithNewData(IReplicationPacketData<?> newData) {
+            return this;
+        }
+
+        @Override
+        public int getWeight() {
+            return 1;
+        }
+
+        @Override
+        public void writeExternal(ObjectOutput out) throws IOException {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public void readExternal(ObjectInput in) throws IOException, ClassNotFoundException {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public void writeToSwap(ObjectOutput out) throws IOException {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public void readFromSwap(ObjectInput in) throws IOException, ClassNotFoundException {
+            throw new UnsupportedOperationException();
+        }
+    }
+}
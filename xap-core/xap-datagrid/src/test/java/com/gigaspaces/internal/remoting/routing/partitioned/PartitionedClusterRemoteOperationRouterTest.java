@@ -0,0 +1,176 @@
+/*
+ * Copyright (c) 2008-2016, GigaSpaces Technologies, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.gigaspaces.internal.remoting.routing.partitioned;
+
+import com.gigaspaces.async.AsyncResult;
+import com.gigaspaces.async.AsyncResultsAccumulator;
+import com.gigaspaces.async.IncrementalAsyncResultsReducer;
+import com.gigaspaces.executor.SpaceTask;
+import com.gigaspaces.internal.client.spaceproxy.operations.ExecuteTaskSpaceOperationRequest;
+import com.gigaspaces.internal.client.spaceproxy.operations.ExecuteTaskSpaceOperationResult;
+import com.gigaspaces.internal.remoting.RemoteOperationFutureListener;
+import com.gigaspaces.internal.remoting.RemoteOperationRequest;
+import com.gigaspaces.internal.remoting.routing.RemoteOperationRouter;
+import com.j_spaces.core.IJSpace;
+
+import net.jini.core.transaction.Transaction;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.List;
+
+public class PartitionedClusterRemoteOperationRouterTest {
+
+    private static final int PARTITIONS = 4;
+
+    @Test
+    public void testAccumulatedBroadcastResultsAreNotRetained() throws Exception {
+        RecordingRequest request = new RecordingRequest(new SumTask(), PartitionedClusterExecutionType.BROADCAST_CONCURRENT);
+        createRouter().execute(request);
+
+        Assert.assertEquals(1 + 2 + 3 + 4, request.getAsyncFinalResult());
+        Assert.assertEquals(PARTITIONS - 1, request.processedPreviousResults);
+        Assert.assertEquals(0, request.retainedPreviousResults);
+    }
+
+    @Test
+    public void testAccumulatedSequentialResultsAreNotRetained() throws Exception {
+        RecordingRequest request = new RecordingRequest(new SumTask(), PartitionedClusterExecutionType.BROADCAST_SEQUENTIAL);
+        createRouter().execute(request);
+
+        Assert.assertEquals(PARTITIONS - 1, request.processedPreviousResults);
+        Assert.assertEquals(0, request.retainedPreviousResults);
+    }
+
+    @Test
+    public void testReducedBroadcastResultsAreRetained() throws Exception {
+        RecordingRequest request = new RecordingRequest(new SumTask(false), PartitionedClusterExecutionType.BROADCAST_CONCURRENT);
+        createRouter().execute(request);
+
+        Assert.assertEquals(1 + 2 + 3 + 4, request.getAsyncFinalResult());
+        Assert.assertEquals(PARTITIONS - 1, request.retainedPreviousResults);
+    }
+
+    private static PartitionedClusterRemoteOperationRouter createRouter() {
+        RemoteOperationRouter[] partitions = new RemoteOperationRouter[PARTITIONS];
+        for (int i = 0; i < PARTITIONS; i++)
+            partitions[i] = createPartition(i + 1);
+        return new PartitionedClusterRemoteOperationRouter("test", partitions, new CoordinatorFactory(), false, 0, null);
+    }
+
+    /**
+     * Creates a partition whose task execution results in the given value.
+     */
+    private static RemoteOperationRouter createPartition(final int value) {
+        return (RemoteOperationRouter) Proxy.newProxyInstance(RemoteOperationRouter.class.getClassLoader(),
+                new Class[]{RemoteOperationRouter.class}, new InvocationHandler() {
+                    @Override
+                    public Object invoke(Object proxy, Method method, Object[] args) {
+                        if (method.getName().equals("execute") || method.getName().equals("executeAsync")) {
+                            ExecuteTaskSpaceOperationRequest request = (ExecuteTaskSpaceOperationRequest) args[0];
+                            ExecuteTaskSpaceOperationResult result = new ExecuteTaskSpaceOperationResult();
+                            result.setResult(value);
+                            request.setRemoteOperationResult(result);
+                            if (method.getName().equals("executeAsync"))
+                                ((RemoteOperationFutureListener) args[1]).onOperationCompletion((RemoteOperationRequest) request, null);
+                            return null;
+                        }
+                        throw new UnsupportedOperationException(method.getName());
+                    }
+                });
+    }
+
+    private static class RecordingRequest extends ExecuteTaskSpaceOperationRequest {
+        private static final long serialVersionUID = 1L;
+
+        private final PartitionedClusterExecutionType executionType;
+        private int processedPreviousResults;
+        private int retainedPreviousResults;
+
+        private RecordingRequest(SpaceTask<?> task, PartitionedClusterExecutionType executionType) {
+            super(task, null, null);
+            this.executionType = executionType;
+        }
+
+        @Override
+        public PartitionedClusterExecutionType getPartitionedClusterExecutionType() {
+            return executionType;
+        }
+
+        @Override
+        public boolean processPartitionResult(ExecuteTaskSpaceOperationResult remoteOperationResult,
+                                              List<ExecuteTaskSpaceOperationResult> previousResults, int numOfPartitions) {
+            processedPreviousResults = previousResults.size();
+            retainedPreviousResults = 0;
+            for (ExecuteTaskSpaceOperationResult previousResult : previousResults)
+                if (previousResult != null)
+                    retainedPreviousResults++;
+            return super.processPartitionResult(remoteOperationResult, previousResults, numOfPartitions);
+        }
+    }
+
+    private static class SumTask implements SpaceTask<Integer>, IncrementalAsyncResultsReducer<Integer, Integer> {
+        private static final long serialVersionUID = 1L;
+
+        private final boolean incremental;
+
+        private SumTask() {
+            this(true);
+        }
+
+        private SumTask(boolean incremental) {
+            this.incremental = incremental;
+        }
+
+        @Override
+        public Integer execute(IJSpace space, Transaction tx) {
+            throw new UnsupportedOperationException("executed by the fake partitions");
+        }
+
+        @Override
+        public Integer reduce(List<AsyncResult<Integer>> results) {
+            int sum = 0;
+            for (AsyncResult<Integer> result : results)
+                sum += result.getResult();
+            return sum;
+        }
+
+        @Override
+        public AsyncResultsAccumulator<Integer, Integer> createAccumulator() {
+            if (!incremental)
+                return null;
+            return new AsyncResultsAccumulator<Integer, Integer>() {
+                private int sum;
+
+                @Override
+                public boolean accumulate(AsyncResult<Integer> result) {
+                    sum += result.getResult();
+                    return true;
+                }
+
+                @Override
+                public Integer getResult() {
+                    return sum;
+                }
+            };
+        }
+    }
+}
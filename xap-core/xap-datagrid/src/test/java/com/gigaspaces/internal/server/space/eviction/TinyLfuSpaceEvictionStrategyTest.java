@@ -0,0 +1,215 @@
+/*
+ * Copyright (c) 2008-2016, GigaSpaces Technologies, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.gigaspaces.internal.server.space.eviction;
+
+import com.gigaspaces.metadata.SpaceTypeDescriptor;
+import com.gigaspaces.metrics.DummyMetricRegistrator;
+import com.gigaspaces.server.eviction.EvictableServerEntry;
+import com.gigaspaces.server.eviction.SpaceEvictionManager;
+import com.gigaspaces.server.eviction.SpaceEvictionStrategyConfig;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+
+public class TinyLfuSpaceEvictionStrategyTest {
+    private static final int MAX_CACHE_SIZE = 100;
+
+    private TinyLfuSpaceEvictionStrategy strategy;
+    private TestEvictionManager manager;
+
+    @Before
+    public void setUp() {
+        strategy = new TinyLfuSpaceEvictionStrategy(1);
+        manager = new TestEvictionManager(strategy);
+        strategy.initialize(manager, new SpaceEvictionStrategyConfig(MAX_CACHE_SIZE, DummyMetricRegistrator.get()));
+    }
+
+    @Test
+    public void testFrequencySketch() {
+        FrequencySketch sketch = new FrequencySketch(512);
+        int hot = FrequencySketch.spread("hot".hashCode());
+        int cold = FrequencySketch.spread("cold".hashCode());
+        for (int i = 0; i < 20; i++)
+            sketch.increment(hot);
+        sketch.increment(cold);
+
+        Assert.assertEquals(15, sketch.frequency(hot));
+        Assert.assertTrue(sketch.frequency(cold) >= 1);
+        Assert.assertTrue(sketch.frequency(cold) < sketch.frequency(hot));
+    }
+
+    @Test
+    public void testCacheSizeIsKept() {
+        for (int i = 0; i < 10 * MAX_CACHE_SIZE; i++)
+            manager.load("entry-" + i);
+
+        Assert.assertEquals(MAX_CACHE_SIZE, manager.size());
+        Assert.assertEquals(9 * MAX_CACHE_SIZE, strategy.getStatistics().getEvictions());
+        // Misses are counted by the cache manager on demand loads only
+        Assert.assertEquals(0, strategy.getStatistics().getMisses());
+    }
+
+    @Test
+    public void testReadsAreCountedAsHits() {
+        manager.load("entry");
+        manager.read("entry");
+        manager.read("entry");
+
+        Assert.assertEquals(2, strategy.getStatistics().getHits());
+        Assert.assertEquals(0, strategy.getStatistics().getMisses());
+    }
+
+    @Test
+    public void testInitializeWithoutMetricRegistrator() {
+        TinyLfuSpaceEvictionStrategy other = new TinyLfuSpaceEvictionStrategy(1);
+        other.initialize(new TestEvictionManager(other), new SpaceEvictionStrategyConfig(MAX_CACHE_SIZE));
+        Assert.assertEquals(0, other.getStatistics().getEvictions());
+    }
+
+    @Test
+    public void testScanDoesNotEvictHotEntries() {
+        int numOfHotEntries = MAX_CACHE_SIZE / 2;
+        for (int i = 0; i < numOfHotEntries; i++)
+            manager.load("hot-" + i);
+        for (int round = 0; round < 5; round++)
+            for (int i = 0; i < numOfHotEntries; i++)
+                manager.read("hot-" + i);
+
+        //a full scan of one-hit entries
+        for (int i = 0; i < 20 * MAX_CACHE_SIZE; i++)
+            manager.load("scan-" + i);
+
+        int survivors = 0;
+        for (int i = 0; i < numOfHotEntries; i++)
+            if (manager.contains("hot-" + i))
+                survivors++;
+        Assert.assertTrue("hot entries were evicted by a scan, survivors=" + survivors, survivors >= numOfHotEntries * 9 / 10);
+        Assert.assertEquals(MAX_CACHE_SIZE, manager.size());
+    }
+
+    @Test
+    public void testUnevictableEntriesAreSkipped() {
+        for (int i = 0; i < MAX_CACHE_SIZE; i++)
+            manager.load("entry-" + i);
+        manager.pinAll();
+
+        Assert.assertEquals(0, strategy.evict(10));
+        Assert.assertEquals(MAX_CACHE_SIZE, manager.size());
+    }
+
+    private static class TestEvictionManager implements SpaceEvictionManager {
+        private final TinyLfuSpaceEvictionStrategy strategy;
+        private final Map<String, TestEntry> cache = new HashMap<String, TestEntry>();
+        private boolean pinned;
+
+        private TestEvictionManager(TinyLfuSpaceEvictionStrategy strategy) {
+            this.strategy = strategy;
+        }
+
+        void load(String uid) {
+            int numToEvict = cache.size() + 1 - MAX_CACHE_SIZE;
+            if (numToEvict > 0)
+                strategy.evict(numToEvict);
+            TestEntry entry = new TestEntry(uid);
+            cache.put(uid, entry);
+            strategy.onLoad(entry);
+        }
+
+        void read(String uid) {
+            strategy.onRead(cache.get(uid));
+        }
+
+        boolean contains(String uid) {
+            return cache.containsKey(uid);
+        }
+
+        int size() {
+            return cache.size();
+        }
+
+        void pinAll() {
+            pinned = true;
+        }
+
+        @Override
+        public boolean tryEvict(EvictableServerEntry entry) {
+            if (pinned)
+                return false;
+            cache.remove(entry.getUID());
+            strategy.onRemove(entry);
+            return true;
+        }
+    }
+
+    private static class TestEntry implements EvictableServerEntry {
+        private final String uid;
+        private Object evictionPayLoad;
+
+        private TestEntry(String uid) {
+            this.uid = uid;
+        }
+
+        @Override
+        public String getUID() {
+            return uid;
+        }
+
+        @Override
+        public Object getEvictionPayLoad() {
+            return evictionPayLoad;
+        }
+
+        @Override
+        public void setEvictionPayLoad(Object evictionPayLoad) {
+            this.evictionPayLoad = evictionPayLoad;
+        }
+
+        @Override
+        public SpaceTypeDescriptor getSpaceTypeDescriptor() {
+            return null;
+        }
+
+        @Override
+        public Object getFixedPropertyValue(int position) {
+            return null;
+        }
+
+        @Override
+        public Object getPropertyValue(String name) {
+            return null;
+        }
+
+        @Override
+        public Object getPathValue(String path) {
+            return null;
+        }
+
+        @Override
+        public int getVersion() {
+            return 0;
+        }
+
+        @Override
+        public long getExpirationTime() {
+            return 0;
+        }
+    }
+}
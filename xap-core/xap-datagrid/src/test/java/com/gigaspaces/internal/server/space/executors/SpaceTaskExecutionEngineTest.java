@@ -0,0 +1,149 @@
+/*
+ * Copyright (c) 2008-2016, GigaSpaces Technologies, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.gigaspaces.internal.server.space.executors;
+
+import com.gigaspaces.internal.server.space.executors.SpaceTaskExecutionEngine.Admission;
+import com.gigaspaces.internal.server.space.executors.SpaceTaskExecutionEngine.Lane;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.Collections;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicReference;
+
+public class SpaceTaskExecutionEngineTest {
+
+    private static final String LATENCY_TASK = "com.acme.LookupTask";
+    private static final String BULK_TASK = "com.acme.ScanTask";
+
+    @Test
+    public void testTasksAreAssignedToLanes() throws Exception {
+        SpaceTaskExecutionEngine engine = createEngine(1, 0, 0);
+        Assert.assertEquals(Lane.LATENCY, engine.getLane(LATENCY_TASK));
+        Assert.assertEquals(Lane.BULK, engine.getLane(BULK_TASK));
+
+        Admission admission = admitInOtherThread(engine, BULK_TASK);
+        Assert.assertEquals(1, engine.getActive(Lane.BULK));
+        // a full bulk lane does not delay latency critical tasks
+        Admission latency = admitInOtherThread(engine, LATENCY_TASK);
+        Assert.assertEquals(1, engine.getActive(Lane.LATENCY));
+
+        admission.release();
+        latency.release();
+        Assert.assertEquals(0, engine.getActive(Lane.BULK));
+        Assert.assertEquals(1, engine.getCompleted(Lane.BULK));
+        Assert.assertEquals(1, engine.getCompleted(Lane.LATENCY));
+    }
+
+    @Test
+    public void testQueuedTaskIsAdmittedOnRelease() throws Exception {
+        final SpaceTaskExecutionEngine engine = createEngine(1, 1, 0);
+        Admission first = admitInOtherThread(engine, BULK_TASK);
+
+        final CountDownLatch admitted = new CountDownLatch(1);
+        Thread waiter = new Thread() {
+            @Override
+            public void run() {
+                try {
+                    engine.admit(BULK_TASK).release();
+                    admitted.countDown();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+        };
+        waiter.start();
+        while (engine.getQueued(Lane.BULK) == 0)
+            Thread.sleep(5);
+
+        // queue holds a single task
+        try {
+            admitInOtherThread(engine, BULK_TASK);
+            Assert.fail("expected rejection");
+        } catch (RejectedExecutionException e) {
+            Assert.assertEquals(1, engine.getRejected(Lane.BULK));
+        }
+
+        first.release();
+        admitted.await();
+        waiter.join();
+        Assert.assertEquals(0, engine.getQueued(Lane.BULK));
+        Assert.assertEquals(2, engine.getCompleted(Lane.BULK));
+    }
+
+    @Test
+    public void testTaskClassLimit() throws Exception {
+        SpaceTaskExecutionEngine engine = createEngine(4, 0, 1);
+        Admission admission = admitInOtherThread(engine, BULK_TASK);
+        try {
+            admitInOtherThread(engine, BULK_TASK);
+            Assert.fail("expected rejection");
+        } catch (RejectedExecutionException e) {
+            // expected
+        }
+        // other classes are not affected
+        admitInOtherThread(engine, "com.acme.OtherTask").release();
+
+        admission.release();
+        admitInOtherThread(engine, BULK_TASK).release();
+    }
+
+    @Test
+    public void testNestedTaskIsAdmittedWithoutWaiting() throws Exception {
+        SpaceTaskExecutionEngine engine = createEngine(1, 0, 0);
+        Admission outer = engine.admit(BULK_TASK);
+        Admission nested = engine.admit(BULK_TASK);
+        Assert.assertEquals(1, engine.getActive(Lane.BULK));
+        nested.release();
+        outer.release();
+        Assert.assertEquals(0, engine.getActive(Lane.BULK));
+        Assert.assertEquals(1, engine.getCompleted(Lane.BULK));
+    }
+
+    private static SpaceTaskExecutionEngine createEngine(int bulkConcurrency, int bulkQueueSize, int maxPerClass) {
+        return new SpaceTaskExecutionEngine(1, 0, bulkConcurrency, bulkQueueSize, 10000, maxPerClass,
+                Collections.singleton(LATENCY_TASK));
+    }
+
+    /**
+     * Admissions are tracked per thread, so admit from a separate thread to simulate concurrent
+     * tasks.
+     */
+    private static Admission admitInOtherThread(final SpaceTaskExecutionEngine engine, final String taskClassName) throws Exception {
+        final AtomicReference<Object> result = new AtomicReference<Object>();
+        Thread thread = new Thread() {
+            @Override
+            public void run() {
+                try {
+                    result.set(engine.admit(taskClassName));
+                } catch (Exception e) {
+                    result.set(e);
+                }
+            }
+        };
+        thread.start();
+        thread.join();
+        if (result.get() instanceof RejectedExecutionException)
+            throw (RejectedExecutionException) result.get();
+        if (result.get() instanceof Exception)
+            throw (Exception) result.get();
+        return (Admission) result.get();
+    }
+}
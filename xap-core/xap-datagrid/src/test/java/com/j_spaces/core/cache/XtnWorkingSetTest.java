@@ -0,0 +1,198 @@
+package com.j_spaces.core.cache;
+
+import com.gigaspaces.client.mutators.SpaceEntryMutator;
+import com.j_spaces.core.OperationID;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.concurrent.CountDownLatch;
+
+public class XtnWorkingSetTest {
+
+    @Test
+    public void testUntouchedEntry() {
+        XtnWorkingSet workingSet = new XtnWorkingSet();
+        Assert.assertNull(workingSet.get("uid"));
+        Assert.assertNull(workingSet.getOperationID("uid"));
+        Assert.assertNull(workingSet.getUpdateInfo("uid"));
+        Assert.assertFalse(workingSet.isRewritten("uid"));
+        Assert.assertFalse(workingSet.containsOperationID(new OperationID(1, 1)));
+        Assert.assertFalse(workingSet.anyUpdatedEntries());
+        Assert.assertTrue(workingSet.getUpdatedEntries().isEmpty());
+    }
+
+    @Test
+    public void testGetOrCreateReturnsSameInfo() {
+        XtnWorkingSet workingSet = new XtnWorkingSet(1);
+        XtnWorkingSet.EntryInfo info = workingSet.getOrCreate("uid");
+        Assert.assertSame(info, workingSet.getOrCreate("uid"));
+        Assert.assertSame(info, workingSet.get("uid"));
+        Assert.assertFalse(info.isUpdated());
+    }
+
+    @Test
+    public void testOperationIDs() {
+        XtnWorkingSet workingSet = new XtnWorkingSet();
+        OperationID first = new OperationID(1, 1);
+        OperationID second = new OperationID(1, 2);
+        workingSet.setOperationID("uid", first);
+        workingSet.setOperationID("uid", second);
+
+        Assert.assertEquals(second, workingSet.getOperationID("uid"));
+        Assert.assertTrue(workingSet.containsOperationID(first));
+        Assert.assertTrue(workingSet.containsOperationID(second));
+        Assert.assertFalse(workingSet.containsOperationID(new OperationID(2, 1)));
+    }
+
+    @Test
+    public void testRewritten() {
+        XtnWorkingSet workingSet = new XtnWorkingSet();
+        // Clearing the indication of an untouched entry does not touch it
+        workingSet.setRewritten("uid", false);
+        Assert.assertNull(workingSet.get("uid"));
+
+        workingSet.setRewritten("uid", true);
+        Assert.assertTrue(workingSet.isRewritten("uid"));
+        workingSet.setRewritten("uid", false);
+        Assert.assertFalse(workingSet.isRewritten("uid"));
+        Assert.assertNotNull(workingSet.get("uid"));
+    }
+
+    @Test
+    public void testUpdatedEntriesView() {
+        XtnWorkingSet workingSet = new XtnWorkingSet();
+        boolean[] indicators = new boolean[]{true, false};
+        List<SpaceEntryMutator> mutators = new ArrayList<SpaceEntryMutator>();
+        workingSet.setUpdateInfo("updated", indicators);
+        workingSet.setUpdateInfo("changed", mutators);
+        workingSet.setOperationID("read", new OperationID(1, 1));
+        workingSet.setRewritten("rewritten", true);
+
+        Map<String, Object> updatedEntries = workingSet.getUpdatedEntries();
+        Assert.assertTrue(workingSet.anyUpdatedEntries());
+        Assert.assertEquals(2, updatedEntries.size());
+        Assert.assertSame(indicators, updatedEntries.get("updated"));
+        Assert.assertSame(mutators, updatedEntries.get("changed"));
+        Assert.assertTrue(updatedEntries.containsKey("updated"));
+        Assert.assertFalse(updatedEntries.containsKey("read"));
+        Assert.assertNull(updatedEntries.get("rewritten"));
+
+        Map<String, Object> iterated = new HashMap<String, Object>();
+        for (Map.Entry<String, Object> entry : updatedEntries.entrySet())
+            iterated.put(entry.getKey(), entry.getValue());
+        Assert.assertEquals(2, iterated.size());
+        Assert.assertSame(indicators, iterated.get("updated"));
+        Assert.assertSame(mutators, iterated.get("changed"));
+    }
+
+    @Test
+    public void testUpdatingAnEntryTwiceCountsItOnce() {
+        XtnWorkingSet workingSet = new XtnWorkingSet();
+        workingSet.setUpdateInfo("uid", new boolean[0]);
+        workingSet.setUpdateInfo("uid", new ArrayList<SpaceEntryMutator>());
+        Assert.assertEquals(1, workingSet.getUpdatedEntries().size());
+    }
+
+    @Test
+    public void testClearingUpdateInfoRemovesEntryFromView() {
+        XtnWorkingSet workingSet = new XtnWorkingSet();
+        workingSet.setUpdateInfo("uid", new boolean[0]);
+        workingSet.setUpdateInfo("uid", null);
+        workingSet.setUpdateInfo("untouched", null);
+
+        Assert.assertFalse(workingSet.anyUpdatedEntries());
+        Assert.assertTrue(workingSet.getUpdatedEntries().isEmpty());
+        Assert.assertFalse(workingSet.getUpdatedEntries().entrySet().iterator().hasNext());
+        Assert.assertNull(workingSet.get("untouched"));
+    }
+
+    @Test(expected = NoSuchElementException.class)
+    public void testExhaustedIterator() {
+        XtnWorkingSet workingSet = new XtnWorkingSet();
+        workingSet.setUpdateInfo("uid", new boolean[0]);
+        Iterator<Map.Entry<String, Object>> iterator = workingSet.getUpdatedEntries().entrySet().iterator();
+        iterator.next();
+        iterator.next();
+    }
+
+    @Test(expected = UnsupportedOperationException.class)
+    public void testIteratorRemoveIsNotSupported() {
+        XtnWorkingSet workingSet = new XtnWorkingSet();
+        workingSet.setUpdateInfo("uid", new boolean[0]);
+        Iterator<Map.Entry<String, Object>> iterator = workingSet.getUpdatedEntries().entrySet().iterator();
+        iterator.next();
+        iterator.remove();
+    }
+
+    @Test(expected = UnsupportedOperationException.class)
+    public void testViewIsReadOnly() {
+        XtnWorkingSet workingSet = new XtnWorkingSet();
+        workingSet.getUpdatedEntries().put("uid", new boolean[0]);
+    }
+
+    @Test(expected = UnsupportedOperationException.class)
+    public void testViewEntryIsReadOnly() {
+        XtnWorkingSet workingSet = new XtnWorkingSet();
+        workingSet.setUpdateInfo("uid", new boolean[0]);
+        workingSet.getUpdatedEntries().entrySet().iterator().next().setValue(null);
+    }
+
+    @Test
+    public void testIterationWhileEntriesAreAdded() {
+        XtnWorkingSet workingSet = new XtnWorkingSet();
+        for (int i = 0; i < 10; i++)
+            workingSet.setUpdateInfo("uid" + i, new boolean[0]);
+        int iterated = 0;
+        for (Map.Entry<String, Object> entry : workingSet.getUpdatedEntries().entrySet()) {
+            // The iterator is weakly consistent - it may or may not see the entries added meanwhile
+            if (!entry.getKey().endsWith("-new"))
+                workingSet.setUpdateInfo(entry.getKey() + "-new", new boolean[0]);
+            iterated++;
+        }
+        Assert.assertTrue(iterated >= 10);
+        Assert.assertEquals(20, workingSet.getUpdatedEntries().size());
+    }
+
+    @Test
+    public void testConcurrentUpdates() throws Exception {
+        final XtnWorkingSet workingSet = new XtnWorkingSet(1);
+        final int threads = 4;
+        final int entriesPerThread = 1000;
+        final CountDownLatch start = new CountDownLatch(1);
+        List<Thread> workers = new ArrayList<Thread>();
+        for (int t = 0; t < threads; t++) {
+            final int threadId = t;
+            Thread worker = new Thread() {
+                @Override
+                public void run() {
+                    try {
+                        start.await();
+                    } catch (InterruptedException e) {
+                        return;
+                    }
+                    for (int i = 0; i < entriesPerThread; i++) {
+                        String uid = threadId + "-" + i;
+                        workingSet.setOperationID(uid, new OperationID(threadId, i));
+                        workingSet.setUpdateInfo(uid, new boolean[0]);
+                    }
+                }
+            };
+            worker.start();
+            workers.add(worker);
+        }
+        start.countDown();
+        for (Thread worker : workers)
+            worker.join();
+
+        Assert.assertEquals(threads * entriesPerThread, workingSet.getUpdatedEntries().size());
+        for (int t = 0; t < threads; t++)
+            Assert.assertTrue(workingSet.containsOperationID(new OperationID(t, entriesPerThread - 1)));
+    }
+}
@@ -0,0 +1,82 @@
+/*
+ * Copyright (c) 2008-2016, GigaSpaces Technologies, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.sun.jini.mahalo;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+
+public class ExpirationWheelTest {
+
+    @Test
+    public void testItemsArePolledOnlyOnceExpired() {
+        ExpirationWheel<String> wheel = new ExpirationWheel<String>(100);
+        wheel.add("a", 1050);
+        wheel.add("b", 1100);
+        wheel.add("c", 1150);
+        wheel.add("d", 5000);
+
+        Assert.assertEquals(Collections.emptyList(), wheel.pollExpired(1000));
+        Assert.assertEquals(Collections.emptyList(), wheel.pollExpired(1099));
+        Assert.assertEquals(new HashSet<String>(Arrays.asList("a", "b")), new HashSet<String>(wheel.pollExpired(1100)));
+        Assert.assertEquals(Collections.singletonList("c"), wheel.pollExpired(4000));
+        Assert.assertEquals(1, wheel.size());
+        Assert.assertEquals(Collections.singletonList("d"), wheel.pollExpired(Long.MAX_VALUE));
+        Assert.assertEquals(0, wheel.size());
+    }
+
+    @Test
+    public void testRemovedItemIsNotPolled() {
+        ExpirationWheel<String> wheel = new ExpirationWheel<String>(100);
+        long bucket = wheel.add("a", 1050);
+        wheel.add("b", 1050);
+        wheel.remove("a", bucket);
+
+        Assert.assertEquals(Collections.singletonList("b"), wheel.pollExpired(2000));
+        // Removing a polled item is ignored
+        wheel.remove("b", bucket);
+        Assert.assertEquals(0, wheel.size());
+    }
+
+    @Test
+    public void testRescheduledItemIsPolledAtItsNewExpiration() {
+        ExpirationWheel<String> wheel = new ExpirationWheel<String>(100);
+        long bucket = wheel.add("a", 1050);
+        wheel.remove("a", bucket);
+        wheel.add("a", 3050);
+
+        Assert.assertEquals(Collections.emptyList(), wheel.pollExpired(2000));
+        List<String> expired = wheel.pollExpired(3100);
+        Assert.assertEquals(Collections.singletonList("a"), expired);
+    }
+
+    @Test
+    public void testExpiredItemIsPolledByNextSweep() {
+        ExpirationWheel<String> wheel = new ExpirationWheel<String>(100);
+        wheel.pollExpired(2000);
+        wheel.add("a", 1000);
+        Assert.assertEquals(Collections.singletonList("a"), wheel.pollExpired(2000));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testIllegalInterval() {
+        new ExpirationWheel<String>(0);
+    }
+}
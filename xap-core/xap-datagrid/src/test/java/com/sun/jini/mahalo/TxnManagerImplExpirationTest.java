@@ -0,0 +1,139 @@
+/*
+ * Copyright (c) 2008-2016, GigaSpaces Technologies, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.sun.jini.mahalo;
+
+import com.gigaspaces.client.transaction.MahaloFactory;
+
+import net.jini.core.transaction.UnknownTransactionException;
+import net.jini.core.transaction.server.ServerTransaction;
+import net.jini.core.transaction.server.TransactionConstants;
+import net.jini.core.transaction.server.TransactionManager;
+import net.jini.core.transaction.server.TransactionParticipant;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.rmi.RemoteException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class TxnManagerImplExpirationTest {
+
+    private TxnManagerImpl txnManager;
+
+    @Before
+    public void setUp() throws Exception {
+        txnManager = (TxnManagerImpl) MahaloFactory.createMahalo();
+    }
+
+    @After
+    public void tearDown() {
+        txnManager.destroy();
+    }
+
+    @Test
+    public void testExpiredSingleParticipantTransactionIsAborted() throws Exception {
+        TestParticipant participant = new TestParticipant();
+        long id = txnManager.create(100).id;
+        txnManager.join(id, participant, ServerTransaction.EMBEDDED_CRASH_COUNT);
+        Assert.assertEquals(1, txnManager.getUntrackedTransactionsCount());
+
+        // Not expired yet
+        txnManager.abortExpiredUntrackedTransactions();
+        Assert.assertEquals(0, participant.aborts.get());
+
+        Thread.sleep(1100);
+        txnManager.abortExpiredUntrackedTransactions();
+        Assert.assertEquals(1, participant.aborts.get());
+        Assert.assertEquals(0, txnManager.getUntrackedTransactionsCount());
+        assertUnknownOrAborted(id);
+    }
+
+    @Test
+    public void testCompletedTransactionIsNotFollowed() throws Exception {
+        TestParticipant participant = new TestParticipant();
+        long id = txnManager.create(60000).id;
+        txnManager.join(id, participant, ServerTransaction.EMBEDDED_CRASH_COUNT);
+        Assert.assertEquals(1, txnManager.getUntrackedTransactionsCount());
+
+        txnManager.commit(id);
+        Assert.assertEquals(1, participant.commits.get());
+        Assert.assertEquals(0, txnManager.getUntrackedTransactionsCount());
+    }
+
+    @Test
+    public void testSecondParticipantMovesTransactionToExpirationManager() throws Exception {
+        TestParticipant first = new TestParticipant();
+        TestParticipant second = new TestParticipant();
+        long id = txnManager.create(100).id;
+        txnManager.join(id, first, ServerTransaction.EMBEDDED_CRASH_COUNT, 0, "cluster");
+        Assert.assertEquals(1, txnManager.getUntrackedTransactionsCount());
+
+        txnManager.join(id, second, ServerTransaction.EMBEDDED_CRASH_COUNT, 1, "cluster");
+        Assert.assertEquals(0, txnManager.getUntrackedTransactionsCount());
+
+        // Expired by the lease expiration manager rather than the sweep
+        long deadline = System.currentTimeMillis() + 10000;
+        while ((first.aborts.get() == 0 || second.aborts.get() == 0) && System.currentTimeMillis() < deadline)
+            Thread.sleep(50);
+        Assert.assertEquals(1, first.aborts.get());
+        Assert.assertEquals(1, second.aborts.get());
+    }
+
+    private void assertUnknownOrAborted(long id) {
+        try {
+            Assert.assertEquals(TransactionConstants.ABORTED, txnManager.getState(id));
+        } catch (UnknownTransactionException e) {
+            // Already forgotten
+        }
+    }
+
+    private static class TestParticipant implements TransactionParticipant {
+        private final AtomicInteger commits = new AtomicInteger();
+        private final AtomicInteger aborts = new AtomicInteger();
+
+        @Override
+        public int prepare(TransactionManager mgr, long id) throws UnknownTransactionException, RemoteException {
+            return PREPARED;
+        }
+
+        @Override
+        public void commit(TransactionManager mgr, long id) throws UnknownTransactionException, RemoteException {
+            commits.incrementAndGet();
+        }
+
+        @Override
+        public void commit(TransactionManager mgr, long id, int numOfParticipants) throws UnknownTransactionException, RemoteException {
+            commits.incrementAndGet();
+        }
+
+        @Override
+        public void abort(TransactionManager mgr, long id) throws UnknownTransactionException, RemoteException {
+            aborts.incrementAndGet();
+        }
+
+        @Override
+        public int prepareAndCommit(TransactionManager mgr, long id) throws UnknownTransactionException, RemoteException {
+            commits.incrementAndGet();
+            return COMMITTED;
+        }
+
+        @Override
+        public void renewLease(TransactionManager mgr, long id, long time) {
+        }
+    }
+}
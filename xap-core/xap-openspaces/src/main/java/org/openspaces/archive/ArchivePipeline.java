@@ -0,0 +1,208 @@
+/*
+ * Copyright (c) 2008-2016, GigaSpaces Technologies, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.openspaces.archive;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CountDownLatch;
+
+/**
+ * Hands taken objects over to a fixed set of archive writer threads so that the polling consumer
+ * can take the next batch while the current one is being archived.
+ *
+ * <p>Objects are assigned to writers by their routing value, so objects sharing a routing value
+ * are always archived by the same writer and in the order they were taken. Every writer has a
+ * bounded queue of pending batches, once it fills up {@link #submit(Object[], boolean)} blocks
+ * which throttles the consumers to the rate the archive can absorb.
+ *
+ * @since 14.2
+ */
+public class ArchivePipeline {
+
+    private static final ArchiveJob STOP = new ArchiveJob(null, null);
+
+    private final ArchiveOperationHandler archiveHandler;
+    private final ArchiveWriter[] writers;
+    private volatile boolean closed;
+
+    public ArchivePipeline(String name, ArchiveOperationHandler archiveHandler, int archiveWriters, int maxInFlightBatches) {
+        if (archiveWriters < 1)
+            throw new IllegalArgumentException("archiveWriters must be positive [" + archiveWriters + "]");
+        if (maxInFlightBatches < 1)
+            throw new IllegalArgumentException("maxInFlightBatches must be positive [" + maxInFlightBatches + "]");
+        this.archiveHandler = archiveHandler;
+        this.writers = new ArchiveWriter[archiveWriters];
+        for (int i = 0; i < writers.length; i++) {
+            writers[i] = new ArchiveWriter(name + "-archive-writer-" + i, maxInFlightBatches);
+            writers[i].start();
+        }
+    }
+
+    /**
+     * Returns the value used to assign the given object to an archive writer, <code>null</code>
+     * if the object has no routing value.
+     */
+    protected Object getRouting(Object object) {
+        return null;
+    }
+
+    /**
+     * Called from the archive writer when archiving a batch which was not awaited failed. The
+     * objects of that batch were already taken from the space, implementations are expected to
+     * return them to it.
+     */
+    protected void onArchiveFailure(Object[] objects, Throwable error) {
+    }
+
+    /**
+     * Queues the given objects for archiving, blocking while the queue of one of the target writers
+     * is full.
+     *
+     * @param awaitCompletion when <code>true</code> returns only once all the objects were archived
+     *                        and rethrows the archive failure, if any
+     */
+    public void submit(Object[] objects, boolean awaitCompletion) throws InterruptedException {
+        if (closed)
+            throw new IllegalStateException("Archive pipeline is closed");
+        List<Object>[] partitions = partition(objects);
+        int count = 0;
+        for (List<Object> partition : partitions) {
+            if (partition != null)
+                count++;
+        }
+        ArchiveCompletion completion = new ArchiveCompletion(count, awaitCompletion);
+        for (int i = 0; i < partitions.length; i++) {
+            if (partitions[i] != null)
+                writers[i].queue.put(new ArchiveJob(partitions[i].toArray(), completion));
+        }
+        if (awaitCompletion)
+            completion.await();
+    }
+
+    /**
+     * Stops the archive writers once they have archived all the batches already submitted.
+     */
+    public void close() {
+        closed = true;
+        for (ArchiveWriter writer : writers) {
+            try {
+                writer.queue.put(STOP);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                writer.interrupt();
+            }
+        }
+        for (ArchiveWriter writer : writers) {
+            try {
+                writer.join();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private List<Object>[] partition(Object[] objects) {
+        List<Object>[] partitions = new List[writers.length];
+        for (Object object : objects) {
+            int index = 0;
+            if (writers.length > 1) {
+                Object routing = getRouting(object);
+                if (routing != null)
+                    index = Math.abs(routing.hashCode() % writers.length);
+            }
+            if (partitions[index] == null)
+                partitions[index] = new ArrayList<Object>(objects.length);
+            partitions[index].add(object);
+        }
+        return partitions;
+    }
+
+    private class ArchiveWriter extends Thread {
+
+        private final BlockingQueue<ArchiveJob> queue;
+
+        private ArchiveWriter(String name, int capacity) {
+            super(name);
+            setDaemon(true);
+            this.queue = new ArrayBlockingQueue<ArchiveJob>(capacity);
+        }
+
+        @Override
+        public void run() {
+            while (true) {
+                ArchiveJob job;
+                try {
+                    job = queue.take();
+                } catch (InterruptedException e) {
+                    return;
+                }
+                if (job == STOP)
+                    return;
+                Throwable error = null;
+                try {
+                    archiveHandler.archive(job.objects);
+                } catch (Throwable t) {
+                    error = t;
+                }
+                job.completion.done(error);
+                if (error != null && !job.completion.awaited)
+                    onArchiveFailure(job.objects, error);
+            }
+        }
+    }
+
+    private static class ArchiveJob {
+        private final Object[] objects;
+        private final ArchiveCompletion completion;
+
+        private ArchiveJob(Object[] objects, ArchiveCompletion completion) {
+            this.objects = objects;
+            this.completion = completion;
+        }
+    }
+
+    private static class ArchiveCompletion {
+        private final CountDownLatch latch;
+        private final boolean awaited;
+        private volatile Throwable error;
+
+        private ArchiveCompletion(int jobs, boolean awaited) {
+            this.latch = new CountDownLatch(jobs);
+            this.awaited = awaited;
+        }
+
+        private void done(Throwable error) {
+            if (error != null && this.error == null)
+                this.error = error;
+            latch.countDown();
+        }
+
+        private void await() throws InterruptedException {
+            latch.await();
+            if (error instanceof RuntimeException)
+                throw (RuntimeException) error;
+            if (error instanceof Error)
+                throw (Error) error;
+            if (error != null)
+                throw new IllegalStateException("Failed to archive objects", error);
+        }
+    }
+}
@@ -16,14 +16,19 @@
 
 package org.openspaces.archive;
 
+import com.gigaspaces.document.SpaceDocument;
 import com.gigaspaces.internal.client.spaceproxy.ISpaceProxy;
+import com.gigaspaces.internal.metadata.ITypeDesc;
 
 import org.openspaces.core.GigaSpace;
+import org.openspaces.core.executor.internal.ExecutorMetaDataProvider;
+import org.openspaces.events.ListenerExecutionFailedException;
 import org.openspaces.events.SpaceDataEventListener;
 import org.openspaces.events.polling.SimplePollingEventListenerContainer;
 import org.openspaces.events.polling.receive.MultiTakeReceiveOperationHandler;
 import org.openspaces.events.polling.receive.SingleTakeReceiveOperationHandler;
 import org.springframework.beans.factory.annotation.Required;
+import org.springframework.dao.DataAccessException;
 import org.springframework.transaction.TransactionStatus;
 
 /**
@@ -31,6 +36,14 @@ import org.springframework.transaction.TransactionStatus;
  * #setArchiveHandler(ArchiveOperationHandler)} This container can be used to take (remove) objects
  * from the Space and persist them into an external service.
  *
+ * <p>When {@link #setPipelined(boolean) pipelined}, taken objects are handed over to a set of
+ * archive writer threads and the consumer goes on taking the next batch while the current one is
+ * being archived. Objects with the same routing value are archived by the same writer in the
+ * order they were taken. If a transaction manager is configured the consumer waits for its batch
+ * to be archived before the take transaction commits, so a failed archive rolls the take back.
+ * Without a transaction manager a batch which failed to archive was already taken, so its objects
+ * are written back to the space to be taken again.
+ *
  * @author Itai Frenkel
  * @since 9.1.1
  */
@@ -42,6 +55,11 @@ public class ArchivePollingContainer
     private int batchSize = 50; // == MultiTakeReceiveOperationHandler#DEFAULT_MAX_ENTRIES;
     private long nonBlockingSleep = 100;
     private boolean useFifoGrouping = false;
+    private boolean pipelined = false;
+    private int archiveWriters = 1;
+    private int maxInFlightBatches = 4;
+
+    private volatile ArchivePipeline archivePipeline;
 
     public ArchivePollingContainer() {
         super.setEventListener(this);
@@ -92,9 +110,58 @@ public class ArchivePollingContainer
             setExceptionHandler(new DefaultArchivePollingContainerExceptionHandler());
         }
 
+        if (pipelined) {
+            archivePipeline = createArchivePipeline(space);
+        }
+
         super.initialize();
     }
 
+    private ArchivePipeline createArchivePipeline(final ISpaceProxy space) {
+        final ExecutorMetaDataProvider routingProvider = new ExecutorMetaDataProvider();
+        return new ArchivePipeline(getBeanName(), archiveHandler, archiveWriters, maxInFlightBatches) {
+            @Override
+            protected Object getRouting(Object object) {
+                if (object instanceof SpaceDocument) {
+                    SpaceDocument document = (SpaceDocument) object;
+                    ITypeDesc typeDesc = space.getDirectProxy().getTypeManager().getTypeDescByNameIfExists(document.getTypeName());
+                    String routingProperty = typeDesc == null ? null : typeDesc.getRoutingPropertyName();
+                    return routingProperty == null ? null : document.getProperty(routingProperty);
+                }
+                return routingProvider.findRouting(object);
+            }
+
+            @Override
+            protected void onArchiveFailure(Object[] objects, Throwable error) {
+                handleListenerException(new ListenerExecutionFailedException("Failed to archive " + objects.length
+                        + " taken objects, writing them back to the space", error));
+                writeBack(objects);
+            }
+        };
+    }
+
+    /**
+     * Returns objects which were taken without a transaction and failed to archive to the space.
+     */
+    private void writeBack(Object[] objects) {
+        try {
+            getGigaSpace().writeMultiple(objects);
+        } catch (Exception e) {
+            handleListenerException(new ListenerExecutionFailedException("Failed to write back " + objects.length
+                    + " taken objects which failed to archive, these objects are lost", e));
+        }
+    }
+
+    @Override
+    protected void doShutdown() throws DataAccessException {
+        super.doShutdown();
+        ArchivePipeline pipeline = archivePipeline;
+        if (pipeline != null) {
+            archivePipeline = null;
+            pipeline.close();
+        }
+    }
+
     private int calcNonBlockingFactor() {
         long nonblockingFactor = getReceiveTimeout() / getNonBlockingSleep();
         return (int) Math.max(1, nonblockingFactor);
@@ -102,7 +169,16 @@ public class ArchivePollingContainer
 
     @Override
     public void onEvent(Object data, GigaSpace gigaSpace, TransactionStatus txStatus, Object source) {
-        if (isPassArrayAsIs()) {
+        ArchivePipeline pipeline = archivePipeline;
+        if (pipeline != null) {
+            Object[] objects = isPassArrayAsIs() ? (Object[]) data : new Object[]{data};
+            try {
+                pipeline.submit(objects, getTransactionManager() != null);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new ListenerExecutionFailedException("Interrupted while handing taken objects to the archive writers", e);
+            }
+        } else if (isPassArrayAsIs()) {
             archiveHandler.archive((Object[]) data);
         } else {
             archiveHandler.archive(data);
@@ -148,4 +224,42 @@ public class ArchivePollingContainer
     public void setUseFifoGrouping(boolean useFifoGrouping) {
         this.useFifoGrouping = useFifoGrouping;
     }
-}
\ No newline at end of file
+
+    public boolean isPipelined() {
+        return pipelined;
+    }
+
+    /**
+     * Enables archiving on dedicated writer threads, overlapping the take of the next batch with
+     * archiving of the current one. Defaults to <code>false</code>.
+     */
+    public void setPipelined(boolean pipelined) {
+        this.pipelined = pipelined;
+    }
+
+    public int getArchiveWriters() {
+        return archiveWriters;
+    }
+
+    /**
+     * Sets the number of archive writer threads used when {@link #setPipelined(boolean)
+     * pipelined}. Objects are assigned to writers by their routing value. Defaults to
+     * <code>1</code>.
+     */
+    public void setArchiveWriters(int archiveWriters) {
+        this.archiveWriters = archiveWriters;
+    }
+
+    public int getMaxInFlightBatches() {
+        return maxInFlightBatches;
+    }
+
+    /**
+     * Sets the number of taken batches each archive writer may have pending when {@link
+     * #setPipelined(boolean) pipelined}. Once reached, taking blocks until the writer catches up.
+     * Defaults to <code>4</code>.
+     */
+    public void setMaxInFlightBatches(int maxInFlightBatches) {
+        this.maxInFlightBatches = maxInFlightBatches;
+    }
+}
@@ -117,6 +117,30 @@ public class ArchivePollingContainerConfigurer {
         return this;
     }
 
+    /**
+     * @see org.openspaces.archive.ArchivePollingContainer#setPipelined(boolean)
+     */
+    public ArchivePollingContainerConfigurer pipelined(boolean pipelined) {
+        archiveContainer.setPipelined(pipelined);
+        return this;
+    }
+
+    /**
+     * @see org.openspaces.archive.ArchivePollingContainer#setArchiveWriters(int)
+     */
+    public ArchivePollingContainerConfigurer archiveWriters(int archiveWriters) {
+        archiveContainer.setArchiveWriters(archiveWriters);
+        return this;
+    }
+
+    /**
+     * @see org.openspaces.archive.ArchivePollingContainer#setMaxInFlightBatches(int)
+     */
+    public ArchivePollingContainerConfigurer maxInFlightBatches(int maxInFlightBatches) {
+        archiveContainer.setMaxInFlightBatches(maxInFlightBatches);
+        return this;
+    }
+
     /**
      * @see org.openspaces.archive.ArchivePollingContainer#setArchiveHandler(ArchiveOperationHandler)
      */
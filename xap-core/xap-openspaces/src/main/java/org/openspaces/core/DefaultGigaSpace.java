@@ -64,6 +64,7 @@ import org.openspaces.core.executor.TaskRoutingProvider;
 import org.openspaces.core.executor.internal.ExecutorMetaDataProvider;
 import org.openspaces.core.executor.internal.InternalDistributedSpaceTaskWrapper;
 import org.openspaces.core.executor.internal.InternalSpaceTaskWrapper;
+import org.openspaces.core.internal.CompletableAsyncFutureListener;
 import org.openspaces.core.internal.InternalGigaSpace;
 import org.openspaces.core.transaction.DefaultTransactionProvider;
 import org.openspaces.core.transaction.TransactionProvider;
@@ -78,6 +79,7 @@ import org.springframework.util.Assert;
 import java.io.IOException;
 import java.io.Serializable;
 import java.rmi.RemoteException;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.Future;
 
 /**
@@ -1640,6 +1642,191 @@ public class DefaultGigaSpace implements GigaSpace, InternalGigaSpace {
         return (ISpaceQuery<T>) space.getDirectProxy().prepareTemplate(template);
     }
 
+    // Non-blocking operations
+
+    public <T> CompletableFuture<LeaseContext<T>> writeAsync(T entry) {
+        return writeAsync(entry, defaultWriteLease, 0, defaultWriteModifiers);
+    }
+
+    public <T> CompletableFuture<LeaseContext<T>> writeAsync(T entry, long lease, long timeout, WriteModifiers modifiers) {
+        Transaction tx = getCurrentTransaction();
+        CompletableAsyncFutureListener<LeaseContext<T>> result = new CompletableAsyncFutureListener<LeaseContext<T>>();
+        try {
+            space.asyncWrite(entry, tx, lease, timeout, modifiers.getCode(), wrapListener(result, tx));
+        } catch (Exception e) {
+            result.completeExceptionally(exTranslator.translate(e));
+        }
+        return result;
+    }
+
+    public <T> CompletableFuture<T> readAsync(T template) {
+        return readAsync(template, defaultReadTimeout, getDefaultReadModifiers());
+    }
+
+    public <T> CompletableFuture<T> readAsync(T template, long timeout, ReadModifiers modifiers) {
+        return readAsyncImpl(template, timeout, modifiers);
+    }
+
+    public <T> CompletableFuture<T> readAsync(ISpaceQuery<T> query) {
+        return readAsync(query, defaultReadTimeout, getDefaultReadModifiers());
+    }
+
+    public <T> CompletableFuture<T> readAsync(ISpaceQuery<T> query, long timeout, ReadModifiers modifiers) {
+        return readAsyncImpl(query, timeout, modifiers);
+    }
+
+    private <T> CompletableFuture<T> readAsyncImpl(Object template, long timeout, ReadModifiers modifiers) {
+        Transaction tx = getCurrentTransaction();
+        CompletableAsyncFutureListener<T> result = new CompletableAsyncFutureListener<T>();
+        try {
+            space.asyncRead(template, tx, timeout, modifiers.getCode(), wrapListener(result, tx));
+        } catch (Exception e) {
+            result.completeExceptionally(exTranslator.translate(e));
+        }
+        return result;
+    }
+
+    public <T> CompletableFuture<T[]> readMultipleAsync(T template, int maxEntries) {
+        return readMultipleAsync(template, maxEntries, getDefaultReadModifiers());
+    }
+
+    public <T> CompletableFuture<T[]> readMultipleAsync(T template, int maxEntries, ReadModifiers modifiers) {
+        return readMultipleAsyncImpl(template, maxEntries, modifiers);
+    }
+
+    public <T> CompletableFuture<T[]> readMultipleAsync(ISpaceQuery<T> query, int maxEntries) {
+        return readMultipleAsync(query, maxEntries, getDefaultReadModifiers());
+    }
+
+    public <T> CompletableFuture<T[]> readMultipleAsync(ISpaceQuery<T> query, int maxEntries, ReadModifiers modifiers) {
+        return readMultipleAsyncImpl(query, maxEntries, modifiers);
+    }
+
+    private <T> CompletableFuture<T[]> readMultipleAsyncImpl(Object template, int maxEntries, ReadModifiers modifiers) {
+        Transaction tx = getCurrentTransaction();
+        CompletableAsyncFutureListener<T[]> result = new CompletableAsyncFutureListener<T[]>();
+        try {
+            space.asyncReadMultiple(template, tx, maxEntries, modifiers.getCode(), wrapListener(result, tx));
+        } catch (Exception e) {
+            result.completeExceptionally(exTranslator.translate(e));
+        }
+        return result;
+    }
+
+    public <T> CompletableFuture<T> takeAsync(T template) {
+        return takeAsync(template, defaultTakeTimeout, defaultTakeModifiers);
+    }
+
+    public <T> CompletableFuture<T> takeAsync(T template, long timeout, TakeModifiers modifiers) {
+        return takeAsyncImpl(template, timeout, modifiers);
+    }
+
+    public <T> CompletableFuture<T> takeAsync(ISpaceQuery<T> query) {
+        return takeAsync(query, defaultTakeTimeout, defaultTakeModifiers);
+    }
+
+    public <T> CompletableFuture<T> takeAsync(ISpaceQuery<T> query, long timeout, TakeModifiers modifiers) {
+        return takeAsyncImpl(query, timeout, modifiers);
+    }
+
+    private <T> CompletableFuture<T> takeAsyncImpl(Object template, long timeout, TakeModifiers modifiers) {
+        Transaction tx = getCurrentTransaction();
+        CompletableAsyncFutureListener<T> result = new CompletableAsyncFutureListener<T>();
+        try {
+            space.asyncTake(template, tx, timeout, modifiers.getCode(), wrapListener(result, tx));
+        } catch (Exception e) {
+            result.completeExceptionally(exTranslator.translate(e));
+        }
+        return result;
+    }
+
+    public CompletableFuture<Integer> countAsync(Object template) {
+        return countAsync(template, getDefaultCountModifiers());
+    }
+
+    public CompletableFuture<Integer> countAsync(Object template, CountModifiers modifiers) {
+        Transaction tx = getCurrentTransaction();
+        CompletableAsyncFutureListener<Integer> result = new CompletableAsyncFutureListener<Integer>();
+        try {
+            space.asyncCount(template, tx, modifiers.getCode(), wrapListener(result, tx));
+        } catch (Exception e) {
+            result.completeExceptionally(exTranslator.translate(e));
+        }
+        return result;
+    }
+
+    public <T> CompletableFuture<ChangeResult<T>> changeAsync(T template, ChangeSet changeSet) {
+        return changeAsync(template, changeSet, defaultChangeModifiers, 0);
+    }
+
+    public <T> CompletableFuture<ChangeResult<T>> changeAsync(T template, ChangeSet changeSet, ChangeModifiers modifiers, long timeout) {
+        return changeAsyncImpl(template, changeSet, modifiers, timeout);
+    }
+
+    public <T> CompletableFuture<ChangeResult<T>> changeAsync(ISpaceQuery<T> query, ChangeSet changeSet) {
+        return changeAsync(query, changeSet, defaultChangeModifiers, 0);
+    }
+
+    public <T> CompletableFuture<ChangeResult<T>> changeAsync(ISpaceQuery<T> query, ChangeSet changeSet, ChangeModifiers modifiers, long timeout) {
+        return changeAsyncImpl(query, changeSet, modifiers, timeout);
+    }
+
+    private <T> CompletableFuture<ChangeResult<T>> changeAsyncImpl(Object template, ChangeSet changeSet, ChangeModifiers modifiers, long timeout) {
+        Transaction tx = getCurrentTransaction();
+        CompletableAsyncFutureListener<ChangeResult<T>> result = new CompletableAsyncFutureListener<ChangeResult<T>>();
+        try {
+            space.asyncChange(template, changeSet, tx, timeout, modifiers, wrapListener(result, tx));
+        } catch (Exception e) {
+            result.completeExceptionally(exTranslator.translate(e));
+        }
+        return result;
+    }
+
+    public <T> CompletableFuture<AggregationResult> aggregateAsync(ISpaceQuery<T> query, AggregationSet aggregationSet) {
+        return aggregateAsync(query, aggregationSet, getDefaultReadModifiers());
+    }
+
+    public <T> CompletableFuture<AggregationResult> aggregateAsync(ISpaceQuery<T> query, AggregationSet aggregationSet, ReadModifiers modifiers) {
+        Transaction tx = getCurrentTransaction();
+        CompletableAsyncFutureListener<AggregationResult> result = new CompletableAsyncFutureListener<AggregationResult>();
+        try {
+            space.asyncAggregate(query, aggregationSet, tx, modifiers.getCode(), wrapListener(result, tx));
+        } catch (Exception e) {
+            result.completeExceptionally(exTranslator.translate(e));
+        }
+        return result;
+    }
+
+    public <T extends Serializable> CompletableFuture<T> executeAsync(Task<T> task) {
+        CompletableAsyncFutureListener<T> result = new CompletableAsyncFutureListener<T>();
+        try {
+            execute(task, (AsyncFutureListener<T>) result);
+        } catch (Exception e) {
+            result.completeExceptionally(exTranslator.translate(e));
+        }
+        return result;
+    }
+
+    public <T extends Serializable> CompletableFuture<T> executeAsync(Task<T> task, Object routing) {
+        CompletableAsyncFutureListener<T> result = new CompletableAsyncFutureListener<T>();
+        try {
+            execute(task, routing, result);
+        } catch (Exception e) {
+            result.completeExceptionally(exTranslator.translate(e));
+        }
+        return result;
+    }
+
+    public <T extends Serializable, R> CompletableFuture<R> executeAsync(DistributedTask<T, R> task) {
+        CompletableAsyncFutureListener<R> result = new CompletableAsyncFutureListener<R>();
+        try {
+            distExecute(task, result);
+        } catch (Exception e) {
+            result.completeExceptionally(exTranslator.translate(e));
+        }
+        return result;
+    }
+
     public void close() throws IOException {
         if (implicitTxProvider)
             txProvider.close();
@@ -51,6 +51,7 @@ import org.openspaces.core.transaction.TransactionProvider;
 import org.springframework.dao.DataAccessException;
 
 import java.io.Serializable;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.Future;
 
 /**
@@ -2963,4 +2964,248 @@ public interface GigaSpace {
      * @since 10.1.0
      */
     <T> ISpaceQuery<T> prepareTemplate(Object template);
+
+    /**
+     * Writes an object to the space without blocking the calling thread. The returned future is
+     * completed once the space acknowledged the write, using the default write lease and modifiers
+     * this interface is configured with.
+     *
+     * @param entry The object to write to the space.
+     * @return A future completed with the lease context of the written object.
+     * @since 14.2
+     */
+    <T> CompletableFuture<LeaseContext<T>> writeAsync(T entry);
+
+    /**
+     * Writes an object to the space without blocking the calling thread.
+     *
+     * @param entry     The object to write to the space.
+     * @param lease     The requested lease time, in milliseconds.
+     * @param timeout   The timeout of an update operation, in milliseconds.
+     * @param modifiers The modifying flags to use for the write operation.
+     * @return A future completed with the lease context of the written object.
+     * @since 14.2
+     */
+    <T> CompletableFuture<LeaseContext<T>> writeAsync(T entry, long lease, long timeout, WriteModifiers modifiers);
+
+    /**
+     * Reads any matching object from the space without blocking the calling thread, using the
+     * default read timeout and modifiers. The returned future is completed with <code>null</code>
+     * if there was no match.
+     *
+     * @param template The template used for matching.
+     * @since 14.2
+     */
+    <T> CompletableFuture<T> readAsync(T template);
+
+    /**
+     * Reads any matching object from the space without blocking the calling thread. The returned
+     * future is completed with <code>null</code> if there was no match within the timeout.
+     *
+     * @param template  The template used for matching.
+     * @param timeout   The time to wait for a match, in milliseconds.
+     * @param modifiers The modifying flags to use for the read operation.
+     * @since 14.2
+     */
+    <T> CompletableFuture<T> readAsync(T template, long timeout, ReadModifiers modifiers);
+
+    /**
+     * Reads any object matching the query from the space without blocking the calling thread.
+     *
+     * @param query The query used for matching.
+     * @see #readAsync(Object)
+     * @since 14.2
+     */
+    <T> CompletableFuture<T> readAsync(ISpaceQuery<T> query);
+
+    /**
+     * Reads any object matching the query from the space without blocking the calling thread.
+     *
+     * @param query     The query used for matching.
+     * @param timeout   The time to wait for a match, in milliseconds.
+     * @param modifiers The modifying flags to use for the read operation.
+     * @see #readAsync(Object, long, ReadModifiers)
+     * @since 14.2
+     */
+    <T> CompletableFuture<T> readAsync(ISpaceQuery<T> query, long timeout, ReadModifiers modifiers);
+
+    /**
+     * Reads up to <code>maxEntries</code> matching objects from the space without blocking the
+     * calling thread, using the default read modifiers.
+     *
+     * @param template   The template used for matching.
+     * @param maxEntries A limit on the number of objects to return.
+     * @return A future completed with the matching objects, an empty array if there was no match.
+     * @since 14.2
+     */
+    <T> CompletableFuture<T[]> readMultipleAsync(T template, int maxEntries);
+
+    /**
+     * Reads up to <code>maxEntries</code> matching objects from the space without blocking the
+     * calling thread.
+     *
+     * @param template   The template used for matching.
+     * @param maxEntries A limit on the number of objects to return.
+     * @param modifiers  The modifying flags to use for the read operation.
+     * @return A future completed with the matching objects, an empty array if there was no match.
+     * @since 14.2
+     */
+    <T> CompletableFuture<T[]> readMultipleAsync(T template, int maxEntries, ReadModifiers modifiers);
+
+    /**
+     * Reads up to <code>maxEntries</code> objects matching the query without blocking the calling
+     * thread.
+     *
+     * @see #readMultipleAsync(Object, int)
+     * @since 14.2
+     */
+    <T> CompletableFuture<T[]> readMultipleAsync(ISpaceQuery<T> query, int maxEntries);
+
+    /**
+     * Reads up to <code>maxEntries</code> objects matching the query without blocking the calling
+     * thread.
+     *
+     * @see #readMultipleAsync(Object, int, ReadModifiers)
+     * @since 14.2
+     */
+    <T> CompletableFuture<T[]> readMultipleAsync(ISpaceQuery<T> query, int maxEntries, ReadModifiers modifiers);
+
+    /**
+     * Takes (removes) any matching object from the space without blocking the calling thread,
+     * using the default take timeout and modifiers. The returned future is completed with
+     * <code>null</code> if there was no match.
+     *
+     * @param template The template used for matching.
+     * @since 14.2
+     */
+    <T> CompletableFuture<T> takeAsync(T template);
+
+    /**
+     * Takes (removes) any matching object from the space without blocking the calling thread.
+     *
+     * @param template  The template used for matching.
+     * @param timeout   The time to wait for a match, in milliseconds.
+     * @param modifiers The modifying flags to use for the take operation.
+     * @since 14.2
+     */
+    <T> CompletableFuture<T> takeAsync(T template, long timeout, TakeModifiers modifiers);
+
+    /**
+     * Takes (removes) any object matching the query without blocking the calling thread.
+     *
+     * @see #takeAsync(Object)
+     * @since 14.2
+     */
+    <T> CompletableFuture<T> takeAsync(ISpaceQuery<T> query);
+
+    /**
+     * Takes (removes) any object matching the query without blocking the calling thread.
+     *
+     * @see #takeAsync(Object, long, TakeModifiers)
+     * @since 14.2
+     */
+    <T> CompletableFuture<T> takeAsync(ISpaceQuery<T> query, long timeout, TakeModifiers modifiers);
+
+    /**
+     * Counts the objects matching the template without blocking the calling thread, using the
+     * default count modifiers.
+     *
+     * @param template The template used for matching.
+     * @since 14.2
+     */
+    CompletableFuture<Integer> countAsync(Object template);
+
+    /**
+     * Counts the objects matching the template without blocking the calling thread.
+     *
+     * @param template  The template used for matching.
+     * @param modifiers The modifying flags to use for the count operation.
+     * @since 14.2
+     */
+    CompletableFuture<Integer> countAsync(Object template, CountModifiers modifiers);
+
+    /**
+     * Changes the objects matching the template without blocking the calling thread, using the
+     * default change modifiers.
+     *
+     * @param template  The template used for matching.
+     * @param changeSet Changes to apply to the matched objects.
+     * @return A future completed with the details of the change operation affect.
+     * @since 14.2
+     */
+    <T> CompletableFuture<ChangeResult<T>> changeAsync(T template, ChangeSet changeSet);
+
+    /**
+     * Changes the objects matching the template without blocking the calling thread.
+     *
+     * @param template  The template used for matching.
+     * @param changeSet Changes to apply to the matched objects.
+     * @param modifiers The modifying flags to use for the change operation.
+     * @param timeout   The time to wait for a locked matched object, in milliseconds.
+     * @return A future completed with the details of the change operation affect.
+     * @since 14.2
+     */
+    <T> CompletableFuture<ChangeResult<T>> changeAsync(T template, ChangeSet changeSet, ChangeModifiers modifiers, long timeout);
+
+    /**
+     * Changes the objects matching the query without blocking the calling thread.
+     *
+     * @see #changeAsync(Object, ChangeSet)
+     * @since 14.2
+     */
+    <T> CompletableFuture<ChangeResult<T>> changeAsync(ISpaceQuery<T> query, ChangeSet changeSet);
+
+    /**
+     * Changes the objects matching the query without blocking the calling thread.
+     *
+     * @see #changeAsync(Object, ChangeSet, ChangeModifiers, long)
+     * @since 14.2
+     */
+    <T> CompletableFuture<ChangeResult<T>> changeAsync(ISpaceQuery<T> query, ChangeSet changeSet, ChangeModifiers modifiers, long timeout);
+
+    /**
+     * Executes the aggregations of the set on the objects matching the query without blocking
+     * the calling thread, using the default read modifiers.
+     *
+     * @param query          The query used for matching.
+     * @param aggregationSet The aggregations to execute.
+     * @since 14.2
+     */
+    <T> CompletableFuture<AggregationResult> aggregateAsync(ISpaceQuery<T> query, AggregationSet aggregationSet);
+
+    /**
+     * Executes the aggregations of the set on the objects matching the query without blocking
+     * the calling thread.
+     *
+     * @param query          The query used for matching.
+     * @param aggregationSet The aggregations to execute.
+     * @param modifiers      The modifying flags to use for the read operation.
+     * @since 14.2
+     */
+    <T> CompletableFuture<AggregationResult> aggregateAsync(ISpaceQuery<T> query, AggregationSet aggregationSet, ReadModifiers modifiers);
+
+    /**
+     * Executes a task on a single space. Same as {@link #execute(Task)}, with the result delivered
+     * through a {@link CompletableFuture}.
+     *
+     * @since 14.2
+     */
+    <T extends Serializable> CompletableFuture<T> executeAsync(Task<T> task);
+
+    /**
+     * Executes a task on the space the routing resolves to. Same as {@link #execute(Task,
+     * Object)}, with the result delivered through a {@link CompletableFuture}.
+     *
+     * @since 14.2
+     */
+    <T extends Serializable> CompletableFuture<T> executeAsync(Task<T> task, Object routing);
+
+    /**
+     * Executes a distributed task on all the spaces of the cluster. Same as {@link
+     * #execute(DistributedTask)}, with the reduced result delivered through a {@link
+     * CompletableFuture}.
+     *
+     * @since 14.2
+     */
+    <T extends Serializable, R> CompletableFuture<R> executeAsync(DistributedTask<T, R> task);
 }
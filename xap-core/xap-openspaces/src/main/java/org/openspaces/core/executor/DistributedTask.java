@@ -26,6 +26,10 @@ import java.io.Serializable;
  * space nodes, requiring to {@link #reduce(java.util.List)} the list of {@link
  * com.gigaspaces.async.AsyncResult}s.
  *
+ * <p>A distributed task can also implement {@link com.gigaspaces.async.IncrementalAsyncResultsReducer}
+ * in order to fold each result as it arrives instead of reducing the whole list once all of the
+ * results arrived, optionally completing the execution before all of the results arrive.
+ *
  * @author kimchy
  */
 public interface DistributedTask<T extends Serializable, R> extends Task<T>, AsyncResultsReducer<T, R> {
@@ -20,6 +20,8 @@ package org.openspaces.core.executor.internal;
 import com.gigaspaces.async.AsyncResult;
 import com.gigaspaces.async.AsyncResultFilter;
 import com.gigaspaces.async.AsyncResultFilterEvent;
+import com.gigaspaces.async.AsyncResultsAccumulator;
+import com.gigaspaces.async.IncrementalAsyncResultsReducer;
 import com.gigaspaces.executor.DistributedSpaceTask;
 
 import org.openspaces.core.executor.DistributedTask;
@@ -37,7 +39,7 @@ import java.util.List;
  * @author kimchy
  */
 public class InternalDistributedSpaceTaskWrapper<T extends Serializable, R> extends InternalSpaceTaskWrapper<T>
-        implements DistributedSpaceTask<T, R>, AsyncResultFilter<T> {
+        implements DistributedSpaceTask<T, R>, AsyncResultFilter<T>, IncrementalAsyncResultsReducer<T, R> {
 
     private static final long serialVersionUID = -8997841035295544425L;
 
@@ -53,6 +55,14 @@ public class InternalDistributedSpaceTaskWrapper<T extends Serializable, R> exte
         return (R) ((DistributedTask) getTask()).reduce(asyncResults);
     }
 
+    @SuppressWarnings("unchecked")
+    public AsyncResultsAccumulator<T, R> createAccumulator() {
+        if (getTask() instanceof IncrementalAsyncResultsReducer) {
+            return ((IncrementalAsyncResultsReducer<T, R>) getTask()).createAccumulator();
+        }
+        return null;
+    }
+
     public Decision onResult(AsyncResultFilterEvent<T> event) {
         if (getTask() instanceof AsyncResultFilter) {
             return ((AsyncResultFilter) getTask()).onResult(event);
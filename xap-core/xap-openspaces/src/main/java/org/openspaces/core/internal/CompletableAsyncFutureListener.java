@@ -0,0 +1,42 @@
+/*
+ * Copyright (c) 2008-2016, GigaSpaces Technologies, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.openspaces.core.internal;
+
+import com.gigaspaces.async.AsyncFutureListener;
+import com.gigaspaces.async.AsyncResult;
+
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * A {@link CompletableFuture} completed by the {@link AsyncFutureListener} callback of an
+ * asynchronous space operation. The future is completed on the thread delivering the result, so
+ * no thread waits on the operation while it is in flight.
+ *
+ * @since 14.2
+ */
+public class CompletableAsyncFutureListener<T> extends CompletableFuture<T> implements AsyncFutureListener<T> {
+
+    @Override
+    public void onResult(AsyncResult<T> result) {
+        if (result.getException() != null) {
+            completeExceptionally(result.getException());
+        } else {
+            complete(result.getResult());
+        }
+    }
+}
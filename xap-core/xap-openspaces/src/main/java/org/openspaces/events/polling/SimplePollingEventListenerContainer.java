@@ -21,6 +21,7 @@ import com.gigaspaces.admin.quiesce.QuiesceException;
 import org.openspaces.core.SpaceInterruptedException;
 import org.openspaces.events.AbstractEventListenerContainer;
 import org.openspaces.events.SpaceDataEventListener;
+import org.openspaces.events.polling.receive.PushTakeReceiveOperationHandler;
 import org.openspaces.events.polling.receive.ReceiveOperationHandler;
 import org.openspaces.events.polling.receive.SingleTakeReceiveOperationHandler;
 import org.openspaces.events.polling.trigger.TriggerOperationHandler;
@@ -429,6 +430,11 @@ public class SimplePollingEventListenerContainer extends AbstractEventListenerCo
         // Proceed with actual listener initialization.
         super.initialize();
 
+        if (receiveOperationHandler instanceof PushTakeReceiveOperationHandler && isDynamicTemplate()) {
+            throw new IllegalStateException("Push take receive operation handler cannot be used with a dynamic template, "
+                    + "its notify registration is made for the template of the first receive");
+        }
+
         // now, start the scheduled threads
         synchronized (this.activeInvokerMonitor) {
             for (int i = 0; i < this.concurrentConsumers; i++) {
@@ -736,6 +742,9 @@ public class SimplePollingEventListenerContainer extends AbstractEventListenerCo
                 }
             }
         }
+        if (receiveOperationHandler instanceof PushTakeReceiveOperationHandler) {
+            ((PushTakeReceiveOperationHandler) receiveOperationHandler).destroy();
+        }
     }
 
     public ServiceDetails[] getServicesDetails() {
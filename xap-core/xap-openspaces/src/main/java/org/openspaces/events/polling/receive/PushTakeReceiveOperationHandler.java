@@ -0,0 +1,250 @@
+/*
+ * Copyright (c) 2008-2016, GigaSpaces Technologies, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.openspaces.events.polling.receive;
+
+import com.gigaspaces.cluster.activeelection.SpaceInitializationIndicator;
+import com.gigaspaces.events.DataEventSession;
+import com.gigaspaces.events.EventSessionConfig;
+import com.gigaspaces.events.NotifyActionType;
+import com.gigaspaces.events.batching.BatchRemoteEvent;
+import com.gigaspaces.events.batching.BatchRemoteEventListener;
+import com.gigaspaces.client.TakeModifiers;
+
+import net.jini.core.event.RemoteEvent;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.openspaces.core.GigaSpace;
+import org.openspaces.core.SpaceInterruptedException;
+import org.openspaces.events.notify.NotifyListenerRegistrationException;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.dao.DataAccessException;
+
+/**
+ * Receives events pushed by the space instead of polling the space for them. On the first receive,
+ * a batch notify registration is made for the receive template, and the space pushes write and
+ * matched update notifications as matching entries arrive.
+ *
+ * <p>Notifications only serve as a signal. Consumers claim the matching entries using a non
+ * blocking {@link org.openspaces.core.GigaSpace#takeMultiple(Object, int, TakeModifiers)} of up to
+ * the configured maxEntries (defaults to <code>50</code>), performed under the consumer transaction
+ * (if there is one). An entry is therefore only removed once it is received, and a rolled back
+ * receive leaves it in the space. The maxEntries value bounds the number of entries a single
+ * consumer claims at a time, so concurrent consumers share a burst of events between them.
+ *
+ * <p>Idle consumers wait locally for a signal instead of blocking on a remote take. A consumer that
+ * was not signaled within the receive timeout still performs a single take multiple, which picks up
+ * entries whose notification was missed (for example, entries returned to the space by a rolled
+ * back transaction).
+ *
+ * <p>The notify registration uses the template of the first receive, so this handler cannot be
+ * used with dynamic templates and a polling container configured with both fails to initialize.
+ * The registration is removed by {@link #destroy()}.
+ *
+ * @since 14.2
+ */
+public class PushTakeReceiveOperationHandler extends AbstractFifoGroupingReceiveOperationHandler implements DisposableBean {
+
+    private static final Log logger = LogFactory.getLog(PushTakeReceiveOperationHandler.class);
+
+    private static final int DEFAULT_MAX_ENTRIES = 50;
+
+    private static final int DEFAULT_BATCH_SIZE = 50;
+
+    private static final long DEFAULT_BATCH_TIME = 10;
+
+    private int maxEntries = DEFAULT_MAX_ENTRIES;
+
+    private int batchSize = DEFAULT_BATCH_SIZE;
+
+    private long batchTime = DEFAULT_BATCH_TIME;
+
+    private final Object signalMonitor = new Object();
+
+    // number of notifications received, and how many of them are known to be consumed
+    private long signaled = 0;
+
+    private long consumed = 0;
+
+    private volatile DataEventSession dataEventSession;
+
+    /**
+     * Sets the max entries a single take multiple operation will claim. Defaults to <code>50</code>.
+     */
+    public void setMaxEntries(int maxEntries) {
+        this.maxEntries = maxEntries;
+    }
+
+    /**
+     * Sets the number of notifications the space batches together before pushing them. Defaults to
+     * <code>50</code>.
+     */
+    public void setBatchSize(int batchSize) {
+        this.batchSize = batchSize;
+    }
+
+    /**
+     * Sets the time (in milliseconds) the space waits for a notifications batch to fill up before
+     * pushing it. Defaults to <code>10</code>.
+     */
+    public void setBatchTime(long batchTime) {
+        this.batchTime = batchTime;
+    }
+
+    /**
+     * Waits up to the receive timeout for a push signal, and then claims the matching entries using
+     * a non blocking take multiple.
+     */
+    @Override
+    protected Object doReceiveBlocking(Object template, GigaSpace gigaSpace, long receiveTimeout) throws DataAccessException {
+        registerIfNeeded(template, gigaSpace);
+        long signal;
+        try {
+            signal = awaitSignal(receiveTimeout);
+        } catch (InterruptedException e) {
+            throw new SpaceInterruptedException("Interrupted while waiting for a push signal", e);
+        }
+        return takeSignaled(template, gigaSpace, signal);
+    }
+
+    /**
+     * Claims the matching entries using a non blocking take multiple if a push signal is pending.
+     */
+    @Override
+    protected Object doReceiveNonBlocking(Object template, GigaSpace gigaSpace) throws DataAccessException {
+        registerIfNeeded(template, gigaSpace);
+        long signal;
+        synchronized (signalMonitor) {
+            if (signaled == consumed) {
+                return null;
+            }
+            signal = signaled;
+        }
+        return takeSignaled(template, gigaSpace, signal);
+    }
+
+    private long awaitSignal(long receiveTimeout) throws InterruptedException {
+        synchronized (signalMonitor) {
+            long deadline = System.currentTimeMillis() + receiveTimeout;
+            long remaining = receiveTimeout;
+            while (signaled == consumed && remaining > 0) {
+                signalMonitor.wait(remaining);
+                remaining = deadline - System.currentTimeMillis();
+            }
+            return signaled;
+        }
+    }
+
+    private Object takeSignaled(Object template, GigaSpace gigaSpace, long signal) {
+        TakeModifiers modifiers = gigaSpace.getDefaultTakeModifiers();
+        if (useFifoGrouping)
+            modifiers = modifiers.add(TakeModifiers.FIFO_GROUPING_POLL);
+        if (useMemoryOnlySearch)
+            modifiers = modifiers.add(TakeModifiers.MEMORY_ONLY_SEARCH);
+        Object[] results = gigaSpace.takeMultiple(template, maxEntries, modifiers);
+        int count = results != null ? results.length : 0;
+        if (count < maxEntries) {
+            // every entry signaled up to this point was written before the take, and the take did
+            // not fill up - those entries were consumed (either by us or by another consumer)
+            synchronized (signalMonitor) {
+                if (signal > consumed) {
+                    consumed = signal;
+                }
+            }
+        }
+        return count > 0 ? results : null;
+    }
+
+    private void signal(int events) {
+        synchronized (signalMonitor) {
+            signaled += events;
+            signalMonitor.notifyAll();
+        }
+    }
+
+    private void registerIfNeeded(Object template, GigaSpace gigaSpace) throws DataAccessException {
+        if (dataEventSession != null) {
+            return;
+        }
+        synchronized (this) {
+            if (dataEventSession != null) {
+                return;
+            }
+            EventSessionConfig eventSessionConfig = new EventSessionConfig();
+            eventSessionConfig.setBatch(batchSize, batchTime);
+            SpaceInitializationIndicator.setInitializer();
+            try {
+                DataEventSession session = gigaSpace.newDataEventSession(eventSessionConfig);
+                try {
+                    session.addListener(template, new PushSignalListener(),
+                            NotifyActionType.NOTIFY_WRITE.or(NotifyActionType.NOTIFY_MATCHED_UPDATE));
+                } catch (Exception e) {
+                    closeQuietly(session);
+                    throw new NotifyListenerRegistrationException("Failed to register push receive listener", e);
+                }
+                dataEventSession = session;
+            } finally {
+                SpaceInitializationIndicator.unsetInitializer();
+            }
+        }
+        // matching entries may have been written before the registration
+        signal(1);
+    }
+
+    /**
+     * Removes the notify registration. A later receive registers again.
+     */
+    public void destroy() {
+        synchronized (this) {
+            if (dataEventSession == null) {
+                return;
+            }
+            closeQuietly(dataEventSession);
+            dataEventSession = null;
+        }
+        // notifications might be missed until registering again
+        signal(1);
+    }
+
+    private static void closeQuietly(DataEventSession session) {
+        try {
+            session.close();
+        } catch (Exception e) {
+            if (logger.isWarnEnabled()) {
+                logger.warn("Failed to close push receive data event session", e);
+            }
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "Push Take, maxEntries[" + maxEntries + "], batchSize[" + batchSize + "], batchTime[" + batchTime
+                + "], useFifoGroups[" + isUseFifoGrouping() + "], useMemoryOnlySearch[" + isUseMemoryOnlySearch() + "]";
+    }
+
+    private class PushSignalListener implements BatchRemoteEventListener {
+
+        public void notifyBatch(BatchRemoteEvent theEvents) {
+            signal(theEvents.getEvents().length);
+        }
+
+        public void notify(RemoteEvent theEvent) {
+            signal(1);
+        }
+    }
+}
@@ -68,6 +68,8 @@ public class MemCacheDaemon implements InitializingBean, DisposableBean, BeanNam
     private boolean threaded = true;
 
     private int frameSize = 32768 * 1024;
+
+    private long offHeapMemorySize;
     private int idleTime;
 
     private int boundedPort;
@@ -103,8 +105,21 @@ public class MemCacheDaemon implements InitializingBean, DisposableBean, BeanNam
         this.threaded = threaded;
     }
 
+    /**
+     * Sets the size (in bytes) of the off heap slab arena values are kept in. Defaults to
+     * <code>0</code>, which keeps the values on the heap, within the memcached entries.
+     *
+     * <p>The arena is allocated within the JVM, so this should be used when the space is embedded
+     * within the memcached processing unit.
+     *
+     * @since 14.2
+     */
+    public void setOffHeapMemorySize(long offHeapMemorySize) {
+        this.offHeapMemorySize = offHeapMemorySize;
+    }
+
     public void afterPropertiesSet() throws Exception {
-        cache = new SpaceCache(space);
+        cache = new SpaceCache(space, offHeapMemorySize > 0 ? SlabArena.install(offHeapMemorySize) : null);
         channelFactory = new NioServerSocketChannelFactory(Executors.newCachedThreadPool(), Executors.newCachedThreadPool());
 
         allChannels = new DefaultChannelGroup("memcachedChannelGroup");
@@ -181,6 +196,10 @@ public class MemCacheDaemon implements InitializingBean, DisposableBean, BeanNam
     }
 
     public ServiceMonitors[] getServicesMonitors() {
-        return new ServiceMonitors[]{new MemcachedServiceMonitors(beanName, cache.getGetCmds(), cache.getSetCmds(), cache.getGetHits(), cache.getGetMisses())};
+        MemcachedServiceMonitors monitors = new MemcachedServiceMonitors(beanName, cache.getGetCmds(), cache.getSetCmds(), cache.getGetHits(), cache.getGetMisses());
+        if (cache.getSlabArena() != null) {
+            monitors.addSlabStats(cache.getSlabArena());
+        }
+        return new ServiceMonitors[]{monitors};
     }
 }
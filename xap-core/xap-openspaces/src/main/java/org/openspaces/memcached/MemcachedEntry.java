@@ -38,6 +38,8 @@ public class MemcachedEntry implements Externalizable {
 
     private byte[] value;
 
+    private OffHeapValue offHeapValue;
+
     private int flags;
 
     private int version;
@@ -68,6 +70,20 @@ public class MemcachedEntry implements Externalizable {
         this.value = value;
     }
 
+    /**
+     * The value, when the memcached daemon keeps values off heap. The {@link #getValue()} is
+     * <code>null</code> in that case.
+     *
+     * @since 14.2
+     */
+    public OffHeapValue getOffHeapValue() {
+        return offHeapValue;
+    }
+
+    public void setOffHeapValue(OffHeapValue offHeapValue) {
+        this.offHeapValue = offHeapValue;
+    }
+
     @SpaceVersion
     public int getVersion() {
         return version;
@@ -99,6 +115,12 @@ public class MemcachedEntry implements Externalizable {
             out.writeInt(value.length);
             out.write(value);
         }
+        if (offHeapValue == null) {
+            out.writeBoolean(false);
+        } else {
+            out.writeBoolean(true);
+            offHeapValue.writeExternal(out);
+        }
         out.writeInt(flags);
         out.writeInt(version);
     }
@@ -112,6 +134,10 @@ public class MemcachedEntry implements Externalizable {
             value = new byte[in.readInt()];
             in.readFully(value);
         }
+        if (in.readBoolean()) {
+            offHeapValue = new OffHeapValue();
+            offHeapValue.readExternal(in);
+        }
         flags = in.readInt();
         version = in.readInt();
     }
@@ -30,6 +30,14 @@ public class MemcachedServiceMonitors extends PlainServiceMonitors {
         public static final String SET_CMDS = "set-cmds";
         public static final String GET_HITS = "get-hits";
         public static final String GET_MISSES = "get-misses";
+        public static final String OFF_HEAP_MAX_BYTES = "off-heap-max-bytes";
+        public static final String OFF_HEAP_ALLOCATED_BYTES = "off-heap-allocated-bytes";
+        public static final String OFF_HEAP_FALLBACKS = "off-heap-fallbacks";
+        public static final String SLAB_PREFIX = "slab-";
+        public static final String SLAB_CHUNK_SIZE = "-chunk-size";
+        public static final String SLAB_TOTAL_CHUNKS = "-total-chunks";
+        public static final String SLAB_USED_CHUNKS = "-used-chunks";
+        public static final String SLAB_EVICTIONS = "-evictions";
     }
 
     public MemcachedServiceMonitors() {
@@ -44,6 +52,25 @@ public class MemcachedServiceMonitors extends PlainServiceMonitors {
         getMonitors().put(Attributes.GET_MISSES, getMisses);
     }
 
+    /**
+     * Adds the statistics of the off heap arena, and of each of its slab classes (keyed by the slab
+     * class id, e.g. <code>slab-3-used-chunks</code>).
+     *
+     * @since 14.2
+     */
+    public void addSlabStats(SlabArena slabArena) {
+        getMonitors().put(Attributes.OFF_HEAP_MAX_BYTES, slabArena.getMaxBytes());
+        getMonitors().put(Attributes.OFF_HEAP_ALLOCATED_BYTES, slabArena.getAllocatedBytes());
+        getMonitors().put(Attributes.OFF_HEAP_FALLBACKS, slabArena.getHeapFallbacks());
+        for (SlabArena.SlabStats slabStats : slabArena.getStats()) {
+            String prefix = Attributes.SLAB_PREFIX + slabStats.getId();
+            getMonitors().put(prefix + Attributes.SLAB_CHUNK_SIZE, slabStats.getChunkSize());
+            getMonitors().put(prefix + Attributes.SLAB_TOTAL_CHUNKS, slabStats.getTotalChunks());
+            getMonitors().put(prefix + Attributes.SLAB_USED_CHUNKS, slabStats.getUsedChunks());
+            getMonitors().put(prefix + Attributes.SLAB_EVICTIONS, slabStats.getEvictions());
+        }
+    }
+
     public long getGetCmds() {
         return (Long) getMonitors().get(Attributes.GET_CMDS);
     }
@@ -0,0 +1,153 @@
+/*
+ * Copyright (c) 2008-2016, GigaSpaces Technologies, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.openspaces.memcached;
+
+import com.gigaspaces.client.CustomChangeOperation;
+import com.gigaspaces.server.MutableServerEntry;
+
+import org.openspaces.memcached.util.BufferUtils;
+
+import java.io.Serializable;
+
+/**
+ * Applies memcached append, prepend and incr/decr commands to the value of a {@link MemcachedEntry}
+ * within the space, saving the read and the optimistic write retry loop on the client side.
+ *
+ * @since 14.2
+ */
+final class MemcachedValueChangeOperation extends CustomChangeOperation {
+
+    private static final long serialVersionUID = 1L;
+
+    private static final String VALUE_PATH = "value";
+    private static final String OFF_HEAP_VALUE_PATH = "offHeapValue";
+
+    private static final byte APPEND = 1;
+    private static final byte PREPEND = 2;
+    private static final byte INCREMENT = 3;
+
+    private final byte type;
+    private final byte[] data;
+    private final int delta;
+
+    private MemcachedValueChangeOperation(byte type, byte[] data, int delta) {
+        this.type = type;
+        this.data = data;
+        this.delta = delta;
+    }
+
+    static MemcachedValueChangeOperation append(byte[] data) {
+        return new MemcachedValueChangeOperation(APPEND, data, 0);
+    }
+
+    static MemcachedValueChangeOperation prepend(byte[] data) {
+        return new MemcachedValueChangeOperation(PREPEND, data, 0);
+    }
+
+    static MemcachedValueChangeOperation increment(int delta) {
+        return new MemcachedValueChangeOperation(INCREMENT, null, delta);
+    }
+
+    @Override
+    public Object change(MutableServerEntry entry) {
+        OffHeapValue offHeapValue = (OffHeapValue) entry.getPathValue(OFF_HEAP_VALUE_PATH);
+        byte[] value = offHeapValue != null ? offHeapValue.getBytes() : (byte[]) entry.getPathValue(VALUE_PATH);
+        if (value == null) {
+            // evicted from the off heap arena, the entry is left as is and removed by the caller
+            return new Result(null, null, true);
+        }
+        if (type == INCREMENT) {
+            int val = (value.length == 0 ? 0 : BufferUtils.atoi(value)) + delta;
+            if (val < 0) {
+                val = 0;
+            } // check for underflow
+            setValue(entry, offHeapValue, BufferUtils.itoa(val));
+            return new Result(val, offHeapValue, false);
+        }
+        byte[] newValue = new byte[value.length + data.length];
+        if (type == APPEND) {
+            System.arraycopy(value, 0, newValue, 0, value.length);
+            System.arraycopy(data, 0, newValue, value.length, data.length);
+        } else {
+            System.arraycopy(data, 0, newValue, 0, data.length);
+            System.arraycopy(value, 0, newValue, data.length, value.length);
+        }
+        setValue(entry, offHeapValue, newValue);
+        return new Result(null, offHeapValue, false);
+    }
+
+    private static void setValue(MutableServerEntry entry, OffHeapValue previous, byte[] value) {
+        // the new value is kept where the previous one was, so a change replicated to a backup,
+        // which keeps its values on the heap, does not allocate arena memory
+        if (previous != null)
+            entry.setPathValue(OFF_HEAP_VALUE_PATH, OffHeapValue.of(value, previous.getArena()));
+        else
+            entry.setPathValue(VALUE_PATH, value);
+    }
+
+    @Override
+    public String getName() {
+        switch (type) {
+            case APPEND:
+                return "memcached-append";
+            case PREPEND:
+                return "memcached-prepend";
+            default:
+                return "memcached-increment";
+        }
+    }
+
+    /**
+     * The result of a value change. The previous off heap value is not freed by the operation
+     * since the change may still be rolled back, it is returned to the memcached daemon which frees
+     * it once the change completed. It is not serialized, a remote caller has no arena to free.
+     */
+    static final class Result implements Serializable {
+
+        private static final long serialVersionUID = 1L;
+
+        private final Integer value;
+        private final transient OffHeapValue previous;
+        private final boolean evicted;
+
+        private Result(Integer value, OffHeapValue previous, boolean evicted) {
+            this.value = value;
+            this.previous = previous;
+            this.evicted = evicted;
+        }
+
+        /**
+         * The new value of an increment.
+         */
+        Integer getValue() {
+            return value;
+        }
+
+        /**
+         * Whether the value was evicted from the off heap arena, in which case nothing was
+         * changed.
+         */
+        boolean isEvicted() {
+            return evicted;
+        }
+
+        OffHeapValue getPrevious() {
+            return previous;
+        }
+    }
+}
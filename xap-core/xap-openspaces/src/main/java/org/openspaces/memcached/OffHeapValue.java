@@ -0,0 +1,106 @@
+/*
+ * Copyright (c) 2008-2016, GigaSpaces Technologies, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.openspaces.memcached;
+
+import java.io.Externalizable;
+import java.io.IOException;
+import java.io.ObjectInput;
+import java.io.ObjectOutput;
+
+/**
+ * A memcached value kept in a {@link SlabArena}, with only its handle on the heap. Only the
+ * memcached daemon write path stores values in its arena. A value the arena cannot hold (larger than
+ * a page, or no page could be allocated for it) is kept on the heap and counted by {@link
+ * SlabArena#getHeapFallbacks()}.
+ *
+ * <p>When serialized, the value itself is written, and it is kept on the heap of the JVM which
+ * deserializes it (e.g. a remote client or a backup space), so no arena memory is allocated which
+ * nothing would free.
+ *
+ * @since 14.2
+ */
+public class OffHeapValue implements Externalizable {
+
+    private static final long serialVersionUID = 1L;
+
+    private transient SlabArena arena;
+    private transient long handle = -1;
+    private transient byte[] heapValue;
+
+    public OffHeapValue() {
+    }
+
+    /**
+     * Creates a value kept in the given arena, or on the heap if the arena is <code>null</code> or
+     * cannot hold it.
+     */
+    public static OffHeapValue of(byte[] value, SlabArena arena) {
+        OffHeapValue offHeapValue = new OffHeapValue();
+        long stored = arena != null ? arena.store(value) : -1;
+        if (stored != -1) {
+            offHeapValue.arena = arena;
+            offHeapValue.handle = stored;
+        } else {
+            offHeapValue.heapValue = value;
+        }
+        return offHeapValue;
+    }
+
+    /**
+     * Returns the arena this value is kept in, or <code>null</code> if it is kept on the heap.
+     */
+    SlabArena getArena() {
+        return arena;
+    }
+
+    /**
+     * Returns the value, or <code>null</code> if it was evicted from the arena.
+     */
+    public byte[] getBytes() {
+        if (arena == null)
+            return heapValue;
+        return arena.load(handle);
+    }
+
+    /**
+     * Frees the arena memory held by this value.
+     */
+    public void release() {
+        if (arena != null)
+            arena.free(handle);
+    }
+
+    public void writeExternal(ObjectOutput out) throws IOException {
+        byte[] value = getBytes();
+        if (value == null) {
+            out.writeInt(-1);
+        } else {
+            out.writeInt(value.length);
+            out.write(value);
+        }
+    }
+
+    public void readExternal(ObjectInput in) throws IOException, ClassNotFoundException {
+        int length = in.readInt();
+        if (length >= 0) {
+            byte[] value = new byte[length];
+            in.readFully(value);
+            heapValue = value;
+        }
+    }
+}
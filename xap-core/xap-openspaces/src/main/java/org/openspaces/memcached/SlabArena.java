@@ -0,0 +1,500 @@
+/*
+ * Copyright (c) 2008-2016, GigaSpaces Technologies, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.openspaces.memcached;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * An off-heap memory arena for memcached values, allocated the way memcached does. Memory is
+ * allocated in fixed size pages, each page is assigned to a slab class and cut into chunks of that
+ * class size. A value is stored in a chunk of the smallest class which fits it. Once the arena
+ * reached its max size, storing a value evicts a chunk of its slab class which was not recently
+ * used. A slab class which has no pages by then takes over a page of the slab class with the most
+ * pages (if it has more than one), evicting the values on that page.
+ *
+ * <p>Values are referenced by a handle. A handle becomes stale once its chunk is freed or evicted,
+ * and loading a stale handle returns <code>null</code>. Loads do not lock, so concurrent gets of
+ * values of the same size do not contend.
+ *
+ * <p>A single arena can be installed per JVM, the memcached daemon stores the values it writes in
+ * it (see {@link OffHeapValue}).
+ *
+ * @since 14.2
+ */
+public class SlabArena {
+
+    public static final int DEFAULT_PAGE_SIZE = 1024 * 1024;
+
+    public static final int DEFAULT_MIN_CHUNK_SIZE = 96;
+
+    public static final double DEFAULT_GROWTH_FACTOR = 1.25;
+
+    private static final int NONE = -1;
+
+    // each chunk starts with the length of its value
+    private static final int HEADER_SIZE = 4;
+
+    private static final int LIVE = 2;
+    private static final int REFERENCED = 1;
+
+    private static volatile SlabArena installed;
+
+    private final long maxBytes;
+    private final int pageSize;
+    private final SlabClass[] slabClasses;
+    private final AtomicLong allocatedBytes = new AtomicLong();
+    private final AtomicLong heapFallbacks = new AtomicLong();
+    // serializes page reassignments, taken before any slab class monitor
+    private final Object reassignLock = new Object();
+
+    public SlabArena(long maxBytes) {
+        this(maxBytes, DEFAULT_PAGE_SIZE, DEFAULT_MIN_CHUNK_SIZE, DEFAULT_GROWTH_FACTOR);
+    }
+
+    public SlabArena(long maxBytes, int pageSize, int minChunkSize, double growthFactor) {
+        if (maxBytes < pageSize)
+            throw new IllegalArgumentException("Off heap memory size [" + maxBytes + "] must be at least one page [" + pageSize + "]");
+        if (minChunkSize <= HEADER_SIZE || minChunkSize > pageSize)
+            throw new IllegalArgumentException("Illegal min chunk size [" + minChunkSize + "]");
+        if (growthFactor <= 1)
+            throw new IllegalArgumentException("Growth factor [" + growthFactor + "] must be greater than 1");
+        this.maxBytes = maxBytes;
+        this.pageSize = pageSize;
+        List<SlabClass> classes = new ArrayList<SlabClass>();
+        int chunkSize = minChunkSize;
+        while (chunkSize < pageSize / 2 && classes.size() < 255) {
+            classes.add(new SlabClass(classes.size(), chunkSize));
+            chunkSize = Math.max(chunkSize + 8, (int) (chunkSize * growthFactor));
+        }
+        // the last class stores a single value per page
+        classes.add(new SlabClass(classes.size(), pageSize));
+        this.slabClasses = classes.toArray(new SlabClass[classes.size()]);
+    }
+
+    /**
+     * Installs an arena of the given size as the arena of this JVM, unless one was already
+     * installed.
+     */
+    public static synchronized SlabArena install(long maxBytes) {
+        if (installed == null)
+            installed = new SlabArena(maxBytes);
+        return installed;
+    }
+
+    /**
+     * Returns the arena installed in this JVM, or <code>null</code> if there is none.
+     */
+    public static SlabArena getInstalled() {
+        return installed;
+    }
+
+    /**
+     * Stores the given value, evicting a value of its slab class which was not recently used if
+     * needed.
+     *
+     * @return a handle to the stored value, or <code>-1</code> if the value does not fit in a page
+     * or no page could be allocated for its slab class.
+     */
+    public long store(byte[] value) {
+        SlabClass slabClass = slabClassFor(value.length + HEADER_SIZE);
+        long handle = slabClass != null ? slabClass.store(value) : NONE;
+        if (handle == NONE && slabClass != null && reassignPage(slabClass))
+            handle = slabClass.store(value);
+        if (handle == NONE)
+            heapFallbacks.incrementAndGet();
+        return handle;
+    }
+
+    /**
+     * Returns the value referenced by the given handle and marks it as recently used, or
+     * <code>null</code> if it was freed or evicted.
+     */
+    public byte[] load(long handle) {
+        if (handle < 0)
+            return null;
+        return slabClasses[classOf(handle)].load(handle);
+    }
+
+    /**
+     * Frees the chunk referenced by the given handle, does nothing if it is stale.
+     */
+    public void free(long handle) {
+        if (handle >= 0)
+            slabClasses[classOf(handle)].free(handle);
+    }
+
+    public long getMaxBytes() {
+        return maxBytes;
+    }
+
+    public long getAllocatedBytes() {
+        return allocatedBytes.get();
+    }
+
+    /**
+     * Returns the number of values which could not be stored in the arena, and are kept on the heap
+     * instead (see {@link OffHeapValue}).
+     */
+    public long getHeapFallbacks() {
+        return heapFallbacks.get();
+    }
+
+    /**
+     * Returns the statistics of the slab classes which have memory allocated.
+     */
+    public List<SlabStats> getStats() {
+        List<SlabStats> stats = new ArrayList<SlabStats>();
+        for (SlabClass slabClass : slabClasses) {
+            SlabStats slabStats = slabClass.getStats();
+            if (slabStats.getTotalPages() > 0)
+                stats.add(slabStats);
+        }
+        return stats;
+    }
+
+    private SlabClass slabClassFor(int length) {
+        for (SlabClass slabClass : slabClasses) {
+            if (slabClass.chunkSize >= length)
+                return slabClass;
+        }
+        return null;
+    }
+
+    /**
+     * Moves a page of the slab class with the most pages to the given slab class, which has no
+     * page and cannot evict. A slab class is never left without pages.
+     */
+    private boolean reassignPage(SlabClass target) {
+        synchronized (reassignLock) {
+            SlabClass source = null;
+            for (SlabClass slabClass : slabClasses) {
+                if (slabClass != target && (source == null || slabClass.livePages > source.livePages))
+                    source = slabClass;
+            }
+            if (source == null || source.livePages < 2)
+                return false;
+            ByteBuffer buffer = source.surrenderPage();
+            if (buffer == null)
+                return false;
+            target.addPage(buffer);
+            return true;
+        }
+    }
+
+    private boolean reservePage() {
+        while (true) {
+            long current = allocatedBytes.get();
+            if (current + pageSize > maxBytes)
+                return false;
+            if (allocatedBytes.compareAndSet(current, current + pageSize))
+                return true;
+        }
+    }
+
+    private static int classOf(long handle) {
+        return (int) (handle >>> 48);
+    }
+
+    private static int generationOf(long handle) {
+        return (int) ((handle >>> 32) & 0xFFFF);
+    }
+
+    private static int chunkOf(long handle) {
+        return (int) handle;
+    }
+
+    /**
+     * Statistics of a single slab class.
+     */
+    public static class SlabStats {
+        private final int id;
+        private final int chunkSize;
+        private final int totalPages;
+        private final long totalChunks;
+        private final long usedChunks;
+        private final long evictions;
+
+        SlabStats(int id, int chunkSize, int totalPages, long totalChunks, long usedChunks, long evictions) {
+            this.id = id;
+            this.chunkSize = chunkSize;
+            this.totalPages = totalPages;
+            this.totalChunks = totalChunks;
+            this.usedChunks = usedChunks;
+            this.evictions = evictions;
+        }
+
+        public int getId() {
+            return id;
+        }
+
+        public int getChunkSize() {
+            return chunkSize;
+        }
+
+        public int getTotalPages() {
+            return totalPages;
+        }
+
+        public long getTotalChunks() {
+            return totalChunks;
+        }
+
+        public long getUsedChunks() {
+            return usedChunks;
+        }
+
+        public long getEvictions() {
+            return evictions;
+        }
+    }
+
+    /**
+     * A slab class. Each chunk starts with a header holding the value length, or the next free
+     * chunk while the chunk is in the free list, so the only per chunk bookkeeping on the heap is
+     * its stamp. Loads are lock free, stores, frees and evictions are serialized by the slab class
+     * monitor. Eviction uses the clock algorithm: a load marks its chunk as referenced, and the
+     * eviction hand gives referenced chunks a second chance.
+     */
+    private class SlabClass {
+        private final int id;
+        private final int chunkSize;
+        private final int chunksPerPage;
+
+        // published by a volatile write after each page is added or surrendered, for the lock free
+        // loads. A surrendered page keeps its slot and its stamps, so its handles stay stale.
+        private volatile Page[] pages = new Page[1];
+        private int numOfPages;
+        // pages which were not surrendered, read without the monitor when choosing a page to reassign
+        private volatile int livePages;
+
+        private int freeHead = NONE;
+        private int hand;
+        private long usedChunks;
+        private long evictions;
+
+        private SlabClass(int id, int chunkSize) {
+            this.id = id;
+            this.chunkSize = chunkSize;
+            this.chunksPerPage = pageSize / chunkSize;
+        }
+
+        private synchronized long store(byte[] value) {
+            int chunk = allocate();
+            if (chunk == NONE)
+                return NONE;
+            Page page = pages[chunk / chunksPerPage];
+            int index = chunk % chunksPerPage;
+            ByteBuffer buffer = page.buffer.duplicate();
+            buffer.putInt(index * chunkSize, value.length);
+            buffer.position(index * chunkSize + HEADER_SIZE);
+            buffer.put(value);
+            int generation = page.stamps.get(index) >>> 2;
+            // publishes the value to the lock free loads
+            page.stamps.set(index, (generation << 2) | LIVE);
+            usedChunks++;
+            return ((long) id << 48) | ((long) generation << 32) | (chunk & 0xFFFFFFFFL);
+        }
+
+        private byte[] load(long handle) {
+            int chunk = chunkOf(handle);
+            Page[] current = pages;
+            if (chunk < 0 || chunk / chunksPerPage >= current.length)
+                return null;
+            Page page = current[chunk / chunksPerPage];
+            if (page == null)
+                return null;
+            int index = chunk % chunksPerPage;
+            int expected = (generationOf(handle) << 2) | LIVE;
+            int stamp = page.stamps.get(index);
+            if ((stamp & ~REFERENCED) != expected || page.buffer == null)
+                return null;
+            if ((stamp & REFERENCED) == 0)
+                page.stamps.compareAndSet(index, stamp, stamp | REFERENCED);
+
+            ByteBuffer buffer = page.buffer.duplicate();
+            int length = buffer.getInt(index * chunkSize);
+            if (length < 0 || length > chunkSize - HEADER_SIZE)
+                return null;
+            byte[] value = new byte[length];
+            buffer.position(index * chunkSize + HEADER_SIZE);
+            buffer.get(value);
+
+            // the chunk may have been freed and reused while it was copied, in which case the
+            // handle is stale. The compare and set orders the copy before the check.
+            while (true) {
+                stamp = page.stamps.get(index);
+                if ((stamp & ~REFERENCED) != expected)
+                    return null;
+                if (page.stamps.compareAndSet(index, stamp, stamp))
+                    return value;
+            }
+        }
+
+        private synchronized void free(long handle) {
+            int chunk = chunkOf(handle);
+            if (chunk < 0 || chunk >= numOfPages * chunksPerPage)
+                return;
+            int stamp = pages[chunk / chunksPerPage].stamps.get(chunk % chunksPerPage);
+            if ((stamp & ~REFERENCED) == ((generationOf(handle) << 2) | LIVE))
+                release(chunk);
+        }
+
+        private int allocate() {
+            if (freeHead == NONE && !allocatePage() && !evict())
+                return NONE;
+            int chunk = freeHead;
+            freeHead = pages[chunk / chunksPerPage].buffer.getInt((chunk % chunksPerPage) * chunkSize);
+            return chunk;
+        }
+
+        /**
+         * Evicts a chunk which was not referenced since the hand last passed it. Referenced chunks
+         * get a second chance, so after two rounds a chunk is evicted regardless.
+         */
+        private boolean evict() {
+            if (usedChunks == 0)
+                return false;
+            int totalChunks = numOfPages * chunksPerPage;
+            for (int i = 0; ; i++) {
+                int chunk = hand;
+                hand = (hand + 1) % totalChunks;
+                AtomicIntegerArray stamps = pages[chunk / chunksPerPage].stamps;
+                int index = chunk % chunksPerPage;
+                int stamp = stamps.get(index);
+                // also skips the chunks of surrendered pages
+                if ((stamp & LIVE) == 0)
+                    continue;
+                if ((stamp & REFERENCED) != 0 && i < 2 * totalChunks) {
+                    stamps.compareAndSet(index, stamp, stamp & ~REFERENCED);
+                    continue;
+                }
+                // memcached style eviction, within the slab class only
+                release(chunk);
+                evictions++;
+                return true;
+            }
+        }
+
+        private void release(int chunk) {
+            Page page = pages[chunk / chunksPerPage];
+            int index = chunk % chunksPerPage;
+            int generation = page.stamps.get(index) >>> 2;
+            page.stamps.set(index, ((generation + 1) & 0xFFFF) << 2);
+            usedChunks--;
+            page.buffer.putInt(index * chunkSize, freeHead);
+            freeHead = chunk;
+        }
+
+        private boolean allocatePage() {
+            if (!reservePage())
+                return false;
+            ByteBuffer buffer;
+            try {
+                buffer = ByteBuffer.allocateDirect(pageSize);
+            } catch (OutOfMemoryError e) {
+                allocatedBytes.addAndGet(-pageSize);
+                return false;
+            }
+            addPage(buffer);
+            return true;
+        }
+
+        /**
+         * Cuts the given page into chunks of this class. Slots of surrendered pages are not reused,
+         * a page is only surrendered by a class which keeps at least one page, and never gets back.
+         */
+        private synchronized void addPage(ByteBuffer buffer) {
+            int first = numOfPages * chunksPerPage;
+            for (int index = chunksPerPage - 1; index >= 0; index--) {
+                buffer.putInt(index * chunkSize, freeHead);
+                freeHead = first + index;
+            }
+            Page[] current = pages;
+            if (numOfPages == current.length)
+                current = Arrays.copyOf(current, numOfPages * 2);
+            current[numOfPages++] = new Page(buffer, new AtomicIntegerArray(chunksPerPage));
+            livePages++;
+            pages = current;
+        }
+
+        /**
+         * Evicts the values of the page under the eviction hand and removes the page from this
+         * class.
+         *
+         * @return the buffer of the page, or <code>null</code> if this class has no pages.
+         */
+        private synchronized ByteBuffer surrenderPage() {
+            if (livePages == 0)
+                return null;
+            Page[] current = pages;
+            int slot = hand / chunksPerPage;
+            while (current[slot].buffer == null)
+                slot = (slot + 1) % numOfPages;
+            Page page = current[slot];
+            int first = slot * chunksPerPage;
+
+            // drops the free chunks of the page from the free list
+            int previous = NONE;
+            for (int chunk = freeHead; chunk != NONE; ) {
+                int next = current[chunk / chunksPerPage].buffer.getInt((chunk % chunksPerPage) * chunkSize);
+                if (chunk >= first && chunk < first + chunksPerPage) {
+                    if (previous == NONE)
+                        freeHead = next;
+                    else
+                        current[previous / chunksPerPage].buffer.putInt((previous % chunksPerPage) * chunkSize, next);
+                } else {
+                    previous = chunk;
+                }
+                chunk = next;
+            }
+            // stales the handles of the page before its buffer is reused by another class
+            for (int index = 0; index < chunksPerPage; index++) {
+                int stamp = page.stamps.get(index);
+                if ((stamp & LIVE) != 0) {
+                    usedChunks--;
+                    evictions++;
+                }
+                page.stamps.set(index, (((stamp >>> 2) + 1) & 0xFFFF) << 2);
+            }
+            current[slot] = new Page(null, page.stamps);
+            livePages--;
+            pages = current;
+            return page.buffer;
+        }
+
+        private synchronized SlabStats getStats() {
+            return new SlabStats(id, chunkSize, livePages, (long) livePages * chunksPerPage, usedChunks, evictions);
+        }
+    }
+
+    private static class Page {
+        private final ByteBuffer buffer;
+        // generation << 2 | LIVE | REFERENCED per chunk
+        private final AtomicIntegerArray stamps;
+
+        private Page(ByteBuffer buffer, AtomicIntegerArray stamps) {
+            this.buffer = buffer;
+            this.stamps = stamps;
+        }
+    }
+}
@@ -16,18 +16,23 @@
 
 package org.openspaces.memcached;
 
+import com.gigaspaces.client.ChangeModifiers;
+import com.gigaspaces.client.ChangeResult;
+import com.gigaspaces.client.ChangeSet;
+import com.gigaspaces.client.ChangedEntryDetails;
 import com.gigaspaces.client.ReadByIdsResult;
 import com.gigaspaces.client.WriteModifiers;
-import com.j_spaces.core.client.UpdateModifiers;
+import com.gigaspaces.query.IdQuery;
+import com.j_spaces.core.LeaseContext;
 
 import org.openspaces.core.EntryAlreadyInSpaceException;
 import org.openspaces.core.EntryNotInSpaceException;
 import org.openspaces.core.GigaSpace;
 import org.openspaces.core.SpaceOptimisticLockingFailureException;
-import org.openspaces.memcached.util.BufferUtils;
 
 import java.io.IOException;
 import java.io.UnsupportedEncodingException;
+import java.util.Arrays;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Map;
@@ -60,6 +65,8 @@ public class SpaceCache {
 
     private final GigaSpace space;
 
+    private final SlabArena slabArena;
+
     protected final AtomicLong started = new AtomicLong();
     protected final AtomicLong getCmds = new AtomicLong();
     protected final AtomicLong setCmds = new AtomicLong();
@@ -67,7 +74,17 @@ public class SpaceCache {
     protected final AtomicLong getMisses = new AtomicLong();
 
     public SpaceCache(GigaSpace space) {
+        this(space, null);
+    }
+
+    /**
+     * @param slabArena when not <code>null</code>, values are kept off heap in the given arena
+     *                  instead of in the memcached entries.
+     * @since 14.2
+     */
+    public SpaceCache(GigaSpace space, SlabArena slabArena) {
         this.space = space;
+        this.slabArena = slabArena;
         started.set(System.currentTimeMillis());
     }
 
@@ -82,118 +99,143 @@ public class SpaceCache {
             return DeleteResponse.DELETED;
         }
         MemcachedEntry entry = space.takeById(MemcachedEntry.class, key);
+        if (entry != null) {
+            release(entry);
+        }
         return entry == null ? DeleteResponse.NOT_FOUND : DeleteResponse.DELETED;
     }
 
     public StoreResponse add(LocalCacheElement e) {
+        MemcachedEntry entry = createEntry(e);
         try {
-            MemcachedEntry entry = new MemcachedEntry(e.getKey(), e.getData());
-            entry.setFlags(e.getFlags());
             space.write(entry, e.getExpire(), 0, WriteModifiers.WRITE_ONLY);
             return StoreResponse.STORED;
         } catch (EntryAlreadyInSpaceException e1) {
+            // the existing entry may hold a value evicted from the arena, which counts as a miss
+            MemcachedEntry existing = slabArena != null ? space.readById(MemcachedEntry.class, e.getKey()) : null;
+            if (slabArena == null || (existing != null && !removeIfEvicted(existing))) {
+                release(entry);
+                return StoreResponse.EXISTS;
+            }
+        }
+        try {
+            space.write(entry, e.getExpire(), 0, WriteModifiers.WRITE_ONLY);
+            return StoreResponse.STORED;
+        } catch (EntryAlreadyInSpaceException e1) {
+            release(entry);
             return StoreResponse.EXISTS;
         }
     }
 
     public StoreResponse replace(LocalCacheElement e) {
+        MemcachedEntry entry = createEntry(e);
         try {
-            MemcachedEntry entry = new MemcachedEntry(e.getKey(), e.getData());
-            entry.setFlags(e.getFlags());
-            space.write(entry, e.getExpire(), 0, WriteModifiers.UPDATE_ONLY);
+            releasePrevious(space.write(entry, e.getExpire(), 0, updateModifiers(WriteModifiers.UPDATE_ONLY)));
             return StoreResponse.STORED;
         } catch (EntryNotInSpaceException e1) {
+            release(entry);
             return StoreResponse.NOT_FOUND;
         }
     }
 
     public StoreResponse append(LocalCacheElement cacheElement) {
         // binary protocol allows to pass cas value, take it into account?
-        while (true) {
-            MemcachedEntry entry = space.readById(MemcachedEntry.class, cacheElement.getKey());
-            if (entry == null) {
-                getMisses.incrementAndGet();
-                return StoreResponse.NOT_FOUND;
-            }
-            byte[] newData = new byte[entry.getValue().length + cacheElement.getData().length];
-            System.arraycopy(entry.getValue(), 0, newData, 0, entry.getValue().length);
-            System.arraycopy(cacheElement.getData(), 0, newData, entry.getValue().length, cacheElement.getData().length);
-            entry.setValue(newData);
-            try {
-                space.write(entry);
-            } catch (SpaceOptimisticLockingFailureException e) {
-                continue;
-            }
-            return StoreResponse.STORED;
-        }
+        return changeValue(cacheElement.getKey(), MemcachedValueChangeOperation.append(cacheElement.getData())) != null
+                ? StoreResponse.STORED : StoreResponse.NOT_FOUND;
     }
 
     public StoreResponse prepend(LocalCacheElement cacheElement) {
         // binary protocol allows to pass cas value, take it into account?
-        while (true) {
-            MemcachedEntry entry = space.readById(MemcachedEntry.class, cacheElement.getKey());
-            if (entry == null) {
-                getMisses.incrementAndGet();
-                return StoreResponse.NOT_FOUND;
-            }
-            byte[] newData = new byte[entry.getValue().length + cacheElement.getData().length];
-            System.arraycopy(cacheElement.getData(), 0, newData, 0, cacheElement.getData().length);
-            System.arraycopy(entry.getValue(), 0, newData, cacheElement.getData().length, entry.getValue().length);
-            entry.setValue(newData);
-            try {
-                space.write(entry);
-            } catch (SpaceOptimisticLockingFailureException e) {
-                continue;
-            }
-            return StoreResponse.STORED;
-        }
+        return changeValue(cacheElement.getKey(), MemcachedValueChangeOperation.prepend(cacheElement.getData())) != null
+                ? StoreResponse.STORED : StoreResponse.NOT_FOUND;
     }
 
     public StoreResponse set(LocalCacheElement e) {
         setCmds.incrementAndGet();//update stats
-        MemcachedEntry entry = new MemcachedEntry(e.getKey(), e.getData());
-        entry.setFlags(e.getFlags());
-        space.write(entry, e.getExpire());
+        MemcachedEntry entry = createEntry(e);
+        try {
+            releasePrevious(space.write(entry, e.getExpire(), 0, updateModifiers(space.getDefaultWriteModifiers())));
+        } catch (RuntimeException e1) {
+            // if the entry was written after all, its freed value reads as a miss
+            release(entry);
+            throw e1;
+        }
         return StoreResponse.STORED;
     }
 
+    /**
+     * Stores the given elements using a single write multiple operation.
+     */
+    public StoreResponse[] setMultiple(LocalCacheElement[] elements) {
+        setCmds.addAndGet(elements.length);//update stats
+        MemcachedEntry[] entries = new MemcachedEntry[elements.length];
+        long[] leases = new long[elements.length];
+        for (int i = 0; i < elements.length; i++) {
+            entries[i] = createEntry(elements[i]);
+            leases[i] = elements[i].getExpire();
+        }
+        LeaseContext<MemcachedEntry>[] results;
+        try {
+            results = space.writeMultiple(entries, leases, updateModifiers(space.getDefaultWriteModifiers()));
+        } catch (RuntimeException e) {
+            // the entries which were written hold a freed value, which reads as a miss
+            for (MemcachedEntry entry : entries) {
+                release(entry);
+            }
+            throw e;
+        }
+        for (LeaseContext<MemcachedEntry> result : results) {
+            releasePrevious(result);
+        }
+        StoreResponse[] responses = new StoreResponse[elements.length];
+        Arrays.fill(responses, StoreResponse.STORED);
+        return responses;
+    }
+
     public StoreResponse cas(Long cas_key, LocalCacheElement e) {
+        MemcachedEntry entry = createEntry(e);
         try {
-            MemcachedEntry entry = new MemcachedEntry(e.getKey(), e.getData());
-            entry.setFlags(e.getFlags());
             entry.setVersion(cas_key.intValue());
-            space.write(entry, e.getExpire(), 0, WriteModifiers.UPDATE_ONLY);
+            releasePrevious(space.write(entry, e.getExpire(), 0, updateModifiers(WriteModifiers.UPDATE_ONLY)));
             return StoreResponse.STORED;
         } catch (SpaceOptimisticLockingFailureException e1) {
+            release(entry);
             return StoreResponse.EXISTS;
         } catch (EntryNotInSpaceException e1) {
+            release(entry);
             getMisses.incrementAndGet();
             return StoreResponse.NOT_FOUND;
         }
     }
 
     public Integer get_add(Key key, int mod) {
-        while (true) {
-            MemcachedEntry entry = space.readById(MemcachedEntry.class, key);
-            if (entry == null) {
-                getMisses.incrementAndGet();
-                return null;
-            }
-            int val = BufferUtils.atoi(entry.getValue()) + mod; // change value
-            if (val < 0) {
-                val = 0;
-
-            } // check for underflow
-
-            entry.setValue(BufferUtils.itoa(val));
+        MemcachedValueChangeOperation.Result result = changeValue(key, MemcachedValueChangeOperation.increment(mod));
+        return result == null ? null : result.getValue();
+    }
 
-            try {
-                space.write(entry);
-            } catch (SpaceOptimisticLockingFailureException e) {
-                continue;
-            }
-            return val;
+    /**
+     * Applies the given operation to the entry value within the space, returns <code>null</code>
+     * if there is no entry for the key.
+     */
+    private MemcachedValueChangeOperation.Result changeValue(Key key, MemcachedValueChangeOperation operation) {
+        ChangeResult<MemcachedEntry> result = space.change(new IdQuery<MemcachedEntry>(MemcachedEntry.class, key),
+                new ChangeSet().custom(operation), ChangeModifiers.RETURN_DETAILED_RESULTS);
+        if (result.getNumberOfChangedEntries() == 0) {
+            getMisses.incrementAndGet();
+            return null;
+        }
+        ChangedEntryDetails<MemcachedEntry> details = result.getResults().iterator().next();
+        MemcachedValueChangeOperation.Result changeResult =
+                (MemcachedValueChangeOperation.Result) details.getChangeOperationsResults().get(0).getResult();
+        if (changeResult.isEvicted()) {
+            removeIfEvicted(key, details.getVersion());
+            getMisses.incrementAndGet();
+            return null;
         }
+        if (changeResult.getPrevious() != null) {
+            changeResult.getPrevious().release();
+        }
+        return changeResult;
     }
 
     public LocalCacheElement[] get(Key... keys) {
@@ -201,12 +243,14 @@ public class SpaceCache {
         try {
             if (keys.length == 1) {
                 MemcachedEntry entry = space.readById(MemcachedEntry.class, keys[0]);
-                if (entry == null) {
+                LocalCacheElement element = entry == null ? null : convert(entry);
+                if (element == null) {
+                    removeIfEvicted(entry);
                     getMisses.incrementAndGet();
                     return new LocalCacheElement[]{null};
                 }
                 getHits.incrementAndGet();
-                return new LocalCacheElement[]{convert(entry)};
+                return new LocalCacheElement[]{element};
             }
             int hits = 0;
             int misses = 0;
@@ -214,12 +258,12 @@ public class SpaceCache {
             ReadByIdsResult<MemcachedEntry> result = space.readByIds(MemcachedEntry.class, keys);
             for (int i = 0; i < result.getResultsArray().length; i++) {
                 MemcachedEntry entry = result.getResultsArray()[i];
-                if (entry == null) {
+                retVal[i] = entry == null ? null : convert(entry);
+                if (retVal[i] == null) {
+                    removeIfEvicted(entry);
                     misses++;
-                    retVal[i] = null;
                 } else {
                     hits++;
-                    retVal[i] = convert(entry);
                 }
             }
             getMisses.addAndGet(misses);
@@ -246,11 +290,18 @@ public class SpaceCache {
     }
 
     public long getLimitMaxBytes() {
-        return -1;
+        return slabArena != null ? slabArena.getMaxBytes() : -1;
     }
 
     public long getCurrentBytes() {
-        return -1;
+        return slabArena != null ? slabArena.getAllocatedBytes() : -1;
+    }
+
+    /**
+     * Returns the arena values are kept in, or <code>null</code> if values are kept on the heap.
+     */
+    public SlabArena getSlabArena() {
+        return slabArena;
     }
 
     public long getGetCmds() {
@@ -274,6 +325,22 @@ public class SpaceCache {
 
         // stats we know
         multiSet(result, "version", MemCacheDaemon.memcachedVersion);
+        if ("slabs".equals(arg)) {
+            if (slabArena != null) {
+                for (SlabArena.SlabStats slabStats : slabArena.getStats()) {
+                    String prefix = slabStats.getId() + ":";
+                    multiSet(result, prefix + "chunk_size", valueOf(slabStats.getChunkSize()));
+                    multiSet(result, prefix + "total_pages", valueOf(slabStats.getTotalPages()));
+                    multiSet(result, prefix + "total_chunks", valueOf(slabStats.getTotalChunks()));
+                    multiSet(result, prefix + "used_chunks", valueOf(slabStats.getUsedChunks()));
+                    multiSet(result, prefix + "evicted", valueOf(slabStats.getEvictions()));
+                }
+                multiSet(result, "active_slabs", valueOf(slabArena.getStats().size()));
+                multiSet(result, "total_malloced", valueOf(slabArena.getAllocatedBytes()));
+                multiSet(result, "heap_fallbacks", valueOf(slabArena.getHeapFallbacks()));
+            }
+            return result;
+        }
         multiSet(result, "cmd_gets", valueOf(getGetCmds()));
         multiSet(result, "cmd_sets", valueOf(getSetCmds()));
         multiSet(result, "get_hits", valueOf(getGetHits()));
@@ -314,8 +381,66 @@ public class SpaceCache {
     }
 
     private LocalCacheElement convert(MemcachedEntry entry) throws UnsupportedEncodingException {
+        byte[] value = entry.getOffHeapValue() != null ? entry.getOffHeapValue().getBytes() : entry.getValue();
+        if (value == null) {
+            // evicted from the off heap arena
+            return null;
+        }
         LocalCacheElement element = new LocalCacheElement(entry.getKey(), entry.getFlags(), -1 /* not relevant, not sent back */, entry.getVersion());
-        element.setData(entry.getValue());
+        element.setData(value);
         return element;
     }
+
+    /**
+     * Removes the given entry if its value was evicted from the arena, so the key is treated as
+     * missing by all the commands. The entry is only removed if it was not changed since.
+     *
+     * @return <code>true</code> if the entry was removed.
+     */
+    private boolean removeIfEvicted(MemcachedEntry entry) {
+        if (entry == null || entry.getOffHeapValue() == null || entry.getOffHeapValue().getBytes() != null) {
+            return false;
+        }
+        return removeIfEvicted(entry.getKey(), entry.getVersion());
+    }
+
+    private boolean removeIfEvicted(Key key, int version) {
+        MemcachedEntry template = new MemcachedEntry(key, null);
+        template.setVersion(version);
+        try {
+            return space.take(template) != null;
+        } catch (SpaceOptimisticLockingFailureException e) {
+            // written again since
+            return false;
+        }
+    }
+
+    private WriteModifiers updateModifiers(WriteModifiers modifiers) {
+        // the previous value is needed to free its arena memory
+        return slabArena != null ? modifiers.add(WriteModifiers.RETURN_PREV_ON_UPDATE) : modifiers;
+    }
+
+    private static void releasePrevious(LeaseContext<MemcachedEntry> result) {
+        if (result != null && result.getObject() != null) {
+            release(result.getObject());
+        }
+    }
+
+    private static void release(MemcachedEntry entry) {
+        if (entry.getOffHeapValue() != null) {
+            entry.getOffHeapValue().release();
+        }
+    }
+
+    private MemcachedEntry createEntry(LocalCacheElement e) {
+        MemcachedEntry entry;
+        if (slabArena != null) {
+            entry = new MemcachedEntry(e.getKey(), null);
+            entry.setOffHeapValue(OffHeapValue.of(e.getData(), slabArena));
+        } else {
+            entry = new MemcachedEntry(e.getKey(), e.getData());
+        }
+        entry.setFlags(e.getFlags());
+        return entry;
+    }
 }
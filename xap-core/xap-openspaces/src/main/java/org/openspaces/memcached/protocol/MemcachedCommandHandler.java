@@ -32,6 +32,8 @@ import org.openspaces.memcached.LocalCacheElement;
 import org.openspaces.memcached.SpaceCache;
 import org.openspaces.memcached.protocol.exceptions.UnknownCommandException;
 
+import java.util.ArrayList;
+import java.util.List;
 import java.util.concurrent.atomic.AtomicInteger;
 
 // TODO implement flush_all delay
@@ -47,6 +49,17 @@ public final class MemcachedCommandHandler extends SimpleChannelUpstreamHandler
 
     protected final static Log logger = LogFactory.getLog(MemcachedCommandHandler.class);
 
+    /**
+     * Fired by the decoders once all the commands decoded from a single read were passed on, marks
+     * the end of a pipelined batch of commands.
+     */
+    public static final Object END_OF_READ = new Object();
+
+    /**
+     * The max number of pipelined set commands stored using a single write multiple.
+     */
+    private static final int MAX_SET_BATCH_SIZE = 256;
+
     public final AtomicInteger curr_conns = new AtomicInteger();
     public final AtomicInteger total_conns = new AtomicInteger();
 
@@ -106,6 +119,9 @@ public final class MemcachedCommandHandler extends SimpleChannelUpstreamHandler
     public void channelClosed(ChannelHandlerContext channelHandlerContext, ChannelStateEvent channelStateEvent) throws Exception {
         curr_conns.decrementAndGet();
         channelGroup.remove(channelHandlerContext.getChannel());
+        synchronized (channelHandlerContext) {
+            channelHandlerContext.setAttachment(null);
+        }
     }
 
 
@@ -116,6 +132,10 @@ public final class MemcachedCommandHandler extends SimpleChannelUpstreamHandler
 
     @Override
     public void messageReceived(ChannelHandlerContext channelHandlerContext, MessageEvent messageEvent) throws Exception {
+        if (messageEvent.getMessage() == END_OF_READ) {
+            flushSets(channelHandlerContext, messageEvent.getChannel());
+            return;
+        }
         if (!(messageEvent.getMessage() instanceof CommandMessage)) {
             // Ignore what this encoder can't encode.
             channelHandlerContext.sendUpstream(messageEvent);
@@ -143,10 +163,14 @@ public final class MemcachedCommandHandler extends SimpleChannelUpstreamHandler
         }
 
         Channel channel = messageEvent.getChannel();
+        if (cmd == Op.SET) {
+            handleSet(channelHandlerContext, command, channel);
+            return;
+        }
+        // pipelined sets which preceded this command are stored and answered first
+        flushSets(channelHandlerContext, channel);
         if (cmd == Op.GET || cmd == Op.GETS) {
             handleGets(channelHandlerContext, command, channel);
-        } else if (cmd == Op.SET) {
-            handleSet(channelHandlerContext, command, channel);
         } else if (cmd == Op.CAS) {
             handleCas(channelHandlerContext, command, channel);
         } else if (cmd == Op.ADD) {
@@ -258,10 +282,56 @@ public final class MemcachedCommandHandler extends SimpleChannelUpstreamHandler
         Channels.fireMessageReceived(channelHandlerContext, new ResponseMessage(command).withResponse(ret), channel.getRemoteAddress());
     }
 
+    /**
+     * Set commands are batched until the end of the read (or until another command arrives), and
+     * then stored together using a single write multiple.
+     */
+    @SuppressWarnings("unchecked")
     protected void handleSet(ChannelHandlerContext channelHandlerContext, CommandMessage command, Channel channel) {
-        SpaceCache.StoreResponse ret;
-        ret = cache.set(command.element);
-        Channels.fireMessageReceived(channelHandlerContext, new ResponseMessage(command).withResponse(ret), channel.getRemoteAddress());
+        boolean full;
+        synchronized (channelHandlerContext) {
+            List<CommandMessage> pendingSets = (List<CommandMessage>) channelHandlerContext.getAttachment();
+            if (pendingSets == null) {
+                pendingSets = new ArrayList<CommandMessage>();
+                channelHandlerContext.setAttachment(pendingSets);
+            }
+            pendingSets.add(command);
+            full = pendingSets.size() >= MAX_SET_BATCH_SIZE;
+        }
+        if (full) {
+            flushSets(channelHandlerContext, channel);
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private void flushSets(ChannelHandlerContext channelHandlerContext, Channel channel) {
+        List<CommandMessage> pendingSets;
+        synchronized (channelHandlerContext) {
+            pendingSets = (List<CommandMessage>) channelHandlerContext.getAttachment();
+            if (pendingSets == null || pendingSets.isEmpty()) {
+                return;
+            }
+            channelHandlerContext.setAttachment(null);
+        }
+        SpaceCache.StoreResponse[] responses = null;
+        if (pendingSets.size() > 1) {
+            LocalCacheElement[] elements = new LocalCacheElement[pendingSets.size()];
+            for (int i = 0; i < elements.length; i++) {
+                elements[i] = pendingSets.get(i).element;
+            }
+            try {
+                responses = cache.setMultiple(elements);
+            } catch (RuntimeException e) {
+                if (logger.isDebugEnabled()) {
+                    logger.debug("Failed to store " + elements.length + " pipelined sets together, storing them one by one", e);
+                }
+            }
+        }
+        for (int i = 0; i < pendingSets.size(); i++) {
+            CommandMessage command = pendingSets.get(i);
+            SpaceCache.StoreResponse ret = responses != null ? responses[i] : cache.set(command.element);
+            Channels.fireMessageReceived(channelHandlerContext, new ResponseMessage(command).withResponse(ret), channel.getRemoteAddress());
+        }
     }
 
     protected void handleGets(ChannelHandlerContext channelHandlerContext, CommandMessage command, Channel channel) {
@@ -21,11 +21,14 @@ import org.jboss.netty.buffer.ChannelBuffers;
 import org.jboss.netty.channel.Channel;
 import org.jboss.netty.channel.ChannelHandler;
 import org.jboss.netty.channel.ChannelHandlerContext;
+import org.jboss.netty.channel.Channels;
+import org.jboss.netty.channel.MessageEvent;
 import org.jboss.netty.handler.codec.frame.FrameDecoder;
 import org.openspaces.memcached.Key;
 import org.openspaces.memcached.LocalCacheElement;
 import org.openspaces.memcached.SpaceCache;
 import org.openspaces.memcached.protocol.CommandMessage;
+import org.openspaces.memcached.protocol.MemcachedCommandHandler;
 import org.openspaces.memcached.protocol.Op;
 import org.openspaces.memcached.protocol.exceptions.MalformedCommandException;
 
@@ -121,6 +124,19 @@ public class MemcachedBinaryCommandDecoder extends FrameDecoder {
 
     }
 
+    /**
+     * Decodes all the complete frames of the read, and then lets the command handler know the read
+     * was processed so it can execute the commands it batched.
+     */
+    @Override
+    public void messageReceived(ChannelHandlerContext ctx, MessageEvent e) throws Exception {
+        try {
+            super.messageReceived(ctx, e);
+        } finally {
+            Channels.fireMessageReceived(ctx, MemcachedCommandHandler.END_OF_READ);
+        }
+    }
+
     @Override
     protected Object decode(ChannelHandlerContext channelHandlerContext, Channel channel, ChannelBuffer channelBuffer) throws Exception {
 
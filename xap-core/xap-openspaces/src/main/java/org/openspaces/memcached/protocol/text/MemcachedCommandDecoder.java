@@ -63,6 +63,11 @@ public final class MemcachedCommandDecoder extends SimpleChannelUpstreamHandler
      */
     @Override
     public void messageReceived(ChannelHandlerContext channelHandlerContext, MessageEvent messageEvent) throws Exception {
+        if (!(messageEvent.getMessage() instanceof ChannelBuffer)) {
+            // e.g. the end of read marker, which is handled by the command handler
+            channelHandlerContext.sendUpstream(messageEvent);
+            return;
+        }
         ChannelBuffer in = (ChannelBuffer) messageEvent.getMessage();
 
         try {
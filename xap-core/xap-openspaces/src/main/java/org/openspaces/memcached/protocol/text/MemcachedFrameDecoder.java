@@ -19,8 +19,11 @@ package org.openspaces.memcached.protocol.text;
 import org.jboss.netty.buffer.ChannelBuffer;
 import org.jboss.netty.buffer.ChannelBufferIndexFinder;
 import org.jboss.netty.channel.ChannelHandlerContext;
+import org.jboss.netty.channel.Channels;
+import org.jboss.netty.channel.MessageEvent;
 import org.jboss.netty.handler.codec.frame.FrameDecoder;
 import org.jboss.netty.handler.codec.frame.TooLongFrameException;
+import org.openspaces.memcached.protocol.MemcachedCommandHandler;
 import org.openspaces.memcached.protocol.SessionStatus;
 import org.openspaces.memcached.protocol.exceptions.IncorrectlyTerminatedPayloadException;
 
@@ -55,6 +58,19 @@ public final class MemcachedFrameDecoder extends FrameDecoder {
     }
 
 
+    /**
+     * Decodes all the complete frames of the read, and then lets the command handler know the read
+     * was processed so it can execute the commands it batched.
+     */
+    @Override
+    public void messageReceived(ChannelHandlerContext ctx, MessageEvent e) throws Exception {
+        try {
+            super.messageReceived(ctx, e);
+        } finally {
+            Channels.fireMessageReceived(ctx, MemcachedCommandHandler.END_OF_READ);
+        }
+    }
+
     @Override
     protected Object decode(ChannelHandlerContext ctx, org.jboss.netty.channel.Channel channel, ChannelBuffer buffer) throws Exception {
         // check the state. if we're WAITING_FOR_DATA that means instead of breaking into lines, we need N bytes
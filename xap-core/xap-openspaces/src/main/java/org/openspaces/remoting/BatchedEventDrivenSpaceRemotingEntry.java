@@ -0,0 +1,135 @@
+/*
+ * Copyright (c) 2008-2016, GigaSpaces Technologies, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.openspaces.remoting;
+
+import java.io.IOException;
+import java.io.ObjectInput;
+import java.io.ObjectOutput;
+
+/**
+ * A remoting entry carrying a batch of invocations of the same service that are routed to the same
+ * partition. The exporter executes all of the invocations and writes back a single batch holding
+ * their results (aligned with the invocations), tagged with the id of the client that sent it so
+ * the client can collect the results of all of its batches through a single template.
+ *
+ * @since 14.2
+ */
+public class BatchedEventDrivenSpaceRemotingEntry extends HashedEventDrivenSpaceRemotingEntry {
+
+    private static final long serialVersionUID = 2425213693546187335L;
+
+    public String clientId;
+
+    public Long batchId;
+
+    public HashedEventDrivenSpaceRemotingEntry[] entries;
+
+    public static String[] __getSpaceIndexedFields() {
+        return new String[]{"routing", "clientId"};
+    }
+
+    public String getClientId() {
+        return clientId;
+    }
+
+    public Long getBatchId() {
+        return batchId;
+    }
+
+    public HashedEventDrivenSpaceRemotingEntry[] getEntries() {
+        return entries;
+    }
+
+    public BatchedEventDrivenSpaceRemotingEntry buildBatchInvocation(String lookupName, String clientId, long batchId,
+                                                                     HashedEventDrivenSpaceRemotingEntry[] entries) {
+        setResult(null);
+        setException(null);
+        setInvocation(Boolean.TRUE);
+        setLookupName(lookupName);
+        this.clientId = clientId;
+        this.batchId = batchId;
+        this.entries = entries;
+        return this;
+    }
+
+    /**
+     * Builds a template matching all the batch results written back to the given client.
+     */
+    public BatchedEventDrivenSpaceRemotingEntry buildBatchResultTemplate(String clientId) {
+        buildResultTemplate();
+        this.clientId = clientId;
+        this.batchId = null;
+        this.entries = null;
+        this.routing = null;
+        return this;
+    }
+
+    /**
+     * Turns this batch into the batch result, the given results are aligned with the invocation
+     * entries (a <code>null</code> result stands for a one way invocation).
+     */
+    public BatchedEventDrivenSpaceRemotingEntry buildBatchResult(HashedEventDrivenSpaceRemotingEntry[] results) {
+        buildResult((Object) null);
+        this.entries = results;
+        return this;
+    }
+
+    @Override
+    public void readExternal(ObjectInput in) throws IOException, ClassNotFoundException {
+        super.readExternal(in);
+        if (in.readBoolean()) {
+            clientId = in.readUTF();
+        }
+        if (in.readBoolean()) {
+            batchId = in.readLong();
+        }
+        int length = in.readInt();
+        if (length >= 0) {
+            entries = new HashedEventDrivenSpaceRemotingEntry[length];
+            for (int i = 0; i < length; i++) {
+                entries[i] = (HashedEventDrivenSpaceRemotingEntry) in.readObject();
+            }
+        }
+    }
+
+    @Override
+    public void writeExternal(ObjectOutput out) throws IOException {
+        super.writeExternal(out);
+        out.writeBoolean(clientId != null);
+        if (clientId != null) {
+            out.writeUTF(clientId);
+        }
+        out.writeBoolean(batchId != null);
+        if (batchId != null) {
+            out.writeLong(batchId);
+        }
+        if (entries == null) {
+            out.writeInt(-1);
+        } else {
+            out.writeInt(entries.length);
+            for (HashedEventDrivenSpaceRemotingEntry entry : entries) {
+                out.writeObject(entry);
+            }
+        }
+    }
+
+    @Override
+    public String toString() {
+        return super.toString() + " clientId[" + clientId + "] batchId[" + batchId + "] size[" + (entries == null ? 0 : entries.length) + "]";
+    }
+}
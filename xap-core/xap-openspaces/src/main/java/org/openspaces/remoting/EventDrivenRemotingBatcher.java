@@ -0,0 +1,482 @@
+/*
+ * Copyright (c) 2008-2016, GigaSpaces Technologies, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.openspaces.remoting;
+
+import com.gigaspaces.internal.remoting.routing.partitioned.PartitionedClusterUtils;
+import com.j_spaces.core.IJSpace;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.openspaces.core.GigaSpace;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Batches the invocations of an event driven remoting proxy.
+ *
+ * <p>Invocations are queued and written by whichever invoking thread finds no batch write in
+ * progress, so invocations issued while a write is in progress are written together by the next
+ * one. Queued invocations are grouped by the partition they are routed to and by whether they are
+ * fifo (so fifo invocations are executed in order even through a non fifo proxy) into {@link
+ * BatchedEventDrivenSpaceRemotingEntry} instances of up to <code>batchSize</code> invocations, and
+ * all of them are written with a single <code>writeMultiple</code>.
+ *
+ * <p>The results of all the batches are taken by a single collector thread using a template
+ * matching this client id, which then completes the futures of the matching invocations. A batch
+ * stops being tracked once all its invocations were cancelled, or once the longest timeout of its
+ * invocations elapsed, in which case its pending futures time out.
+ *
+ * @since 14.2
+ */
+class EventDrivenRemotingBatcher {
+
+    private static final Log logger = LogFactory.getLog(EventDrivenRemotingBatcher.class);
+
+    private static final long COLLECTOR_POLL_TIMEOUT = 1000;
+
+    private final GigaSpace gigaSpace;
+
+    private final String lookupName;
+
+    private final int batchSize;
+
+    private final String clientId = UUID.randomUUID().toString();
+
+    private final AtomicLong batchIdGenerator = new AtomicLong();
+
+    private final ConcurrentMap<Long, PendingBatch> pendingBatches = new ConcurrentHashMap<Long, PendingBatch>();
+
+    private final Object queueLock = new Object();
+
+    // guarded by queueLock
+    private List<BatchedRemoteFuture> queue = new ArrayList<BatchedRemoteFuture>();
+
+    // guarded by queueLock
+    private boolean writing;
+
+    private volatile boolean closed;
+
+    private Thread collector;
+
+    // accessed by the collector thread only
+    private long lastExpirationCheck;
+
+    EventDrivenRemotingBatcher(GigaSpace gigaSpace, String lookupName, int batchSize) {
+        if (batchSize < 1) {
+            throw new IllegalArgumentException("batchSize must be positive [" + batchSize + "]");
+        }
+        this.gigaSpace = gigaSpace;
+        this.lookupName = lookupName;
+        this.batchSize = batchSize;
+    }
+
+    /**
+     * Queues the given invocation and returns a future for its result. Returns once the invocation
+     * was written to the space, either by this thread or by a concurrent invoker.
+     *
+     * @param timeout the time in milliseconds to wait for the result before it is no longer
+     *                tracked
+     */
+    public BatchedRemoteFuture invoke(HashedEventDrivenSpaceRemotingEntry invocation, long timeout) {
+        if (closed) {
+            throw new IllegalStateException("Remoting proxy of [" + lookupName + "] is closed");
+        }
+        ensureCollectorStarted();
+        BatchedRemoteFuture future = new BatchedRemoteFuture(invocation, timeout);
+        List<BatchedRemoteFuture> batch;
+        synchronized (queueLock) {
+            queue.add(future);
+            while (writing && !future.written) {
+                try {
+                    queueLock.wait();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new RemoteTimeoutException("Interrupted while writing remote invocation [" + invocation + "]", 0);
+                }
+            }
+            if (future.written) {
+                return future.throwIfFailed();
+            }
+            writing = true;
+            batch = queue;
+            queue = new ArrayList<BatchedRemoteFuture>();
+        }
+
+        RuntimeException error = null;
+        try {
+            write(batch);
+        } catch (RuntimeException e) {
+            error = e;
+        }
+
+        synchronized (queueLock) {
+            for (BatchedRemoteFuture written : batch) {
+                written.written = true;
+                written.writeError = error;
+            }
+            writing = false;
+            queueLock.notifyAll();
+        }
+        return future.throwIfFailed();
+    }
+
+    public void close() {
+        closed = true;
+        Thread collector;
+        synchronized (this) {
+            collector = this.collector;
+            this.collector = null;
+        }
+        if (collector != null) {
+            collector.interrupt();
+        }
+        for (PendingBatch pendingBatch : pendingBatches.values()) {
+            for (BatchedRemoteFuture future : pendingBatch.futures) {
+                if (future != null) {
+                    future.cancel(false);
+                }
+            }
+        }
+        pendingBatches.clear();
+    }
+
+    /**
+     * Returns the number of written batches whose results are still awaited.
+     */
+    int getPendingBatches() {
+        return pendingBatches.size();
+    }
+
+    private synchronized void ensureCollectorStarted() {
+        if (collector != null || closed) {
+            return;
+        }
+        collector = new Thread(new Runnable() {
+            public void run() {
+                collectResults();
+            }
+        }, "GS-RemotingResultCollector-" + lookupName);
+        collector.setDaemon(true);
+        collector.start();
+    }
+
+    private void write(List<BatchedRemoteFuture> batch) {
+        int numOfPartitions = getNumberOfPartitions();
+        Map<Integer, List<BatchedRemoteFuture>> partitions = new LinkedHashMap<Integer, List<BatchedRemoteFuture>>();
+        for (BatchedRemoteFuture future : batch) {
+            int partitionId = PartitionedClusterUtils.getPartitionId(future.invocation.getRouting(), numOfPartitions);
+            // fifo and non fifo invocations of a partition are batched separately
+            int key = future.invocation.isFifo() ? -partitionId - 1 : partitionId;
+            List<BatchedRemoteFuture> partition = partitions.get(key);
+            if (partition == null) {
+                partition = new ArrayList<BatchedRemoteFuture>();
+                partitions.put(key, partition);
+            }
+            partition.add(future);
+        }
+
+        List<BatchedEventDrivenSpaceRemotingEntry> entries = new ArrayList<BatchedEventDrivenSpaceRemotingEntry>();
+        List<Long> batchIds = new ArrayList<Long>();
+        for (List<BatchedRemoteFuture> partition : partitions.values()) {
+            for (int from = 0; from < partition.size(); from += batchSize) {
+                List<BatchedRemoteFuture> chunk = partition.subList(from, Math.min(partition.size(), from + batchSize));
+                HashedEventDrivenSpaceRemotingEntry[] invocations = new HashedEventDrivenSpaceRemotingEntry[chunk.size()];
+                BatchedRemoteFuture[] futures = new BatchedRemoteFuture[chunk.size()];
+                int expectedResults = 0;
+                long timeout = 0;
+                for (int i = 0; i < invocations.length; i++) {
+                    invocations[i] = chunk.get(i).invocation;
+                    if (!isOneWay(invocations[i])) {
+                        futures[i] = chunk.get(i);
+                        expectedResults++;
+                        timeout = Math.max(timeout, futures[i].timeout);
+                    }
+                }
+                long batchId = batchIdGenerator.incrementAndGet();
+                BatchedEventDrivenSpaceRemotingEntry entry = new BatchedEventDrivenSpaceRemotingEntry()
+                        .buildBatchInvocation(lookupName, clientId, batchId, invocations);
+                entry.setRouting(invocations[0].getRouting());
+                entry.setFifo(invocations[0].isFifo());
+                entries.add(entry);
+                if (expectedResults != 0) {
+                    long expiration = timeout > Long.MAX_VALUE - System.currentTimeMillis()
+                            ? Long.MAX_VALUE : System.currentTimeMillis() + timeout;
+                    PendingBatch pendingBatch = new PendingBatch(batchId, futures, expectedResults, expiration);
+                    for (BatchedRemoteFuture future : futures) {
+                        if (future != null) {
+                            future.pendingBatch = pendingBatch;
+                        }
+                    }
+                    pendingBatches.put(batchId, pendingBatch);
+                    batchIds.add(batchId);
+                }
+            }
+        }
+
+        try {
+            gigaSpace.writeMultiple(entries.toArray(new BatchedEventDrivenSpaceRemotingEntry[entries.size()]));
+        } catch (RuntimeException e) {
+            for (Long batchId : batchIds) {
+                pendingBatches.remove(batchId);
+            }
+            throw e;
+        }
+        if (logger.isTraceEnabled()) {
+            logger.trace("Wrote " + batch.size() + " invocations of [" + lookupName + "] in " + entries.size() + " batches");
+        }
+    }
+
+    private int getNumberOfPartitions() {
+        IJSpace space = gigaSpace.getSpace();
+        if (space.getDirectProxy() == null || space.getDirectProxy().getSpaceClusterInfo() == null) {
+            return 1;
+        }
+        return Math.max(1, space.getDirectProxy().getSpaceClusterInfo().getNumberOfPartitions());
+    }
+
+    private void collectResults() {
+        BatchedEventDrivenSpaceRemotingEntry template = new BatchedEventDrivenSpaceRemotingEntry().buildBatchResultTemplate(clientId);
+        while (!closed) {
+            try {
+                BatchedEventDrivenSpaceRemotingEntry result = gigaSpace.take(template, COLLECTOR_POLL_TIMEOUT);
+                if (result != null) {
+                    complete(result);
+                    for (BatchedEventDrivenSpaceRemotingEntry other : gigaSpace.takeMultiple(template, Integer.MAX_VALUE)) {
+                        complete(other);
+                    }
+                }
+                long now = System.currentTimeMillis();
+                if (now - lastExpirationCheck >= COLLECTOR_POLL_TIMEOUT) {
+                    lastExpirationCheck = now;
+                    expirePendingBatches(now);
+                }
+            } catch (Exception e) {
+                if (closed) {
+                    return;
+                }
+                logger.warn("Failed to collect remoting results of [" + lookupName + "]", e);
+                try {
+                    Thread.sleep(COLLECTOR_POLL_TIMEOUT);
+                } catch (InterruptedException ie) {
+                    return;
+                }
+            }
+        }
+    }
+
+    void complete(BatchedEventDrivenSpaceRemotingEntry result) {
+        PendingBatch pendingBatch = pendingBatches.remove(result.getBatchId());
+        if (pendingBatch == null) {
+            // the invokers of this batch gave up waiting for it
+            return;
+        }
+        BatchedRemoteFuture[] futures = pendingBatch.futures;
+        HashedEventDrivenSpaceRemotingEntry[] results = result.getEntries();
+        for (int i = 0; i < futures.length; i++) {
+            if (futures[i] != null) {
+                futures[i].complete(results[i]);
+            }
+        }
+    }
+
+    /**
+     * Stops tracking the batches whose results did not arrive in time, their futures time out.
+     */
+    void expirePendingBatches(long now) {
+        for (Iterator<PendingBatch> iterator = pendingBatches.values().iterator(); iterator.hasNext(); ) {
+            PendingBatch pendingBatch = iterator.next();
+            if (pendingBatch.expiration > now) {
+                continue;
+            }
+            iterator.remove();
+            for (BatchedRemoteFuture future : pendingBatch.futures) {
+                if (future != null) {
+                    future.expire();
+                }
+            }
+        }
+    }
+
+    private static boolean isOneWay(SpaceRemotingEntry invocation) {
+        return invocation.getOneWay() != null && invocation.getOneWay();
+    }
+
+    /**
+     * The futures of a written batch awaiting its result.
+     */
+    private class PendingBatch {
+
+        private final long batchId;
+
+        private final BatchedRemoteFuture[] futures;
+
+        private final long expiration;
+
+        // guarded by this
+        private int awaited;
+
+        private PendingBatch(long batchId, BatchedRemoteFuture[] futures, int awaited, long expiration) {
+            this.batchId = batchId;
+            this.futures = futures;
+            this.awaited = awaited;
+            this.expiration = expiration;
+        }
+
+        private void cancelled() {
+            boolean abandoned;
+            synchronized (this) {
+                abandoned = --awaited == 0;
+            }
+            if (abandoned) {
+                pendingBatches.remove(batchId, this);
+            }
+        }
+    }
+
+    /**
+     * A future of a batched remote invocation which is completed by the result collector.
+     */
+    static class BatchedRemoteFuture<T> implements Future<T> {
+
+        private final HashedEventDrivenSpaceRemotingEntry invocation;
+
+        private final long timeout;
+
+        // guarded by the batcher queueLock
+        private boolean written;
+
+        private RuntimeException writeError;
+
+        // set before the batch is written
+        private volatile PendingBatch pendingBatch;
+
+        private SpaceRemotingEntry remoteResult;
+
+        private boolean cancelled;
+
+        private boolean expired;
+
+        private BatchedRemoteFuture(HashedEventDrivenSpaceRemotingEntry invocation, long timeout) {
+            this.invocation = invocation;
+            this.timeout = timeout;
+        }
+
+        private BatchedRemoteFuture throwIfFailed() {
+            if (writeError != null) {
+                throw writeError;
+            }
+            return this;
+        }
+
+        private synchronized void complete(SpaceRemotingEntry remoteResult) {
+            if (cancelled || expired) {
+                return;
+            }
+            this.remoteResult = remoteResult;
+            notifyAll();
+        }
+
+        private synchronized void expire() {
+            if (remoteResult == null && !cancelled) {
+                expired = true;
+                notifyAll();
+            }
+        }
+
+        /**
+         * Marks the invocation as cancelled, its result is ignored once it arrives. Note, the
+         * invocation itself is not taken back from the space as it is part of a batch.
+         */
+        public boolean cancel(boolean mayInterruptIfRunning) {
+            synchronized (this) {
+                if (remoteResult != null || cancelled) {
+                    return false;
+                }
+                cancelled = true;
+                notifyAll();
+            }
+            PendingBatch pendingBatch = this.pendingBatch;
+            if (pendingBatch != null) {
+                pendingBatch.cancelled();
+            }
+            return true;
+        }
+
+        public synchronized boolean isCancelled() {
+            return cancelled;
+        }
+
+        public synchronized boolean isDone() {
+            return cancelled || expired || remoteResult != null;
+        }
+
+        public T get() throws InterruptedException, ExecutionException {
+            try {
+                return get(Long.MAX_VALUE, TimeUnit.MILLISECONDS);
+            } catch (TimeoutException e) {
+                throw new IllegalStateException(e);
+            }
+        }
+
+        public synchronized T get(long timeout, TimeUnit unit) throws InterruptedException, ExecutionException, TimeoutException {
+            SpaceRemotingEntry result = await(unit.toMillis(timeout));
+            if (result == null) {
+                throw new TimeoutException("Timeout waiting for remote invocation [" + invocation + "] for [" + unit.toMillis(timeout) + "] milliseconds");
+            }
+            if (result.getException() != null) {
+                throw new SpaceRemoteExecutionException(invocation, result);
+            }
+            //noinspection unchecked
+            return (T) result.getResult();
+        }
+
+        /**
+         * Waits for the result entry of this invocation, returns <code>null</code> on timeout.
+         */
+        synchronized SpaceRemotingEntry await(long timeout) throws InterruptedException {
+            long deadline = timeout == Long.MAX_VALUE ? Long.MAX_VALUE : System.currentTimeMillis() + timeout;
+            while (remoteResult == null) {
+                if (cancelled) {
+                    throw new CancellationException();
+                }
+                if (expired) {
+                    return null;
+                }
+                long remaining = deadline - System.currentTimeMillis();
+                if (remaining <= 0) {
+                    return null;
+                }
+                wait(remaining);
+            }
+            return remoteResult;
+        }
+    }
+}
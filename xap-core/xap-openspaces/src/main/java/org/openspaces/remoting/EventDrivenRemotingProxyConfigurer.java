@@ -102,6 +102,22 @@ public class EventDrivenRemotingProxyConfigurer<T> {
         return this;
     }
 
+    /**
+     * @see org.openspaces.remoting.EventDrivenSpaceRemotingProxyFactoryBean#setBatching(boolean)
+     */
+    public EventDrivenRemotingProxyConfigurer<T> batching(boolean batching) {
+        eventDrivenFactoryBean.setBatching(batching);
+        return this;
+    }
+
+    /**
+     * @see org.openspaces.remoting.EventDrivenSpaceRemotingProxyFactoryBean#setBatchSize(int)
+     */
+    public EventDrivenRemotingProxyConfigurer<T> batchSize(int batchSize) {
+        eventDrivenFactoryBean.setBatchSize(batchSize);
+        return this;
+    }
+
     /**
      * Creates a new event driven proxy of type T
      */
@@ -22,6 +22,7 @@ import org.aopalliance.intercept.MethodInvocation;
 import org.openspaces.core.GigaSpace;
 import org.springframework.aop.framework.ProxyFactory;
 import org.springframework.beans.BeansException;
+import org.springframework.beans.factory.DisposableBean;
 import org.springframework.beans.factory.FactoryBean;
 import org.springframework.beans.factory.InitializingBean;
 import org.springframework.context.ApplicationContext;
@@ -82,11 +83,16 @@ import static org.openspaces.remoting.RemotingUtils.createByClassOrFindByName;
  * {@link RemoteResultReducer}, {@link RemoteRoutingHandler}, {@link RemoteInvocationAspect} and
  * {@link MetaArgumentsHandler} using the {@link EventDrivenRemotingMethod} annotation.
  *
+ * <p>Invocations can be batched by setting {@link #setBatching(boolean)}. Concurrent invocations
+ * routed to the same partition are then written together as a single {@link
+ * BatchedEventDrivenSpaceRemotingEntry} which the exporter processes as a whole, and the results are
+ * collected for all of the invokers of this proxy through a single result template.
+ *
  * @author kimchy
  * @see SpaceRemotingServiceExporter
  */
 public class EventDrivenSpaceRemotingProxyFactoryBean extends RemoteAccessor implements FactoryBean, InitializingBean,
-        MethodInterceptor, RemotingInvoker, ApplicationContextAware {
+        DisposableBean, MethodInterceptor, RemotingInvoker, ApplicationContextAware {
 
     public static final String DEFAULT_ASYNC_METHOD_PREFIX = "async";
 
@@ -110,6 +116,12 @@ public class EventDrivenSpaceRemotingProxyFactoryBean extends RemoteAccessor imp
 
     private RemoteInvocationAspect remoteInvocationAspect;
 
+    private boolean batching = false;
+
+    private int batchSize = 100;
+
+    private EventDrivenRemotingBatcher batcher;
+
     private Object serviceProxy;
 
     private Map<Method, RemotingUtils.MethodHash> methodHashLookup;
@@ -198,11 +210,39 @@ public class EventDrivenSpaceRemotingProxyFactoryBean extends RemoteAccessor imp
         this.remoteInvocationAspect = remoteInvocationAspect;
     }
 
+    /**
+     * If set to <code>true</code> (defaults to <code>false</code>) concurrent invocations are
+     * batched. Invocations routed to the same partition are written as a single batch entry, the
+     * exporter processes the batch as a whole and writes back a single batch result. Note, the
+     * exporter event container should not use a receive handler that takes invocations by {@link
+     * SpaceRemotingEntry#getLookupName()} unless it matches this proxy service interface.
+     */
+    public void setBatching(boolean batching) {
+        this.batching = batching;
+    }
+
+    /**
+     * Sets the maximum number of invocations written in a single batch entry when batching is
+     * enabled. Defaults to <code>100</code>.
+     */
+    public void setBatchSize(int batchSize) {
+        this.batchSize = batchSize;
+    }
+
     public void afterPropertiesSet() {
         Assert.notNull(getServiceInterface(), "serviceInterface property is required");
         Assert.notNull(gigaSpace, "gigaSpace property is required");
         this.serviceProxy = ProxyFactory.getProxy(getServiceInterface(), this);
         this.methodHashLookup = RemotingUtils.buildMethodToHashLookupForInterface(getServiceInterface(), asyncMethodPrefix);
+        if (batching) {
+            this.batcher = new EventDrivenRemotingBatcher(gigaSpace, getServiceInterface().getName(), batchSize);
+        }
+    }
+
+    public void destroy() {
+        if (batcher != null) {
+            batcher.close();
+        }
     }
 
     public Object getObject() {
@@ -303,6 +343,10 @@ public class EventDrivenSpaceRemotingProxyFactoryBean extends RemoteAccessor imp
         }
         remotingEntry.setFifo(localFifo);
 
+        if (batcher != null) {
+            return invokeBatched(remotingEntry, asyncExecution, localTimeout, lookupName, methodName);
+        }
+
         gigaSpace.write(remotingEntry);
 
         // if this is a one way invocation, simply return null
@@ -325,4 +369,27 @@ public class EventDrivenSpaceRemotingProxyFactoryBean extends RemoteAccessor imp
         }
         return invokeResult.getResult();
     }
-}
\ No newline at end of file
+
+    private Object invokeBatched(SpaceRemotingEntry remotingEntry, boolean asyncExecution, long localTimeout,
+                                 String lookupName, String methodName) throws Throwable {
+        EventDrivenRemotingBatcher.BatchedRemoteFuture future = batcher.invoke((HashedEventDrivenSpaceRemotingEntry) remotingEntry, localTimeout);
+
+        if (remotingEntry.getOneWay() != null && remotingEntry.getOneWay()) {
+            return null;
+        }
+        if (asyncExecution) {
+            return future;
+        }
+
+        SpaceRemotingEntry invokeResult = future.await(localTimeout);
+        if (invokeResult == null) {
+            future.cancel(false);
+            throw new RemoteTimeoutException("Timeout waiting for result for [" + lookupName +
+                    "] and method [" + methodName + "]", localTimeout);
+        }
+        if (invokeResult.getException() != null) {
+            throw invokeResult.getException();
+        }
+        return invokeResult.getResult();
+    }
+}
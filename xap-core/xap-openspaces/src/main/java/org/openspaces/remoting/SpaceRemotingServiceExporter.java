@@ -20,6 +20,7 @@ package org.openspaces.remoting;
 import com.gigaspaces.internal.reflection.IMethod;
 import com.gigaspaces.internal.reflection.ReflectionUtil;
 import com.gigaspaces.internal.reflection.standard.StandardMethod;
+import com.j_spaces.kernel.threadpool.DynamicExecutors;
 
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
@@ -34,6 +35,7 @@ import org.openspaces.pu.service.ServiceDetailsProvider;
 import org.openspaces.pu.service.ServiceMonitors;
 import org.openspaces.pu.service.ServiceMonitorsProvider;
 import org.springframework.beans.factory.BeanNameAware;
+import org.springframework.beans.factory.DisposableBean;
 import org.springframework.beans.factory.InitializingBean;
 import org.springframework.beans.factory.NoSuchBeanDefinitionException;
 import org.springframework.beans.factory.config.AutowireCapableBeanFactory;
@@ -55,7 +57,12 @@ import java.util.IdentityHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.Callable;
 import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicLong;
 
@@ -92,7 +99,7 @@ import java.util.concurrent.atomic.AtomicLong;
  * @see SpaceRemotingEntry
  * @see EventDrivenSpaceRemotingProxyFactoryBean
  */
-public class SpaceRemotingServiceExporter implements SpaceDataEventListener<SpaceRemotingEntry>, InitializingBean, ApplicationContextAware, BeanNameAware,
+public class SpaceRemotingServiceExporter implements SpaceDataEventListener<SpaceRemotingEntry>, InitializingBean, DisposableBean, ApplicationContextAware, BeanNameAware,
         EventTemplateProvider, ClusterInfoAware, ApplicationListener, ServiceDetailsProvider, ServiceMonitorsProvider {
 
     public static final String DEFAULT_ASYNC_INTERFACE_SUFFIX = "Async";
@@ -136,6 +143,10 @@ public class SpaceRemotingServiceExporter implements SpaceDataEventListener<Spac
     // for backward comp
     final private MethodInvocationCache methodInvocationCache = new MethodInvocationCache();
 
+    private int batchConcurrency = Runtime.getRuntime().availableProcessors();
+
+    private volatile ExecutorService batchExecutor;
+
     private volatile boolean initialized = false;
 
     final private CountDownLatch initializationLatch = new CountDownLatch(1);
@@ -205,6 +216,16 @@ public class SpaceRemotingServiceExporter implements SpaceDataEventListener<Spac
         this.templateLookupName = templateLookupName;
     }
 
+    /**
+     * Sets the maximum number of invocations of a single batched invocation entry (see {@link
+     * EventDrivenSpaceRemotingProxyFactoryBean#setBatching(boolean)}) which are executed
+     * concurrently. Fifo and transactional batches are always executed in order. Defaults to the
+     * number of available processors, <code>1</code> executes every batch in order.
+     */
+    public void setBatchConcurrency(int batchConcurrency) {
+        this.batchConcurrency = batchConcurrency;
+    }
+
     /**
      * Application context injected by Spring
      */
@@ -236,6 +257,14 @@ public class SpaceRemotingServiceExporter implements SpaceDataEventListener<Spac
         }
     }
 
+    public void destroy() throws Exception {
+        ExecutorService executor = batchExecutor;
+        if (executor != null) {
+            batchExecutor = null;
+            executor.shutdown();
+        }
+    }
+
     @Override
     public void onApplicationEvent(ApplicationEvent applicationEvent) {
         if (applicationEvent instanceof ContextRefreshedEvent) {
@@ -315,6 +344,10 @@ public class SpaceRemotingServiceExporter implements SpaceDataEventListener<Spac
      * relevant method within it using the provided method name and arguments. Write the result
      * value or invocation exception back to the space using {@link SpaceRemotingEntry}.
      *
+     * <p>A {@link BatchedEventDrivenSpaceRemotingEntry} is processed as a whole, each of its
+     * invocations is executed in order and a single batch holding all of the results is written
+     * back to the space.
+     *
      * @param remotingEntry The remote entry object
      * @param gigaSpace     The GigaSpace interface
      * @param txStatus      A transactional status
@@ -325,6 +358,104 @@ public class SpaceRemotingServiceExporter implements SpaceDataEventListener<Spac
 
         waitTillInitialized();
 
+        if (remotingEntry instanceof BatchedEventDrivenSpaceRemotingEntry) {
+            onBatchEvent((BatchedEventDrivenSpaceRemotingEntry) remotingEntry, gigaSpace, txStatus);
+            return;
+        }
+
+        SpaceRemotingEntry result = execute(remotingEntry);
+        if (result != null) {
+            gigaSpace.write(result);
+        }
+    }
+
+    private void onBatchEvent(BatchedEventDrivenSpaceRemotingEntry batchEntry, GigaSpace gigaSpace, TransactionStatus txStatus) {
+        HashedEventDrivenSpaceRemotingEntry[] invocations = batchEntry.getEntries();
+        HashedEventDrivenSpaceRemotingEntry[] results;
+        // the invocations of a fifo batch must keep their order, and a transaction is bound to this thread
+        boolean ordered = batchConcurrency <= 1 || invocations.length == 1 || txStatus != null
+                || batchEntry.isFifo();
+        if (ordered) {
+            results = new HashedEventDrivenSpaceRemotingEntry[invocations.length];
+            for (int i = 0; i < invocations.length; i++) {
+                results[i] = (HashedEventDrivenSpaceRemotingEntry) execute(invocations[i]);
+            }
+        } else {
+            results = executeConcurrently(invocations);
+        }
+        boolean hasResults = false;
+        for (HashedEventDrivenSpaceRemotingEntry result : results) {
+            hasResults |= result != null;
+        }
+        if (!hasResults) {
+            return;
+        }
+        BatchedEventDrivenSpaceRemotingEntry batchResult = batchEntry.buildBatchResult(results);
+        if (clusterInfo != null) {
+            batchResult.setInstanceId(clusterInfo.getInstanceId());
+        }
+        gigaSpace.write(batchResult);
+    }
+
+    /**
+     * Executes the invocations of a batch on the batch executor, the first one on the calling
+     * thread, and waits for all of them to complete.
+     */
+    private HashedEventDrivenSpaceRemotingEntry[] executeConcurrently(final HashedEventDrivenSpaceRemotingEntry[] invocations) {
+        ExecutorService executor = getBatchExecutor();
+        List<Future<SpaceRemotingEntry>> futures = new ArrayList<Future<SpaceRemotingEntry>>(invocations.length - 1);
+        for (int i = 1; i < invocations.length; i++) {
+            final HashedEventDrivenSpaceRemotingEntry invocation = invocations[i];
+            futures.add(executor.submit(new Callable<SpaceRemotingEntry>() {
+                public SpaceRemotingEntry call() {
+                    return execute(invocation);
+                }
+            }));
+        }
+        HashedEventDrivenSpaceRemotingEntry[] results = new HashedEventDrivenSpaceRemotingEntry[invocations.length];
+        results[0] = (HashedEventDrivenSpaceRemotingEntry) execute(invocations[0]);
+        boolean interrupted = false;
+        for (int i = 1; i < invocations.length; i++) {
+            Future<SpaceRemotingEntry> future = futures.get(i - 1);
+            while (true) {
+                try {
+                    results[i] = (HashedEventDrivenSpaceRemotingEntry) future.get();
+                    break;
+                } catch (InterruptedException e) {
+                    // the results of invocations which were already executed must be written back
+                    interrupted = true;
+                } catch (ExecutionException e) {
+                    results[i] = (HashedEventDrivenSpaceRemotingEntry) buildResponse(invocations[i], e.getCause());
+                    break;
+                }
+            }
+        }
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+        return results;
+    }
+
+    private ExecutorService getBatchExecutor() {
+        ExecutorService executor = batchExecutor;
+        if (executor == null) {
+            synchronized (this) {
+                executor = batchExecutor;
+                if (executor == null) {
+                    executor = Executors.newFixedThreadPool(batchConcurrency - 1,
+                            DynamicExecutors.daemonThreadFactory(beanName + "-batch"));
+                    batchExecutor = executor;
+                }
+            }
+        }
+        return executor;
+    }
+
+    /**
+     * Executes the given invocation and returns its result entry, or <code>null</code> if the
+     * invocation is a one way invocation.
+     */
+    private SpaceRemotingEntry execute(SpaceRemotingEntry remotingEntry) {
         String lookupName = remotingEntry.getLookupName();
         if (lookupName.endsWith(asyncInterfaceSuffix)) {
             lookupName = lookupName.substring(0, lookupName.length() - asyncInterfaceSuffix.length());
@@ -339,9 +470,8 @@ public class SpaceRemotingServiceExporter implements SpaceDataEventListener<Spac
                 // do nothing, write back a proper exception
             }
             if (service == null) {
-                writeResponse(gigaSpace, remotingEntry, new RemoteLookupFailureException(
+                return buildResponse(remotingEntry, new RemoteLookupFailureException(
                         "Failed to find service for lookup [" + remotingEntry.getLookupName() + "]"));
-                return;
             }
         }
 
@@ -357,9 +487,8 @@ public class SpaceRemotingServiceExporter implements SpaceDataEventListener<Spac
             }
         } catch (Exception e) {
             failedExecution(service);
-            writeResponse(gigaSpace, remotingEntry, new RemoteLookupFailureException("Failed to find method ["
+            return buildResponse(remotingEntry, new RemoteLookupFailureException("Failed to find method ["
                     + remotingEntry.getMethodName() + "] for lookup [" + remotingEntry.getLookupName() + "]", e));
-            return;
         }
         try {
             Object retVal;
@@ -368,43 +497,46 @@ public class SpaceRemotingServiceExporter implements SpaceDataEventListener<Spac
             } else {
                 retVal = method.invoke(service, remotingEntry.getArguments());
             }
-            writeResponse(gigaSpace, remotingEntry, retVal);
+            SpaceRemotingEntry result = buildResponse(remotingEntry, retVal);
             processedExecution(service);
+            return result;
         } catch (InvocationTargetException e) {
             failedExecution(service);
-            writeResponse(gigaSpace, remotingEntry, e.getTargetException());
+            return buildResponse(remotingEntry, e.getTargetException());
         } catch (IllegalAccessException e) {
             failedExecution(service);
-            writeResponse(gigaSpace, remotingEntry, new RemoteLookupFailureException("Failed to access method ["
+            return buildResponse(remotingEntry, new RemoteLookupFailureException("Failed to access method ["
                     + remotingEntry.getMethodName() + "] for lookup [" + remotingEntry.getLookupName() + "]", e));
         } catch (Throwable e) {
             failedExecution(service);
-            writeResponse(gigaSpace, remotingEntry, e);
+            return buildResponse(remotingEntry, e);
         }
     }
 
-    private void writeResponse(GigaSpace gigaSpace, SpaceRemotingEntry remotingEntry, Throwable e) {
+    private SpaceRemotingEntry buildResponse(SpaceRemotingEntry remotingEntry, Throwable e) {
         if (remotingEntry.getOneWay() == null || !remotingEntry.getOneWay()) {
             SpaceRemotingEntry result = remotingEntry.buildResult(e);
             if (clusterInfo != null) {
                 result.setInstanceId(clusterInfo.getInstanceId());
             }
-            gigaSpace.write(result);
+            return result;
         } else {
             if (logger.isDebugEnabled()) {
                 logger.debug("Remoting execution is configured as one way and an exception was thrown", e);
             }
+            return null;
         }
     }
 
-    private void writeResponse(GigaSpace gigaSpace, SpaceRemotingEntry remotingEntry, Object retVal) {
+    private SpaceRemotingEntry buildResponse(SpaceRemotingEntry remotingEntry, Object retVal) {
         if (remotingEntry.getOneWay() == null || !remotingEntry.getOneWay()) {
             SpaceRemotingEntry result = remotingEntry.buildResult(retVal);
             if (clusterInfo != null) {
                 result.setInstanceId(clusterInfo.getInstanceId());
             }
-            gigaSpace.write(result);
+            return result;
         }
+        return null;
     }
 
     private void autowireArguments(Object service, Object[] args) {
@@ -0,0 +1,315 @@
+/*
+ * Copyright (c) 2008-2016, GigaSpaces Technologies, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.openspaces.remoting;
+
+import com.j_spaces.core.IJSpace;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.openspaces.core.GigaSpace;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Runs the batcher against a fake space which records the written batches and hands the results
+ * written by the test to the result collector.
+ */
+public class EventDrivenRemotingBatcherTests {
+
+    private static final long TIMEOUT = 10000;
+
+    private FakeSpace space;
+    private EventDrivenRemotingBatcher batcher;
+
+    @Before
+    public void setUp() {
+        space = new FakeSpace();
+        batcher = new EventDrivenRemotingBatcher(space.gigaSpace, "service", 2);
+    }
+
+    @After
+    public void tearDown() {
+        batcher.close();
+    }
+
+    @Test
+    public void testInvocationsQueuedDuringWriteAreBatchedByBatchSize() throws Exception {
+        space.blockNextWrite();
+        final List<EventDrivenRemotingBatcher.BatchedRemoteFuture> futures = invokeConcurrently(5);
+
+        // the first invocation is written on its own, the four queued behind it in batches of two
+        Assert.assertEquals(2, space.written.size());
+        Assert.assertEquals(1, space.written.get(0).length);
+        Assert.assertEquals(1, space.written.get(0)[0].getEntries().length);
+        Assert.assertEquals(2, space.written.get(1).length);
+        for (BatchedEventDrivenSpaceRemotingEntry entry : space.written.get(1)) {
+            Assert.assertEquals(2, entry.getEntries().length);
+            Assert.assertEquals("service", entry.getLookupName());
+        }
+        Assert.assertEquals(3, batcher.getPendingBatches());
+
+        respondToAll();
+        for (EventDrivenRemotingBatcher.BatchedRemoteFuture future : futures)
+            future.get(TIMEOUT, TimeUnit.MILLISECONDS);
+        Assert.assertEquals(0, batcher.getPendingBatches());
+    }
+
+    @Test
+    public void testResultsAreDemultiplexedToTheirInvocations() throws Exception {
+        space.blockNextWrite();
+        List<EventDrivenRemotingBatcher.BatchedRemoteFuture> futures = invokeConcurrently(5);
+        respondToAll();
+        for (int i = 0; i < futures.size(); i++)
+            Assert.assertEquals("result-" + i, futures.get(i).get(TIMEOUT, TimeUnit.MILLISECONDS));
+    }
+
+    @Test
+    public void testOneWayInvocationsAreNotAwaited() throws Exception {
+        HashedEventDrivenSpaceRemotingEntry invocation = invocation(1);
+        invocation.setOneWay(Boolean.TRUE);
+        batcher.invoke(invocation, TIMEOUT);
+        Assert.assertEquals(1, space.written.size());
+        Assert.assertEquals(0, batcher.getPendingBatches());
+    }
+
+    @Test
+    public void testExpiredBatchTimesOutItsInvocations() throws Exception {
+        EventDrivenRemotingBatcher.BatchedRemoteFuture future = batcher.invoke(invocation(1), TIMEOUT);
+        Assert.assertEquals(1, batcher.getPendingBatches());
+
+        batcher.expirePendingBatches(System.currentTimeMillis());
+        Assert.assertEquals(1, batcher.getPendingBatches());
+
+        batcher.expirePendingBatches(System.currentTimeMillis() + TIMEOUT);
+        Assert.assertEquals(0, batcher.getPendingBatches());
+        Assert.assertTrue(future.isDone());
+        try {
+            future.get(TIMEOUT, TimeUnit.MILLISECONDS);
+            Assert.fail("expired invocation should time out");
+        } catch (TimeoutException e) {
+            // expected
+        }
+
+        // a late result is ignored
+        respondToAll();
+        Assert.assertNull(future.await(0));
+    }
+
+    @Test
+    public void testExpiredBatchesAreRemovedByTheCollector() throws Exception {
+        batcher.invoke(invocation(1), 0);
+        long deadline = System.currentTimeMillis() + TIMEOUT;
+        while (batcher.getPendingBatches() != 0 && System.currentTimeMillis() < deadline)
+            Thread.sleep(10);
+        Assert.assertEquals(0, batcher.getPendingBatches());
+    }
+
+    @Test
+    public void testCancelledBatchIsNoLongerTracked() throws Exception {
+        space.blockNextWrite();
+        List<EventDrivenRemotingBatcher.BatchedRemoteFuture> futures = invokeConcurrently(3);
+        Assert.assertEquals(2, batcher.getPendingBatches());
+
+        // the second batch holds two invocations, it is tracked until both are cancelled
+        Assert.assertTrue(futures.get(1).cancel(false));
+        Assert.assertFalse(futures.get(1).cancel(false));
+        Assert.assertEquals(2, batcher.getPendingBatches());
+        futures.get(2).cancel(false);
+        futures.get(0).cancel(false);
+        Assert.assertEquals(0, batcher.getPendingBatches());
+        try {
+            futures.get(0).get(TIMEOUT, TimeUnit.MILLISECONDS);
+            Assert.fail("cancelled invocation should not return a result");
+        } catch (CancellationException e) {
+            // expected
+        }
+    }
+
+    @Test
+    public void testFifoInvocationsAreBatchedSeparately() throws Exception {
+        // the batcher is shared by all the methods of a non fifo proxy, some of which are fifo
+        space.blockNextWrite();
+        List<EventDrivenRemotingBatcher.BatchedRemoteFuture> futures = invokeConcurrently(5, true);
+
+        Assert.assertEquals(2, space.written.size());
+        Assert.assertFalse(space.written.get(0)[0].isFifo());
+        Assert.assertEquals(2, space.written.get(1).length);
+        boolean fifoBatchWritten = false;
+        for (BatchedEventDrivenSpaceRemotingEntry entry : space.written.get(1)) {
+            Assert.assertEquals(2, entry.getEntries().length);
+            for (HashedEventDrivenSpaceRemotingEntry invocation : entry.getEntries())
+                Assert.assertEquals(entry.isFifo(), invocation.isFifo());
+            fifoBatchWritten |= entry.isFifo();
+        }
+        Assert.assertTrue(fifoBatchWritten);
+
+        respondToAll();
+        for (int i = 0; i < futures.size(); i++)
+            Assert.assertEquals("result-" + i, futures.get(i).get(TIMEOUT, TimeUnit.MILLISECONDS));
+    }
+
+    @Test
+    public void testWriteFailureIsPropagatedAndNotTracked() {
+        space.failNextWrite();
+        try {
+            batcher.invoke(invocation(1), TIMEOUT);
+            Assert.fail("write failure should be propagated");
+        } catch (IllegalStateException e) {
+            Assert.assertEquals("write failed", e.getMessage());
+        }
+        Assert.assertEquals(0, batcher.getPendingBatches());
+    }
+
+    /**
+     * Invokes the first invocation, whose write blocks, and the others while it is blocked. Returns
+     * the futures ordered by invocation, once all were written. The first future is the one of the
+     * blocked write.
+     */
+    private List<EventDrivenRemotingBatcher.BatchedRemoteFuture> invokeConcurrently(int count) throws Exception {
+        return invokeConcurrently(count, false);
+    }
+
+    /**
+     * Same as {@link #invokeConcurrently(int)}, the odd invocations are fifo if
+     * <code>oddFifo</code> is set.
+     */
+    private List<EventDrivenRemotingBatcher.BatchedRemoteFuture> invokeConcurrently(int count, final boolean oddFifo) throws Exception {
+        final EventDrivenRemotingBatcher.BatchedRemoteFuture[] futures = new EventDrivenRemotingBatcher.BatchedRemoteFuture[count];
+        Thread[] threads = new Thread[count];
+        for (int i = 0; i < count; i++) {
+            final int index = i;
+            threads[i] = new Thread() {
+                @Override
+                public void run() {
+                    HashedEventDrivenSpaceRemotingEntry invocation = invocation(index);
+                    invocation.setFifo(oddFifo && index % 2 == 1);
+                    futures[index] = batcher.invoke(invocation, TIMEOUT);
+                }
+            };
+            threads[i].start();
+            if (i == 0) {
+                space.writeStarted.await();
+            } else {
+                // wait until the invocation is queued behind the blocked write
+                while (threads[i].getState() != Thread.State.WAITING)
+                    Thread.sleep(1);
+            }
+        }
+        space.releaseWrite.countDown();
+        for (Thread thread : threads)
+            thread.join();
+        List<EventDrivenRemotingBatcher.BatchedRemoteFuture> result = new ArrayList<EventDrivenRemotingBatcher.BatchedRemoteFuture>();
+        for (EventDrivenRemotingBatcher.BatchedRemoteFuture future : futures)
+            result.add(future);
+        return result;
+    }
+
+    /**
+     * Writes a result for every written batch the way the service exporter does.
+     */
+    private void respondToAll() {
+        for (BatchedEventDrivenSpaceRemotingEntry[] entries : space.written) {
+            for (BatchedEventDrivenSpaceRemotingEntry entry : entries) {
+                HashedEventDrivenSpaceRemotingEntry[] invocations = entry.getEntries();
+                HashedEventDrivenSpaceRemotingEntry[] results = new HashedEventDrivenSpaceRemotingEntry[invocations.length];
+                for (int i = 0; i < invocations.length; i++) {
+                    results[i] = new HashedEventDrivenSpaceRemotingEntry();
+                    results[i].buildResult("result-" + invocations[i].getArguments()[0]);
+                }
+                BatchedEventDrivenSpaceRemotingEntry result = new BatchedEventDrivenSpaceRemotingEntry()
+                        .buildBatchInvocation("service", entry.getClientId(), entry.getBatchId(), invocations);
+                space.results.add(result.buildBatchResult(results));
+            }
+        }
+    }
+
+    private static HashedEventDrivenSpaceRemotingEntry invocation(int argument) {
+        HashedEventDrivenSpaceRemotingEntry invocation = new HashedEventDrivenSpaceRemotingEntry();
+        invocation.buildInvocation("service", "method", null, new Object[]{argument});
+        invocation.setRouting(argument);
+        return invocation;
+    }
+
+    private static class FakeSpace implements InvocationHandler {
+        private final List<BatchedEventDrivenSpaceRemotingEntry[]> written = new ArrayList<BatchedEventDrivenSpaceRemotingEntry[]>();
+        private final BlockingQueue<BatchedEventDrivenSpaceRemotingEntry> results = new LinkedBlockingQueue<BatchedEventDrivenSpaceRemotingEntry>();
+        private final GigaSpace gigaSpace = (GigaSpace) Proxy.newProxyInstance(getClass().getClassLoader(), new Class[]{GigaSpace.class}, this);
+        private final IJSpace space = (IJSpace) Proxy.newProxyInstance(getClass().getClassLoader(), new Class[]{IJSpace.class}, new InvocationHandler() {
+            public Object invoke(Object proxy, Method method, Object[] args) {
+                // no direct proxy - a single partition
+                return null;
+            }
+        });
+        private volatile CountDownLatch writeStarted = new CountDownLatch(0);
+        private volatile CountDownLatch releaseWrite = new CountDownLatch(0);
+        private volatile boolean failNextWrite;
+
+        private void blockNextWrite() {
+            writeStarted = new CountDownLatch(1);
+            releaseWrite = new CountDownLatch(1);
+        }
+
+        private void failNextWrite() {
+            failNextWrite = true;
+        }
+
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            String name = method.getName();
+            if (name.equals("getSpace")) {
+                return space;
+            }
+            if (name.equals("writeMultiple")) {
+                CountDownLatch release = releaseWrite;
+                writeStarted.countDown();
+                release.await();
+                releaseWrite = new CountDownLatch(0);
+                if (failNextWrite) {
+                    failNextWrite = false;
+                    throw new IllegalStateException("write failed");
+                }
+                Object[] entries = (Object[]) args[0];
+                BatchedEventDrivenSpaceRemotingEntry[] copy = new BatchedEventDrivenSpaceRemotingEntry[entries.length];
+                System.arraycopy(entries, 0, copy, 0, entries.length);
+                synchronized (written) {
+                    written.add(copy);
+                }
+                return null;
+            }
+            if (name.equals("take")) {
+                return results.poll((Long) args[1], TimeUnit.MILLISECONDS);
+            }
+            if (name.equals("takeMultiple")) {
+                List<BatchedEventDrivenSpaceRemotingEntry> taken = new ArrayList<BatchedEventDrivenSpaceRemotingEntry>();
+                results.drainTo(taken);
+                return taken.toArray(new BatchedEventDrivenSpaceRemotingEntry[taken.size()]);
+            }
+            throw new UnsupportedOperationException(name);
+        }
+    }
+}
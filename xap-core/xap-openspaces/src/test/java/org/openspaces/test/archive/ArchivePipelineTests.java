@@ -0,0 +1,189 @@
+/*
+ * Copyright (c) 2008-2016, GigaSpaces Technologies, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.openspaces.test.archive;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.openspaces.archive.ArchiveOperationHandler;
+import org.openspaces.archive.ArchivePipeline;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class ArchivePipelineTests {
+
+    @Test
+    public void testObjectsWithSameRoutingAreArchivedInOrder() throws Exception {
+        final Map<String, List<Integer>> archived = Collections.synchronizedMap(new HashMap<String, List<Integer>>());
+        ArchiveOperationHandler handler = new TestArchiveHandler() {
+            @Override
+            public void archive(Object... objects) {
+                for (Object object : objects) {
+                    Item item = (Item) object;
+                    synchronized (archived) {
+                        List<Integer> sequence = archived.get(item.routing);
+                        if (sequence == null) {
+                            sequence = new ArrayList<Integer>();
+                            archived.put(item.routing, sequence);
+                        }
+                        sequence.add(item.sequence);
+                    }
+                }
+            }
+        };
+        ArchivePipeline pipeline = createPipeline(handler, 4, 2);
+        for (int batch = 0; batch < 50; batch++) {
+            Object[] objects = new Object[10];
+            for (int i = 0; i < objects.length; i++)
+                objects[i] = new Item("key" + (i % 5), batch * objects.length + i);
+            pipeline.submit(objects, false);
+        }
+        pipeline.close();
+
+        Assert.assertEquals(5, archived.size());
+        for (List<Integer> sequence : archived.values()) {
+            Assert.assertEquals(100, sequence.size());
+            for (int i = 1; i < sequence.size(); i++)
+                Assert.assertTrue("objects should be archived in take order " + sequence, sequence.get(i - 1) < sequence.get(i));
+        }
+    }
+
+    @Test
+    public void testAwaitedSubmitPropagatesArchiveFailure() throws Exception {
+        ArchiveOperationHandler handler = new TestArchiveHandler() {
+            @Override
+            public void archive(Object... objects) {
+                for (Object object : objects) {
+                    if (((Item) object).routing.equals("bad"))
+                        throw new IllegalStateException("archive failed");
+                }
+            }
+        };
+        ArchivePipeline pipeline = createPipeline(handler, 2, 1);
+        pipeline.submit(new Object[]{new Item("good", 1)}, true);
+        try {
+            pipeline.submit(new Object[]{new Item("good", 2), new Item("bad", 3)}, true);
+            Assert.fail("archive failure should be propagated");
+        } catch (IllegalStateException e) {
+            Assert.assertEquals("archive failed", e.getMessage());
+        } finally {
+            pipeline.close();
+        }
+    }
+
+    @Test
+    public void testSubmitBlocksWhenWriterFallsBehind() throws Exception {
+        final CountDownLatch releaseArchive = new CountDownLatch(1);
+        final AtomicInteger archivedBatches = new AtomicInteger();
+        ArchiveOperationHandler handler = new TestArchiveHandler() {
+            @Override
+            public void archive(Object... objects) {
+                try {
+                    releaseArchive.await();
+                } catch (InterruptedException e) {
+                    throw new IllegalStateException(e);
+                }
+                archivedBatches.incrementAndGet();
+            }
+        };
+        final ArchivePipeline pipeline = createPipeline(handler, 1, 2);
+        final AtomicInteger submitted = new AtomicInteger();
+        Thread consumer = new Thread() {
+            @Override
+            public void run() {
+                try {
+                    for (int i = 0; i < 5; i++) {
+                        pipeline.submit(new Object[]{new Item("key", i)}, false);
+                        submitted.incrementAndGet();
+                    }
+                } catch (InterruptedException e) {
+                    // ignore
+                }
+            }
+        };
+        consumer.start();
+        // one batch is being archived and two are queued
+        while (consumer.getState() != Thread.State.WAITING)
+            Thread.sleep(10);
+        Assert.assertEquals(3, submitted.get());
+
+        releaseArchive.countDown();
+        consumer.join();
+        pipeline.close();
+        Assert.assertEquals(5, archivedBatches.get());
+    }
+
+    @Test
+    public void testNotAwaitedFailureHandsOverTheFailedObjects() throws Exception {
+        final List<Object> failed = Collections.synchronizedList(new ArrayList<Object>());
+        final AtomicInteger archived = new AtomicInteger();
+        ArchiveOperationHandler handler = new TestArchiveHandler() {
+            @Override
+            public void archive(Object... objects) {
+                for (Object object : objects) {
+                    if (((Item) object).routing.equals("bad"))
+                        throw new IllegalStateException("archive failed");
+                }
+                archived.addAndGet(objects.length);
+            }
+        };
+        ArchivePipeline pipeline = new ArchivePipeline("test", handler, 1, 2) {
+            @Override
+            protected void onArchiveFailure(Object[] objects, Throwable error) {
+                Collections.addAll(failed, objects);
+            }
+        };
+        pipeline.submit(new Object[]{new Item("bad", 1), new Item("good", 2)}, false);
+        pipeline.submit(new Object[]{new Item("good", 3)}, false);
+        pipeline.close();
+
+        // The whole failed batch is handed over so it can be returned to the space
+        Assert.assertEquals(2, failed.size());
+        Assert.assertEquals(1, archived.get());
+    }
+
+    private static ArchivePipeline createPipeline(ArchiveOperationHandler handler, int writers, int maxInFlightBatches) {
+        return new ArchivePipeline("test", handler, writers, maxInFlightBatches) {
+            @Override
+            protected Object getRouting(Object object) {
+                return ((Item) object).routing;
+            }
+        };
+    }
+
+    private abstract static class TestArchiveHandler implements ArchiveOperationHandler {
+        @Override
+        public boolean supportsBatchArchiving() {
+            return true;
+        }
+    }
+
+    private static class Item {
+        private final String routing;
+        private final int sequence;
+
+        private Item(String routing, int sequence) {
+            this.routing = routing;
+            this.sequence = sequence;
+        }
+    }
+}
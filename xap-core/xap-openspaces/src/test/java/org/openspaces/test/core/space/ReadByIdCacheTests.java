@@ -0,0 +1,114 @@
+/*
+ * Copyright (c) 2008-2016, GigaSpaces Technologies, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.openspaces.test.core.space;
+
+import com.gigaspaces.client.ChangeSet;
+import com.gigaspaces.document.SpaceDocument;
+import com.gigaspaces.internal.client.spaceproxy.SpaceProxyImpl;
+import com.gigaspaces.metadata.SpaceTypeDescriptorBuilder;
+import com.gigaspaces.query.IdQuery;
+import com.j_spaces.kernel.SystemProperties;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.openspaces.core.GigaSpace;
+import org.openspaces.core.GigaSpaceConfigurer;
+import org.openspaces.core.space.EmbeddedSpaceConfigurer;
+
+/**
+ * Verifies the read by id cache of a proxy never serves an entry the proxy modified itself. The
+ * invalidation notifications are delayed beyond the test so only the proxy's own invalidation is
+ * exercised.
+ */
+public class ReadByIdCacheTests {
+
+    private static final String TYPE = "CachedDocument";
+
+    private EmbeddedSpaceConfigurer spaceConfigurer;
+    private GigaSpace gigaSpace;
+
+    @Before
+    public void setUp() {
+        System.setProperty(SystemProperties.SPACE_PROXY_READ_BY_ID_CACHE_ENABLED, "true");
+        System.setProperty(SystemProperties.SPACE_PROXY_READ_BY_ID_CACHE_INVALIDATION_BATCH_SIZE, "1000");
+        System.setProperty(SystemProperties.SPACE_PROXY_READ_BY_ID_CACHE_INVALIDATION_BATCH_TIME, "600000");
+        spaceConfigurer = new EmbeddedSpaceConfigurer("readByIdCacheTests").lookupGroups("readByIdCacheTests-" + System.nanoTime());
+        gigaSpace = new GigaSpaceConfigurer(spaceConfigurer).gigaSpace();
+        gigaSpace.getTypeManager().registerTypeDescriptor(new SpaceTypeDescriptorBuilder(TYPE).idProperty("id").create());
+    }
+
+    @After
+    public void tearDown() {
+        spaceConfigurer.close();
+        System.clearProperty(SystemProperties.SPACE_PROXY_READ_BY_ID_CACHE_ENABLED);
+        System.clearProperty(SystemProperties.SPACE_PROXY_READ_BY_ID_CACHE_INVALIDATION_BATCH_SIZE);
+        System.clearProperty(SystemProperties.SPACE_PROXY_READ_BY_ID_CACHE_INVALIDATION_BATCH_TIME);
+    }
+
+    @Test
+    public void testWriteIsVisibleToReadById() {
+        gigaSpace.write(document("1", 1));
+        Assert.assertEquals(1, readValue("1"));
+        Assert.assertEquals(1, getCacheSize());
+
+        gigaSpace.write(document("1", 2));
+        Assert.assertEquals(2, readValue("1"));
+    }
+
+    @Test
+    public void testChangeIsVisibleToReadById() {
+        gigaSpace.write(document("1", 1));
+        Assert.assertEquals(1, readValue("1"));
+
+        gigaSpace.change(new IdQuery<SpaceDocument>(TYPE, "1"), new ChangeSet().set("value", 3));
+        Assert.assertEquals(3, readValue("1"));
+    }
+
+    @Test
+    public void testTakeIsVisibleToReadById() {
+        gigaSpace.write(document("1", 1));
+        gigaSpace.write(document("2", 1));
+        Assert.assertEquals(1, readValue("1"));
+        Assert.assertEquals(1, readValue("2"));
+
+        Assert.assertNotNull(gigaSpace.takeById(new IdQuery<SpaceDocument>(TYPE, "1")));
+        Assert.assertNull(read("1"));
+        // Entries which were not taken stay cached
+        Assert.assertEquals(1, getCacheSize());
+
+        gigaSpace.clear(new SpaceDocument(TYPE));
+        Assert.assertNull(read("2"));
+    }
+
+    private SpaceDocument document(String id, int value) {
+        return new SpaceDocument(TYPE).setProperty("id", id).setProperty("value", value);
+    }
+
+    private SpaceDocument read(String id) {
+        return gigaSpace.readById(new IdQuery<SpaceDocument>(TYPE, id));
+    }
+
+    private int readValue(String id) {
+        return (Integer) read(id).getProperty("value");
+    }
+
+    private int getCacheSize() {
+        return ((SpaceProxyImpl) gigaSpace.getSpace().getDirectProxy()).getReadByIdCache().size();
+    }
+}
@@ -0,0 +1,242 @@
+/*
+ * Copyright (c) 2008-2016, GigaSpaces Technologies, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.openspaces.test.events;
+
+import com.gigaspaces.client.TakeModifiers;
+import com.gigaspaces.events.DataEventSession;
+import com.gigaspaces.events.batching.BatchRemoteEvent;
+import com.gigaspaces.events.batching.BatchRemoteEventListener;
+import com.j_spaces.core.client.EntryArrivedRemoteEvent;
+
+import net.jini.core.event.RemoteEvent;
+import net.jini.core.event.UnknownEventException;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.openspaces.core.GigaSpace;
+import org.openspaces.core.SpaceInterruptedException;
+import org.openspaces.events.polling.receive.PushTakeReceiveOperationHandler;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.rmi.RemoteException;
+import java.util.ArrayList;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Runs the push take handler against a fake space which keeps the written entries in memory and
+ * pushes a notification for every write.
+ */
+public class PushTakeReceiveOperationHandlerTests {
+
+    private static final Object TEMPLATE = new Object();
+
+    private static final long LONG_TIMEOUT = 60000;
+
+    private FakeSpace space;
+    private PushTakeReceiveOperationHandler handler;
+
+    @Before
+    public void setUp() {
+        space = new FakeSpace();
+        handler = new PushTakeReceiveOperationHandler();
+        handler.setMaxEntries(2);
+    }
+
+    @After
+    public void tearDown() {
+        handler.destroy();
+    }
+
+    @Test
+    public void testIdleConsumerIsWokenUpByWrite() throws Exception {
+        // the initial signal covers entries written before the registration
+        Assert.assertNull(handler.receive(TEMPLATE, space.gigaSpace, LONG_TIMEOUT));
+        Assert.assertEquals(1, space.registrations.get());
+
+        final AtomicReference<Object> received = new AtomicReference<Object>();
+        Thread consumer = new Thread() {
+            @Override
+            public void run() {
+                received.set(handler.receive(TEMPLATE, space.gigaSpace, LONG_TIMEOUT));
+            }
+        };
+        long start = System.currentTimeMillis();
+        consumer.start();
+        awaitWaiting(consumer);
+        space.write("entry");
+        consumer.join(LONG_TIMEOUT);
+
+        Assert.assertFalse(consumer.isAlive());
+        Assert.assertTrue(System.currentTimeMillis() - start < LONG_TIMEOUT / 2);
+        Assert.assertArrayEquals(new Object[]{"entry"}, (Object[]) received.get());
+    }
+
+    @Test
+    public void testReceiveWithoutSignalTimesOutAndPicksUpMissedEntries() throws Exception {
+        Assert.assertNull(handler.receive(TEMPLATE, space.gigaSpace, LONG_TIMEOUT));
+        // an entry returned to the space without a notification, e.g. by a rolled back transaction
+        space.writeWithoutNotification("entry");
+        Assert.assertArrayEquals(new Object[]{"entry"}, (Object[]) handler.receive(TEMPLATE, space.gigaSpace, 10));
+    }
+
+    @Test
+    public void testNoSignalIsLostUnderConcurrentConsumers() throws Exception {
+        final int numOfEntries = 2000;
+        final AtomicInteger received = new AtomicInteger();
+        final AtomicReference<Throwable> error = new AtomicReference<Throwable>();
+        Thread[] consumers = new Thread[4];
+        for (int i = 0; i < consumers.length; i++) {
+            consumers[i] = new Thread() {
+                @Override
+                public void run() {
+                    try {
+                        while (received.get() < numOfEntries) {
+                            Object[] result = (Object[]) handler.receive(TEMPLATE, space.gigaSpace, LONG_TIMEOUT);
+                            if (result != null) {
+                                received.addAndGet(result.length);
+                            }
+                        }
+                    } catch (SpaceInterruptedException e) {
+                        // stopped by the test
+                    } catch (Throwable t) {
+                        error.set(t);
+                    }
+                }
+            };
+            consumers[i].start();
+        }
+        for (int i = 0; i < numOfEntries; i++) {
+            space.write(i);
+            if (i % 100 == 0) {
+                Thread.yield();
+            }
+        }
+
+        // consumers wait for signals for a minute, a lost signal leaves entries behind
+        long deadline = System.currentTimeMillis() + LONG_TIMEOUT / 6;
+        while (received.get() < numOfEntries && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        for (Thread consumer : consumers) {
+            consumer.interrupt();
+            consumer.join();
+        }
+        Assert.assertNull(error.get());
+        Assert.assertEquals(numOfEntries, received.get());
+        Assert.assertEquals(0, space.size());
+    }
+
+    @Test
+    public void testDestroyRemovesTheRegistrationAndWakesUpConsumers() throws Exception {
+        Assert.assertNull(handler.receive(TEMPLATE, space.gigaSpace, LONG_TIMEOUT));
+        Assert.assertEquals(1, space.registrations.get());
+
+        Thread consumer = new Thread() {
+            @Override
+            public void run() {
+                handler.receive(TEMPLATE, space.gigaSpace, LONG_TIMEOUT);
+            }
+        };
+        consumer.start();
+        awaitWaiting(consumer);
+
+        handler.destroy();
+        Assert.assertEquals(1, space.closedSessions.get());
+        consumer.join(LONG_TIMEOUT);
+        Assert.assertFalse("destroy should wake up waiting consumers", consumer.isAlive());
+
+        // destroying again is a no-op, and a later receive registers again
+        handler.destroy();
+        Assert.assertEquals(1, space.closedSessions.get());
+        space.write("entry");
+        Assert.assertArrayEquals(new Object[]{"entry"}, (Object[]) handler.receive(TEMPLATE, space.gigaSpace, LONG_TIMEOUT));
+        Assert.assertEquals(2, space.registrations.get());
+    }
+
+    private static void awaitWaiting(Thread thread) throws InterruptedException {
+        while (thread.getState() != Thread.State.TIMED_WAITING) {
+            Thread.sleep(1);
+        }
+    }
+
+    private static class FakeSpace implements InvocationHandler {
+        private final LinkedList<Object> entries = new LinkedList<Object>();
+        private final AtomicInteger registrations = new AtomicInteger();
+        private final AtomicInteger closedSessions = new AtomicInteger();
+        private final GigaSpace gigaSpace = (GigaSpace) Proxy.newProxyInstance(getClass().getClassLoader(), new Class[]{GigaSpace.class}, this);
+        private volatile BatchRemoteEventListener listener;
+
+        private void write(Object entry) throws UnknownEventException, RemoteException {
+            writeWithoutNotification(entry);
+            BatchRemoteEventListener listener = this.listener;
+            if (listener != null) {
+                listener.notifyBatch(new BatchRemoteEvent(new RemoteEvent[]{new EntryArrivedRemoteEvent()}));
+            }
+        }
+
+        private void writeWithoutNotification(Object entry) {
+            synchronized (entries) {
+                entries.add(entry);
+            }
+        }
+
+        private int size() {
+            synchronized (entries) {
+                return entries.size();
+            }
+        }
+
+        public Object invoke(Object proxy, Method method, Object[] args) {
+            String name = method.getName();
+            if (name.equals("getDefaultTakeModifiers")) {
+                return TakeModifiers.NONE;
+            }
+            if (name.equals("takeMultiple")) {
+                int maxEntries = (Integer) args[1];
+                List<Object> taken = new ArrayList<Object>();
+                synchronized (entries) {
+                    while (!entries.isEmpty() && taken.size() < maxEntries) {
+                        taken.add(entries.removeFirst());
+                    }
+                }
+                return taken.toArray();
+            }
+            if (name.equals("newDataEventSession")) {
+                return Proxy.newProxyInstance(getClass().getClassLoader(), new Class[]{DataEventSession.class}, new InvocationHandler() {
+                    public Object invoke(Object proxy, Method method, Object[] args) {
+                        if (method.getName().equals("addListener")) {
+                            listener = (BatchRemoteEventListener) args[1];
+                            registrations.incrementAndGet();
+                        } else if (method.getName().equals("close")) {
+                            listener = null;
+                            closedSessions.incrementAndGet();
+                        }
+                        return null;
+                    }
+                });
+            }
+            throw new UnsupportedOperationException(name);
+        }
+    }
+}
@@ -0,0 +1,308 @@
+/*
+ * Copyright (c) 2008-2016, GigaSpaces Technologies, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.openspaces.test.memcached;
+
+import com.gigaspaces.client.ChangeOperationResult;
+import com.gigaspaces.client.ChangeResult;
+import com.gigaspaces.client.ChangeSet;
+import com.gigaspaces.client.ChangeSetInternalUtils;
+import com.gigaspaces.client.ChangedEntryDetails;
+import com.gigaspaces.client.CustomChangeOperation;
+import com.gigaspaces.client.WriteModifiers;
+import com.gigaspaces.client.mutators.SpaceEntryMutator;
+import com.gigaspaces.query.IdQuery;
+import com.gigaspaces.server.MutableServerEntry;
+import com.j_spaces.core.LeaseContext;
+
+import org.jboss.netty.buffer.ChannelBuffers;
+import org.jboss.netty.channel.group.DefaultChannelGroup;
+import org.jboss.netty.handler.codec.embedder.DecoderEmbedder;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.openspaces.core.GigaSpace;
+import org.openspaces.memcached.Key;
+import org.openspaces.memcached.MemcachedEntry;
+import org.openspaces.memcached.SpaceCache;
+import org.openspaces.memcached.protocol.MemcachedCommandHandler;
+import org.openspaces.memcached.protocol.Op;
+import org.openspaces.memcached.protocol.ResponseMessage;
+import org.openspaces.memcached.protocol.SessionStatus;
+import org.openspaces.memcached.protocol.text.MemcachedCommandDecoder;
+import org.openspaces.memcached.protocol.text.MemcachedFrameDecoder;
+import org.openspaces.memcached.protocol.text.MemcachedPipelineFactory;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Runs the text protocol decoders and the command handler against a fake space which keeps the
+ * memcached entries in memory and applies change operations to them.
+ */
+public class MemcachedCommandHandlerTests {
+
+    // the max number of pipelined sets the handler stores using a single write multiple
+    private static final int MAX_SET_BATCH_SIZE = 256;
+
+    private FakeSpace space;
+    private DecoderEmbedder<ResponseMessage> embedder;
+
+    @Before
+    public void setUp() {
+        space = new FakeSpace();
+        SpaceCache cache = new SpaceCache(space.gigaSpace);
+        SessionStatus status = new SessionStatus().ready();
+        embedder = new DecoderEmbedder<ResponseMessage>(
+                new MemcachedFrameDecoder(status, 1024 * 1024),
+                new MemcachedCommandDecoder(status),
+                new MemcachedCommandHandler(cache, "test", false, -1, new DefaultChannelGroup()));
+    }
+
+    @After
+    public void tearDown() {
+        embedder.finish();
+    }
+
+    @Test
+    public void testPipelinedSetsAreStoredTogetherAtEndOfRead() {
+        offer("set a 0 0 1\r\n1\r\nset b 0 0 1\r\n2\r\nset c 0 0 1\r\n3\r\n");
+
+        Assert.assertEquals(Collections.singletonList(3), space.writeMultipleSizes);
+        Assert.assertEquals(0, space.writes);
+        assertStored("a", "b", "c");
+        Assert.assertEquals("2", value("b"));
+    }
+
+    @Test
+    public void testSetsAreNotStoredBeforeEndOfRead() {
+        // the data of the set is split between reads, it is stored once the read holding the end
+        // of the set is processed
+        offer("set a 0 0 5\r\nhel");
+        Assert.assertNull(embedder.poll());
+        offer("lo\r\n");
+
+        Assert.assertEquals(0, space.writeMultipleSizes.size());
+        Assert.assertEquals(1, space.writes);
+        assertStored("a");
+        Assert.assertEquals("hello", value("a"));
+    }
+
+    @Test
+    public void testOtherCommandFlushesPrecedingSets() {
+        offer("set a 0 0 1\r\n1\r\nset b 0 0 1\r\n2\r\nget a\r\nset c 0 0 1\r\n3\r\n");
+
+        Assert.assertEquals(Collections.singletonList(2), space.writeMultipleSizes);
+        Assert.assertEquals(1, space.writes);
+        assertStored("a", "b");
+        ResponseMessage get = embedder.poll();
+        Assert.assertEquals(Op.GET, get.cmd.op);
+        Assert.assertEquals("1", new String(get.elements[0].getData()));
+        assertStored("c");
+        Assert.assertNull(embedder.poll());
+    }
+
+    @Test
+    public void testSetBatchIsCutOffAtMaxBatchSize() {
+        int numOfSets = MAX_SET_BATCH_SIZE + 10;
+        StringBuilder sets = new StringBuilder();
+        String[] keys = new String[numOfSets];
+        for (int i = 0; i < numOfSets; i++) {
+            keys[i] = "key" + i;
+            sets.append("set ").append(keys[i]).append(" 0 0 1\r\n").append(i % 10).append("\r\n");
+        }
+        offer(sets.toString());
+
+        List<Integer> expected = new ArrayList<Integer>();
+        expected.add(MAX_SET_BATCH_SIZE);
+        expected.add(10);
+        Assert.assertEquals(expected, space.writeMultipleSizes);
+        assertStored(keys);
+    }
+
+    @Test
+    public void testFailedBatchIsStoredOneByOneWithPerKeyResponses() {
+        space.failNextWriteMultiple = true;
+        offer("set a 0 0 1\r\n1\r\nset b 0 0 1\r\n2\r\nset c 0 0 1\r\n3\r\n");
+
+        Assert.assertEquals(3, space.writes);
+        assertStored("a", "b", "c");
+        Assert.assertEquals("3", value("c"));
+    }
+
+    @Test
+    public void testIncrAndDecrAreAppliedByChange() {
+        offer("set counter 0 0 2\r\n10\r\n");
+        assertStored("counter");
+
+        offer("incr counter 5\r\n");
+        Assert.assertEquals(Integer.valueOf(15), embedder.poll().incrDecrResponse);
+        offer("decr counter 20\r\n");
+        // decrementing below zero stops at zero
+        Assert.assertEquals(Integer.valueOf(0), embedder.poll().incrDecrResponse);
+        Assert.assertEquals("0", value("counter"));
+
+        offer("incr missing 1\r\n");
+        Assert.assertNull(embedder.poll().incrDecrResponse);
+        Assert.assertEquals(3, space.changes);
+    }
+
+    @Test
+    public void testAppendAndPrependAreAppliedByChange() {
+        offer("set a 0 0 3\r\nmid\r\n");
+        assertStored("a");
+
+        offer("append a 0 0 4\r\n-end\r\nprepend a 0 0 6\r\nstart-\r\n");
+        Assert.assertEquals(SpaceCache.StoreResponse.STORED, embedder.poll().response);
+        Assert.assertEquals(SpaceCache.StoreResponse.STORED, embedder.poll().response);
+        Assert.assertEquals("start-mid-end", value("a"));
+
+        offer("append missing 0 0 1\r\nx\r\n");
+        Assert.assertEquals(SpaceCache.StoreResponse.NOT_FOUND, embedder.poll().response);
+        Assert.assertEquals(3, space.changes);
+    }
+
+    private void offer(String commands) {
+        embedder.offer(ChannelBuffers.copiedBuffer(commands, MemcachedPipelineFactory.USASCII));
+    }
+
+    /**
+     * Asserts the next responses answer the sets of the given keys, in order.
+     */
+    private void assertStored(String... keys) {
+        for (String key : keys) {
+            ResponseMessage response = embedder.poll();
+            Assert.assertNotNull("missing response for " + key, response);
+            Assert.assertEquals(Op.SET, response.cmd.op);
+            Assert.assertEquals(key, new String(response.cmd.element.getKey().bytes));
+            Assert.assertEquals(SpaceCache.StoreResponse.STORED, response.response);
+        }
+    }
+
+    private String value(String key) {
+        MemcachedEntry entry = space.entries.get(new Key(key.getBytes()));
+        return entry == null ? null : new String(entry.getValue());
+    }
+
+    private static class FakeSpace implements InvocationHandler {
+        private final Map<Key, MemcachedEntry> entries = new HashMap<Key, MemcachedEntry>();
+        private final List<Integer> writeMultipleSizes = new ArrayList<Integer>();
+        private final GigaSpace gigaSpace = (GigaSpace) Proxy.newProxyInstance(getClass().getClassLoader(), new Class[]{GigaSpace.class}, this);
+        private int writes;
+        private int changes;
+        private boolean failNextWriteMultiple;
+
+        public Object invoke(Object proxy, Method method, Object[] args) {
+            String name = method.getName();
+            if (name.equals("getDefaultWriteModifiers")) {
+                return WriteModifiers.NONE;
+            }
+            if (name.equals("write")) {
+                writes++;
+                store((MemcachedEntry) args[0]);
+                return null;
+            }
+            if (name.equals("writeMultiple")) {
+                Object[] written = (Object[]) args[0];
+                if (failNextWriteMultiple) {
+                    failNextWriteMultiple = false;
+                    throw new IllegalStateException("write multiple failed");
+                }
+                writeMultipleSizes.add(written.length);
+                for (Object entry : written) {
+                    store((MemcachedEntry) entry);
+                }
+                return new LeaseContext[written.length];
+            }
+            if (name.equals("readById")) {
+                return entries.get(args[1]);
+            }
+            if (name.equals("change")) {
+                changes++;
+                return change(entries.get(((IdQuery<?>) args[0]).getId()), (ChangeSet) args[1]);
+            }
+            throw new UnsupportedOperationException(name);
+        }
+
+        private void store(MemcachedEntry entry) {
+            MemcachedEntry previous = entries.get(entry.getKey());
+            entry.setVersion(previous == null ? 1 : previous.getVersion() + 1);
+            entries.put(entry.getKey(), entry);
+        }
+
+        private ChangeResult<?> change(final MemcachedEntry entry, ChangeSet changeSet) {
+            if (entry == null) {
+                return changeResult(0, null);
+            }
+            MutableServerEntry serverEntry = (MutableServerEntry) Proxy.newProxyInstance(getClass().getClassLoader(), new Class[]{MutableServerEntry.class}, new InvocationHandler() {
+                public Object invoke(Object proxy, Method method, Object[] args) {
+                    boolean value = args[0].equals("value");
+                    if (method.getName().equals("getPathValue")) {
+                        return value ? entry.getValue() : entry.getOffHeapValue();
+                    }
+                    if (method.getName().equals("setPathValue") && value) {
+                        entry.setValue((byte[]) args[1]);
+                        return null;
+                    }
+                    throw new UnsupportedOperationException(method.getName() + " " + args[0]);
+                }
+            });
+            final List<ChangeOperationResult> results = new ArrayList<ChangeOperationResult>();
+            for (SpaceEntryMutator mutator : ChangeSetInternalUtils.getMutators(changeSet)) {
+                final Object result = ((CustomChangeOperation) mutator).change(serverEntry);
+                results.add((ChangeOperationResult) Proxy.newProxyInstance(getClass().getClassLoader(), new Class[]{ChangeOperationResult.class}, new InvocationHandler() {
+                    public Object invoke(Object proxy, Method method, Object[] args) {
+                        return result;
+                    }
+                }));
+            }
+            entry.setVersion(entry.getVersion() + 1);
+            ChangedEntryDetails<?> details = (ChangedEntryDetails<?>) Proxy.newProxyInstance(getClass().getClassLoader(), new Class[]{ChangedEntryDetails.class}, new InvocationHandler() {
+                public Object invoke(Object proxy, Method method, Object[] args) {
+                    if (method.getName().equals("getChangeOperationsResults")) {
+                        return results;
+                    }
+                    if (method.getName().equals("getVersion")) {
+                        return entry.getVersion();
+                    }
+                    throw new UnsupportedOperationException(method.getName());
+                }
+            });
+            return changeResult(1, details);
+        }
+
+        private ChangeResult<?> changeResult(final int changed, final ChangedEntryDetails<?> details) {
+            return (ChangeResult<?>) Proxy.newProxyInstance(getClass().getClassLoader(), new Class[]{ChangeResult.class}, new InvocationHandler() {
+                public Object invoke(Object proxy, Method method, Object[] args) {
+                    if (method.getName().equals("getNumberOfChangedEntries")) {
+                        return changed;
+                    }
+                    if (method.getName().equals("getResults")) {
+                        return Collections.singletonList(details);
+                    }
+                    throw new UnsupportedOperationException(method.getName());
+                }
+            });
+        }
+    }
+}
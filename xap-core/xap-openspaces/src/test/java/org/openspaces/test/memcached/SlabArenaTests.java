@@ -0,0 +1,224 @@
+/*
+ * Copyright (c) 2008-2016, GigaSpaces Technologies, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.openspaces.test.memcached;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.openspaces.memcached.OffHeapValue;
+import org.openspaces.memcached.SlabArena;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReference;
+
+public class SlabArenaTests {
+
+    private static final int PAGE_SIZE = 1024;
+
+    @Test
+    public void testStoreAndLoad() {
+        SlabArena arena = new SlabArena(4 * PAGE_SIZE, PAGE_SIZE, 64, 2);
+        byte[] small = "small value".getBytes();
+        byte[] large = new byte[300];
+        Arrays.fill(large, (byte) 7);
+
+        long smallHandle = arena.store(small);
+        long largeHandle = arena.store(large);
+        Assert.assertArrayEquals(small, arena.load(smallHandle));
+        Assert.assertArrayEquals(large, arena.load(largeHandle));
+        Assert.assertEquals(2 * PAGE_SIZE, arena.getAllocatedBytes());
+        Assert.assertEquals(-1, arena.store(new byte[PAGE_SIZE + 1]));
+    }
+
+    @Test
+    public void testFreedHandleIsStale() {
+        SlabArena arena = new SlabArena(PAGE_SIZE, PAGE_SIZE, 64, 2);
+        long handle = arena.store("value".getBytes());
+        arena.free(handle);
+        Assert.assertNull(arena.load(handle));
+
+        // the chunk is reused by a new value, the old handle must stay stale
+        long newHandle = arena.store("other".getBytes());
+        Assert.assertNull(arena.load(handle));
+        Assert.assertArrayEquals("other".getBytes(), arena.load(newHandle));
+    }
+
+    @Test
+    public void testLeastRecentlyUsedIsEvictedWithinSlabClass() {
+        // a single page of 64 bytes chunks
+        SlabArena arena = new SlabArena(PAGE_SIZE, PAGE_SIZE, 64, 2);
+        int chunks = PAGE_SIZE / 64;
+        long[] handles = new long[chunks];
+        for (int i = 0; i < chunks; i++)
+            handles[i] = arena.store(new byte[]{(byte) i});
+
+        // touch the first value so the second one is the least recently used
+        Assert.assertNotNull(arena.load(handles[0]));
+        long handle = arena.store(new byte[]{-1});
+        Assert.assertTrue(handle != -1);
+        Assert.assertNotNull(arena.load(handles[0]));
+        Assert.assertNull(arena.load(handles[1]));
+        Assert.assertArrayEquals(new byte[]{-1}, arena.load(handle));
+
+        List<SlabArena.SlabStats> stats = arena.getStats();
+        Assert.assertEquals(1, stats.size());
+        Assert.assertEquals(64, stats.get(0).getChunkSize());
+        Assert.assertEquals(chunks, stats.get(0).getTotalChunks());
+        Assert.assertEquals(chunks, stats.get(0).getUsedChunks());
+        Assert.assertEquals(1, stats.get(0).getEvictions());
+    }
+
+    @Test
+    public void testPagesAreAddedOnDemand() {
+        SlabArena arena = new SlabArena(8 * PAGE_SIZE, PAGE_SIZE, 64, 2);
+        int chunks = PAGE_SIZE / 64;
+        long[] handles = new long[3 * chunks];
+        for (int i = 0; i < handles.length; i++)
+            handles[i] = arena.store(new byte[]{(byte) i, (byte) (i >> 8)});
+        Assert.assertEquals(3 * PAGE_SIZE, arena.getAllocatedBytes());
+        for (int i = 0; i < handles.length; i++)
+            Assert.assertArrayEquals(new byte[]{(byte) i, (byte) (i >> 8)}, arena.load(handles[i]));
+        Assert.assertEquals(0, arena.getStats().get(0).getEvictions());
+    }
+
+    @Test
+    public void testPageIsReassignedToSlabClassWithoutPages() {
+        SlabArena arena = new SlabArena(2 * PAGE_SIZE, PAGE_SIZE, 64, 2);
+        int chunks = PAGE_SIZE / 64;
+        long[] handles = new long[2 * chunks];
+        for (int i = 0; i < handles.length; i++)
+            handles[i] = arena.store(new byte[]{(byte) i});
+        Assert.assertEquals(2 * PAGE_SIZE, arena.getAllocatedBytes());
+
+        // the 128 bytes class takes over a page of the 64 bytes class
+        byte[] value = new byte[100];
+        Arrays.fill(value, (byte) 3);
+        long handle = arena.store(value);
+        Assert.assertTrue(handle != -1);
+        Assert.assertArrayEquals(value, arena.load(handle));
+        Assert.assertEquals(2 * PAGE_SIZE, arena.getAllocatedBytes());
+        Assert.assertEquals(0, arena.getHeapFallbacks());
+
+        List<SlabArena.SlabStats> stats = arena.getStats();
+        Assert.assertEquals(2, stats.size());
+        Assert.assertEquals(1, stats.get(0).getTotalPages());
+        Assert.assertEquals(chunks, stats.get(0).getUsedChunks());
+        Assert.assertEquals(chunks, stats.get(0).getEvictions());
+        int evicted = 0;
+        for (int i = 0; i < handles.length; i++) {
+            byte[] loaded = arena.load(handles[i]);
+            if (loaded == null)
+                evicted++;
+            else
+                Assert.assertArrayEquals(new byte[]{(byte) i}, loaded);
+        }
+        Assert.assertEquals(chunks, evicted);
+
+        // the 64 bytes class still evicts within its remaining page
+        Assert.assertTrue(arena.store(new byte[]{-1}) != -1);
+
+        // no class has a page to spare, the value is kept on the heap
+        Assert.assertEquals(-1, arena.store(new byte[200]));
+        Assert.assertEquals(1, arena.getHeapFallbacks());
+        OffHeapValue onHeap = OffHeapValue.of(new byte[200], arena);
+        Assert.assertEquals(200, onHeap.getBytes().length);
+        Assert.assertEquals(2, arena.getHeapFallbacks());
+    }
+
+    @Test
+    public void testConcurrentLoadsSeeStoredValueOrMiss() throws Exception {
+        // a single page, so values are constantly evicted and their chunks reused
+        final SlabArena arena = new SlabArena(PAGE_SIZE, PAGE_SIZE, 64, 2);
+        final long[] handles = new long[64];
+        for (int i = 0; i < handles.length; i++)
+            handles[i] = arena.store(value(i));
+        final AtomicReference<String> failure = new AtomicReference<String>();
+        final long deadline = System.currentTimeMillis() + 500;
+
+        Thread writer = new Thread() {
+            @Override
+            public void run() {
+                for (int i = 0; System.currentTimeMillis() < deadline; i++) {
+                    int slot = i % handles.length;
+                    arena.free(handles[slot]);
+                    long handle = arena.store(value(slot));
+                    synchronized (handles) {
+                        handles[slot] = handle;
+                    }
+                }
+            }
+        };
+        Thread[] readers = new Thread[4];
+        for (int r = 0; r < readers.length; r++) {
+            readers[r] = new Thread() {
+                @Override
+                public void run() {
+                    for (int i = 0; System.currentTimeMillis() < deadline; i++) {
+                        int slot = i % handles.length;
+                        long handle;
+                        synchronized (handles) {
+                            handle = handles[slot];
+                        }
+                        byte[] loaded = arena.load(handle);
+                        if (loaded != null && !Arrays.equals(value(slot), loaded))
+                            failure.set("slot " + slot + " loaded " + Arrays.toString(loaded));
+                    }
+                }
+            };
+        }
+        writer.start();
+        for (Thread reader : readers)
+            reader.start();
+        writer.join();
+        for (Thread reader : readers)
+            reader.join();
+        Assert.assertNull(failure.get(), failure.get());
+    }
+
+    @Test
+    public void testDeserializedValueIsKeptOnHeap() throws Exception {
+        SlabArena arena = new SlabArena(PAGE_SIZE, PAGE_SIZE, 64, 2);
+        OffHeapValue value = OffHeapValue.of("value".getBytes(), arena);
+        Assert.assertEquals(1, arena.getStats().get(0).getUsedChunks());
+
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        ObjectOutputStream out = new ObjectOutputStream(bytes);
+        out.writeObject(value);
+        out.close();
+        OffHeapValue copy = (OffHeapValue) new ObjectInputStream(new ByteArrayInputStream(bytes.toByteArray())).readObject();
+
+        Assert.assertArrayEquals("value".getBytes(), copy.getBytes());
+        Assert.assertEquals(1, arena.getStats().get(0).getUsedChunks());
+        // releasing the copy does not free the original chunk
+        copy.release();
+        Assert.assertArrayEquals("value".getBytes(), value.getBytes());
+        value.release();
+        Assert.assertNull(value.getBytes());
+        Assert.assertEquals(0, arena.getStats().get(0).getUsedChunks());
+    }
+
+    private static byte[] value(int slot) {
+        byte[] value = new byte[1 + slot % 40];
+        Arrays.fill(value, (byte) slot);
+        return value;
+    }
+}
@@ -0,0 +1,98 @@
+/*
+ * Copyright (c) 2008-2016, GigaSpaces Technologies, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.openspaces.test.remoting;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.openspaces.remoting.BatchedEventDrivenSpaceRemotingEntry;
+import org.openspaces.remoting.HashedEventDrivenSpaceRemotingEntry;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+
+public class BatchedEventDrivenSpaceRemotingEntryTests {
+
+    @Test
+    public void testBatchInvocationSerialization() throws Exception {
+        HashedEventDrivenSpaceRemotingEntry[] invocations = new HashedEventDrivenSpaceRemotingEntry[3];
+        for (int i = 0; i < invocations.length; i++) {
+            invocations[i] = new HashedEventDrivenSpaceRemotingEntry();
+            invocations[i].buildInvocation("service", "method" + i, null, new Object[]{i});
+            invocations[i].setRouting(7);
+        }
+        BatchedEventDrivenSpaceRemotingEntry batch = new BatchedEventDrivenSpaceRemotingEntry()
+                .buildBatchInvocation("service", "client", 42, invocations);
+        batch.setRouting(7);
+
+        BatchedEventDrivenSpaceRemotingEntry copy = copy(batch);
+        Assert.assertTrue(copy.isInvocation);
+        Assert.assertEquals("service", copy.getLookupName());
+        Assert.assertEquals("client", copy.getClientId());
+        Assert.assertEquals(Long.valueOf(42), copy.getBatchId());
+        Assert.assertEquals(Integer.valueOf(7), copy.getRouting());
+        Assert.assertEquals(3, copy.getEntries().length);
+        for (int i = 0; i < 3; i++) {
+            Assert.assertEquals("method" + i, copy.getEntries()[i].getMethodName());
+            Assert.assertEquals(i, copy.getEntries()[i].getArguments()[0]);
+        }
+    }
+
+    @Test
+    public void testBatchResultSerialization() throws Exception {
+        HashedEventDrivenSpaceRemotingEntry invocation = new HashedEventDrivenSpaceRemotingEntry();
+        invocation.buildInvocation("service", "method", null, new Object[0]);
+        BatchedEventDrivenSpaceRemotingEntry batch = new BatchedEventDrivenSpaceRemotingEntry()
+                .buildBatchInvocation("service", "client", 1, new HashedEventDrivenSpaceRemotingEntry[]{invocation, invocation});
+        batch.setRouting(1);
+
+        HashedEventDrivenSpaceRemotingEntry result = new HashedEventDrivenSpaceRemotingEntry();
+        result.buildResult("value");
+        // a null result stands for a one way invocation
+        batch.buildBatchResult(new HashedEventDrivenSpaceRemotingEntry[]{result, null});
+
+        BatchedEventDrivenSpaceRemotingEntry copy = copy(batch);
+        Assert.assertFalse(copy.isInvocation);
+        Assert.assertNull(copy.getLookupName());
+        Assert.assertEquals("client", copy.getClientId());
+        Assert.assertEquals(Long.valueOf(1), copy.getBatchId());
+        Assert.assertEquals("value", copy.getEntries()[0].getResult());
+        Assert.assertNull(copy.getEntries()[1]);
+    }
+
+    @Test
+    public void testBatchResultTemplate() {
+        BatchedEventDrivenSpaceRemotingEntry template = new BatchedEventDrivenSpaceRemotingEntry().buildBatchResultTemplate("client");
+        Assert.assertFalse(template.isInvocation);
+        Assert.assertEquals("client", template.getClientId());
+        Assert.assertNull(template.getBatchId());
+        Assert.assertNull(template.getRouting());
+        Assert.assertNull(template.getEntries());
+    }
+
+    private static BatchedEventDrivenSpaceRemotingEntry copy(BatchedEventDrivenSpaceRemotingEntry entry) throws IOException, ClassNotFoundException {
+        ByteArrayOutputStream bos = new ByteArrayOutputStream();
+        ObjectOutputStream out = new ObjectOutputStream(bos);
+        out.writeObject(entry);
+        out.close();
+        ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(bos.toByteArray()));
+        return (BatchedEventDrivenSpaceRemotingEntry) in.readObject();
+    }
+}
@@ -57,6 +57,7 @@ public class CassandraSpaceSynchronizationEndpoint
 
     private final SpaceDocumentColumnFamilyMapper mapper;
     private final HectorCassandraClient hectorClient;
+    private final ParallelBatchWriter batchWriter;
 
     public CassandraSpaceSynchronizationEndpoint(
             PropertyValueSerializer fixedPropertyValueSerializer,
@@ -64,12 +65,37 @@ public class CassandraSpaceSynchronizationEndpoint
             FlattenedPropertiesFilter flattenedPropertiesFilter,
             ColumnFamilyNameConverter columnFamilyNameConverter,
             HectorCassandraClient hectorClient) {
+        this(fixedPropertyValueSerializer,
+                dynamicPropertyValueSerializer,
+                flattenedPropertiesFilter,
+                columnFamilyNameConverter,
+                hectorClient,
+                1 /* writeConcurrency */,
+                CassandraSpaceSynchronizationEndpointConfigurer.DEFAULT_WRITE_BATCH_SIZE,
+                0 /* writeRetries */);
+    }
+
+    /**
+     * @see CassandraSpaceSynchronizationEndpointConfigurer#create()
+     */
+    public CassandraSpaceSynchronizationEndpoint(
+            PropertyValueSerializer fixedPropertyValueSerializer,
+            PropertyValueSerializer dynamicPropertyValueSerializer,
+            FlattenedPropertiesFilter flattenedPropertiesFilter,
+            ColumnFamilyNameConverter columnFamilyNameConverter,
+            HectorCassandraClient hectorClient,
+            int writeConcurrency,
+            int writeBatchSize,
+            int writeRetries) {
 
         if (hectorClient == null) {
             throw new IllegalArgumentException("hectorClient must be set");
         }
 
         this.hectorClient = hectorClient;
+        // a single writer with no retries keeps writing one batch per column family
+        this.batchWriter = writeConcurrency > 1 || writeRetries > 0 ?
+                new ParallelBatchWriter(hectorClient, writeConcurrency, writeBatchSize, writeRetries) : null;
         this.hectorClient.createMetadataColumnFamilyColumnFamilyIfNecessary();
 
         mapper = new DefaultSpaceDocumentColumnFamilyMapper(fixedPropertyValueSerializer,
@@ -166,11 +192,25 @@ public class CassandraSpaceSynchronizationEndpoint
             logger.trace("Performing batch operation");
         }
 
+        if (batchWriter != null) {
+            batchWriter.write(cfToRows.values());
+            return;
+        }
+
         for (List<ColumnFamilyRow> rows : cfToRows.values()) {
             hectorClient.performBatchOperation(rows);
         }
     }
 
+    /**
+     * Stops the threads used for concurrent writes, if any.
+     */
+    public void close() {
+        if (batchWriter != null) {
+            batchWriter.close();
+        }
+    }
+
     @Override
     public void onIntroduceType(IntroduceTypeData introduceTypeData) {
 
@@ -28,11 +28,16 @@ import org.openspaces.persistency.cassandra.meta.types.dynamic.PropertyValueSeri
  */
 public class CassandraSpaceSynchronizationEndpointConfigurer {
 
+    public static final int DEFAULT_WRITE_BATCH_SIZE = 100;
+
     protected PropertyValueSerializer fixedPropertyValueSerializer;
     protected PropertyValueSerializer dynamicPropertyValueSerializer;
     protected FlattenedPropertiesFilter flattenedPropertiesFilter;
     protected ColumnFamilyNameConverter columnFamilyNameConverter;
     protected HectorCassandraClient hectorClient;
+    protected int writeConcurrency = 1;
+    protected int writeBatchSize = DEFAULT_WRITE_BATCH_SIZE;
+    protected int writeRetries = 0;
 
     /**
      * Optional. If set, all fixed properties with a type that is not primitive nor a common java
@@ -104,6 +109,43 @@ public class CassandraSpaceSynchronizationEndpointConfigurer {
         return this;
     }
 
+    /**
+     * Optional. If greater than 1, the rows of each synchronized batch are grouped by row key into
+     * sub batches which are written concurrently by up to this number of threads. (default: 1)
+     *
+     * @param writeConcurrency the maximal number of sub batches written concurrently.
+     * @return {@code this} instance.
+     */
+    public CassandraSpaceSynchronizationEndpointConfigurer writeConcurrency(int writeConcurrency) {
+        this.writeConcurrency = writeConcurrency;
+        return this;
+    }
+
+    /**
+     * Optional. The maximal number of rows in a concurrently written sub batch. The operations of a
+     * single row key are never split between sub batches. (default: 100)
+     *
+     * @param writeBatchSize the maximal number of rows in a sub batch.
+     * @return {@code this} instance.
+     */
+    public CassandraSpaceSynchronizationEndpointConfigurer writeBatchSize(int writeBatchSize) {
+        this.writeBatchSize = writeBatchSize;
+        return this;
+    }
+
+    /**
+     * Optional. The number of times a failed sub batch is written again before the synchronization
+     * fails. Sub batches hold all the operations of their row keys, so writing them again is safe.
+     * (default: 0)
+     *
+     * @param writeRetries the number of retries of a failed sub batch.
+     * @return {@code this} instance.
+     */
+    public CassandraSpaceSynchronizationEndpointConfigurer writeRetries(int writeRetries) {
+        this.writeRetries = writeRetries;
+        return this;
+    }
+
     /**
      * @return An instance of {@link CassandraSpaceSynchronizationEndpoint} matching this configurer
      * configuration.
@@ -113,7 +155,10 @@ public class CassandraSpaceSynchronizationEndpointConfigurer {
                 dynamicPropertyValueSerializer,
                 flattenedPropertiesFilter,
                 columnFamilyNameConverter,
-                hectorClient);
+                hectorClient,
+                writeConcurrency,
+                writeBatchSize,
+                writeRetries);
     }
 
 }
@@ -19,6 +19,7 @@ package org.openspaces.persistency.cassandra;
 import org.openspaces.persistency.cassandra.meta.conversion.ColumnFamilyNameConverter;
 import org.openspaces.persistency.cassandra.meta.mapping.filter.FlattenedPropertiesFilter;
 import org.openspaces.persistency.cassandra.meta.types.dynamic.PropertyValueSerializer;
+import org.springframework.beans.factory.DisposableBean;
 import org.springframework.beans.factory.FactoryBean;
 import org.springframework.beans.factory.InitializingBean;
 
@@ -31,7 +32,7 @@ import org.springframework.beans.factory.InitializingBean;
  * @since 9.1.1
  */
 public class CassandraSpaceSynchronizationEndpointFactoryBean implements
-        FactoryBean<CassandraSpaceSynchronizationEndpoint>, InitializingBean {
+        FactoryBean<CassandraSpaceSynchronizationEndpoint>, InitializingBean, DisposableBean {
 
     private final CassandraSpaceSynchronizationEndpointConfigurer configurer = getConfigurer();
 
@@ -80,11 +81,39 @@ public class CassandraSpaceSynchronizationEndpointFactoryBean implements
         configurer.hectorClient(hectorClient);
     }
 
+    /**
+     * @see CassandraSpaceSynchronizationEndpointConfigurer#writeConcurrency(int)
+     */
+    public void setWriteConcurrency(int writeConcurrency) {
+        configurer.writeConcurrency(writeConcurrency);
+    }
+
+    /**
+     * @see CassandraSpaceSynchronizationEndpointConfigurer#writeBatchSize(int)
+     */
+    public void setWriteBatchSize(int writeBatchSize) {
+        configurer.writeBatchSize(writeBatchSize);
+    }
+
+    /**
+     * @see CassandraSpaceSynchronizationEndpointConfigurer#writeRetries(int)
+     */
+    public void setWriteRetries(int writeRetries) {
+        configurer.writeRetries(writeRetries);
+    }
+
     @Override
     public void afterPropertiesSet() throws Exception {
         cassandraSynchronizationEndpointInterceptor = configurer.create();
     }
 
+    @Override
+    public void destroy() throws Exception {
+        if (cassandraSynchronizationEndpointInterceptor != null) {
+            cassandraSynchronizationEndpointInterceptor.close();
+        }
+    }
+
     @Override
     public CassandraSpaceSynchronizationEndpoint getObject() throws Exception {
         return cassandraSynchronizationEndpointInterceptor;
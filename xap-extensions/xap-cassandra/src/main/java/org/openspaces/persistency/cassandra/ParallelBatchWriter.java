@@ -0,0 +1,221 @@
+/*
+ * Copyright (c) 2008-2016, GigaSpaces Technologies, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.openspaces.persistency.cassandra;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.openspaces.persistency.cassandra.error.SpaceCassandraSynchronizationException;
+import org.openspaces.persistency.cassandra.meta.data.ColumnFamilyRow;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Writes the rows of a synchronization batch to Cassandra as concurrent sub batches.
+ *
+ * The rows of each column family are grouped by row key, keeping the order of the operations of
+ * each key, and packed into sub batches of up to {@code batchSize} rows. All the operations of a
+ * key are part of the same sub batch, so sub batches touch disjoint rows and are written
+ * concurrently by up to {@code concurrency} threads. Since a sub batch holds the complete sequence
+ * of operations of its keys, a failed sub batch is simply written again.
+ *
+ * @since 14.2
+ */
+public class ParallelBatchWriter {
+
+    private static final Log logger = LogFactory.getLog(ParallelBatchWriter.class);
+
+    private static final long RETRY_BACKOFF = 100;
+
+    private final HectorCassandraClient hectorClient;
+    private final int batchSize;
+    private final int maxRetries;
+    private final ExecutorService executor;
+
+    /**
+     * @param hectorClient the client used to write the sub batches.
+     * @param concurrency  the maximal number of sub batches written concurrently.
+     * @param batchSize    the maximal number of rows in a sub batch. The operations of a single key
+     *                     are never split, so a sub batch may exceed this size.
+     * @param maxRetries   the number of times a failed sub batch is written again.
+     */
+    public ParallelBatchWriter(HectorCassandraClient hectorClient, int concurrency, int batchSize, int maxRetries) {
+        if (concurrency < 1) {
+            throw new IllegalArgumentException("concurrency must be positive");
+        }
+        if (batchSize < 1) {
+            throw new IllegalArgumentException("batchSize must be positive");
+        }
+        if (maxRetries < 0) {
+            throw new IllegalArgumentException("maxRetries must be non negative");
+        }
+
+        this.hectorClient = hectorClient;
+        this.batchSize = batchSize;
+        this.maxRetries = maxRetries;
+        this.executor = Executors.newFixedThreadPool(concurrency, new ThreadFactory() {
+            private final AtomicInteger counter = new AtomicInteger();
+
+            @Override
+            public Thread newThread(Runnable r) {
+                Thread thread = new Thread(r, "cassandra-batch-writer-" + counter.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            }
+        });
+    }
+
+    /**
+     * Writes the given rows and returns once all of them were written.
+     *
+     * @param rowsByColumnFamily the rows to write, each list holding the rows of a single column
+     *                           family in operation order.
+     * @throws SpaceCassandraSynchronizationException if a sub batch could not be written.
+     */
+    public void write(Collection<List<ColumnFamilyRow>> rowsByColumnFamily) {
+        List<List<ColumnFamilyRow>> subBatches = split(rowsByColumnFamily);
+        if (subBatches.isEmpty()) {
+            return;
+        }
+
+        if (subBatches.size() == 1) {
+            writeWithRetries(subBatches.get(0));
+            return;
+        }
+
+        if (logger.isTraceEnabled()) {
+            logger.trace("Writing " + subBatches.size() + " sub batches concurrently");
+        }
+
+        List<Future<?>> futures = new ArrayList<Future<?>>(subBatches.size());
+        for (final List<ColumnFamilyRow> subBatch : subBatches) {
+            futures.add(executor.submit(new Runnable() {
+                @Override
+                public void run() {
+                    writeWithRetries(subBatch);
+                }
+            }));
+        }
+
+        // wait for all the sub batches, even if one of them failed, so no write of this
+        // batch is still running once the next batch is synchronized
+        RuntimeException failure = null;
+        boolean interrupted = false;
+        for (Future<?> future : futures) {
+            while (true) {
+                try {
+                    future.get();
+                    break;
+                } catch (InterruptedException e) {
+                    interrupted = true;
+                } catch (ExecutionException e) {
+                    if (failure == null) {
+                        failure = e.getCause() instanceof RuntimeException ?
+                                (RuntimeException) e.getCause() :
+                                new SpaceCassandraSynchronizationException("Failed writing batch", e.getCause());
+                    }
+                    break;
+                }
+            }
+        }
+
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+        if (failure != null) {
+            throw failure;
+        }
+    }
+
+    /**
+     * Splits the rows to sub batches of disjoint keys.
+     */
+    List<List<ColumnFamilyRow>> split(Collection<List<ColumnFamilyRow>> rowsByColumnFamily) {
+        List<List<ColumnFamilyRow>> subBatches = new LinkedList<List<ColumnFamilyRow>>();
+        for (List<ColumnFamilyRow> rows : rowsByColumnFamily) {
+            Map<Object, List<ColumnFamilyRow>> rowsByKey = new LinkedHashMap<Object, List<ColumnFamilyRow>>();
+            for (ColumnFamilyRow row : rows) {
+                List<ColumnFamilyRow> keyRows = rowsByKey.get(row.getKeyValue());
+                if (keyRows == null) {
+                    keyRows = new LinkedList<ColumnFamilyRow>();
+                    rowsByKey.put(row.getKeyValue(), keyRows);
+                }
+                keyRows.add(row);
+            }
+
+            List<ColumnFamilyRow> subBatch = new LinkedList<ColumnFamilyRow>();
+            for (List<ColumnFamilyRow> keyRows : rowsByKey.values()) {
+                if (!subBatch.isEmpty() && subBatch.size() + keyRows.size() > batchSize) {
+                    subBatches.add(subBatch);
+                    subBatch = new LinkedList<ColumnFamilyRow>();
+                }
+                subBatch.addAll(keyRows);
+            }
+            if (!subBatch.isEmpty()) {
+                subBatches.add(subBatch);
+            }
+        }
+        return subBatches;
+    }
+
+    private void writeWithRetries(List<ColumnFamilyRow> rows) {
+        for (int attempt = 0; ; attempt++) {
+            try {
+                performBatchOperation(rows);
+                return;
+            } catch (RuntimeException e) {
+                if (attempt >= maxRetries) {
+                    throw new SpaceCassandraSynchronizationException("Failed writing batch of " + rows.size() +
+                            " rows after " + (attempt + 1) + " attempts", e);
+                }
+                if (logger.isWarnEnabled()) {
+                    logger.warn("Failed writing batch of " + rows.size() + " rows, retrying", e);
+                }
+                try {
+                    Thread.sleep(RETRY_BACKOFF * (attempt + 1));
+                } catch (InterruptedException ie) {
+                    Thread.currentThread().interrupt();
+                    throw new SpaceCassandraSynchronizationException("Interrupted while retrying batch", e);
+                }
+            }
+        }
+    }
+
+    /**
+     * Writes a single sub batch. All the rows belong to the same column family.
+     */
+    protected void performBatchOperation(List<ColumnFamilyRow> rows) {
+        hectorClient.performBatchOperation(rows);
+    }
+
+    /**
+     * Stops the writer threads.
+     */
+    public void close() {
+        executor.shutdownNow();
+    }
+}
@@ -0,0 +1,124 @@
+/*
+ * Copyright (c) 2008-2016, GigaSpaces Technologies, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.openspaces.utest.persistency.cassandra;
+
+import junit.framework.Assert;
+
+import org.junit.After;
+import org.junit.Test;
+import org.openspaces.persistency.cassandra.ParallelBatchWriter;
+import org.openspaces.persistency.cassandra.error.SpaceCassandraSynchronizationException;
+import org.openspaces.persistency.cassandra.meta.ColumnFamilyMetadata;
+import org.openspaces.persistency.cassandra.meta.data.ColumnFamilyRow;
+import org.openspaces.persistency.cassandra.meta.data.ColumnFamilyRow.ColumnFamilyRowType;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class ParallelBatchWriterTest {
+
+    private final ColumnFamilyMetadata metadata = new ColumnFamilyMetadata();
+    private final List<List<ColumnFamilyRow>> written = Collections.synchronizedList(new ArrayList<List<ColumnFamilyRow>>());
+    private ParallelBatchWriter writer;
+
+    @After
+    public void after() {
+        if (writer != null)
+            writer.close();
+    }
+
+    @Test
+    public void testRowsOfSameKeyAreWrittenTogetherInOrder() {
+        writer = new RecordingWriter(4, 3, 0, 0);
+
+        List<ColumnFamilyRow> rows = new ArrayList<ColumnFamilyRow>();
+        for (int i = 0; i < 20; i++)
+            rows.add(new ColumnFamilyRow(metadata, i % 5, i < 10 ? ColumnFamilyRowType.Write : ColumnFamilyRowType.Update));
+        writer.write(Collections.singletonList(rows));
+
+        int total = 0;
+        Map<Object, List<ColumnFamilyRow>> batchOfKey = new HashMap<Object, List<ColumnFamilyRow>>();
+        for (List<ColumnFamilyRow> batch : written) {
+            total += batch.size();
+            Assert.assertTrue("batch should not exceed its size unless a single key is larger",
+                    batch.size() <= 4);
+            for (ColumnFamilyRow row : batch) {
+                List<ColumnFamilyRow> previous = batchOfKey.put(row.getKeyValue(), batch);
+                Assert.assertTrue("rows of key " + row.getKeyValue() + " were split", previous == null || previous == batch);
+            }
+        }
+        Assert.assertEquals(rows.size(), total);
+        Assert.assertTrue("expected more than one sub batch", written.size() > 1);
+
+        for (List<ColumnFamilyRow> batch : batchOfKey.values()) {
+            boolean updating = false;
+            for (ColumnFamilyRow row : batch) {
+                if (row.getRowType() == ColumnFamilyRowType.Update)
+                    updating = true;
+                else
+                    Assert.assertFalse("operations of a key were reordered", updating);
+            }
+        }
+    }
+
+    @Test
+    public void testFailedBatchIsRetried() {
+        writer = new RecordingWriter(2, 10, 2, 2);
+        writer.write(Collections.singletonList(rows(3)));
+        Assert.assertEquals(1, written.size());
+        Assert.assertEquals(3, written.get(0).size());
+    }
+
+    @Test
+    public void testFailureAfterRetriesIsPropagated() {
+        writer = new RecordingWriter(2, 10, 1, 2);
+        try {
+            writer.write(Collections.singletonList(rows(3)));
+            Assert.fail("expected write to fail");
+        } catch (SpaceCassandraSynchronizationException e) {
+            // expected
+        }
+        Assert.assertTrue(written.isEmpty());
+    }
+
+    private List<ColumnFamilyRow> rows(int count) {
+        List<ColumnFamilyRow> rows = new ArrayList<ColumnFamilyRow>();
+        for (int i = 0; i < count; i++)
+            rows.add(new ColumnFamilyRow(metadata, i, ColumnFamilyRowType.Write));
+        return rows;
+    }
+
+    private class RecordingWriter extends ParallelBatchWriter {
+        private final AtomicInteger failuresLeft;
+
+        private RecordingWriter(int concurrency, int batchSize, int maxRetries, int failures) {
+            super(null, concurrency, batchSize, maxRetries);
+            failuresLeft = new AtomicInteger(failures);
+        }
+
+        @Override
+        protected void performBatchOperation(List<ColumnFamilyRow> rows) {
+            if (failuresLeft.getAndDecrement() > 0)
+                throw new IllegalStateException("write failed");
+            written.add(rows);
+        }
+    }
+}
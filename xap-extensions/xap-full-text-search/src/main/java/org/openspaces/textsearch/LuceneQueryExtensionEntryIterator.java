@@ -34,17 +34,33 @@ public class LuceneQueryExtensionEntryIterator extends QueryExtensionEntryIterat
     private final ScoreDoc[] scores;
     private final IndexSearcher indexSearcher;
     private final DirectoryReader directoryReader;
+    private final LuceneTextSearchTypeIndex typeIndex;
     private int position;
 
     public LuceneQueryExtensionEntryIterator(ScoreDoc[] scores, IndexSearcher indexSearcher, DirectoryReader directoryReader) {
         this.scores = scores;
         this.indexSearcher = indexSearcher;
         this.directoryReader = directoryReader;
+        this.typeIndex = null;
+    }
+
+    /**
+     * Creates an iterator over the results of a near real time searcher, which is released back to
+     * the type index once the iterator is closed.
+     */
+    public LuceneQueryExtensionEntryIterator(ScoreDoc[] scores, IndexSearcher indexSearcher, LuceneTextSearchTypeIndex typeIndex) {
+        this.scores = scores;
+        this.indexSearcher = indexSearcher;
+        this.directoryReader = null;
+        this.typeIndex = typeIndex;
     }
 
     @Override
     public void close() throws IOException {
-        directoryReader.close();
+        if (typeIndex != null)
+            typeIndex.releaseSearcher(indexSearcher);
+        else
+            directoryReader.close();
         super.close();
     }
 
@@ -51,6 +51,24 @@ public class LuceneTextSearchConfiguration {
     public static final String MAX_RESULTS = "lucene.max-results";
     private static final String DEFAULT_MAX_RESULTS = String.valueOf(Integer.MAX_VALUE);
 
+    public static final String SEARCH_NEAR_REAL_TIME = "lucene.search.near-real-time";
+    private static final String DEFAULT_SEARCH_NEAR_REAL_TIME = "true";
+
+    //in milliseconds - 0 refreshes the searcher on demand by each query
+    public static final String SEARCH_REFRESH_INTERVAL = "lucene.search.refresh-interval";
+    private static final String DEFAULT_SEARCH_REFRESH_INTERVAL = "0";
+
+    //number of background indexing threads - 0 indexes entries synchronously by the writing thread
+    public static final String INDEXING_THREADS = "lucene.indexing.threads";
+    private static final String DEFAULT_INDEXING_THREADS = "0";
+
+    //capacity of the pending operations queue of each indexing thread
+    public static final String INDEXING_QUEUE_SIZE = "lucene.indexing.queue-size";
+    private static final String DEFAULT_INDEXING_QUEUE_SIZE = "10000";
+
+    public static final String INDEXING_BATCH_SIZE = "lucene.indexing.batch-size";
+    private static final String DEFAULT_INDEXING_BATCH_SIZE = "1000";
+
     public static final Class<StandardAnalyzer> DEFAULT_ANALYZER_CLASS = StandardAnalyzer.class;
 
     private final DirectoryFactory _directoryFactory;
@@ -58,6 +76,11 @@ public class LuceneTextSearchConfiguration {
     private final String _location;
     private final int _maxResults;
     private final Analyzer _defaultAnalyzer;
+    private final boolean _nearRealTime;
+    private final long _refreshInterval;
+    private final int _indexingThreads;
+    private final int _indexingQueueSize;
+    private final int _indexingBatchSize;
 
     public LuceneTextSearchConfiguration(LuceneTextSearchQueryExtensionProvider provider, QueryExtensionRuntimeInfo info) {
         this._directoryFactory = createDirectoryFactory(provider);
@@ -65,6 +88,11 @@ public class LuceneTextSearchConfiguration {
         this._maxUncommittedChanges = initMaxUncommittedChanges(provider);
         this._maxResults = initMaxResults(provider);
         this._defaultAnalyzer = initDefaultAnalyzer();
+        this._nearRealTime = Boolean.parseBoolean(provider.getCustomProperty(SEARCH_NEAR_REAL_TIME, DEFAULT_SEARCH_NEAR_REAL_TIME));
+        this._refreshInterval = Long.parseLong(provider.getCustomProperty(SEARCH_REFRESH_INTERVAL, DEFAULT_SEARCH_REFRESH_INTERVAL));
+        this._indexingThreads = Integer.parseInt(provider.getCustomProperty(INDEXING_THREADS, DEFAULT_INDEXING_THREADS));
+        this._indexingQueueSize = Integer.parseInt(provider.getCustomProperty(INDEXING_QUEUE_SIZE, DEFAULT_INDEXING_QUEUE_SIZE));
+        this._indexingBatchSize = Integer.parseInt(provider.getCustomProperty(INDEXING_BATCH_SIZE, DEFAULT_INDEXING_BATCH_SIZE));
     }
 
     private enum SupportedDirectory {
@@ -155,6 +183,38 @@ public class LuceneTextSearchConfiguration {
         return _maxResults;
     }
 
+    /**
+     * Whether queries search a near real time view of the index writer instead of committing and
+     * opening a new reader per query.
+     */
+    public boolean isNearRealTime() {
+        return _nearRealTime;
+    }
+
+    /**
+     * Interval (in milliseconds) of the background refresh of near real time searchers, or 0 if each
+     * query refreshes the searcher on demand.
+     */
+    public long getRefreshInterval() {
+        return _refreshInterval;
+    }
+
+    /**
+     * Number of background threads analyzing and indexing written entries, or 0 if entries are
+     * indexed synchronously by the writing thread.
+     */
+    public int getIndexingThreads() {
+        return _indexingThreads;
+    }
+
+    public int getIndexingQueueSize() {
+        return _indexingQueueSize;
+    }
+
+    public int getIndexingBatchSize() {
+        return _indexingBatchSize;
+    }
+
     public static Analyzer createAnalyzer(Class analyzerClass) {
         try {
             return (Analyzer) analyzerClass.newInstance();
@@ -0,0 +1,338 @@
+/*
+ * Copyright (c) 2008-2016, GigaSpaces Technologies, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.openspaces.textsearch;
+
+import org.apache.lucene.document.Document;
+import org.apache.lucene.index.Term;
+
+import java.io.Closeable;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Analyzes and indexes documents in the background, taking text analysis off the writing thread.
+ *
+ * Each indexing thread drains its own bounded queue in batches, adding the documents of each type
+ * in bulk and committing once per batch. Operations of the same uid are always routed to the same
+ * thread so they are applied in order. A full queue blocks the writing thread until the indexing
+ * thread catches up.
+ *
+ * A batch which fails to be indexed is applied again one operation at a time. Operations which
+ * still fail are counted as failed operations and keep their type failing queries until a later
+ * change of the same entry is indexed, see {@link LuceneTextSearchTypeIndex#getIndexingFailure()}.
+ * Closing the indexer applies the operations queued so far before stopping the indexing threads.
+ *
+ * @since 14.2
+ */
+public class LuceneTextSearchIndexer implements Closeable {
+    private static final Logger _logger = Logger.getLogger(LuceneTextSearchIndexer.class.getName());
+
+    private final Worker[] _workers;
+    private final int _batchSize;
+    private final ExecutorService _executor;
+    private final AtomicLong _failedOperations = new AtomicLong();
+    private volatile boolean _closed;
+
+    public LuceneTextSearchIndexer(final String spaceInstanceName, int threads, int queueSize, int batchSize) {
+        if (threads < 1)
+            throw new IllegalArgumentException("threads must be positive [" + threads + "]");
+        if (batchSize < 1)
+            throw new IllegalArgumentException("batchSize must be positive [" + batchSize + "]");
+        _batchSize = batchSize;
+        _workers = new Worker[threads];
+        _executor = Executors.newFixedThreadPool(threads, new ThreadFactory() {
+            private final AtomicInteger _counter = new AtomicInteger();
+
+            @Override
+            public Thread newThread(Runnable r) {
+                Thread thread = new Thread(r, "Text search indexer-" + _counter.incrementAndGet() + " [" + spaceInstanceName + "]");
+                thread.setDaemon(true);
+                return thread;
+            }
+        });
+        for (int i = 0; i < threads; i++) {
+            _workers[i] = new Worker(queueSize);
+            _executor.execute(_workers[i]);
+        }
+    }
+
+    /**
+     * Queues the given changes of an entry - a document to add and/or the term of a document to
+     * delete.
+     */
+    public void index(LuceneTextSearchTypeIndex typeIndex, String uid, Document document, Term deleteTerm) {
+        if (_closed)
+            throw new IllegalStateException("Text search indexer is closed, cannot index entry [" + uid + "]");
+        final Worker worker = _workers[(uid.hashCode() & Integer.MAX_VALUE) % _workers.length];
+        typeIndex.addPendingChanges(1);
+        try {
+            worker.enqueue(new IndexOperation(typeIndex, uid, document, deleteTerm));
+        } catch (InterruptedException e) {
+            typeIndex.addPendingChanges(-1);
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while queuing entry [" + uid + "] for indexing", e);
+        }
+    }
+
+    /**
+     * Waits until all the operations queued so far were applied to the index writers, so a query can
+     * see the writes which preceded it.
+     */
+    public void awaitIndexed() {
+        for (Worker worker : _workers)
+            worker.awaitApplied(worker._enqueued.get());
+    }
+
+    /**
+     * Number of queued operations which were not yet applied to the index writers.
+     */
+    public int getPendingOperations() {
+        int result = 0;
+        for (Worker worker : _workers)
+            result += worker._queue.size();
+        return result;
+    }
+
+    /**
+     * Time (in milliseconds) the oldest queued operation has been waiting to be indexed.
+     */
+    public long getIndexingLag() {
+        final long now = System.nanoTime();
+        long result = 0;
+        for (Worker worker : _workers) {
+            IndexOperation oldest = worker._queue.peek();
+            if (oldest != null)
+                result = Math.max(result, now - oldest._queueTime);
+        }
+        return TimeUnit.NANOSECONDS.toMillis(result);
+    }
+
+    /**
+     * Number of operations which failed to be applied to the index writers.
+     */
+    public long getFailedOperations() {
+        return _failedOperations.get();
+    }
+
+    /**
+     * Stops accepting operations and waits for the indexing threads to apply the queued ones.
+     */
+    @Override
+    public void close() {
+        // Not interrupting the indexing threads, an interrupt during I/O closes the index writer
+        _closed = true;
+        _executor.shutdown();
+        try {
+            while (!_executor.awaitTermination(10, TimeUnit.SECONDS))
+                _logger.log(Level.WARNING, "Waiting for text search indexing threads to apply "
+                        + getPendingOperations() + " queued operations");
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static class IndexOperation {
+        private final LuceneTextSearchTypeIndex _typeIndex;
+        private final String _uid;
+        private final Document _document;
+        private final Term _deleteTerm;
+        private final long _queueTime = System.nanoTime();
+
+        private IndexOperation(LuceneTextSearchTypeIndex typeIndex, String uid, Document document, Term deleteTerm) {
+            this._typeIndex = typeIndex;
+            this._uid = uid;
+            this._document = document;
+            this._deleteTerm = deleteTerm;
+        }
+    }
+
+    private class Worker implements Runnable {
+        private final BlockingQueue<IndexOperation> _queue;
+        private final AtomicLong _enqueued = new AtomicLong();
+        // Guarded by this
+        private long _applied;
+
+        private Worker(int queueSize) {
+            this._queue = new ArrayBlockingQueue<IndexOperation>(queueSize);
+        }
+
+        private void enqueue(IndexOperation operation) throws InterruptedException {
+            _enqueued.incrementAndGet();
+            try {
+                _queue.put(operation);
+            } catch (InterruptedException e) {
+                _enqueued.decrementAndGet();
+                throw e;
+            }
+        }
+
+        private synchronized void awaitApplied(long target) {
+            try {
+                while (_applied < target)
+                    wait();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Interrupted while waiting for pending text search index changes", e);
+            }
+        }
+
+        private synchronized void applied(int operations) {
+            _applied += operations;
+            notifyAll();
+        }
+
+        @Override
+        public void run() {
+            final List<IndexOperation> batch = new ArrayList<IndexOperation>(_batchSize);
+            // Once closed, keeps applying the queued operations until the queue is drained
+            while (true) {
+                try {
+                    IndexOperation first = _queue.poll(100, TimeUnit.MILLISECONDS);
+                    if (first == null) {
+                        if (_closed)
+                            break;
+                        continue;
+                    }
+                    batch.add(first);
+                } catch (InterruptedException e) {
+                    break;
+                }
+                _queue.drainTo(batch, _batchSize - 1);
+                try {
+                    apply(batch);
+                } finally {
+                    applied(batch.size());
+                    batch.clear();
+                }
+            }
+        }
+
+        private void apply(List<IndexOperation> batch) {
+            final Map<LuceneTextSearchTypeIndex, List<IndexOperation>> byType = new LinkedHashMap<LuceneTextSearchTypeIndex, List<IndexOperation>>();
+            for (IndexOperation operation : batch) {
+                List<IndexOperation> operations = byType.get(operation._typeIndex);
+                if (operations == null) {
+                    operations = new ArrayList<IndexOperation>();
+                    byType.put(operation._typeIndex, operations);
+                }
+                operations.add(operation);
+            }
+            for (Map.Entry<LuceneTextSearchTypeIndex, List<IndexOperation>> entry : byType.entrySet())
+                apply(entry.getKey(), entry.getValue());
+        }
+
+        private void apply(LuceneTextSearchTypeIndex typeIndex, List<IndexOperation> operations) {
+            final List<Document> documents = new ArrayList<Document>(operations.size());
+            final List<Term> deleteTerms = new ArrayList<Term>();
+            final Set<Term> deletedInSegment = new HashSet<Term>();
+            try {
+                for (IndexOperation operation : operations) {
+                    if (operation._document != null) {
+                        // The same uid and version may be deleted and added again (e.g. taken and
+                        // written again), the delete must be applied before the add
+                        final Term term = new Term(LuceneTextSearchQueryExtensionManager.XAP_ID_VERSION,
+                                operation._document.get(LuceneTextSearchQueryExtensionManager.XAP_ID_VERSION));
+                        if (deletedInSegment.contains(term)) {
+                            flush(typeIndex, documents, deleteTerms);
+                            deletedInSegment.clear();
+                        }
+                        documents.add(operation._document);
+                    }
+                    if (operation._deleteTerm != null) {
+                        deleteTerms.add(operation._deleteTerm);
+                        deletedInSegment.add(operation._deleteTerm);
+                    }
+                }
+                flush(typeIndex, documents, deleteTerms);
+                typeIndex.commit(operations.size());
+                for (IndexOperation operation : operations)
+                    typeIndex.indexed(operation._uid);
+            } catch (Exception e) {
+                _logger.log(Level.WARNING, "Failed to index a batch of " + operations.size()
+                        + " text search index changes, applying them one at a time", e);
+                applyEach(typeIndex, operations);
+            } finally {
+                typeIndex.addPendingChanges(-operations.size());
+            }
+        }
+
+        /**
+         * Applies the operations of a failed batch one at a time. Part of the batch may have already
+         * been applied, so documents are added by replacing the documents of the same uid and
+         * version, and deleting a term again has no effect.
+         */
+        private void applyEach(LuceneTextSearchTypeIndex typeIndex, List<IndexOperation> operations) {
+            final List<IndexOperation> applied = new ArrayList<IndexOperation>(operations.size());
+            for (IndexOperation operation : operations) {
+                try {
+                    if (operation._document != null)
+                        typeIndex.getIndexWriter().updateDocument(new Term(LuceneTextSearchQueryExtensionManager.XAP_ID_VERSION,
+                                operation._document.get(LuceneTextSearchQueryExtensionManager.XAP_ID_VERSION)), operation._document);
+                    if (operation._deleteTerm != null)
+                        typeIndex.getIndexWriter().deleteDocuments(operation._deleteTerm);
+                    applied.add(operation);
+                } catch (Exception e) {
+                    failed(operation, e);
+                }
+            }
+            try {
+                typeIndex.commit(applied.size());
+            } catch (Exception e) {
+                for (IndexOperation operation : applied)
+                    failed(operation, e);
+                return;
+            }
+            for (IndexOperation operation : applied)
+                typeIndex.indexed(operation._uid);
+        }
+
+        private void failed(IndexOperation operation, Exception e) {
+            _failedOperations.incrementAndGet();
+            operation._typeIndex.indexingFailed(operation._uid, e);
+            _logger.log(Level.SEVERE, "Failed to index text search index changes of entry [" + operation._uid + "]", e);
+        }
+
+        /**
+         * Adds the documents and then deletes the terms. No term is deleted before a document of
+         * the same term is added, so the order within the segment is kept.
+         */
+        private void flush(LuceneTextSearchTypeIndex typeIndex, List<Document> documents, List<Term> deleteTerms)
+                throws Exception {
+            if (!documents.isEmpty())
+                typeIndex.getIndexWriter().addDocuments(documents);
+            if (!deleteTerms.isEmpty())
+                typeIndex.getIndexWriter().deleteDocuments(deleteTerms.toArray(new Term[deleteTerms.size()]));
+            documents.clear();
+            deleteTerms.clear();
+        }
+    }
+}
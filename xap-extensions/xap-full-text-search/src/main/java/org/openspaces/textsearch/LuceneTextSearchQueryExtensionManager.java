@@ -20,6 +20,8 @@ import com.gigaspaces.SpaceRuntimeException;
 import com.gigaspaces.internal.io.FileUtils;
 import com.gigaspaces.internal.utils.Assert;
 import com.gigaspaces.metadata.SpaceTypeDescriptor;
+import com.gigaspaces.metrics.Gauge;
+import com.gigaspaces.metrics.MetricRegistrator;
 import com.gigaspaces.query.extension.QueryExtensionEntryIterator;
 import com.gigaspaces.query.extension.QueryExtensionManager;
 import com.gigaspaces.query.extension.QueryExtensionRuntimeInfo;
@@ -46,6 +48,10 @@ import java.io.File;
 import java.io.IOException;
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
@@ -67,6 +73,8 @@ public class LuceneTextSearchQueryExtensionManager extends QueryExtensionManager
     protected final String _namespace;
     protected final Map<String, LuceneTextSearchTypeIndex> _luceneHolderMap = new ConcurrentHashMap<String, LuceneTextSearchTypeIndex>();
     protected final LuceneTextSearchConfiguration _luceneConfiguration;
+    private final ScheduledExecutorService _refresher;
+    private final LuceneTextSearchIndexer _indexer;
 
     protected LuceneTextSearchQueryExtensionManager(LuceneTextSearchQueryExtensionProvider provider, QueryExtensionRuntimeInfo info, LuceneTextSearchConfiguration configuration) {
         super(info);
@@ -74,10 +82,46 @@ public class LuceneTextSearchQueryExtensionManager extends QueryExtensionManager
         _luceneConfiguration = configuration;
         File location = new File(_luceneConfiguration.getLocation());
         FileUtils.deleteFileOrDirectoryIfExists(location);
+        _refresher = startRefresher(info.getSpaceInstanceName());
+        _indexer = _luceneConfiguration.getIndexingThreads() > 0
+                ? new LuceneTextSearchIndexer(info.getSpaceInstanceName(), _luceneConfiguration.getIndexingThreads(),
+                _luceneConfiguration.getIndexingQueueSize(), _luceneConfiguration.getIndexingBatchSize())
+                : null;
+    }
+
+    private ScheduledExecutorService startRefresher(final String spaceInstanceName) {
+        final long interval = _luceneConfiguration.getRefreshInterval();
+        if (!_luceneConfiguration.isNearRealTime() || interval <= 0)
+            return null;
+        ScheduledExecutorService refresher = Executors.newSingleThreadScheduledExecutor(new ThreadFactory() {
+            @Override
+            public Thread newThread(Runnable r) {
+                Thread thread = new Thread(r, "Text search index refresher [" + spaceInstanceName + "]");
+                thread.setDaemon(true);
+                return thread;
+            }
+        });
+        refresher.scheduleWithFixedDelay(new Runnable() {
+            @Override
+            public void run() {
+                for (LuceneTextSearchTypeIndex luceneHolder : _luceneHolderMap.values()) {
+                    try {
+                        luceneHolder.refresh();
+                    } catch (Exception e) {
+                        _logger.log(Level.WARNING, "Failed to refresh text search index searcher", e);
+                    }
+                }
+            }
+        }, interval, interval, TimeUnit.MILLISECONDS);
+        return refresher;
     }
 
     @Override
     public void close() throws IOException {
+        if (_refresher != null)
+            _refresher.shutdownNow();
+        if (_indexer != null)
+            _indexer.close();
         for (LuceneTextSearchTypeIndex luceneHolder : _luceneHolderMap.values())
             luceneHolder.close();
 
@@ -133,6 +177,13 @@ public class LuceneTextSearchQueryExtensionManager extends QueryExtensionManager
         final LuceneTextSearchTypeIndex luceneHolder = _luceneHolderMap.get(typeName);
         try {
             final Document doc = createDocumentIfNeeded(luceneHolder, entry);
+            if (_indexer != null) {
+                // Analysis and indexing are left to the indexing threads
+                final Term previous = hasPrevious ? new Term(XAP_ID_VERSION, concat(entry.getUid(), entry.getVersion() - 1)) : null;
+                if (doc != null || previous != null)
+                    _indexer.index(luceneHolder, entry.getUid(), doc, previous);
+                return doc != null;
+            }
             // Add new
             if (doc != null)
                 luceneHolder.getIndexWriter().addDocument(doc);
@@ -206,6 +257,17 @@ public class LuceneTextSearchQueryExtensionManager extends QueryExtensionManager
 
         final Query query = createQuery(typeName, path, operationName, operand);
         final LuceneTextSearchTypeIndex luceneHolder = _luceneHolderMap.get(typeName);
+        if (_indexer != null) {
+            // Read your writes - wait for the changes queued before this query
+            if (luceneHolder.hasPendingChanges())
+                _indexer.awaitIndexed();
+            final Exception failure = luceneHolder.getIndexingFailure();
+            if (failure != null)
+                throw new SpaceRuntimeException("Failed to index " + luceneHolder.getFailedEntries() + " entries of type "
+                        + typeName + " in the background, the index may not match the space", failure);
+        }
+        if (luceneHolder.isNearRealTime())
+            return queryNearRealTime(luceneHolder, query);
         try {
             // Flush
             luceneHolder.commit(true);
@@ -219,6 +281,32 @@ public class LuceneTextSearchQueryExtensionManager extends QueryExtensionManager
         }
     }
 
+    private QueryExtensionEntryIterator queryNearRealTime(LuceneTextSearchTypeIndex luceneHolder, Query query) {
+        // Searches the uncommitted changes of the index writer - commits are left to the uncommitted changes threshold
+        IndexSearcher is = null;
+        try {
+            is = luceneHolder.acquireSearcher();
+            ScoreDoc[] scores = is.search(query, _luceneConfiguration.getMaxResults()).scoreDocs;
+            return new LuceneQueryExtensionEntryIterator(scores, is, luceneHolder);
+        } catch (IOException e) {
+            releaseQuietly(luceneHolder, is);
+            throw new SpaceRuntimeException("Failed to scan index", e);
+        } catch (RuntimeException e) {
+            releaseQuietly(luceneHolder, is);
+            throw e;
+        }
+    }
+
+    private static void releaseQuietly(LuceneTextSearchTypeIndex luceneHolder, IndexSearcher is) {
+        if (is == null)
+            return;
+        try {
+            luceneHolder.releaseSearcher(is);
+        } catch (IOException e) {
+            _logger.log(Level.FINE, "Failed to release index searcher", e);
+        }
+    }
+
     protected Query createQuery(String typeName, String path, String operationName, Object operand) {
         Assert.notNull(operand, "Provided operand is null");
         validateOperationName(operationName);
@@ -241,6 +329,10 @@ public class LuceneTextSearchQueryExtensionManager extends QueryExtensionManager
     public void removeEntry(SpaceTypeDescriptor typeDescriptor, String uid, int version) {
         final String typeName = typeDescriptor.getTypeName();
         final LuceneTextSearchTypeIndex luceneHolder = _luceneHolderMap.get(typeName);
+        if (_indexer != null) {
+            _indexer.index(luceneHolder, uid, null, new Term(XAP_ID_VERSION, concat(uid, version)));
+            return;
+        }
         try {
             luceneHolder.getIndexWriter().deleteDocuments(new TermQuery(new Term(XAP_ID_VERSION, concat(uid, version))));
             luceneHolder.commit(false);
@@ -250,6 +342,54 @@ public class LuceneTextSearchQueryExtensionManager extends QueryExtensionManager
     }
 
 
+    /**
+     * Number of entry changes queued for background indexing, or 0 if entries are indexed
+     * synchronously.
+     */
+    public int getPendingIndexOperations() {
+        return _indexer != null ? _indexer.getPendingOperations() : 0;
+    }
+
+    /**
+     * Time (in milliseconds) the oldest entry change queued for background indexing has been
+     * waiting, or 0 if entries are indexed synchronously.
+     */
+    public long getIndexingLag() {
+        return _indexer != null ? _indexer.getIndexingLag() : 0;
+    }
+
+    /**
+     * Number of entry changes which failed to be indexed in the background, or 0 if entries are
+     * indexed synchronously.
+     */
+    public long getFailedIndexOperations() {
+        return _indexer != null ? _indexer.getFailedOperations() : 0;
+    }
+
+    @Override
+    public void registerMetrics(MetricRegistrator registrator) {
+        if (_indexer == null)
+            return;
+        registrator.register("pending-operations", new Gauge<Integer>() {
+            @Override
+            public Integer getValue() throws Exception {
+                return getPendingIndexOperations();
+            }
+        });
+        registrator.register("indexing-lag", new Gauge<Long>() {
+            @Override
+            public Long getValue() throws Exception {
+                return getIndexingLag();
+            }
+        });
+        registrator.register("failed-operations", new Gauge<Long>() {
+            @Override
+            public Long getValue() throws Exception {
+                return getFailedIndexOperations();
+            }
+        });
+    }
+
     private static FieldType toFieldType(Field.Store store, IndexOptions index, boolean analyzed) {
         final FieldType ft = new FieldType();
 
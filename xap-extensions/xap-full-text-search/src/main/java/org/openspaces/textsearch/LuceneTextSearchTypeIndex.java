@@ -24,13 +24,18 @@ import org.apache.lucene.analysis.Analyzer;
 import org.apache.lucene.analysis.miscellaneous.PerFieldAnalyzerWrapper;
 import org.apache.lucene.index.IndexWriter;
 import org.apache.lucene.index.IndexWriterConfig;
+import org.apache.lucene.search.IndexSearcher;
+import org.apache.lucene.search.SearcherManager;
 import org.apache.lucene.store.Directory;
 
 import java.io.Closeable;
 import java.io.File;
 import java.io.IOException;
 import java.util.HashMap;
+import java.util.Iterator;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 import java.util.concurrent.atomic.AtomicInteger;
 
 /**
@@ -44,6 +49,10 @@ public class LuceneTextSearchTypeIndex implements Closeable {
     private final TypeQueryExtension queryExtensionInfo;
     private final int maxUncommittedChanges;
     private final AtomicInteger uncommittedChanges = new AtomicInteger(0);
+    private final AtomicInteger pendingChanges = new AtomicInteger(0);
+    private final ConcurrentMap<String, Exception> failedEntries = new ConcurrentHashMap<String, Exception>();
+    private final SearcherManager searcherManager;
+    private final boolean refreshOnDemand;
     protected final LuceneTextSearchConfiguration luceneConfig;
     private Map<String, Analyzer> _fieldAnalyzers;
 
@@ -54,13 +63,45 @@ public class LuceneTextSearchTypeIndex implements Closeable {
                 .setOpenMode(IndexWriterConfig.OpenMode.CREATE));
         this.queryExtensionInfo = typeDescriptor.getQueryExtensions().getByNamespace(namespace);
         this.maxUncommittedChanges = luceneConfig.getMaxUncommittedChanges();
+        this.searcherManager = luceneConfig.isNearRealTime() ? new SearcherManager(indexWriter, null) : null;
+        this.refreshOnDemand = luceneConfig.getRefreshInterval() <= 0;
     }
 
     @Override
     public void close() throws IOException {
+        if (searcherManager != null)
+            searcherManager.close();
         indexWriter.close();
     }
 
+    public boolean isNearRealTime() {
+        return searcherManager != null;
+    }
+
+    /**
+     * Acquires a near real time searcher, which must be released using {@link
+     * #releaseSearcher(IndexSearcher)}. Unless refreshed in the background, the searcher is first
+     * refreshed to see all the changes made so far.
+     */
+    public IndexSearcher acquireSearcher() throws IOException {
+        if (refreshOnDemand)
+            searcherManager.maybeRefreshBlocking();
+        return searcherManager.acquire();
+    }
+
+    public void releaseSearcher(IndexSearcher searcher) throws IOException {
+        searcherManager.release(searcher);
+    }
+
+    /**
+     * Makes the changes made so far visible to searchers acquired from now on, if no other refresh
+     * is in progress.
+     */
+    public void refresh() throws IOException {
+        if (searcherManager != null)
+            searcherManager.maybeRefresh();
+    }
+
     public IndexWriter getIndexWriter() {
         return indexWriter;
     }
@@ -80,6 +121,61 @@ public class LuceneTextSearchTypeIndex implements Closeable {
         }
     }
 
+    /**
+     * Commits the given number of changes if the uncommitted changes reached their threshold.
+     */
+    public void commit(int changes) throws IOException {
+        if (uncommittedChanges.addAndGet(changes) >= maxUncommittedChanges) {
+            uncommittedChanges.set(0);
+            indexWriter.commit();
+        }
+    }
+
+    /**
+     * Tracks the changes which were queued for background indexing but not yet applied to the index
+     * writer.
+     */
+    public void addPendingChanges(int delta) {
+        pendingChanges.addAndGet(delta);
+    }
+
+    public boolean hasPendingChanges() {
+        return pendingChanges.get() != 0;
+    }
+
+    /**
+     * Records a failure to apply the background indexing changes of the given entry. The failure
+     * is kept until a later change of the same entry is indexed.
+     */
+    public void indexingFailed(String uid, Exception e) {
+        failedEntries.put(uid, e);
+    }
+
+    /**
+     * Marks the background indexing changes of the given entry as applied, clearing a previous
+     * failure of the entry.
+     */
+    public void indexed(String uid) {
+        if (!failedEntries.isEmpty())
+            failedEntries.remove(uid);
+    }
+
+    /**
+     * Number of entries whose background indexing changes failed and were not fixed since.
+     */
+    public int getFailedEntries() {
+        return failedEntries.size();
+    }
+
+    /**
+     * Returns a failure to apply the background indexing changes of an entry which was not fixed
+     * since, or null if the index is up to date with the changes applied so far.
+     */
+    public Exception getIndexingFailure() {
+        final Iterator<Exception> iterator = failedEntries.values().iterator();
+        return iterator.hasNext() ? iterator.next() : null;
+    }
+
     public Analyzer getAnalyzerForPath(String path) {
         Analyzer fieldAnalyzer = _fieldAnalyzers.get(path);
         if (fieldAnalyzer != null) {
@@ -16,12 +16,28 @@
 
 package org.openspaces.textsearch;
 
+import com.gigaspaces.SpaceRuntimeException;
+import com.gigaspaces.metadata.SpaceTypeDescriptor;
+import com.gigaspaces.metadata.SpaceTypeDescriptorBuilder;
+import com.gigaspaces.metrics.DummyMetricRegistrator;
+import com.gigaspaces.metrics.Gauge;
+import com.gigaspaces.metrics.Metric;
+import com.gigaspaces.query.extension.QueryExtensionEntryIterator;
 import com.gigaspaces.query.extension.QueryExtensionRuntimeInfo;
+import com.gigaspaces.server.SpaceServerEntry;
 
+import org.apache.lucene.index.DirectoryReader;
 import org.junit.Assert;
 import org.junit.Before;
 import org.junit.Test;
 
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
 /**
  * @author Danylo_Hurin.
  */
@@ -95,4 +111,254 @@ public class LuceneTextSearchQueryExtensionManagerTest {
         } catch (IllegalArgumentException e) {}
     }
 
+    @Test
+    public void testSynchronousIndexingHasNoLag() {
+        Assert.assertEquals(0, _manager.getPendingIndexOperations());
+        Assert.assertEquals(0, _manager.getIndexingLag());
+    }
+
+    @Test
+    public void testBackgroundIndexingMetrics() throws Exception {
+        QueryExtensionRuntimeInfo info = new QueryExtensionRuntimeInfo() {
+            @Override
+            public String getSpaceInstanceName() {
+                return "dummy";
+            }
+
+            @Override
+            public String getSpaceInstanceWorkDirectory() {
+                return null;
+            }
+        };
+        LuceneTextSearchQueryExtensionProvider provider = new LuceneTextSearchQueryExtensionProvider()
+                .setCustomProperty(LuceneTextSearchConfiguration.INDEXING_THREADS, "2");
+        LuceneTextSearchConfiguration configuration = new LuceneTextSearchConfiguration(provider, info);
+        Assert.assertEquals(2, configuration.getIndexingThreads());
+        LuceneTextSearchQueryExtensionManager manager = new LuceneTextSearchQueryExtensionManager(provider, info, configuration);
+        try {
+            Assert.assertEquals(0, manager.getPendingIndexOperations());
+            Assert.assertEquals(0, manager.getIndexingLag());
+        } finally {
+            manager.close();
+        }
+    }
+
+    @Test
+    public void testBackgroundIndexingAppliesChangesInOrder() throws Exception {
+        LuceneTextSearchQueryExtensionManager manager = createBackgroundIndexingManager();
+        try {
+            SpaceTypeDescriptor typeDescriptor = createTypeDescriptor();
+            manager.registerType(typeDescriptor);
+
+            manager.insertEntry(new TestEntry(typeDescriptor, "uid1", 1, "red car"), false);
+            manager.insertEntry(new TestEntry(typeDescriptor, "uid2", 1, "red bike"), false);
+            Assert.assertEquals(set("uid1", "uid2"), search(manager, "red"));
+
+            // Update
+            manager.insertEntry(new TestEntry(typeDescriptor, "uid1", 2, "blue car"), true);
+            Assert.assertEquals(set("uid2"), search(manager, "red"));
+            Assert.assertEquals(set("uid1"), search(manager, "blue"));
+
+            // Remove
+            manager.removeEntry(typeDescriptor, "uid2", 1);
+            Assert.assertEquals(set(), search(manager, "red"));
+
+            // Taken and written again with the same uid and version, queued in the same batch
+            manager.removeEntry(typeDescriptor, "uid1", 2);
+            manager.insertEntry(new TestEntry(typeDescriptor, "uid1", 2, "blue car"), false);
+            Assert.assertEquals(set("uid1"), search(manager, "blue"));
+
+            Assert.assertEquals(0, manager.getPendingIndexOperations());
+            Assert.assertEquals(0, manager.getFailedIndexOperations());
+        } finally {
+            manager.close();
+        }
+    }
+
+    @Test
+    public void testBackgroundIndexingMetricsAreRegistered() throws Exception {
+        LuceneTextSearchQueryExtensionManager manager = createBackgroundIndexingManager();
+        try {
+            final Map<String, Metric> metrics = new HashMap<String, Metric>();
+            manager.registerMetrics(new DummyMetricRegistrator() {
+                @Override
+                public void register(String name, Metric metric) {
+                    metrics.put(name, metric);
+                }
+            });
+            Assert.assertEquals(set("pending-operations", "indexing-lag", "failed-operations"), metrics.keySet());
+            Assert.assertEquals(0L, ((Gauge) metrics.get("failed-operations")).getValue());
+        } finally {
+            manager.close();
+        }
+    }
+
+    @Test
+    public void testBackgroundIndexingFailureIsReportedToNextQuery() throws Exception {
+        LuceneTextSearchQueryExtensionManager manager = createBackgroundIndexingManager();
+        try {
+            SpaceTypeDescriptor typeDescriptor = createTypeDescriptor();
+            manager.registerType(typeDescriptor);
+            manager._luceneHolderMap.get(typeDescriptor.getTypeName()).getIndexWriter().close();
+
+            manager.insertEntry(new TestEntry(typeDescriptor, "uid1", 1, "red car"), false);
+            try {
+                search(manager, "red");
+                Assert.fail("Should throw an exception here");
+            } catch (SpaceRuntimeException e) {}
+            Assert.assertEquals(1, manager.getFailedIndexOperations());
+            Assert.assertEquals(0, manager.getPendingIndexOperations());
+            // The type keeps failing queries until the entry is indexed
+            try {
+                search(manager, "red");
+                Assert.fail("Should throw an exception here");
+            } catch (SpaceRuntimeException e) {}
+        } finally {
+            manager.close();
+        }
+    }
+
+    @Test
+    public void testBackgroundIndexingFailedBatchIsAppliedOneAtATime() throws Exception {
+        LuceneTextSearchQueryExtensionManager manager = createBackgroundIndexingManager();
+        try {
+            SpaceTypeDescriptor typeDescriptor = createTypeDescriptor();
+            manager.registerType(typeDescriptor);
+
+            // A uid exceeding the maximal term length fails the batch it is added with
+            char[] chars = new char[40000];
+            Arrays.fill(chars, 'x');
+            String immenseUid = new String(chars);
+            manager.insertEntry(new TestEntry(typeDescriptor, "uid1", 1, "red car"), false);
+            manager.insertEntry(new TestEntry(typeDescriptor, immenseUid, 1, "red bus"), false);
+            manager.insertEntry(new TestEntry(typeDescriptor, "uid2", 1, "red bike"), false);
+            try {
+                search(manager, "red");
+                Assert.fail("Should throw an exception here");
+            } catch (SpaceRuntimeException e) {}
+            Assert.assertEquals(1, manager.getFailedIndexOperations());
+
+            // Removing the failed entry fixes the type, the rest of its batch was indexed
+            manager.removeEntry(typeDescriptor, immenseUid, 1);
+            Assert.assertEquals(set("uid1", "uid2"), search(manager, "red"));
+            Assert.assertEquals(1, manager.getFailedIndexOperations());
+        } finally {
+            manager.close();
+        }
+    }
+
+    @Test
+    public void testBackgroundIndexingCloseAppliesQueuedChanges() throws Exception {
+        LuceneTextSearchQueryExtensionManager manager = createBackgroundIndexingManager();
+        SpaceTypeDescriptor typeDescriptor = createTypeDescriptor();
+        manager.registerType(typeDescriptor);
+        LuceneTextSearchTypeIndex typeIndex = manager._luceneHolderMap.get(typeDescriptor.getTypeName());
+        for (int i = 0; i < 1000; i++)
+            manager.insertEntry(new TestEntry(typeDescriptor, "uid" + i, 1, "red car"), false);
+        manager.close();
+
+        Assert.assertEquals(0, manager.getPendingIndexOperations());
+        Assert.assertEquals(0, manager.getFailedIndexOperations());
+        DirectoryReader reader = DirectoryReader.open(typeIndex.getDirectory());
+        try {
+            Assert.assertEquals(1000, reader.numDocs());
+        } finally {
+            reader.close();
+        }
+    }
+
+    private static LuceneTextSearchQueryExtensionManager createBackgroundIndexingManager() {
+        QueryExtensionRuntimeInfo info = new QueryExtensionRuntimeInfo() {
+            @Override
+            public String getSpaceInstanceName() {
+                return "dummy";
+            }
+
+            @Override
+            public String getSpaceInstanceWorkDirectory() {
+                return null;
+            }
+        };
+        LuceneTextSearchQueryExtensionProvider provider = new LuceneTextSearchQueryExtensionProvider()
+                .setCustomProperty(LuceneTextSearchConfiguration.INDEXING_THREADS, "2")
+                .setCustomProperty(LuceneTextSearchConfiguration.STORAGE_DIRECTORY_TYPE, "RAMDirectory");
+        LuceneTextSearchConfiguration configuration = new LuceneTextSearchConfiguration(provider, info);
+        return new LuceneTextSearchQueryExtensionManager(provider, info, configuration);
+    }
+
+    private static SpaceTypeDescriptor createTypeDescriptor() {
+        return new SpaceTypeDescriptorBuilder("TextEntry")
+                .addFixedProperty("text", String.class)
+                .addQueryExtensionInfo("text", SpaceTextIndex.class)
+                .create();
+    }
+
+    private static Set<String> search(LuceneTextSearchQueryExtensionManager manager, String operand) throws IOException {
+        QueryExtensionEntryIterator iterator = manager.queryByIndex("TextEntry", "text",
+                LuceneTextSearchQueryExtensionManager.SEARCH_OPERATION_NAME, operand);
+        try {
+            Set<String> uids = new HashSet<String>();
+            while (iterator.hasNext())
+                uids.add(iterator.nextUid());
+            return uids;
+        } finally {
+            iterator.close();
+        }
+    }
+
+    private static Set<String> set(String... uids) {
+        Set<String> result = new HashSet<String>();
+        for (String uid : uids)
+            result.add(uid);
+        return result;
+    }
+
+    private static class TestEntry implements SpaceServerEntry {
+        private final SpaceTypeDescriptor _typeDescriptor;
+        private final String _uid;
+        private final int _version;
+        private final String _text;
+
+        private TestEntry(SpaceTypeDescriptor typeDescriptor, String uid, int version, String text) {
+            this._typeDescriptor = typeDescriptor;
+            this._uid = uid;
+            this._version = version;
+            this._text = text;
+        }
+
+        @Override
+        public String getUid() {
+            return _uid;
+        }
+
+        @Override
+        public SpaceTypeDescriptor getSpaceTypeDescriptor() {
+            return _typeDescriptor;
+        }
+
+        @Override
+        public Object getFixedPropertyValue(int position) {
+            return _text;
+        }
+
+        @Override
+        public Object getPropertyValue(String name) {
+            return "text".equals(name) ? _text : null;
+        }
+
+        @Override
+        public Object getPathValue(String path) {
+            return getPropertyValue(path);
+        }
+
+        @Override
+        public int getVersion() {
+            return _version;
+        }
+
+        @Override
+        public long getExpirationTime() {
+            return Long.MAX_VALUE;
+        }
+    }
 }
@@ -17,6 +17,8 @@
 
 package org.openspaces.jee.sessions.jetty;
 
+import com.gigaspaces.client.ChangeResult;
+import com.gigaspaces.client.ChangeSet;
 import com.gigaspaces.client.ClearModifiers;
 import com.j_spaces.core.IJSpace;
 import com.j_spaces.core.client.SQLQuery;
@@ -32,10 +34,18 @@ import org.openspaces.core.GigaSpace;
 import org.openspaces.core.GigaSpaceConfigurer;
 import org.openspaces.core.space.UrlSpaceConfigurer;
 
+import java.io.Serializable;
+import java.util.ArrayList;
 import java.util.Enumeration;
 import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.ScheduledFuture;
 import java.util.concurrent.TimeUnit;
@@ -83,6 +93,19 @@ public class GigaSessionManager extends AbstractSessionManager {
 
     private long countSessionPeriod = TimeUnit.MINUTES.toMillis(5); // every 5 minutes do the sessions count
 
+    private static final String ATTRIBUTE_MAP_PATH = "attributeMap";
+
+    private boolean deltaPersistence = false;
+
+    private boolean bulkScavenge = false;
+
+    private static final int SCAVENGE_BATCH_SIZE = 100;
+
+    // sessions whose access time should be saved by the next periodic refresh
+    private final ConcurrentMap<String, Session> pendingAccessRefresh = new ConcurrentHashMap<String, Session>();
+
+    private volatile ScheduledFuture accessRefreshFuture;
+
     /**
      * Start the session manager.
      */
@@ -114,6 +137,13 @@ public class GigaSessionManager extends AbstractSessionManager {
                     scavenge();
                 }
             }, _scavengePeriodMs, _scavengePeriodMs, TimeUnit.MILLISECONDS);
+            if (deltaPersistence) {
+                accessRefreshFuture = executorService.scheduleWithFixedDelay(new Runnable() {
+                    public void run() {
+                        refreshAccessTimes();
+                    }
+                }, _savePeriodMs, _savePeriodMs, TimeUnit.MILLISECONDS);
+            }
         }
 
         super.doStart();
@@ -125,6 +155,10 @@ public class GigaSessionManager extends AbstractSessionManager {
     @Override
     public void doStop() throws Exception {
         synchronized (executorMonitor) {
+            if (accessRefreshFuture != null) {
+                accessRefreshFuture.cancel(false);
+                accessRefreshFuture = null;
+            }
             if (scavengerFuture != null) {
                 scavengerFuture.cancel(true);
                 if (--totalNumberOfScavangers == 0) {
@@ -133,6 +167,8 @@ public class GigaSessionManager extends AbstractSessionManager {
                 }
             }
         }
+        if (deltaPersistence)
+            refreshAccessTimes();
         gigaSpace = null;
         if (urlSpaceConfigurer != null) {
             urlSpaceConfigurer.close();
@@ -180,6 +216,44 @@ public class GigaSessionManager extends AbstractSessionManager {
         _scavengePeriodMs = TimeUnit.SECONDS.toMillis(seconds);
     }
 
+    /**
+     * Whether a session change sends only the modified attributes to the Space, instead of writing
+     * the whole session. Access times of otherwise unchanged sessions are then saved together, once
+     * every save period. Defaults to <code>false</code>.
+     */
+    public boolean isDeltaPersistence() {
+        return deltaPersistence;
+    }
+
+    /**
+     * Whether a session change sends only the modified attributes to the Space, instead of writing
+     * the whole session. Access times of otherwise unchanged sessions are then saved together, once
+     * every save period. Defaults to <code>false</code>.
+     */
+    public void setDeltaPersistence(boolean deltaPersistence) {
+        this.deltaPersistence = deltaPersistence;
+    }
+
+    /**
+     * Whether the scavenger removes expired sessions in bulk from the Space, instead of reading each
+     * expired session and invalidating it separately. If no session listeners are registered the
+     * expired sessions are cleared in place, otherwise they are taken in batches so the listeners
+     * can be notified. Defaults to <code>false</code>.
+     */
+    public boolean isBulkScavenge() {
+        return bulkScavenge;
+    }
+
+    /**
+     * Whether the scavenger removes expired sessions in bulk from the Space, instead of reading each
+     * expired session and invalidating it separately. If no session listeners are registered the
+     * expired sessions are cleared in place, otherwise they are taken in batches so the listeners
+     * can be notified. Defaults to <code>false</code>.
+     */
+    public void setBulkScavenge(boolean bulkScavenge) {
+        this.bulkScavenge = bulkScavenge;
+    }
+
     public void setCountSessionPeriod(int seconds) {
         this.countSessionPeriod = TimeUnit.SECONDS.toMillis(seconds);
     }
@@ -271,6 +345,7 @@ public class GigaSessionManager extends AbstractSessionManager {
 
     @Override
     protected boolean removeSession(String idInCluster) {
+        pendingAccessRefresh.remove(idInCluster);
         try {
             return gigaSpace.clear(SessionData.newIdQuery(idInCluster), ClearModifiers.NONE) != 0;
         } catch (Exception e) {
@@ -287,7 +362,14 @@ public class GigaSessionManager extends AbstractSessionManager {
         //TODO there was synchronize on both sessionIdManager and this here, do we really need it?
 
         String sessionId = getClusterId(abstractSession);
-        boolean removed = removeSession(sessionId);
+        boolean removed;
+        if (((GigaSessionManager.Session) abstractSession)._removedFromSpace) {
+            // Already taken from the space by the bulk scavenger, only clearing it from the space is skipped
+            pendingAccessRefresh.remove(sessionId);
+            removed = true;
+        } else {
+            removed = removeSession(sessionId);
+        }
         if (removed) {
             _sessionIdManager.removeSession(abstractSession);
             if (invalidate)
@@ -342,10 +424,17 @@ public class GigaSessionManager extends AbstractSessionManager {
             long now = System.currentTimeMillis();
             if (Log.getLog().isDebugEnabled())
                 Log.getLog().debug("Scavenging old sessions, expiring before: " + (now));
+            if (bulkScavenge) {
+                int expired = scavengeBulk(now);
+                if (Log.getLog().isDebugEnabled())
+                    Log.getLog().debug("Removed " + expired + " expired sessions");
+                lastSessionCount = -1;
+                return;
+            }
             Object[] expiredSessions;
             do {
                 expiredSessions = gigaSpace.readMultiple(
-                        new SQLQuery<SessionData>(SessionData.class, "expiryTime < ?", now), 100);
+                        new SQLQuery<SessionData>(SessionData.class, "expiryTime < ?", now), SCAVENGE_BATCH_SIZE);
                 for (int i = 0; i < expiredSessions.length; i++) {
                     if (Log.getLog().isDebugEnabled())
                         Log.getLog().debug("Timing out expired session " + expiredSessions[i]);
@@ -368,6 +457,90 @@ public class GigaSessionManager extends AbstractSessionManager {
         }
     }
 
+    /**
+     * Removes the sessions which expired before the given time by the Space itself, and returns
+     * the number of removed sessions.
+     */
+    protected int scavengeBulk(long now) {
+        SQLQuery<SessionData> query = new SQLQuery<SessionData>(SessionData.class, "expiryTime < ?", now);
+        if (LazyList.size(_sessionListeners) == 0)
+            return gigaSpace.clear(query, ClearModifiers.NONE);
+
+        int expired = 0;
+        SessionData[] expiredSessions;
+        do {
+            expiredSessions = gigaSpace.takeMultiple(query, SCAVENGE_BATCH_SIZE);
+            for (SessionData data : expiredSessions) {
+                Session expiredSession = new Session(data);
+                expiredSession._removedFromSpace = true;
+                expiredSession.timeout();
+            }
+            expired += expiredSessions.length;
+        } while (expiredSessions.length > 0);
+        return expired;
+    }
+
+    /**
+     * Saves the access times of the sessions which were accessed but not changed since the last
+     * refresh, sending the changes of all of them together and renewing their lease. Sessions which
+     * are no longer in the space are written as a whole, and sessions which failed to refresh are
+     * left to the next refresh.
+     */
+    protected void refreshAccessTimes() {
+        if (pendingAccessRefresh.isEmpty())
+            return;
+
+        List<Session> sessions = new ArrayList<Session>();
+        List<Future<ChangeResult<SessionData>>> results = new ArrayList<Future<ChangeResult<SessionData>>>();
+        int failed = 0;
+        Exception failure = null;
+        for (Iterator<Session> it = pendingAccessRefresh.values().iterator(); it.hasNext(); ) {
+            Session session = it.next();
+            it.remove();
+            try {
+                results.add(gigaSpace.asyncChange(SessionData.newIdQuery(session.getClusterId()), session.accessTimeChangeSet()));
+                sessions.add(session);
+            } catch (Exception e) {
+                retryAccessRefresh(session);
+                failed++;
+                failure = e;
+            }
+        }
+
+        int refreshed = 0;
+        int written = 0;
+        for (int i = 0; i < results.size(); i++) {
+            Session session = sessions.get(i);
+            try {
+                if (results.get(i).get().getNumberOfChangedEntries() == 0 && session.isValid()) {
+                    // The session is no longer in the space (e.g. its lease expired), write it as a whole
+                    session.write();
+                    written++;
+                }
+                refreshed++;
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                retryAccessRefresh(session);
+                failed++;
+                failure = e;
+            } catch (Exception e) {
+                retryAccessRefresh(session);
+                failed++;
+                failure = e;
+            }
+        }
+        if (failure != null)
+            Log.getLog().warn("Problem refreshing access time of " + failed + " sessions, will retry on next refresh", failure);
+        if (Log.getLog().isDebugEnabled())
+            Log.getLog().debug("Refreshed access time of " + refreshed + " sessions, " + written + " of them written as a whole");
+    }
+
+    private void retryAccessRefresh(Session session) {
+        // a session accessed again since was already queued by its request
+        if (session.isValid())
+            pendingAccessRefresh.putIfAbsent(session.getClusterId(), session);
+    }
+
     /**
      * Session
      *
@@ -379,6 +552,15 @@ public class GigaSessionManager extends AbstractSessionManager {
 
         private volatile boolean _dirty = false;
 
+        // attributes changed since the session was last saved, null values mark removed attributes
+        private final Map<String, Object> _changedAttributes = new LinkedHashMap<String, Object>();
+
+        // Guarded by _changedAttributes
+        private boolean _requiresWrite = false;
+
+        // set when the session data was already taken from the space by the bulk scavenger
+        private volatile boolean _removedFromSpace = false;
+
         /**
          * Session from a request.
          */
@@ -433,6 +615,7 @@ public class GigaSessionManager extends AbstractSessionManager {
                 _data.getAttributeMap().put(name, value);
             }
             _dirty = true;
+            attributeChanged(name, value);
         }
 
         @Override
@@ -440,6 +623,18 @@ public class GigaSessionManager extends AbstractSessionManager {
             super.removeAttribute(name);
             _data.getAttributeMap().remove(name);
             _dirty = true;
+            attributeChanged(name, null);
+        }
+
+        private void attributeChanged(String name, Object value) {
+            if (!deltaPersistence)
+                return;
+            synchronized (_changedAttributes) {
+                // A value which cannot be sent as a change is saved by writing the whole session
+                if (value != null && !(value instanceof Serializable))
+                    _requiresWrite = true;
+                _changedAttributes.put(name, value);
+            }
         }
 
         /**
@@ -478,14 +673,10 @@ public class GigaSessionManager extends AbstractSessionManager {
         protected void complete() {
             super.complete();
             try {
-                if (_dirty || (_data.getAccessed() - _data.getLastSaved()) >= (_savePeriodMs)) {
-                    _data.setLastSaved(System.currentTimeMillis());
-                    willPassivate();
-                    gigaSpace.write(_data, lease);
-                    if (Log.getLog().isDebugEnabled())
-                        Log.getLog().debug("Wrote session " + _data.toStringExtended());
-
-                    didActivate();
+                if (deltaPersistence) {
+                    saveChanges();
+                } else if (_dirty || (_data.getAccessed() - _data.getLastSaved()) >= (_savePeriodMs)) {
+                    write();
                     if (Log.getLog().isDebugEnabled())
                         Log.getLog().debug("Dirty=" + _dirty + ", accessed-saved=" + _data.getAccessed() + "-" + _data.getLastSaved() + ", savePeriodMs=" + _savePeriodMs);
                 }
@@ -496,6 +687,91 @@ public class GigaSessionManager extends AbstractSessionManager {
             }
         }
 
+        private void write() {
+            _data.setLastSaved(System.currentTimeMillis());
+            willPassivate();
+            gigaSpace.write(_data, lease);
+            if (Log.getLog().isDebugEnabled())
+                Log.getLog().debug("Wrote session " + _data.toStringExtended());
+
+            didActivate();
+        }
+
+        /**
+         * Sends only the attributes changed since the session was last saved. If no attribute
+         * changed, the access time is left to the next periodic refresh.
+         */
+        private void saveChanges() {
+            final Map<String, Object> changedAttributes;
+            final boolean requiresWrite;
+            synchronized (_changedAttributes) {
+                changedAttributes = new LinkedHashMap<String, Object>(_changedAttributes);
+                requiresWrite = _requiresWrite;
+                _changedAttributes.clear();
+                _requiresWrite = false;
+            }
+
+            if (!requiresWrite && changedAttributes.isEmpty()) {
+                if ((_data.getAccessed() - _data.getLastSaved()) >= _savePeriodMs)
+                    pendingAccessRefresh.put(getClusterId(), this);
+                return;
+            }
+
+            pendingAccessRefresh.remove(getClusterId());
+            boolean saved = false;
+            try {
+                if (requiresWrite)
+                    write();
+                else
+                    change(changedAttributes);
+                saved = true;
+            } finally {
+                if (!saved) {
+                    // The drained changes were not saved, the next save writes the session as a whole
+                    synchronized (_changedAttributes) {
+                        _requiresWrite = true;
+                    }
+                }
+            }
+        }
+
+        private void change(Map<String, Object> changedAttributes) {
+            ChangeSet changeSet = accessTimeChangeSet();
+            for (Map.Entry<String, Object> attribute : changedAttributes.entrySet()) {
+                if (attribute.getValue() == null)
+                    changeSet.removeFromMap(ATTRIBUTE_MAP_PATH, attribute.getKey());
+                else
+                    changeSet.putInMap(ATTRIBUTE_MAP_PATH, attribute.getKey(), (Serializable) attribute.getValue());
+            }
+            ChangeResult<SessionData> result;
+            willPassivate();
+            try {
+                result = gigaSpace.change(SessionData.newIdQuery(getClusterId()), changeSet);
+            } finally {
+                didActivate();
+            }
+            if (result.getNumberOfChangedEntries() == 0) {
+                // The session is no longer in the space (e.g. its lease expired), write it as a whole
+                write();
+            } else if (Log.getLog().isDebugEnabled()) {
+                Log.getLog().debug("Changed " + changedAttributes.size() + " attributes of session " + _data);
+            }
+        }
+
+        /**
+         * A change of the session access time, which also renews the session lease.
+         */
+        protected ChangeSet accessTimeChangeSet() {
+            _data.setLastSaved(System.currentTimeMillis());
+            return new ChangeSet()
+                    .set("accessed", _data.getAccessed())
+                    .set("lastAccessed", _data.getLastAccessed())
+                    .set("expiryTime", _data.getExpiryTime())
+                    .set("cookieSet", _data.getCookieSet())
+                    .set("lastSaved", _data.getLastSaved())
+                    .lease(lease);
+        }
+
         @Override
         protected void timeout() throws IllegalStateException {
             if (Log.getLog().isDebugEnabled())
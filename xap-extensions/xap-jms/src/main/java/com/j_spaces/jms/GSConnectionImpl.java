@@ -147,6 +147,13 @@ class GSConnectionImpl implements Connection, QueueConnection, TopicConnection {
      */
     private final int m_compressionMinSize;
 
+    /**
+     * Producer batching and consumer prefetching settings, see {@link com.j_spaces.jms.utils.GSJMSAdmin}.
+     */
+    private final int m_producerBatchSize;
+    private final long m_producerBatchWindow;
+    private final int m_consumerPrefetchSize;
+
     //logger
     final private static Logger _logger = Logger.getLogger(Constants.LOGGER_JMS);
 
@@ -160,6 +167,9 @@ class GSConnectionImpl implements Connection, QueueConnection, TopicConnection {
         sessions = new Vector();//TODO To be change, as per J2EE 1.4, every
         // conn has ONLY one session
         this.m_compressionMinSize = connFacParent.getAdmin().getCompressionMinSize();
+        this.m_producerBatchSize = connFacParent.getAdmin().getProducerBatchSize();
+        this.m_producerBatchWindow = connFacParent.getAdmin().getProducerBatchWindow();
+        this.m_consumerPrefetchSize = connFacParent.getAdmin().getConsumerPrefetchSize();
     }
 
     /**
@@ -622,6 +632,18 @@ class GSConnectionImpl implements Connection, QueueConnection, TopicConnection {
         return m_compressionMinSize;
     }
 
+    public int getProducerBatchSize() {
+        return m_producerBatchSize;
+    }
+
+    public long getProducerBatchWindow() {
+        return m_producerBatchWindow;
+    }
+
+    public int getConsumerPrefetchSize() {
+        return m_consumerPrefetchSize;
+    }
+
 
     /**
      * @see QueueConnection#createConnectionConsumer(Queue, String, ServerSessionPool, int)
@@ -49,6 +49,7 @@ import net.jini.core.transaction.Transaction;
 import java.io.IOException;
 import java.rmi.RemoteException;
 import java.sql.Time;
+import java.util.LinkedList;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
@@ -209,6 +210,18 @@ public class GSMessageConsumerImpl
      */
     private long RECEIVE_TIME_FRAME = 3000;
 
+    /**
+     * The number of messages taken from the space by a single takeMultiple (queue consumers of an
+     * auto acknowledge session only).
+     */
+    private final int m_prefetchSize;
+
+    /**
+     * Messages taken from the space by a takeMultiple and not yet delivered. Returned to the space
+     * when the consumer is closed.
+     */
+    private final LinkedList<GSMessageImpl> m_prefetched = new LinkedList<GSMessageImpl>();
+
     /**
      * The logger.
      */
@@ -248,6 +261,7 @@ public class GSMessageConsumerImpl
         m_space = m_session.getConn().getSpace();
         connectionKey = m_session.getConn().getCnxKey();
         m_noLocal = noLocal;
+        m_prefetchSize = m_session.getConn().getConsumerPrefetchSize();
 
         initTemplates();
 
@@ -1066,6 +1080,45 @@ public class GSMessageConsumerImpl
                 synchTopicNotifyLock.notify();
             }
         }
+
+        returnPrefetchedMessages();
+    }
+
+
+    /**
+     * Writes the prefetched messages which were not delivered back to the space, so other
+     * consumers can receive them.
+     */
+    private void returnPrefetchedMessages() {
+        GSMessageImpl[] messages;
+        synchronized (m_prefetched) {
+            if (m_prefetched.isEmpty()) {
+                return;
+            }
+            messages = m_prefetched.toArray(new GSMessageImpl[m_prefetched.size()]);
+            m_prefetched.clear();
+        }
+
+        if (_logger.isLoggable(Level.FINE)) {
+            _logger.fine(toString2() + "GSMessageConsumerImpl.close(): Returning " +
+                    messages.length + " prefetched messages to the space.");
+        }
+        long now = SystemTime.timeMillis();
+        long[] leases = new long[messages.length];
+        for (int i = 0; i < messages.length; i++) {
+            Long expiration = messages[i].JMSExpiration;
+            // expired messages are discarded by the receiving consumer anyway
+            leases[i] = (expiration == null || expiration.longValue() == Message.DEFAULT_TIME_TO_LIVE) ?
+                    Lease.FOREVER : Math.max(1, expiration.longValue() - now);
+        }
+        try {
+            m_space.writeMultiple(messages, null, leases, m_space.getUpdateModifiers());
+        } catch (Exception e) {
+            if (_logger.isLoggable(Level.SEVERE)) {
+                _logger.log(Level.SEVERE, toString2() + "GSMessageConsumerImpl.close(): Failed to return " +
+                        messages.length + " prefetched messages to the space.", e);
+            }
+        }
     }
 
 
@@ -1198,6 +1251,11 @@ public class GSMessageConsumerImpl
             _logger.log(Level.FINE, "receiveFromQueue(): Receiving from Queue, txn=" + txn);
         }
         try {
+            // messages taken under a transaction belong to it and would be
+            // acknowledged with it, so only non transactional takes prefetch.
+            if (m_prefetchSize > 1 && txn == null && m_session.isAutoAck()) {
+                return receivePrefetched(timeout);
+            }
             return (GSMessageImpl) m_space.take(m_jmsMessageTemplate, txn, timeout);
         } catch (Exception e) {
             throw new ReceiveFromQueueException(e);
@@ -1206,6 +1264,33 @@ public class GSMessageConsumerImpl
     }
 
 
+    /**
+     * Returns the next prefetched message, refilling the prefetch buffer with a single
+     * takeMultiple when it is empty. Blocks on a single take if the queue is empty.
+     */
+    private GSMessageImpl receivePrefetched(long timeout) throws Exception {
+        synchronized (m_prefetched) {
+            if (!m_prefetched.isEmpty()) {
+                return m_prefetched.removeFirst();
+            }
+        }
+
+        Object[] messages = m_space.takeMultiple(m_jmsMessageTemplate, null, m_prefetchSize);
+        if (messages == null || messages.length == 0) {
+            return (GSMessageImpl) m_space.take(m_jmsMessageTemplate, null, timeout);
+        }
+        if (_logger.isLoggable(Level.FINEST)) {
+            _logger.log(Level.FINEST, toString2() + "Prefetched " + messages.length + " messages");
+        }
+        synchronized (m_prefetched) {
+            for (int i = 1; i < messages.length; i++) {
+                m_prefetched.add((GSMessageImpl) messages[i]);
+            }
+        }
+        return (GSMessageImpl) messages[0];
+    }
+
+
     /**
      * Receives a message from a queue, breaking the timeout into smaller time frames, to prevent
      * potential eternal blocking.
@@ -18,6 +18,7 @@ package com.j_spaces.jms;
 
 import com.gigaspaces.internal.io.CompressedMarshObjectConvertor;
 import com.gigaspaces.internal.io.MarshObject;
+import com.gigaspaces.internal.utils.concurrent.GSThreadFactory;
 import com.gigaspaces.logger.Constants;
 import com.gigaspaces.time.SystemTime;
 import com.j_spaces.core.IJSpace;
@@ -45,11 +46,15 @@ import java.util.Iterator;
 import java.util.LinkedList;
 import java.util.Map;
 import java.util.Vector;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.locks.ReentrantLock;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
 import javax.jms.BytesMessage;
+import javax.jms.DeliveryMode;
 import javax.jms.Destination;
 import javax.jms.IllegalStateException;
 import javax.jms.InvalidDestinationException;
@@ -291,6 +296,40 @@ public class GSSessionImpl
     private ResourcePool<CompressedMarshObjectConvertor> _compressedConvertorPool = null;
     private int m_compressionMinSize;
 
+    /**
+     * Non persistent messages of a non transacted session waiting to be written to the space with
+     * a single writeMultiple, see {@link #handleSendMessage(GSMessageImpl)}.
+     */
+    private final LinkedList<GSMessageImpl> m_pendingSends = new LinkedList<GSMessageImpl>();
+    private int m_producerBatchSize;
+    private long m_producerBatchWindow;
+
+    /**
+     * Writes the pending messages whose batch did not fill within the batch window.
+     */
+    private final Runnable m_flushPendingSendsTask = new Runnable() {
+        public void run() {
+            try {
+                flushPendingSends();
+            } catch (Exception e) {
+                if (_logger.isLoggable(Level.SEVERE)) {
+                    _logger.log(Level.SEVERE, "GSSessionImpl: Failed to write batched messages: " + m_sessionID, e);
+                }
+                JMSException jmse = new JMSException("Failed to write batched messages: " + e.toString());
+                jmse.setLinkedException(e);
+                m_conn.onException(jmse);
+            }
+        }
+    };
+
+    /**
+     * A single daemon thread shared by all the sessions to flush batches on time.
+     */
+    private static class BatchFlusherHolder {
+        static final ScheduledExecutorService FLUSHER = Executors.newSingleThreadScheduledExecutor(
+                new GSThreadFactory("JMS-BatchFlusher", true));
+    }
+
     /**
      * Creates a session.
      *
@@ -375,6 +414,8 @@ public class GSSessionImpl
         }
 
         this.m_compressionMinSize = m_conn.getCompressionMinSize();
+        this.m_producerBatchSize = m_conn.getProducerBatchSize();
+        this.m_producerBatchWindow = m_conn.getProducerBatchWindow();
         _compressedConvertorPool = new ResourcePool<CompressedMarshObjectConvertor>(CompressedMarshObjectConvertor.getFactory(), 0, 100);
 
         conn.addSession(this);//TODO according to j2EE 1.4 every m_conn
@@ -567,13 +608,21 @@ public class GSSessionImpl
 
     /**
      * Sends a JMS message. Called by the MessageProducer. If the session is transacted the message
-     * is added to the sent messages list.
+     * is added to the sent messages list. If producer batching is enabled, non persistent messages
+     * of a non transacted session are buffered and written together once the batch is full or the
+     * batch window has passed.
      *
      * @param message The message to send
      */
     synchronized void handleSendMessage(GSMessageImpl message)
             throws RemoteException, TransactionException, JMSException {
         if (m_acknowledgeMode != Session.SESSION_TRANSACTED) {
+            if (isBatchable(message)) {
+                addPendingSend(message.duplicate());
+                return;
+            }
+            // keep the order of the messages sent by this session
+            flushPendingSends();
             doSend(message, null);
             // TODO PATCH!!
             // When we use embedded space the message is not serialized
@@ -597,6 +646,94 @@ public class GSSessionImpl
     }
 
 
+    /**
+     * Only plain non persistent messages are batched, converted and compressed messages keep their
+     * own write path.
+     */
+    private boolean isBatchable(GSMessageImpl message) throws JMSException {
+        if (m_producerBatchSize <= 1 || message.getJMSDeliveryMode() != DeliveryMode.NON_PERSISTENT) {
+            return false;
+        }
+        if (message.Properties != null && message.Properties.containsKey(GSMessageImpl.JMS_GSCONVERTER)) {
+            return false;
+        }
+        if (message instanceof GSTextMessageImpl) {
+            Object body = ((GSTextMessageImpl) message).Body;
+            return body == null || body.toString().length() * 2 <= m_compressionMinSize;
+        }
+        return true;
+    }
+
+    private void addPendingSend(GSMessageImpl message)
+            throws RemoteException, TransactionException, JMSException {
+        if (m_pendingSends.isEmpty()) {
+            BatchFlusherHolder.FLUSHER.schedule(m_flushPendingSendsTask, m_producerBatchWindow, TimeUnit.MILLISECONDS);
+        }
+        m_pendingSends.add(message);
+        if (m_pendingSends.size() >= m_producerBatchSize) {
+            flushPendingSends();
+        }
+    }
+
+    /**
+     * Writes the buffered non persistent messages to the space with a single writeMultiple.
+     */
+    synchronized void flushPendingSends()
+            throws RemoteException, TransactionException, JMSException {
+        if (m_pendingSends.isEmpty()) {
+            return;
+        }
+
+        long now = SystemTime.timeMillis();
+        GSMessageImpl[] entries = new GSMessageImpl[m_pendingSends.size()];
+        long[] leases = new long[entries.length];
+        int count = 0;
+        for (GSMessageImpl message : m_pendingSends) {
+            long lease = getLease(message, now);
+            if (lease <= 0) {
+                if (_logger.isLoggable(Level.WARNING)) {
+                    _logger.warning("GSSessionImpl.flushPendingSends(): Message expired and won't be sent: " + message.JMSMessageID);
+                }
+                continue;
+            }
+            entries[count] = message;
+            leases[count] = lease;
+            count++;
+        }
+        m_pendingSends.clear();
+        if (count == 0) {
+            return;
+        }
+        if (count < entries.length) {
+            GSMessageImpl[] validEntries = new GSMessageImpl[count];
+            long[] validLeases = new long[count];
+            System.arraycopy(entries, 0, validEntries, 0, count);
+            System.arraycopy(leases, 0, validLeases, 0, count);
+            entries = validEntries;
+            leases = validLeases;
+        }
+
+        if (_logger.isLoggable(Level.FINE)) {
+            _logger.fine("GSSessionImpl.flushPendingSends(): Writing a batch of " + count + " messages");
+        }
+        m_space.writeMultiple(entries, null, leases, m_space.getUpdateModifiers());
+
+        // increment the sent messages counter
+        m_numOfProducedMsg += count;
+    }
+
+    /**
+     * Returns the remaining lease of the message, or a non positive value if it has already
+     * expired.
+     */
+    private static long getLease(GSMessageImpl message, long now) throws JMSException {
+        long ttl = message.getTTL();
+        if (ttl == Message.DEFAULT_TIME_TO_LIVE) {
+            return Lease.FOREVER;
+        }
+        return ttl - (now - message.getJMSTimestamp());
+    }
+
     /*
      * Called from within the commit(). Actually sends a message to a given
      * destination. It is done by performing a space.write() operation with the
@@ -620,20 +757,14 @@ public class GSSessionImpl
         }
 
         // decide the lease time of the object
-        long ttl = message.getTTL();
-        if (ttl != Message.DEFAULT_TIME_TO_LIVE) {
-            long now = SystemTime.timeMillis();
-            ttl = ttl - (now - message.getJMSTimestamp());
-            // if the message has expired and was
-            // not sent yet we discard it.
-            if (ttl <= 0) {
-                if (_logger.isLoggable(Level.WARNING)) {
-                    _logger.warning("GSSessionImpl.doSend(): Message expired and won't be sent: " + message.getJMSMessageID());
-                }
-                return false;
+        long ttl = getLease(message, SystemTime.timeMillis());
+        // if the message has expired and was
+        // not sent yet we discard it.
+        if (ttl <= 0) {
+            if (_logger.isLoggable(Level.WARNING)) {
+                _logger.warning("GSSessionImpl.doSend(): Message expired and won't be sent: " + message.getJMSMessageID());
             }
-        } else {
-            ttl = Lease.FOREVER;
+            return false;
         }
 
         // convert the message to anything if needed
@@ -1683,6 +1814,16 @@ public class GSSessionImpl
 
                 m_closing = true;
 
+                // write the messages still waiting for their batch
+                try {
+                    flushPendingSends();
+                } catch (Exception e) {
+                    if (_logger.isLoggable(Level.SEVERE)) {
+                        _logger.log(Level.SEVERE, "Failed to write batched messages during session.close()", e);
+                    }
+                    // continue the close procedure.
+                }
+
                 // must stop first before we close
                 stop();
 
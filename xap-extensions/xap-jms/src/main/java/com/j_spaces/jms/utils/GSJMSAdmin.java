@@ -65,6 +65,12 @@ public class GSJMSAdmin {
 
     private static final String COMPRESSION_PROPERTY = "com.gs.jms.compressionMinSize";
 
+    private static final String PRODUCER_BATCH_SIZE_PROPERTY = "com.gs.jms.producerBatchSize";
+
+    private static final String PRODUCER_BATCH_WINDOW_PROPERTY = "com.gs.jms.producerBatchWindow";
+
+    private static final String CONSUMER_PREFETCH_SIZE_PROPERTY = "com.gs.jms.consumerPrefetchSize";
+
 
     /**
      * The minimum size (in bytes) from which we start to compress messages body. E.g. if a 1 MB
@@ -75,6 +81,24 @@ public class GSJMSAdmin {
      */
     private int compressionMinSize;
 
+    /**
+     * The maximum number of non persistent messages a non transacted session buffers before
+     * writing them to the space with a single writeMultiple. 1 (the default) disables batching.
+     */
+    private int producerBatchSize;
+
+    /**
+     * The maximum time (in milliseconds) a buffered non persistent message waits for its batch to
+     * fill before it is written to the space.
+     */
+    private long producerBatchWindow;
+
+    /**
+     * The number of messages an auto acknowledge queue consumer takes from the space in a single
+     * takeMultiple and buffers for subsequent receive calls. 1 (the default) disables prefetching.
+     */
+    private int consumerPrefetchSize;
+
 
     /**
      * logger
@@ -126,6 +150,9 @@ public class GSJMSAdmin {
         topics = new HashMap<String, Topic>();
         String compression = System.getProperty(COMPRESSION_PROPERTY, "500000");
         compressionMinSize = Integer.valueOf(compression).intValue();
+        producerBatchSize = Math.max(1, Integer.getInteger(PRODUCER_BATCH_SIZE_PROPERTY, 1).intValue());
+        producerBatchWindow = Math.max(1, Long.getLong(PRODUCER_BATCH_WINDOW_PROPERTY, 10).longValue());
+        consumerPrefetchSize = Math.max(1, Integer.getInteger(CONSUMER_PREFETCH_SIZE_PROPERTY, 1).intValue());
     }
 
     /**
@@ -609,6 +636,32 @@ public class GSJMSAdmin {
     }
 
 
+    /**
+     * @return Returns the maximum number of non persistent messages written to the space in a
+     * single batch.
+     */
+    public int getProducerBatchSize() {
+        return producerBatchSize;
+    }
+
+
+    /**
+     * @return Returns the maximum time (in milliseconds) a buffered message waits for its batch to
+     * fill.
+     */
+    public long getProducerBatchWindow() {
+        return producerBatchWindow;
+    }
+
+
+    /**
+     * @return Returns the number of messages a queue consumer prefetches from the space.
+     */
+    public int getConsumerPrefetchSize() {
+        return consumerPrefetchSize;
+    }
+
+
     /**
      * Creates a JNDI API InitialContext object if none exists yet. Then looks up the string
      * argument and returns the associated JMS administrated object.
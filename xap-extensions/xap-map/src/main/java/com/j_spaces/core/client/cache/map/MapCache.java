@@ -28,6 +28,10 @@ import com.gigaspaces.internal.client.spaceproxy.IDirectSpaceProxy;
 import com.gigaspaces.internal.client.spaceproxy.ISpaceProxy;
 import com.gigaspaces.internal.client.utils.SerializationUtil;
 import com.gigaspaces.internal.server.space.SpaceConfigReader;
+import com.gigaspaces.internal.server.space.eviction.EvictionStatistics;
+import com.gigaspaces.metrics.MetricConstants;
+import com.gigaspaces.metrics.MetricManager;
+import com.gigaspaces.metrics.MetricRegistrator;
 import com.j_spaces.core.Constants;
 import com.j_spaces.core.IJSpace;
 import com.j_spaces.core.MemoryManager;
@@ -68,9 +72,12 @@ import java.io.IOException;
 import java.rmi.RemoteException;
 import java.util.ArrayList;
 import java.util.Collection;
-import java.util.Collections;
+import java.util.HashMap;
 import java.util.HashSet;
+import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.CopyOnWriteArraySet;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.logging.Logger;
 
 /**
@@ -96,6 +103,7 @@ final public class MapCache extends AbstractMap implements RemoteEventListener,
     private int _maxConnectionRetry = DEFAULT_MAX_CONNECTION_RETRY;
     private long _delayRetryTime = 1000 * 5;
     private static final long DEFAULT_TEMPLATE_LEASE = 1000 * 60;
+    private static final AtomicInteger NEXT_METRICS_ID = new AtomicInteger();
 
     private final MemoryManager _memoryManager;
 
@@ -114,6 +122,10 @@ final public class MapCache extends AbstractMap implements RemoteEventListener,
     private final EventSessionConfig _sessionConfig;
     private AbstractDataEventSession _eventSession;
 
+    private final EvictionStatistics _statistics = new EvictionStatistics();
+    private final MetricManager _metricManager;
+    private final MetricRegistrator _metricRegistrator;
+
     /**
      * Constructor.
      *
@@ -155,8 +167,8 @@ final public class MapCache extends AbstractMap implements RemoteEventListener,
         }
         _cache = new SizeConcurrentHashMap<Object, CacheEntry>();
 
-        // TODO GuyK: change data structure
-        _cacheListenerTable = Collections.synchronizedSet(new HashSet<CacheListener>());
+        // listeners are rarely changed but iterated on every put
+        _cacheListenerTable = new CopyOnWriteArraySet<CacheListener>();
         // _cacheStatistics     = new MapCacheStatistics( 0);
         _putFirst = putFirst;
         _updateMode = updateMode;
@@ -171,6 +183,13 @@ final public class MapCache extends AbstractMap implements RemoteEventListener,
         _sessionConfig = new EventSessionConfig();
         _sessionConfig.setAutoRenew(true, new WeakLeaseListener(this));
         _eventSession = initEventSession();
+
+        _metricManager = MetricManager.acquire();
+        Map<String, String> tags = new HashMap<String, String>();
+        tags.put("space_name", space.getName());
+        tags.put("map_cache_id", String.valueOf(NEXT_METRICS_ID.incrementAndGet()));
+        _metricRegistrator = _metricManager.createRegistrator(MetricConstants.MAP_CACHE_METRIC_NAME, tags);
+        _statistics.register(_metricRegistrator);
     }
 
     private AbstractDataEventSession initEventSession() throws RemoteException {
@@ -417,6 +436,8 @@ final public class MapCache extends AbstractMap implements RemoteEventListener,
     @Override
     public boolean evict(Object key) {
         boolean evicted = _cache.remove(key) != null;
+        if (evicted)
+            _statistics.evicted();
 
         if (evicted && !_cacheListenerTable.isEmpty()) {
             for (CacheListener listener : _cacheListenerTable) {
@@ -580,7 +601,15 @@ final public class MapCache extends AbstractMap implements RemoteEventListener,
         }
     }
 
+    /**
+     * @return the hit/miss/eviction counters of the local cache
+     */
+    public EvictionStatistics getStatistics() {
+        return _statistics;
+    }
+
     private Object getResult(CacheEntry obj) {
+        _statistics.hit();
         _evictionStrategy.touchEntry(obj);
         return obj.getValue();
     }
@@ -657,6 +686,7 @@ final public class MapCache extends AbstractMap implements RemoteEventListener,
         }
 
         // bring from remote space
+        _statistics.miss();
         SpaceMapEntry template = MapEntryFactory.create(key);
 
         _memoryManager.monitorMemoryUsage(true);
@@ -795,6 +825,8 @@ final public class MapCache extends AbstractMap implements RemoteEventListener,
 
     @Override
     protected void finalize() throws Throwable {
+        _metricRegistrator.clear();
+        _metricManager.close();
         _memoryManager.close();
         if (_eventSession != null)
             _eventSession.close();
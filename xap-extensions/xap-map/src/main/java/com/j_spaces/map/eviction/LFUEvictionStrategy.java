@@ -20,100 +20,281 @@ import com.j_spaces.core.client.cache.map.BaseCacheEntry;
 import com.j_spaces.javax.cache.Cache;
 import com.j_spaces.javax.cache.CacheEntry;
 
-import java.util.TreeSet;
-import java.util.concurrent.atomic.AtomicInteger;
-
 /**
  * The heap LFUDA ( Least Frequently Used) policy keeps popular objects in cache regardless of their
  * size and thus optimizes byte hit rate at the expense of hit rate since one large, popular object
  * will prevent many smaller, slightly less popular objects from being cached.
  *
+ * Entries are spread by key over lock striped segments, each segment keeps its entries in a list of
+ * frequency buckets ordered by frequency, so creating, touching, discarding and evicting an entry
+ * are all O(1) and only lock the entry's segment.
+ *
  * @author Guy Korland
  * @version 1.0
  * @since 5.0
  */
 public class LFUEvictionStrategy extends AbstractEvictionStrategy {
-    final private TreeSet<FUCacheEntry> _sorted = new TreeSet<FUCacheEntry>();
+    final private Segment[] _segments;
+
+    public LFUEvictionStrategy() {
+        this(Runtime.getRuntime().availableProcessors() * 2);
+    }
+
+    /**
+     * @param concurrencyLevel the estimated number of concurrently updating threads, rounded up to
+     *                         a power of two segments
+     */
+    public LFUEvictionStrategy(int concurrencyLevel) {
+        int segments = 1;
+        while (segments < concurrencyLevel)
+            segments <<= 1;
+        _segments = new Segment[segments];
+        for (int i = 0; i < segments; i++)
+            _segments[i] = new Segment();
+    }
 
     /**
      * {@inheritDoc}
      */
-    synchronized public void clear() {
-        _sorted.clear();
+    public void clear() {
+        for (Segment segment : _segments)
+            segment.clear();
     }
 
     /**
      * {@inheritDoc}
      */
-    synchronized public void discardEntry(CacheEntry entry) {
-        _sorted.remove(entry);
+    public void discardEntry(CacheEntry entry) {
+        if (entry instanceof FUCacheEntry) {
+            FUCacheEntry e = (FUCacheEntry) entry;
+            _segments[e._segment].remove(e);
+        }
     }
 
     /**
      * {@inheritDoc}
      */
-    synchronized public int evict(Cache cache) {
+    public int evict(Cache cache) {
         int evicted = 0;
-        for (int i = 0; i < _batchSize && _sorted.size() > 0; ++i) {
-            FUCacheEntry entry = _sorted.first();
+        for (int i = 0; i < _batchSize; ++i) {
+            FUCacheEntry entry = pollLeastFrequent();
             if (entry == null)
                 return evicted;
 
-            _sorted.remove(entry);
             if (cache.evict(entry.getKey()))
                 ++evicted;
         }
         return evicted;
     }
 
+    /**
+     * Removes the least frequently used entry of the segment with the lowest frequency.
+     */
+    private FUCacheEntry pollLeastFrequent() {
+        while (true) {
+            Segment candidate = null;
+            int minFrequency = Integer.MAX_VALUE;
+            for (Segment segment : _segments) {
+                int frequency = segment._minFrequency;
+                if (frequency < minFrequency) {
+                    minFrequency = frequency;
+                    candidate = segment;
+                }
+            }
+            if (candidate == null)
+                return null;
+
+            FUCacheEntry entry = candidate.poll();
+            // segment was emptied concurrently - look again
+            if (entry != null)
+                return entry;
+        }
+    }
+
     /**
      * {@inheritDoc}
      */
-    synchronized public void touchEntry(CacheEntry entry) {
-        if (_sorted.remove(entry)) {
+    public void touchEntry(CacheEntry entry) {
+        if (entry instanceof FUCacheEntry) {
             FUCacheEntry e = (FUCacheEntry) entry;
-            e.touch();
-            _sorted.add(e);
+            _segments[e._segment].touch(e);
         }
     }
 
     /**
      * {@inheritDoc}
      */
-    synchronized public CacheEntry createEntry(Object key, Object value, long ttl, int version) {
-        FUCacheEntry entry = new FUCacheEntry(key, value, ttl, version);
-        _sorted.add(entry);
+    public CacheEntry createEntry(Object key, Object value, long ttl, int version) {
+        int segment = segmentFor(key);
+        FUCacheEntry entry = new FUCacheEntry(key, value, ttl, version, segment);
+        _segments[segment].add(entry);
         return entry;
     }
 
+    private int segmentFor(Object key) {
+        int h = key.hashCode();
+        h ^= (h >>> 16);
+        return h & (_segments.length - 1);
+    }
 
-    static private class FUCacheEntry extends BaseCacheEntry implements Comparable<FUCacheEntry> {
-        volatile private int _touchCounter = 0; // almost count
+    /**
+     * Frequency buckets ordered from the least to the most frequent, each holding its entries from
+     * the oldest to the newest.
+     */
+    static private class Segment {
+        private FrequencyBucket _head;
+        // frequency of the head bucket, read without the lock to choose a segment to evict from
+        volatile private int _minFrequency = Integer.MAX_VALUE;
 
-        final private static AtomicInteger _nextID = new AtomicInteger();
+        synchronized void add(FUCacheEntry entry) {
+            FrequencyBucket bucket = _head;
+            if (bucket == null || bucket._frequency != 1) {
+                bucket = new FrequencyBucket(1);
+                linkAfter(null, bucket);
+            }
+            bucket.append(entry);
+            updateMinFrequency();
+        }
 
-        // used only by compareTo() to break a tie
-        final private int _id = _nextID.getAndIncrement();
+        synchronized void touch(FUCacheEntry entry) {
+            FrequencyBucket bucket = entry._bucket;
+            if (bucket == null || bucket._frequency == Integer.MAX_VALUE)
+                return;
 
-        public FUCacheEntry(Object key, Object value, long timeToLive, int version) {
-            super(key, value, timeToLive, version);
+            int frequency = bucket._frequency + 1;
+            FrequencyBucket next = bucket._next;
+            if (next == null || next._frequency != frequency) {
+                next = new FrequencyBucket(frequency);
+                linkAfter(bucket, next);
+            }
+            bucket.unlink(entry);
+            next.append(entry);
+            if (bucket.isEmpty())
+                unlink(bucket);
+            updateMinFrequency();
         }
 
-        public void touch() {
-            int count = _touchCounter;
-            _touchCounter = count + 1;
+        synchronized void remove(FUCacheEntry entry) {
+            FrequencyBucket bucket = entry._bucket;
+            if (bucket == null)
+                return;
+
+            bucket.unlink(entry);
+            if (bucket.isEmpty())
+                unlink(bucket);
+            updateMinFrequency();
         }
 
-        public int compareTo(FUCacheEntry entry) {
-            if (entry == this)
-                return 0;
+        synchronized FUCacheEntry poll() {
+            if (_head == null)
+                return null;
 
-            int diff = _touchCounter - entry._touchCounter;
+            FrequencyBucket bucket = _head;
+            FUCacheEntry entry = bucket._first;
+            bucket.unlink(entry);
+            if (bucket.isEmpty())
+                unlink(bucket);
+            updateMinFrequency();
+            return entry;
+        }
 
-            if (diff == 0)
-                return _id - entry._id;
+        synchronized void clear() {
+            for (FrequencyBucket bucket = _head; bucket != null; bucket = bucket._next)
+                bucket.clear();
+            _head = null;
+            updateMinFrequency();
+        }
+
+        private void linkAfter(FrequencyBucket prev, FrequencyBucket bucket) {
+            bucket._prev = prev;
+            bucket._next = prev == null ? _head : prev._next;
+            if (bucket._next != null)
+                bucket._next._prev = bucket;
+            if (prev == null)
+                _head = bucket;
+            else
+                prev._next = bucket;
+        }
+
+        private void unlink(FrequencyBucket bucket) {
+            if (bucket._prev == null)
+                _head = bucket._next;
+            else
+                bucket._prev._next = bucket._next;
+            if (bucket._next != null)
+                bucket._next._prev = bucket._prev;
+            bucket._prev = null;
+            bucket._next = null;
+        }
+
+        private void updateMinFrequency() {
+            _minFrequency = _head == null ? Integer.MAX_VALUE : _head._frequency;
+        }
+    }
+
+    static private class FrequencyBucket {
+        final private int _frequency;
+        private FrequencyBucket _prev;
+        private FrequencyBucket _next;
+        private FUCacheEntry _first;
+        private FUCacheEntry _last;
+
+        FrequencyBucket(int frequency) {
+            _frequency = frequency;
+        }
 
-            return diff;
+        boolean isEmpty() {
+            return _first == null;
+        }
+
+        void append(FUCacheEntry entry) {
+            entry._bucket = this;
+            entry._prev = _last;
+            entry._next = null;
+            if (_last == null)
+                _first = entry;
+            else
+                _last._next = entry;
+            _last = entry;
+        }
+
+        void unlink(FUCacheEntry entry) {
+            if (entry._prev == null)
+                _first = entry._next;
+            else
+                entry._prev._next = entry._next;
+            if (entry._next == null)
+                _last = entry._prev;
+            else
+                entry._next._prev = entry._prev;
+            entry._bucket = null;
+            entry._prev = null;
+            entry._next = null;
+        }
+
+        void clear() {
+            for (FUCacheEntry entry = _first; entry != null; ) {
+                FUCacheEntry next = entry._next;
+                entry._bucket = null;
+                entry._prev = null;
+                entry._next = null;
+                entry = next;
+            }
+            _first = null;
+            _last = null;
+        }
+    }
+
+    static private class FUCacheEntry extends BaseCacheEntry {
+        final private int _segment;
+        // guarded by the segment lock
+        private FrequencyBucket _bucket;
+        private FUCacheEntry _prev;
+        private FUCacheEntry _next;
+
+        public FUCacheEntry(Object key, Object value, long timeToLive, int version, int segment) {
+            super(key, value, timeToLive, version);
+            _segment = segment;
         }
     }
 
@@ -26,6 +26,7 @@ import com.gigaspaces.metadata.SpacePropertyDescriptor;
 import com.gigaspaces.metadata.SpaceTypeDescriptor;
 import com.gigaspaces.persistency.datasource.DefaultMongoDataIterator;
 import com.gigaspaces.persistency.datasource.MongoInitialDataLoadIterator;
+import com.gigaspaces.persistency.datasource.MongoParallelInitialDataLoadIterator;
 import com.gigaspaces.persistency.datasource.MongoSqlQueryDataIterator;
 import com.gigaspaces.persistency.metadata.DefaultSpaceDocumentMapper;
 import com.gigaspaces.persistency.metadata.SpaceDocumentMapper;
@@ -57,13 +58,36 @@ public class MongoSpaceDataSource extends SpaceDataSource {
 
     protected ClusterInfo clusterInfo;
 
+    private final int initialLoadConcurrency;
+    private final int initialLoadBatchSize;
+
     public MongoSpaceDataSource(MongoClientConnector mongoClient, ClusterInfo clusterInfo) {
+        this(mongoClient, clusterInfo, 1, 0);
+    }
+
+    /**
+     * @param initialLoadConcurrency the number of collection ranges loaded concurrently during the
+     *                               initial load, 1 loads each collection using a single cursor.
+     * @param initialLoadBatchSize   the number of documents fetched per round trip by each initial
+     *                               load cursor, 0 uses the driver default.
+     */
+    public MongoSpaceDataSource(MongoClientConnector mongoClient, ClusterInfo clusterInfo,
+                                int initialLoadConcurrency, int initialLoadBatchSize) {
 
         if (mongoClient == null) {
             throw new IllegalArgumentException("Argument cannot be null - mongoClient");
         }
+        if (initialLoadConcurrency < 1) {
+            throw new IllegalArgumentException("initialLoadConcurrency must be positive");
+        }
         this.mongoClient = mongoClient;
         this.clusterInfo = clusterInfo;
+        this.initialLoadConcurrency = initialLoadConcurrency;
+        this.initialLoadBatchSize = initialLoadBatchSize;
+    }
+
+    public ClusterInfo getClusterInfo() {
+        return clusterInfo;
     }
 
     public void close() throws IOException {
@@ -99,6 +123,9 @@ public class MongoSpaceDataSource extends SpaceDataSource {
         if (logger.isDebugEnabled())
             logger.debug("MongoSpaceDataSource.initialDataLoad()");
 
+        if (initialLoadConcurrency > 1)
+            return new MongoParallelInitialDataLoadIterator(this, mongoClient, initialLoadConcurrency, initialLoadBatchSize);
+
         return new MongoInitialDataLoadIterator(this, mongoClient);
     }
 
@@ -33,6 +33,14 @@ public class MongoSpaceDataSourceBeanFactory implements
         configurer.mongoClientConnector(mongoClientConnector);
     }
 
+    public void setInitialLoadConcurrency(int initialLoadConcurrency) {
+        configurer.initialLoadConcurrency(initialLoadConcurrency);
+    }
+
+    public void setInitialLoadBatchSize(int initialLoadBatchSize) {
+        configurer.initialLoadBatchSize(initialLoadBatchSize);
+    }
+
     public void destroy() throws Exception {
         mongoSpaceDataSource.close();
     }
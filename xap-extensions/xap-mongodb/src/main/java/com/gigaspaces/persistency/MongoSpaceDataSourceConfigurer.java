@@ -22,6 +22,8 @@ public class MongoSpaceDataSourceConfigurer {
 
     private MongoClientConnector mongoClientConnector;
     private ClusterInfo clusterInfo;
+    private int initialLoadConcurrency = 1;
+    private int initialLoadBatchSize;
 
     public MongoSpaceDataSourceConfigurer mongoClientConnector(MongoClientConnector mongoClientConnector) {
         this.mongoClientConnector = mongoClientConnector;
@@ -33,7 +35,25 @@ public class MongoSpaceDataSourceConfigurer {
         return this;
     }
 
+    /**
+     * Optional. The number of {@code _id} ranges of each collection loaded concurrently during the
+     * initial load. (default: 1)
+     */
+    public MongoSpaceDataSourceConfigurer initialLoadConcurrency(int initialLoadConcurrency) {
+        this.initialLoadConcurrency = initialLoadConcurrency;
+        return this;
+    }
+
+    /**
+     * Optional. The number of documents fetched per round trip by each initial load cursor.
+     * (default: the driver default)
+     */
+    public MongoSpaceDataSourceConfigurer initialLoadBatchSize(int initialLoadBatchSize) {
+        this.initialLoadBatchSize = initialLoadBatchSize;
+        return this;
+    }
+
     public MongoSpaceDataSource create() {
-        return new MongoSpaceDataSource(mongoClientConnector, clusterInfo);
+        return new MongoSpaceDataSource(mongoClientConnector, clusterInfo, initialLoadConcurrency, initialLoadBatchSize);
     }
 }
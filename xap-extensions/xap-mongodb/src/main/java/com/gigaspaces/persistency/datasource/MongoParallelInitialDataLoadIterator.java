@@ -0,0 +1,299 @@
+/*
+ * Copyright (c) 2008-2016, GigaSpaces Technologies, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.gigaspaces.persistency.datasource;
+
+import com.gigaspaces.datasource.DataIterator;
+import com.gigaspaces.internal.remoting.routing.partitioned.PartitionedClusterUtils;
+import com.gigaspaces.metadata.SpaceTypeDescriptor;
+import com.gigaspaces.persistency.Constants;
+import com.gigaspaces.persistency.MongoClientConnector;
+import com.gigaspaces.persistency.MongoSpaceDataSource;
+import com.gigaspaces.persistency.error.SpaceMongoDataSourceException;
+import com.gigaspaces.persistency.metadata.DefaultSpaceDocumentMapper;
+import com.mongodb.BasicDBObject;
+import com.mongodb.DBCollection;
+import com.mongodb.DBCursor;
+import com.mongodb.DBObject;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.openspaces.core.cluster.ClusterInfo;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Loads the collections of all the types concurrently.
+ *
+ * Each collection is split to {@code _id} ranges which are read by concurrent cursors. When the
+ * space is partitioned, documents which do not belong to the loading partition are filtered out by
+ * the reading threads, unless they were already filtered by the initial query.
+ *
+ * @since 14.2
+ */
+public class MongoParallelInitialDataLoadIterator implements DataIterator<Object> {
+
+    private static final Log logger = LogFactory.getLog(MongoParallelInitialDataLoadIterator.class);
+
+    // collections smaller than this are not worth splitting
+    private static final long MIN_RANGE_SIZE = 10000;
+
+    private static final Object END_OF_RANGE = new Object();
+
+    private final MongoClientConnector mongoClient;
+    private final MongoSpaceDataSource mongoSpaceDataSource;
+    private final int concurrency;
+    private final int batchSize;
+    private final BlockingQueue<Object> results;
+    private final ExecutorService executor;
+
+    private int activeRanges;
+    private Object next;
+    private volatile Throwable failure;
+    private volatile boolean closed;
+
+    public MongoParallelInitialDataLoadIterator(MongoSpaceDataSource mongoSpaceDataSource, MongoClientConnector client,
+                                                int concurrency, int batchSize) {
+        if (client == null)
+            throw new IllegalArgumentException("mongo client can not be null");
+        if (concurrency < 1)
+            throw new IllegalArgumentException("concurrency must be positive");
+
+        this.mongoSpaceDataSource = mongoSpaceDataSource;
+        this.mongoClient = client;
+        this.concurrency = concurrency;
+        this.batchSize = batchSize;
+        this.results = new ArrayBlockingQueue<Object>(concurrency * Math.max(batchSize, 100));
+        this.executor = Executors.newFixedThreadPool(concurrency, new ThreadFactory() {
+            private final AtomicInteger counter = new AtomicInteger();
+
+            @Override
+            public Thread newThread(Runnable r) {
+                Thread thread = new Thread(r, "mongo-initial-load-" + counter.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            }
+        });
+
+        try {
+            for (SpaceTypeDescriptor typeDescriptor : client.getSortedTypes()) {
+                DBObject query = mongoSpaceDataSource.getInitialQuery(typeDescriptor);
+                DBCollection collection = client.getCollection(typeDescriptor.getTypeName());
+                List<DBObject> ranges = split(collection, query);
+
+                if (logger.isDebugEnabled())
+                    logger.debug("Loading type " + typeDescriptor.getTypeName() + " using " + ranges.size() + " ranges");
+
+                for (DBObject range : ranges) {
+                    activeRanges++;
+                    executor.execute(new RangeLoader(typeDescriptor, collection, range, query));
+                }
+            }
+        } catch (RuntimeException e) {
+            close();
+            throw e;
+        }
+        executor.shutdown();
+    }
+
+    public boolean hasNext() {
+        while (next == null && activeRanges > 0) {
+            Object result;
+            try {
+                result = results.take();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new SpaceMongoDataSourceException("Interrupted while waiting for initial load results", e);
+            }
+            if (result == END_OF_RANGE)
+                activeRanges--;
+            else
+                next = result;
+        }
+        if (failure != null)
+            throw new SpaceMongoDataSourceException("Failed loading initial data", failure);
+        return next != null;
+    }
+
+    public Object next() {
+        if (!hasNext())
+            throw new NoSuchElementException();
+        Object result = next;
+        next = null;
+        return result;
+    }
+
+    public void remove() {
+        throw new UnsupportedOperationException();
+    }
+
+    public void close() {
+        closed = true;
+        executor.shutdownNow();
+        results.clear();
+    }
+
+    /**
+     * Splits the collection to {@code _id} ranges of about the same size, each returned as a query
+     * combining the range with the given query.
+     */
+    private List<DBObject> split(DBCollection collection, DBObject query) {
+        List<DBObject> ranges = new ArrayList<DBObject>();
+        long count = collection.count();
+        int numOfRanges = (int) Math.min(concurrency, count / MIN_RANGE_SIZE);
+        if (numOfRanges < 2 || !isSingleIdType(collection)) {
+            ranges.add(query);
+            return ranges;
+        }
+
+        Object lowerBound = null;
+        for (int i = 1; i <= numOfRanges; i++) {
+            Object upperBound = i == numOfRanges ? null : idAt(collection, count * i / numOfRanges);
+            BasicDBObject idRange = new BasicDBObject();
+            if (lowerBound != null)
+                idRange.put("$gte", lowerBound);
+            if (upperBound != null)
+                idRange.put("$lt", upperBound);
+
+            BasicDBObject range = new BasicDBObject(query.toMap());
+            range.put(Constants.ID_PROPERTY, idRange);
+            ranges.add(range);
+            lowerBound = upperBound;
+        }
+        return ranges;
+    }
+
+    /**
+     * Range queries only match ids of the bound's type, so a collection is only split if all its
+     * ids are of the same type. Ids are sorted by type first, so comparing the first and last id is
+     * enough.
+     */
+    private static boolean isSingleIdType(DBCollection collection) {
+        Object first = idAt(collection, 1);
+        Object last = idAt(collection, -1);
+        if (first == null || last == null)
+            return false;
+        if (first instanceof Number && last instanceof Number)
+            return true;
+        return first.getClass().equals(last.getClass());
+    }
+
+    /**
+     * @param position the position of the id in ascending order, or -1 for the last id.
+     */
+    private static Object idAt(DBCollection collection, long position) {
+        DBCursor cursor = collection.find(new BasicDBObject(), new BasicDBObject(Constants.ID_PROPERTY, 1))
+                .sort(new BasicDBObject(Constants.ID_PROPERTY, position < 0 ? -1 : 1))
+                .skip(position < 0 ? 0 : (int) position - 1)
+                .limit(1);
+        try {
+            return cursor.hasNext() ? cursor.next().get(Constants.ID_PROPERTY) : null;
+        } finally {
+            cursor.close();
+        }
+    }
+
+    private class RangeLoader implements Runnable {
+
+        private final SpaceTypeDescriptor typeDescriptor;
+        private final DBCollection collection;
+        private final DBObject range;
+        private final DefaultSpaceDocumentMapper mapper;
+        private final String routingField;
+        private final int numOfPartitions;
+        private final int partitionId;
+
+        private RangeLoader(SpaceTypeDescriptor typeDescriptor, DBCollection collection, DBObject range, DBObject query) {
+            this.typeDescriptor = typeDescriptor;
+            this.collection = collection;
+            this.range = range;
+            this.mapper = new DefaultSpaceDocumentMapper(typeDescriptor);
+
+            ClusterInfo clusterInfo = mongoSpaceDataSource.getClusterInfo();
+            String routingPropertyName = typeDescriptor.getRoutingPropertyName();
+            // the initial query already filters by partition when possible
+            if (clusterInfo != null && clusterInfo.getNumberOfInstances() > 1 && routingPropertyName != null
+                    && !query.containsField(routingPropertyName)) {
+                this.routingField = routingPropertyName.equals(typeDescriptor.getIdPropertyName()) ?
+                        Constants.ID_PROPERTY : routingPropertyName;
+                this.numOfPartitions = clusterInfo.getNumberOfInstances();
+                this.partitionId = clusterInfo.getInstanceId() - 1;
+            } else {
+                this.routingField = null;
+                this.numOfPartitions = 0;
+                this.partitionId = 0;
+            }
+        }
+
+        public void run() {
+            DBCursor cursor = null;
+            try {
+                cursor = collection.find(range);
+                if (batchSize > 0)
+                    cursor.batchSize(batchSize);
+                while (!closed && failure == null && cursor.hasNext()) {
+                    DBObject bson = cursor.next();
+                    if (belongsToPartition(bson))
+                        results.put(mapper.toDocument(bson));
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } catch (Throwable e) {
+                if (!closed) {
+                    logger.error("Failed loading initial data of type " + typeDescriptor.getTypeName(), e);
+                    failure = e;
+                }
+            } finally {
+                if (cursor != null)
+                    cursor.close();
+                endRange();
+            }
+        }
+
+        private void endRange() {
+            while (!closed) {
+                try {
+                    results.put(END_OF_RANGE);
+                    return;
+                } catch (InterruptedException e) {
+                    // only close() interrupts the loaders
+                }
+            }
+        }
+
+        /**
+         * The space discards entries of other partitions anyway, filtering them here saves mapping
+         * and transferring them. Routing values whose hash code may differ from the one of the
+         * stored object are kept.
+         */
+        private boolean belongsToPartition(DBObject bson) {
+            if (routingField == null)
+                return true;
+            Object routingValue = bson.get(routingField);
+            if (!(routingValue instanceof String || routingValue instanceof Integer || routingValue instanceof Long))
+                return true;
+            return PartitionedClusterUtils.getPartitionId(routingValue, numOfPartitions) == partitionId;
+        }
+    }
+}
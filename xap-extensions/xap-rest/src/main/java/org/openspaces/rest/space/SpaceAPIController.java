@@ -22,6 +22,7 @@ import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.SerializationFeature;
 import com.gigaspaces.annotation.pojo.FifoSupport;
+import com.gigaspaces.client.iterator.SpaceIterator;
 import com.gigaspaces.client.WriteModifiers;
 import com.gigaspaces.document.SpaceDocument;
 import com.gigaspaces.metadata.SpaceDocumentSupport;
@@ -69,7 +70,7 @@ import org.springframework.web.bind.annotation.ResponseStatus;
 
 import java.io.IOException;
 import java.text.SimpleDateFormat;
-import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Hashtable;
@@ -78,6 +79,9 @@ import java.util.LinkedHashMap;
 import java.util.Map;
 import java.util.logging.Level;
 import java.util.logging.Logger;
+import java.util.regex.Pattern;
+
+import javax.servlet.http.HttpServletResponse;
 
 /**
  * Spring MVC controller for the RESTful Space API <p/> usage examples: GET:
@@ -133,6 +137,7 @@ public class SpaceAPIController {
     private static final String QUERY_PARAM = "query";
     private static final String MAX_PARAM = "max";
     private static final String SPACEID_PARAM = "spaceid";
+    private static final Pattern ORDER_OR_GROUP_BY = Pattern.compile("\\b(ORDER|GROUP)\\s+BY\\b", Pattern.CASE_INSENSITIVE);
 
     private static int maxReturnValues = Integer.MAX_VALUE;
     private static final Logger logger = Logger.getLogger(SpaceAPIController.class.getName());
@@ -546,14 +551,13 @@ public class SpaceAPIController {
             , produces = {MediaType.APPLICATION_JSON_VALUE}
     )
     @RequestMapping(value = "/{type}", method = RequestMethod.GET, produces = {MediaType.APPLICATION_JSON_VALUE})
-    public
-    @ResponseBody
-    Map<String, Object> getByQuery(
+    public void getByQuery(
             @PathVariable() @ApiPathParam(name = "type", description = TYPE_DESCRIPTION) String type,
             @RequestParam(value = QUERY_PARAM, required = false)
             @ApiQueryParam(name = "query", description = "a SQLQuery that is a SQL-like syntax") String query,
             @RequestParam(value = MAX_PARAM, required = false)
-            @ApiQueryParam(name = "size", description = "") Integer size) throws ObjectNotFoundException {
+            @ApiQueryParam(name = "size", description = "") Integer size,
+            HttpServletResponse response) throws ObjectNotFoundException, IOException {
         if (logger.isLoggable(Level.FINE))
             logger.fine("creating read query with type: " + type + " and query: " + query);
 
@@ -564,20 +568,31 @@ public class SpaceAPIController {
         GigaSpace gigaSpace = ControllerUtils.xapCache.get();
         SQLQuery<Object> sqlQuery = new SQLQuery<Object>(type, query);
         int maxSize = (size == null ? maxReturnValues : size.intValue());
-        Object[] docs;
+        // The space iterator does not order or group its results
+        if (maxSize <= SpaceIterator.getDefaultBatchSize() || ORDER_OR_GROUP_BY.matcher(query).find()) {
+            Object[] docs;
+            try {
+                docs = gigaSpace.readMultiple(sqlQuery, maxSize);
+            } catch (DataAccessException e) {
+                throw translateDataAccessException(gigaSpace, e, type);
+            }
+            ControllerUtils.writeSuccessResponse(response, Arrays.asList(docs).iterator(), maxSize, 0);
+            return;
+        }
+
+        // Large results are streamed batch by batch rather than read into memory at once
+        if (gigaSpace.getTypeManager().getTypeDescriptor(type) == null)
+            throw new TypeNotFoundException(type);
+        SpaceIterator<Object> iterator;
         try {
-            docs = gigaSpace.readMultiple(sqlQuery, maxSize);
+            iterator = gigaSpace.iterator(sqlQuery);
         } catch (DataAccessException e) {
             throw translateDataAccessException(gigaSpace, e, type);
         }
-
         try {
-            Map<String, Object> result = new HashMap<String, Object>();
-            result.put("status", "success");
-            result.put("data", ControllerUtils.mapper.readValue(ControllerUtils.mapper.writeValueAsString(docs), ArrayList.class));
-            return result;
-        } catch (IOException e) {
-            throw new RestException(e.getMessage());
+            ControllerUtils.writeSuccessResponse(response, iterator, maxSize, SpaceIterator.getDefaultBatchSize());
+        } finally {
+            iterator.close();
         }
     }
 
@@ -618,9 +633,9 @@ public class SpaceAPIController {
         try {
             Map<String, Object> result = new LinkedHashMap<String, Object>();
             result.put("status", "success");
-            result.put("data", ControllerUtils.mapper.readValue(ControllerUtils.mapper.writeValueAsString(doc), LinkedHashMap.class));
+            result.put("data", ControllerUtils.mapper.convertValue(doc, LinkedHashMap.class));
             return result;
-        } catch (IOException e) {
+        } catch (IllegalArgumentException e) {
             throw new RestException(e.getMessage());
         }
     }
@@ -717,9 +732,9 @@ public class SpaceAPIController {
         try {
             Map<String, Object> result = new HashMap<String, Object>();
             result.put("status", "success");
-            result.put("data", ControllerUtils.mapper.readValue(ControllerUtils.mapper.writeValueAsString(doc), Map.class));
+            result.put("data", ControllerUtils.mapper.convertValue(doc, Map.class));
             return result;
-        } catch (IOException e) {
+        } catch (IllegalArgumentException e) {
             throw new RestException(e.getMessage());
         }
     }
@@ -737,15 +752,14 @@ public class SpaceAPIController {
     )
     @RequestMapping(value = "/{type}", method = RequestMethod.DELETE
             , produces = {MediaType.APPLICATION_JSON_VALUE})
-    public
-    @ResponseBody
-    Map<String, Object> deleteByQuery(
+    public void deleteByQuery(
             @ApiPathParam(name = "type", description = TYPE_DESCRIPTION)
             @PathVariable String type,
             @ApiQueryParam(name = "query")
             @RequestParam(value = QUERY_PARAM) String query,
             @ApiQueryParam(name = "max", description = "The maximum number of entries to return. Default is Integer.MAX_VALUE")
-            @RequestParam(value = MAX_PARAM, required = false) Integer max) {
+            @RequestParam(value = MAX_PARAM, required = false) Integer max,
+            HttpServletResponse response) throws IOException {
         if (logger.isLoggable(Level.FINE))
             logger.fine("creating take query with type: " + type + " and query: " + query);
 
@@ -763,14 +777,7 @@ public class SpaceAPIController {
             docs = new Object[]{};
         }
 
-        try {
-            Map<String, Object> result = new HashMap<String, Object>();
-            result.put("status", "success");
-            result.put("data", ControllerUtils.mapper.readValue(ControllerUtils.mapper.writeValueAsString(docs), ArrayList.class));
-            return result;
-        } catch (IOException e) {
-            throw new RestException(e.getMessage());
-        }
+        ControllerUtils.writeSuccessResponse(response, Arrays.asList(docs).iterator(), docs.length, 0);
     }
 
     /**
@@ -16,8 +16,12 @@
 
 package org.openspaces.rest.utils;
 
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonGenerator;
 import com.fasterxml.jackson.core.type.TypeReference;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
 import com.gigaspaces.document.SpaceDocument;
 import com.gigaspaces.internal.utils.CollectionUtils;
 import com.gigaspaces.metadata.SpacePropertyDescriptor;
@@ -30,8 +34,10 @@ import org.openspaces.core.space.UrlSpaceConfigurer;
 import org.openspaces.rest.exceptions.RestException;
 import org.openspaces.rest.exceptions.TypeNotFoundException;
 import org.openspaces.rest.exceptions.UnsupportedTypeException;
+import org.springframework.http.MediaType;
 import org.springframework.http.converter.HttpMessageNotReadableException;
 
+import java.io.IOException;
 import java.text.ParseException;
 import java.text.SimpleDateFormat;
 import java.util.*;
@@ -40,6 +46,8 @@ import java.util.concurrent.atomic.AtomicReference;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
+import javax.servlet.http.HttpServletResponse;
+
 /**
  * some helper methods to the SpaceApiController class
  *
@@ -116,6 +124,42 @@ public class ControllerUtils {
         return documents;
     }
 
+    /**
+     * Writes a success response whose data is the given entries straight to the response stream,
+     * serializing each entry once instead of building the whole response in memory.
+     *
+     * The first bufferSize entries are read before anything is written, so a failure to read them
+     * is still reported with an error status. A failure to read a later entry can only end the
+     * committed response, leaving its JSON incomplete rather than a valid partial result.
+     */
+    public static void writeSuccessResponse(HttpServletResponse response, Iterator<?> data, int maxSize, int bufferSize) throws IOException {
+        final List<Object> buffer = new ArrayList<Object>();
+        while (buffer.size() < Math.min(maxSize, bufferSize) && data.hasNext())
+            buffer.add(data.next());
+
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        response.setCharacterEncoding("UTF-8");
+        final ObjectWriter writer = mapper.writer().without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+        final JsonGenerator generator = mapper.getFactory().createGenerator(response.getOutputStream(), JsonEncoding.UTF8);
+        boolean completed = false;
+        try {
+            generator.writeStartObject();
+            generator.writeStringField("status", "success");
+            generator.writeArrayFieldStart("data");
+            for (Object entry : buffer)
+                writer.writeValue(generator, entry);
+            for (int i = buffer.size(); i < maxSize && data.hasNext(); i++)
+                writer.writeValue(generator, data.next());
+            generator.writeEndArray();
+            generator.writeEndObject();
+            completed = true;
+        } finally {
+            if (!completed)
+                generator.disable(JsonGenerator.Feature.AUTO_CLOSE_JSON_CONTENT);
+            generator.close();
+        }
+    }
+
     public static Map<String, Object>[] createPropertiesResult(SpaceDocument[] docs) {
         Map<String, Object>[] result = new HashMap[docs.length];
         for (int i = 0; i < docs.length; i++) {
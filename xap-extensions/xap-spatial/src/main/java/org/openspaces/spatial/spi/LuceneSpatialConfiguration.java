@@ -67,6 +67,13 @@ public class LuceneSpatialConfiguration {
     //lucene.storage.location
     public static final String STORAGE_LOCATION = "lucene.storage.location";
 
+    //lucene.search.near-real-time
+    public static final String SEARCH_NEAR_REAL_TIME = "lucene.search.near-real-time";
+    public static final String SEARCH_NEAR_REAL_TIME_DEFAULT = "true";
+    //lucene.search.refresh-interval, in milliseconds - 0 refreshes the searcher on demand by each query
+    public static final String SEARCH_REFRESH_INTERVAL = "lucene.search.refresh-interval";
+    public static final String SEARCH_REFRESH_INTERVAL_DEFAULT = "0";
+
     //context
     public static final String SPATIAL_CONTEXT = "context";
     public static final String SPATIAL_CONTEXT_DEFAULT = SupportedSpatialContext.JTS.name();
@@ -83,6 +90,8 @@ public class LuceneSpatialConfiguration {
     private final DirectoryFactory _directoryFactory;
     private final int _maxUncommittedChanges;
     private final String _location;
+    private final boolean _nearRealTime;
+    private final long _refreshInterval;
 
     private enum SupportedSpatialStrategy {
         RecursivePrefixTree, BBox, Composite;
@@ -140,6 +149,8 @@ public class LuceneSpatialConfiguration {
         this._location = initLocation(provider, info);
         //TODO: read from config
         this._maxUncommittedChanges = 1000;
+        this._nearRealTime = Boolean.valueOf(provider.getCustomProperty(SEARCH_NEAR_REAL_TIME, SEARCH_NEAR_REAL_TIME_DEFAULT));
+        this._refreshInterval = Long.valueOf(provider.getCustomProperty(SEARCH_REFRESH_INTERVAL, SEARCH_REFRESH_INTERVAL_DEFAULT));
     }
 
     private static RectangleImpl createSpatialContextWorldBounds(LuceneSpatialQueryExtensionProvider provider) {
@@ -169,7 +180,7 @@ public class LuceneSpatialConfiguration {
         return new RectangleImpl(minX, maxX, minY, maxY, null);
     }
 
-    private static SpatialContext createSpatialContext(LuceneSpatialQueryExtensionProvider provider) {
+    static SpatialContext createSpatialContext(LuceneSpatialQueryExtensionProvider provider) {
         String spatialContextString = provider.getCustomProperty(SPATIAL_CONTEXT, SPATIAL_CONTEXT_DEFAULT);
         SupportedSpatialContext spatialContext = SupportedSpatialContext.byName(spatialContextString);
         boolean geo = Boolean.valueOf(provider.getCustomProperty(SPATIAL_CONTEXT_GEO, SPATIAL_CONTEXT_GEO_DEFAULT));
@@ -320,6 +331,22 @@ public class LuceneSpatialConfiguration {
         return _location;
     }
 
+    /**
+     * Whether queries search a near real time view of the index writer instead of committing and
+     * opening a new reader per query.
+     */
+    public boolean isNearRealTime() {
+        return _nearRealTime;
+    }
+
+    /**
+     * Interval (in milliseconds) of the background refresh of near real time searchers, or 0 if each
+     * query refreshes the searcher on demand.
+     */
+    public long getRefreshInterval() {
+        return _refreshInterval;
+    }
+
     public abstract class StrategyFactory {
         private SupportedSpatialStrategy _strategyName;
 
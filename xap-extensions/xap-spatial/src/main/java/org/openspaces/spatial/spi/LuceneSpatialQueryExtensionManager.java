@@ -45,6 +45,10 @@ import java.io.IOException;
 import java.util.HashMap;
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
@@ -65,6 +69,7 @@ public class LuceneSpatialQueryExtensionManager extends QueryExtensionManager {
     private final Map<String, LuceneSpatialTypeIndex> _luceneHolderMap = new ConcurrentHashMap<String, LuceneSpatialTypeIndex>();
     private final String _namespace;
     private final LuceneSpatialConfiguration _luceneConfiguration;
+    private final ScheduledExecutorService _refresher;
 
     public LuceneSpatialQueryExtensionManager(LuceneSpatialQueryExtensionProvider provider, QueryExtensionRuntimeInfo info) {
         super(info);
@@ -72,10 +77,40 @@ public class LuceneSpatialQueryExtensionManager extends QueryExtensionManager {
         _luceneConfiguration = new LuceneSpatialConfiguration(provider, info);
         File location = new File(_luceneConfiguration.getLocation());
         FileUtils.deleteFileOrDirectoryIfExists(location);
+        _refresher = startRefresher(info.getSpaceInstanceName());
+    }
+
+    private ScheduledExecutorService startRefresher(final String spaceInstanceName) {
+        final long interval = _luceneConfiguration.getRefreshInterval();
+        if (!_luceneConfiguration.isNearRealTime() || interval <= 0)
+            return null;
+        ScheduledExecutorService refresher = Executors.newSingleThreadScheduledExecutor(new ThreadFactory() {
+            @Override
+            public Thread newThread(Runnable r) {
+                Thread thread = new Thread(r, "Spatial index refresher [" + spaceInstanceName + "]");
+                thread.setDaemon(true);
+                return thread;
+            }
+        });
+        refresher.scheduleWithFixedDelay(new Runnable() {
+            @Override
+            public void run() {
+                for (LuceneSpatialTypeIndex luceneHolder : _luceneHolderMap.values()) {
+                    try {
+                        luceneHolder.refresh();
+                    } catch (Exception e) {
+                        _logger.log(Level.WARNING, "Failed to refresh spatial index searcher", e);
+                    }
+                }
+            }
+        }, interval, interval, TimeUnit.MILLISECONDS);
+        return refresher;
     }
 
     @Override
     public void close() throws IOException {
+        if (_refresher != null)
+            _refresher.shutdownNow();
         for (LuceneSpatialTypeIndex luceneHolder : _luceneHolderMap.values())
             luceneHolder.close();
 
@@ -142,6 +177,8 @@ public class LuceneSpatialQueryExtensionManager extends QueryExtensionManager {
         final SpatialStrategy spatialStrategy = _luceneConfiguration.getStrategy(path);
         final Query query = spatialStrategy.makeQuery(new SpatialArgs(toOperation(operationName), toShape(operand)));
         final LuceneSpatialTypeIndex luceneHolder = _luceneHolderMap.get(typeName);
+        if (luceneHolder.isNearRealTime())
+            return queryNearRealTime(luceneHolder, query);
         try {
             // Flush
             luceneHolder.commit(true);
@@ -155,6 +192,32 @@ public class LuceneSpatialQueryExtensionManager extends QueryExtensionManager {
         }
     }
 
+    private QueryExtensionEntryIterator queryNearRealTime(LuceneSpatialTypeIndex luceneHolder, Query query) {
+        // Searches the uncommitted changes of the index writer - commits are left to the uncommitted changes threshold
+        IndexSearcher is = null;
+        try {
+            is = luceneHolder.acquireSearcher();
+            ScoreDoc[] scores = is.search(query, MAX_RESULTS).scoreDocs;
+            return new LuceneSpatialQueryExtensionEntryIterator(scores, is, luceneHolder);
+        } catch (IOException e) {
+            releaseQuietly(luceneHolder, is);
+            throw new SpaceRuntimeException("Failed to scan index", e);
+        } catch (RuntimeException e) {
+            releaseQuietly(luceneHolder, is);
+            throw e;
+        }
+    }
+
+    private static void releaseQuietly(LuceneSpatialTypeIndex luceneHolder, IndexSearcher is) {
+        if (is == null)
+            return;
+        try {
+            luceneHolder.releaseSearcher(is);
+        } catch (IOException e) {
+            _logger.log(Level.FINE, "Failed to release index searcher", e);
+        }
+    }
+
     @Override
     public boolean accept(String typeName, String path, String operation, Object leftOperand, Object rightOperand) {
         if (_logger.isLoggable(Level.FINE))
@@ -193,6 +256,10 @@ public class LuceneSpatialQueryExtensionManager extends QueryExtensionManager {
     }
 
     protected SpatialOperation toOperation(String operationName) {
+        return toSpatialOperation(operationName);
+    }
+
+    static SpatialOperation toSpatialOperation(String operationName) {
         SpatialOperation result = _spatialOperations.get(operationName.toUpperCase());
         if (result == null)
             throw new IllegalArgumentException("Operation " + operationName + " not found - supported operations: " + _spatialOperations.keySet());
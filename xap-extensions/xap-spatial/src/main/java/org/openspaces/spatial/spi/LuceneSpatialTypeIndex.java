@@ -22,6 +22,8 @@ import com.gigaspaces.query.extension.metadata.TypeQueryExtension;
 import org.apache.lucene.analysis.standard.StandardAnalyzer;
 import org.apache.lucene.index.IndexWriter;
 import org.apache.lucene.index.IndexWriterConfig;
+import org.apache.lucene.search.IndexSearcher;
+import org.apache.lucene.search.SearcherManager;
 import org.apache.lucene.store.Directory;
 
 import java.io.Closeable;
@@ -35,6 +37,8 @@ public class LuceneSpatialTypeIndex implements Closeable {
     private final TypeQueryExtension queryExtensionInfo;
     private final int maxUncommittedChanges;
     private final AtomicInteger uncommittedChanges = new AtomicInteger(0);
+    private final SearcherManager searcherManager;
+    private final boolean refreshOnDemand;
 
     public LuceneSpatialTypeIndex(LuceneSpatialConfiguration luceneConfig, String namespace, SpaceTypeDescriptor typeDescriptor) throws IOException {
         this.directory = luceneConfig.getDirectory(typeDescriptor.getTypeName() + File.separator + "entries");
@@ -42,13 +46,45 @@ public class LuceneSpatialTypeIndex implements Closeable {
                 .setOpenMode(IndexWriterConfig.OpenMode.CREATE));
         this.queryExtensionInfo = typeDescriptor.getQueryExtensions().getByNamespace(namespace);
         this.maxUncommittedChanges = luceneConfig.getMaxUncommittedChanges();
+        this.searcherManager = luceneConfig.isNearRealTime() ? new SearcherManager(indexWriter, null) : null;
+        this.refreshOnDemand = luceneConfig.getRefreshInterval() <= 0;
     }
 
     @Override
     public void close() throws IOException {
+        if (searcherManager != null)
+            searcherManager.close();
         indexWriter.close();
     }
 
+    public boolean isNearRealTime() {
+        return searcherManager != null;
+    }
+
+    /**
+     * Acquires a near real time searcher, which must be released using {@link
+     * #releaseSearcher(IndexSearcher)}. Unless refreshed in the background, the searcher is first
+     * refreshed to see all the changes made so far.
+     */
+    public IndexSearcher acquireSearcher() throws IOException {
+        if (refreshOnDemand)
+            searcherManager.maybeRefreshBlocking();
+        return searcherManager.acquire();
+    }
+
+    public void releaseSearcher(IndexSearcher searcher) throws IOException {
+        searcherManager.release(searcher);
+    }
+
+    /**
+     * Makes the changes made so far visible to searchers acquired from now on, if no other refresh
+     * is in progress.
+     */
+    public void refresh() throws IOException {
+        if (searcherManager != null)
+            searcherManager.maybeRefresh();
+    }
+
     public IndexWriter getIndexWriter() {
         return indexWriter;
     }
@@ -0,0 +1,168 @@
+/*
+ * Copyright (c) 2008-2016, GigaSpaces Technologies, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.openspaces.spatial.spi;
+
+import com.gigaspaces.metadata.SpaceTypeDescriptor;
+import com.gigaspaces.query.extension.QueryExtensionEntryIterator;
+import com.gigaspaces.query.extension.QueryExtensionManager;
+import com.gigaspaces.query.extension.QueryExtensionRuntimeInfo;
+import com.gigaspaces.query.extension.metadata.TypeQueryExtension;
+import com.gigaspaces.server.SpaceServerEntry;
+
+import org.apache.lucene.spatial.query.SpatialOperation;
+import org.locationtech.spatial4j.context.SpatialContext;
+import org.openspaces.spatial.shapes.Shape;
+import org.openspaces.spatial.spatial4j.Spatial4jShapeProvider;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Indexes the spatial paths of each type in an in-heap {@link SpatialRTree}. Queries collect the
+ * candidates whose bounding box intersects the query shape and refine them with the exact
+ * geometry.
+ *
+ * @since 14.2
+ */
+public class RTreeSpatialQueryExtensionManager extends QueryExtensionManager {
+    private static final Logger _logger = Logger.getLogger(RTreeSpatialQueryExtensionManager.class.getName());
+
+    private final Map<String, Map<String, SpatialRTree>> _typeIndexes = new ConcurrentHashMap<String, Map<String, SpatialRTree>>();
+    private final String _namespace;
+    private final SpatialContext _spatialContext;
+    private final int _maxEntries;
+
+    public RTreeSpatialQueryExtensionManager(RTreeSpatialQueryExtensionProvider provider, QueryExtensionRuntimeInfo info) {
+        super(info);
+        _namespace = provider.getNamespace();
+        _spatialContext = LuceneSpatialConfiguration.createSpatialContext(provider);
+        _maxEntries = Integer.parseInt(provider.getCustomProperty(RTreeSpatialQueryExtensionProvider.RTREE_MAX_ENTRIES,
+                RTreeSpatialQueryExtensionProvider.RTREE_MAX_ENTRIES_DEFAULT));
+    }
+
+    @Override
+    public void close() throws IOException {
+        for (Map<String, SpatialRTree> indexes : _typeIndexes.values())
+            for (SpatialRTree index : indexes.values())
+                index.clear();
+        _typeIndexes.clear();
+        super.close();
+    }
+
+    @Override
+    public void registerType(SpaceTypeDescriptor typeDescriptor) {
+        super.registerType(typeDescriptor);
+        final String typeName = typeDescriptor.getTypeName();
+        if (!_typeIndexes.containsKey(typeName)) {
+            final TypeQueryExtension queryExtensionInfo = typeDescriptor.getQueryExtensions().getByNamespace(_namespace);
+            final Map<String, SpatialRTree> indexes = new HashMap<String, SpatialRTree>();
+            for (String path : queryExtensionInfo.getPaths())
+                indexes.put(path, new SpatialRTree(_spatialContext.getWorldBounds(), _maxEntries));
+            _typeIndexes.put(typeName, indexes);
+        } else {
+            _logger.log(Level.WARNING, "Type [" + typeName + "] is already registered");
+        }
+    }
+
+    @Override
+    public boolean insertEntry(SpaceServerEntry entry, boolean hasPrevious) {
+        final Map<String, SpatialRTree> indexes = _typeIndexes.get(entry.getSpaceTypeDescriptor().getTypeName());
+        final String key = concat(entry.getUid(), entry.getVersion());
+        boolean inserted = false;
+        for (Map.Entry<String, SpatialRTree> index : indexes.entrySet()) {
+            final Object fieldValue = entry.getPathValue(index.getKey());
+            if (fieldValue instanceof Shape) {
+                index.getValue().put(key, entry.getUid(), toShape(fieldValue));
+                inserted = true;
+            }
+            if (hasPrevious)
+                index.getValue().remove(concat(entry.getUid(), entry.getVersion() - 1));
+        }
+        return inserted;
+    }
+
+    @Override
+    public void removeEntry(SpaceTypeDescriptor typeDescriptor, String uid, int version) {
+        final Map<String, SpatialRTree> indexes = _typeIndexes.get(typeDescriptor.getTypeName());
+        final String key = concat(uid, version);
+        for (SpatialRTree index : indexes.values())
+            index.remove(key);
+    }
+
+    @Override
+    public QueryExtensionEntryIterator queryByIndex(String typeName, String path, String operationName, Object operand) {
+        if (_logger.isLoggable(Level.FINE))
+            _logger.log(Level.FINE, "query [typeName=" + typeName + ", path=" + path + ", operation=" + operationName + ", operand=" + operand + "]");
+
+        final Map<String, SpatialRTree> indexes = _typeIndexes.get(typeName);
+        final SpatialRTree index = indexes != null ? indexes.get(path) : null;
+        if (index == null)
+            throw new IllegalArgumentException("No spatial index for path [" + path + "] of type [" + typeName + "]");
+
+        final SpatialOperation operation = LuceneSpatialQueryExtensionManager.toSpatialOperation(operationName);
+        final org.locationtech.spatial4j.shape.Shape queryShape = toShape(operand);
+        final List<String> uids = new ArrayList<String>();
+        for (SpatialRTree.Item candidate : index.search(queryShape.getBoundingBox()))
+            if (operation.evaluate(candidate.getShape(), queryShape))
+                uids.add(candidate.getUid());
+        return new UidIterator(uids);
+    }
+
+    @Override
+    public boolean accept(String typeName, String path, String operation, Object leftOperand, Object rightOperand) {
+        if (_logger.isLoggable(Level.FINE))
+            _logger.log(Level.FINE, "filter [operation=" + operation + ", leftOperand=" + leftOperand + ", rightOperand=" + rightOperand + "]");
+
+        return LuceneSpatialQueryExtensionManager.toSpatialOperation(operation).evaluate(toShape(leftOperand), toShape(rightOperand));
+    }
+
+    public org.locationtech.spatial4j.shape.Shape toShape(Object obj) {
+        if (obj instanceof Spatial4jShapeProvider)
+            return ((Spatial4jShapeProvider) obj).getSpatial4jShape(_spatialContext);
+        throw new IllegalArgumentException("Unsupported shape [" + obj.getClass().getName() + "]");
+    }
+
+    private static String concat(String uid, int version) {
+        return uid + "_" + version;
+    }
+
+    private static class UidIterator extends QueryExtensionEntryIterator {
+        private final List<String> _uids;
+        private int _position;
+
+        private UidIterator(List<String> uids) {
+            this._uids = uids;
+        }
+
+        @Override
+        public boolean hasNext() {
+            return _position < _uids.size();
+        }
+
+        @Override
+        public String nextUid() {
+            return _uids.get(_position++);
+        }
+    }
+}
@@ -0,0 +1,60 @@
+/*
+ * Copyright (c) 2008-2016, GigaSpaces Technologies, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.openspaces.spatial.spi;
+
+import com.gigaspaces.query.extension.QueryExtensionManager;
+import com.gigaspaces.query.extension.QueryExtensionRuntimeInfo;
+
+import java.util.Properties;
+
+/**
+ * A spatial query extension provider which keeps the spatial indexes in an in-heap R-tree rather
+ * than in Lucene, trading Lucene's disk based indexes for lower write and query latency.
+ *
+ * It shares the "spatial" namespace, annotations and spatial context properties of {@link
+ * LuceneSpatialQueryExtensionProvider}, so it replaces the default provider when configured on the
+ * space, e.g. using {@code EmbeddedSpaceConfigurer.addQueryExtensionProvider(new
+ * RTreeSpatialQueryExtensionProvider())}.
+ *
+ * @since 14.2
+ */
+public class RTreeSpatialQueryExtensionProvider extends LuceneSpatialQueryExtensionProvider {
+
+    //R-tree node capacity
+    public static final String RTREE_MAX_ENTRIES = "rtree.max-entries";
+    public static final String RTREE_MAX_ENTRIES_DEFAULT = String.valueOf(SpatialRTree.DEFAULT_MAX_ENTRIES);
+
+    public RTreeSpatialQueryExtensionProvider() {
+        this(new Properties());
+    }
+
+    public RTreeSpatialQueryExtensionProvider(Properties customProperties) {
+        super(customProperties);
+    }
+
+    @Override
+    public QueryExtensionManager createManager(QueryExtensionRuntimeInfo info) {
+        return new RTreeSpatialQueryExtensionManager(this, info);
+    }
+
+    @Override
+    public RTreeSpatialQueryExtensionProvider setCustomProperty(String key, String value) {
+        super.setCustomProperty(key, value);
+        return this;
+    }
+}
@@ -0,0 +1,394 @@
+/*
+ * Copyright (c) 2008-2016, GigaSpaces Technologies, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.openspaces.spatial.spi;
+
+import org.locationtech.spatial4j.shape.Rectangle;
+import org.locationtech.spatial4j.shape.Shape;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * An in-heap R-tree of entry shapes, using Guttman's quadratic split. Shapes are keyed by the
+ * caller, e.g. by uid and version, so replacing or removing a shape does not require a search.
+ *
+ * Queries run concurrently under a read lock and return the candidates whose bounding box
+ * intersects the query's bounding box - callers are expected to refine them with the exact
+ * geometry. Shapes crossing the date line are indexed across the whole world width.
+ *
+ * @since 14.2
+ */
+public class SpatialRTree {
+
+    public static final int DEFAULT_MAX_ENTRIES = 16;
+
+    private final int _maxEntries;
+    private final int _minEntries;
+    private final double _worldMinX;
+    private final double _worldMaxX;
+    private final ReentrantReadWriteLock _lock = new ReentrantReadWriteLock();
+    // Guarded by _lock
+    private final Map<String, Item> _items = new HashMap<String, Item>();
+    private Node _root = new Node(true);
+
+    public SpatialRTree(Rectangle worldBounds) {
+        this(worldBounds, DEFAULT_MAX_ENTRIES);
+    }
+
+    public SpatialRTree(Rectangle worldBounds, int maxEntries) {
+        if (maxEntries < 4)
+            throw new IllegalArgumentException("maxEntries must be at least 4 [" + maxEntries + "]");
+        this._maxEntries = maxEntries;
+        this._minEntries = Math.max(2, (int) (maxEntries * 0.4));
+        this._worldMinX = worldBounds.getMinX();
+        this._worldMaxX = worldBounds.getMaxX();
+    }
+
+    /**
+     * Indexes the shape of an entry under the given key, replacing the shape previously indexed
+     * under that key, if any.
+     */
+    public void put(String key, String uid, Shape shape) {
+        final Item item = new Item(uid, shape, shape.getBoundingBox(), _worldMinX, _worldMaxX);
+        _lock.writeLock().lock();
+        try {
+            Item previous = _items.put(key, item);
+            if (previous != null)
+                delete(previous);
+            insert(item);
+        } finally {
+            _lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Removes the shape indexed under the given key.
+     */
+    public boolean remove(String key) {
+        _lock.writeLock().lock();
+        try {
+            Item item = _items.remove(key);
+            if (item == null)
+                return false;
+            delete(item);
+            return true;
+        } finally {
+            _lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Returns the indexed entries whose bounding box intersects the given rectangle.
+     */
+    public List<Item> search(Rectangle rectangle) {
+        final List<Item> result = new ArrayList<Item>();
+        _lock.readLock().lock();
+        try {
+            if (rectangle.getCrossesDateLine()) {
+                final List<Item> western = new ArrayList<Item>();
+                search(rectangle.getMinX(), rectangle.getMinY(), _worldMaxX, rectangle.getMaxY(), result);
+                search(_worldMinX, rectangle.getMinY(), rectangle.getMaxX(), rectangle.getMaxY(), western);
+                // Items reaching the eastern part were already matched by it
+                for (Item item : western)
+                    if (item.maxX < rectangle.getMinX())
+                        result.add(item);
+            } else {
+                search(rectangle.getMinX(), rectangle.getMinY(), rectangle.getMaxX(), rectangle.getMaxY(), result);
+            }
+        } finally {
+            _lock.readLock().unlock();
+        }
+        return result;
+    }
+
+    public int size() {
+        _lock.readLock().lock();
+        try {
+            return _items.size();
+        } finally {
+            _lock.readLock().unlock();
+        }
+    }
+
+    public void clear() {
+        _lock.writeLock().lock();
+        try {
+            _items.clear();
+            _root = new Node(true);
+        } finally {
+            _lock.writeLock().unlock();
+        }
+    }
+
+    private void search(double minX, double minY, double maxX, double maxY, List<Item> result) {
+        final List<Node> stack = new ArrayList<Node>();
+        stack.add(_root);
+        while (!stack.isEmpty()) {
+            final Node node = stack.remove(stack.size() - 1);
+            for (Bounds child : node.children) {
+                if (!child.intersects(minX, minY, maxX, maxY))
+                    continue;
+                if (node.leaf)
+                    result.add((Item) child);
+                else
+                    stack.add((Node) child);
+            }
+        }
+    }
+
+    private void insert(Item item) {
+        Node node = chooseLeaf(item);
+        node.add(item);
+        while (node != null) {
+            Node parent = node.parent;
+            if (node.children.size() > _maxEntries) {
+                Node sibling = split(node);
+                if (parent == null) {
+                    parent = new Node(false);
+                    parent.add(node);
+                    _root = parent;
+                }
+                parent.add(sibling);
+            } else {
+                node.include(item);
+            }
+            node = parent;
+        }
+    }
+
+    private Node chooseLeaf(Bounds bounds) {
+        Node node = _root;
+        while (!node.leaf) {
+            Node best = null;
+            double bestEnlargement = Double.POSITIVE_INFINITY;
+            double bestArea = Double.POSITIVE_INFINITY;
+            for (Bounds child : node.children) {
+                double area = child.area();
+                double enlargement = child.unionArea(bounds) - area;
+                if (enlargement < bestEnlargement || (enlargement == bestEnlargement && area < bestArea)) {
+                    best = (Node) child;
+                    bestEnlargement = enlargement;
+                    bestArea = area;
+                }
+            }
+            node = best;
+        }
+        return node;
+    }
+
+    private Node split(Node node) {
+        final List<Bounds> remaining = new ArrayList<Bounds>(node.children);
+        node.reset();
+        final Node sibling = new Node(node.leaf);
+
+        // Pick the pair of seeds which would waste the most area if grouped together
+        int seed1 = 0;
+        int seed2 = 1;
+        double worstWaste = Double.NEGATIVE_INFINITY;
+        for (int i = 0; i < remaining.size(); i++) {
+            for (int j = i + 1; j < remaining.size(); j++) {
+                Bounds b1 = remaining.get(i);
+                Bounds b2 = remaining.get(j);
+                double waste = b1.unionArea(b2) - b1.area() - b2.area();
+                if (waste > worstWaste) {
+                    worstWaste = waste;
+                    seed1 = i;
+                    seed2 = j;
+                }
+            }
+        }
+        node.add(remaining.get(seed1));
+        sibling.add(remaining.get(seed2));
+        remaining.remove(seed2);
+        remaining.remove(seed1);
+
+        while (!remaining.isEmpty()) {
+            if (node.children.size() + remaining.size() == _minEntries) {
+                for (Bounds bounds : remaining)
+                    node.add(bounds);
+                break;
+            }
+            if (sibling.children.size() + remaining.size() == _minEntries) {
+                for (Bounds bounds : remaining)
+                    sibling.add(bounds);
+                break;
+            }
+            // Assign the entry with the strongest preference for one of the groups
+            int next = 0;
+            double maxPreference = Double.NEGATIVE_INFINITY;
+            for (int i = 0; i < remaining.size(); i++) {
+                Bounds bounds = remaining.get(i);
+                double preference = Math.abs(node.enlargement(bounds) - sibling.enlargement(bounds));
+                if (preference > maxPreference) {
+                    maxPreference = preference;
+                    next = i;
+                }
+            }
+            Bounds bounds = remaining.remove(next);
+            double enlargement1 = node.enlargement(bounds);
+            double enlargement2 = sibling.enlargement(bounds);
+            if (enlargement1 < enlargement2)
+                node.add(bounds);
+            else if (enlargement2 < enlargement1)
+                sibling.add(bounds);
+            else if (node.area() != sibling.area())
+                (node.area() < sibling.area() ? node : sibling).add(bounds);
+            else
+                (node.children.size() <= sibling.children.size() ? node : sibling).add(bounds);
+        }
+        return sibling;
+    }
+
+    private void delete(Item item) {
+        final Node leaf = item.leaf;
+        leaf.children.remove(item);
+        item.leaf = null;
+
+        // Condense the tree, collecting the items of under-full nodes for re-insertion
+        final List<Item> orphans = new ArrayList<Item>();
+        Node node = leaf;
+        while (node.parent != null) {
+            Node parent = node.parent;
+            if (node.children.size() < _minEntries) {
+                parent.children.remove(node);
+                node.parent = null;
+                collectItems(node, orphans);
+            } else {
+                node.recalculate();
+            }
+            node = parent;
+        }
+        _root.recalculate();
+        while (!_root.leaf && _root.children.size() == 1) {
+            _root = (Node) _root.children.get(0);
+            _root.parent = null;
+        }
+        if (!_root.leaf && _root.children.isEmpty())
+            _root = new Node(true);
+        for (Item orphan : orphans)
+            insert(orphan);
+    }
+
+    private static void collectItems(Node node, List<Item> result) {
+        for (Bounds child : node.children) {
+            if (node.leaf)
+                result.add((Item) child);
+            else
+                collectItems((Node) child, result);
+        }
+    }
+
+    private abstract static class Bounds {
+        double minX;
+        double minY;
+        double maxX;
+        double maxY;
+
+        double area() {
+            return (maxX - minX) * (maxY - minY);
+        }
+
+        double unionArea(Bounds other) {
+            return (Math.max(maxX, other.maxX) - Math.min(minX, other.minX)) *
+                    (Math.max(maxY, other.maxY) - Math.min(minY, other.minY));
+        }
+
+        boolean intersects(double otherMinX, double otherMinY, double otherMaxX, double otherMaxY) {
+            return minX <= otherMaxX && otherMinX <= maxX && minY <= otherMaxY && otherMinY <= maxY;
+        }
+    }
+
+    /**
+     * An indexed shape.
+     */
+    public static final class Item extends Bounds {
+        private final String uid;
+        private final Shape shape;
+        // Guarded by the tree's write lock
+        private Node leaf;
+
+        private Item(String uid, Shape shape, Rectangle boundingBox, double worldMinX, double worldMaxX) {
+            this.uid = uid;
+            this.shape = shape;
+            boolean crossesDateLine = boundingBox.getCrossesDateLine();
+            this.minX = crossesDateLine ? worldMinX : boundingBox.getMinX();
+            this.maxX = crossesDateLine ? worldMaxX : boundingBox.getMaxX();
+            this.minY = boundingBox.getMinY();
+            this.maxY = boundingBox.getMaxY();
+        }
+
+        public String getUid() {
+            return uid;
+        }
+
+        public Shape getShape() {
+            return shape;
+        }
+    }
+
+    private static final class Node extends Bounds {
+        private final boolean leaf;
+        private final List<Bounds> children = new ArrayList<Bounds>();
+        private Node parent;
+
+        private Node(boolean leaf) {
+            this.leaf = leaf;
+            reset();
+        }
+
+        void add(Bounds child) {
+            children.add(child);
+            if (leaf)
+                ((Item) child).leaf = this;
+            else
+                ((Node) child).parent = this;
+            include(child);
+        }
+
+        void include(Bounds bounds) {
+            minX = Math.min(minX, bounds.minX);
+            minY = Math.min(minY, bounds.minY);
+            maxX = Math.max(maxX, bounds.maxX);
+            maxY = Math.max(maxY, bounds.maxY);
+        }
+
+        double enlargement(Bounds bounds) {
+            return children.isEmpty() ? bounds.area() : unionArea(bounds) - area();
+        }
+
+        void reset() {
+            children.clear();
+            minX = Double.POSITIVE_INFINITY;
+            minY = Double.POSITIVE_INFINITY;
+            maxX = Double.NEGATIVE_INFINITY;
+            maxY = Double.NEGATIVE_INFINITY;
+        }
+
+        void recalculate() {
+            minX = Double.POSITIVE_INFINITY;
+            minY = Double.POSITIVE_INFINITY;
+            maxX = Double.NEGATIVE_INFINITY;
+            maxY = Double.NEGATIVE_INFINITY;
+            for (Bounds child : children)
+                include(child);
+        }
+    }
+}
@@ -101,6 +101,20 @@ public class LuceneConfigurationTest {
         Assert.assertEquals("Default spatialcontext should be JTS", JtsSpatialContext.class, luceneConfiguration.getSpatialContext().getClass());
         Assert.assertEquals("Default spatialcontext.geo should be true", true, luceneConfiguration.getSpatialContext().isGeo());
 
+        //test search
+        Assert.assertTrue("Near real time search should be the default", luceneConfiguration.isNearRealTime());
+        Assert.assertEquals("Searchers should be refreshed on demand by default", 0, luceneConfiguration.getRefreshInterval());
+    }
+
+    @Test
+    public void testSearchRefreshInterval() {
+        LuceneSpatialQueryExtensionProvider provider = new LuceneSpatialQueryExtensionProvider()
+                .setCustomProperty("lucene.search.near-real-time", "false")
+                .setCustomProperty("lucene.search.refresh-interval", "50");
+        LuceneSpatialConfiguration luceneConfiguration = new LuceneSpatialConfiguration(provider, new MockConfig().setWorkDir(getWorkingDir()));
+
+        Assert.assertFalse(luceneConfiguration.isNearRealTime());
+        Assert.assertEquals(50, luceneConfiguration.getRefreshInterval());
     }
 
     @Test
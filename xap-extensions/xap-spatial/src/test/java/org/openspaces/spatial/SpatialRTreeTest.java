@@ -0,0 +1,140 @@
+/*
+ * Copyright (c) 2008-2016, GigaSpaces Technologies, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.openspaces.spatial;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.locationtech.spatial4j.context.SpatialContext;
+import org.locationtech.spatial4j.shape.Point;
+import org.locationtech.spatial4j.shape.Rectangle;
+import org.openspaces.spatial.spi.SpatialRTree;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+
+/**
+ * @since 14.2
+ */
+public class SpatialRTreeTest {
+
+    private final SpatialContext _spatialContext = SpatialContext.GEO;
+
+    @Test
+    public void testSearchMatchesBruteForce() {
+        SpatialRTree tree = new SpatialRTree(_spatialContext.getWorldBounds(), 4);
+        Map<String, Point> points = putRandomPoints(tree, 2000);
+        Assert.assertEquals(2000, tree.size());
+
+        Random random = new Random(7);
+        for (int i = 0; i < 50; i++)
+            assertSearch(tree, points, randomRectangle(random));
+    }
+
+    @Test
+    public void testPutReplacesAndRemove() {
+        SpatialRTree tree = new SpatialRTree(_spatialContext.getWorldBounds());
+        tree.put("key", "uid", _spatialContext.makePoint(10, 10));
+        tree.put("key", "uid", _spatialContext.makePoint(50, 50));
+        Assert.assertEquals(1, tree.size());
+        Assert.assertTrue(uids(tree.search(_spatialContext.makeRectangle(0, 20, 0, 20))).isEmpty());
+        Assert.assertEquals(1, tree.search(_spatialContext.makeRectangle(40, 60, 40, 60)).size());
+
+        Assert.assertTrue(tree.remove("key"));
+        Assert.assertFalse(tree.remove("key"));
+        Assert.assertEquals(0, tree.size());
+        Assert.assertTrue(tree.search(_spatialContext.getWorldBounds()).isEmpty());
+    }
+
+    @Test
+    public void testSearchAfterRemovals() {
+        SpatialRTree tree = new SpatialRTree(_spatialContext.getWorldBounds(), 4);
+        Map<String, Point> points = putRandomPoints(tree, 1000);
+        List<String> keys = new ArrayList<String>(points.keySet());
+        for (int i = 0; i < keys.size(); i += 2) {
+            Assert.assertTrue(tree.remove(keys.get(i)));
+            points.remove(keys.get(i));
+        }
+        Assert.assertEquals(points.size(), tree.size());
+
+        Random random = new Random(11);
+        for (int i = 0; i < 50; i++)
+            assertSearch(tree, points, randomRectangle(random));
+        assertSearch(tree, points, _spatialContext.getWorldBounds());
+    }
+
+    @Test
+    public void testSearchAcrossDateLine() {
+        SpatialRTree tree = new SpatialRTree(_spatialContext.getWorldBounds());
+        tree.put("east", "east", _spatialContext.makePoint(179, 0));
+        tree.put("west", "west", _spatialContext.makePoint(-179, 0));
+        tree.put("middle", "middle", _spatialContext.makePoint(0, 0));
+        // A rectangle crossing the date line, matching both sides without duplicates
+        tree.put("wide", "wide", _spatialContext.makeRectangle(175, -175, -1, 1));
+
+        Rectangle query = _spatialContext.makeRectangle(170, -170, -10, 10);
+        Assert.assertTrue(query.getCrossesDateLine());
+        List<String> result = new ArrayList<String>(uids(tree.search(query)));
+        Assert.assertEquals(3, result.size());
+        Assert.assertTrue(result.contains("east"));
+        Assert.assertTrue(result.contains("west"));
+        Assert.assertTrue(result.contains("wide"));
+    }
+
+    private Map<String, Point> putRandomPoints(SpatialRTree tree, int count) {
+        Map<String, Point> points = new HashMap<String, Point>();
+        Random random = new Random(3);
+        for (int i = 0; i < count; i++) {
+            Point point = _spatialContext.makePoint(random.nextDouble() * 360 - 180, random.nextDouble() * 180 - 90);
+            String key = "uid" + i + "_1";
+            points.put(key, point);
+            tree.put(key, "uid" + i, point);
+        }
+        return points;
+    }
+
+    private Rectangle randomRectangle(Random random) {
+        double minX = random.nextDouble() * 300 - 180;
+        double minY = random.nextDouble() * 150 - 90;
+        return _spatialContext.makeRectangle(minX, minX + random.nextDouble() * 60, minY, minY + random.nextDouble() * 30);
+    }
+
+    private static void assertSearch(SpatialRTree tree, Map<String, Point> points, Rectangle rectangle) {
+        Set<String> expected = new HashSet<String>();
+        for (Map.Entry<String, Point> entry : points.entrySet()) {
+            Point point = entry.getValue();
+            if (point.getX() >= rectangle.getMinX() && point.getX() <= rectangle.getMaxX() &&
+                    point.getY() >= rectangle.getMinY() && point.getY() <= rectangle.getMaxY())
+                expected.add(entry.getKey().substring(0, entry.getKey().lastIndexOf('_')));
+        }
+        List<SpatialRTree.Item> result = tree.search(rectangle);
+        Assert.assertEquals(expected.size(), result.size());
+        Assert.assertEquals(expected, uids(result));
+    }
+
+    private static Set<String> uids(List<SpatialRTree.Item> items) {
+        Set<String> result = new HashSet<String>();
+        for (SpatialRTree.Item item : items)
+            result.add(item.getUid());
+        return result;
+    }
+}